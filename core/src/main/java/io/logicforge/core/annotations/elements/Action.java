@@ -1,5 +1,6 @@
 package io.logicforge.core.annotations.elements;
 
+import io.logicforge.core.constant.ActionCost;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -12,4 +13,13 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 public @interface Action {
 
+  /**
+   * The kind of work the action does. Actions that block on I/O or do heavy CPU work run
+   * asynchronously, on a suitable thread, even if they return their result directly, and cheap
+   * actions returning a {@link Runnable} or {@link java.util.concurrent.Callable} may run on the
+   * calling thread (see {@link io.logicforge.core.engine.ExecutionQueue#submit(
+   * java.util.concurrent.Callable, ActionCost)}).
+   */
+  ActionCost cost() default ActionCost.UNSPECIFIED;
+
 }
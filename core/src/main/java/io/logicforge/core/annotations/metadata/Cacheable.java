@@ -0,0 +1,39 @@
+package io.logicforge.core.annotations.metadata;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks a function's results as cacheable: since functions have no side effects, a result computed
+ * for one set of arguments can be reused by later calls with equal arguments, across all executions
+ * of all processes. Suited to expensive functions, such as lookups or enrichment calls, that are
+ * frequently called with the same arguments. Arguments must implement equals and hashCode.
+ *
+ * <p>
+ * Results are held in a bounded cache (see
+ * {@link io.logicforge.core.engine.impl.FunctionCache}) owned by the process builder, whose
+ * statistics are available from
+ * {@link io.logicforge.core.engine.compile.CompilationProcessBuilder#getFunctionCacheStats()}.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+
+  /**
+   * The maximum number of results cached
+   */
+  int maxSize() default 10_000;
+
+  /**
+   * How long a result remains cached after it is computed, in {@link #ttlUnit()}s. If zero, results
+   * remain cached until evicted.
+   */
+  long ttl() default 0;
+
+  TimeUnit ttlUnit() default TimeUnit.SECONDS;
+
+}
@@ -0,0 +1,25 @@
+package io.logicforge.core.annotations.metadata;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an async action as idempotent: calling it again with equal arguments while an earlier call
+ * is still in flight has the same effect as waiting for that call. Concurrent calls with equal
+ * arguments, from any executions of any processes, are coalesced into a single call whose result
+ * they all share (see {@link io.logicforge.core.engine.impl.ActionCoalescer}). Suited to actions
+ * such as HTTP requests or lookups against downstream services, which would otherwise be called
+ * once per execution during traffic spikes. Arguments must implement equals and hashCode.
+ *
+ * <p>
+ * Only actions returning a {@link java.util.concurrent.Future} may be marked idempotent. Results
+ * are not retained once the shared call completes; later calls call the action again.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Idempotent {
+
+}
@@ -0,0 +1,20 @@
+package io.logicforge.core.annotations.metadata;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an action as cheap: when the action returns a {@link Runnable} or
+ * {@link java.util.concurrent.Callable}, the work is trivial enough that handing it to another
+ * thread costs more than running it. Execution queues that support inline execution (see
+ * {@link io.logicforge.core.engine.impl.InlineExecutionQueue}) may run such work directly on the
+ * calling thread. Equivalent to declaring the action's cost as
+ * {@link io.logicforge.core.constant.ActionCost#CPU_CHEAP}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Inline {
+
+}
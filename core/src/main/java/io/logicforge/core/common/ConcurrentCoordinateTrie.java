@@ -0,0 +1,291 @@
+package io.logicforge.core.common;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A thread-safe {@link CoordinateMap}, for maps written by several threads at once, such as an
+ * execution's variables while its async and scheduled actions complete. Single-threaded users
+ * should prefer {@link CoordinateTrie}.
+ *
+ * <p>
+ * Reads never lock. Values are held in volatile fields, and each node's children in an array
+ * whose slots are written with release semantics and read with acquire semantics, so that a reader
+ * seeing a child also sees it fully built. Arrays grow by doubling, copied into a replacement that
+ * is published before it is read. Adding or removing a child locks only the parent node, and
+ * happens once per node rather than per write. Traversals are weakly consistent: they reflect the
+ * trie at some point during the traversal, and never fail because of concurrent writes.
+ * </p>
+ *
+ * @param <V>
+ */
+public class ConcurrentCoordinateTrie<V> implements CoordinateMap<V> {
+
+  private final TrieNode<V> root = new TrieNode<>(Coordinates.ROOT);
+
+  @Override
+  public void put(final Coordinates coordinates, final V value) {
+    Objects.requireNonNull(resolveNode(coordinates, true)).value = value;
+  }
+
+  @Override
+  public V get(final Coordinates coordinates) {
+    final TrieNode<V> trieNode = resolveNode(coordinates, false);
+    return trieNode != null ? trieNode.value : null;
+  }
+
+  @Override
+  public V remove(final Coordinates coordinates) {
+    final TrieNode<V> trieNode = resolveNode(coordinates.getParent(), false);
+    if (trieNode != null) {
+      final TrieNode<V> removed = trieNode.removeChild(coordinates.getFinalIndex());
+      return removed != null ? removed.value : null;
+    }
+    return null;
+  }
+
+  @Override
+  public boolean hasValue(final Coordinates coordinates) {
+    final TrieNode<V> trieNode = resolveNode(coordinates, false);
+    return trieNode != null && trieNode.value != null;
+  }
+
+  /**
+   * Visits every value in the trie, depth first
+   */
+  @Override
+  public void forEach(final Consumer<? super V> visitor) {
+    visit(root, visitor, -1);
+  }
+
+  @Override
+  public void forEachEntry(final BiConsumer<Coordinates, ? super V> visitor) {
+    visitEntries(root, visitor);
+  }
+
+  @Override
+  public void forEachDescendant(final Coordinates root, final Consumer<? super V> visitor) {
+    visitChildren(resolveNode(root, false), visitor, -1);
+  }
+
+  @Override
+  public void forEachChild(final Coordinates root, final Consumer<? super V> visitor) {
+    visitChildren(resolveNode(root, false), visitor, 1);
+  }
+
+  /**
+   * Returns a weakly consistent iterator over every value in the trie, depth first
+   */
+  @Override
+  public Iterator<V> iterator() {
+    return new DepthFirstIterator<>(root, true);
+  }
+
+  /**
+   * Returns a weakly consistent iterator over the values of every descendant of the supplied
+   * coordinates, depth first
+   */
+  @Override
+  public Iterator<V> descendantIterator(final Coordinates root) {
+    return new DepthFirstIterator<>(resolveNode(root, false), false);
+  }
+
+  @Override
+  public Spliterator<V> spliterator() {
+    return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL
+        | Spliterator.CONCURRENT);
+  }
+
+  private static <V> void visit(final TrieNode<V> node, final Consumer<? super V> visitor,
+      final int depth) {
+    final V value = node.value;
+    if (value != null) {
+      visitor.accept(value);
+    }
+    if (depth != 1) {
+      visitChildren(node, visitor, depth - 1);
+    }
+  }
+
+  private static <V> void visitChildren(final TrieNode<V> node, final Consumer<? super V> visitor,
+      final int depth) {
+    if (node == null) {
+      return;
+    }
+    final TrieNode<V>[] children = node.children;
+    for (int i = 0; i < children.length; i++) {
+      final TrieNode<V> child = TrieNode.childAt(children, i);
+      if (child != null) {
+        visit(child, visitor, depth);
+      }
+    }
+  }
+
+  private static <V> void visitEntries(final TrieNode<V> node,
+      final BiConsumer<Coordinates, ? super V> visitor) {
+    final V value = node.value;
+    if (value != null) {
+      visitor.accept(node.coordinates, value);
+    }
+    final TrieNode<V>[] children = node.children;
+    for (int i = 0; i < children.length; i++) {
+      final TrieNode<V> child = TrieNode.childAt(children, i);
+      if (child != null) {
+        visitEntries(child, visitor);
+      }
+    }
+  }
+
+  private TrieNode<V> resolveNode(final Coordinates coordinates, boolean createIfAbsent) {
+    TrieNode<V> pointer = root;
+    final int size = coordinates.size();
+    for (int depth = 0; depth < size; depth++) {
+      final int coordinate = coordinates.get(depth);
+      TrieNode<V> child = pointer.getChild(coordinate);
+      if (child == null) {
+        if (!createIfAbsent) {
+          return null;
+        }
+        child = pointer.addChild(coordinate);
+      }
+      pointer = child;
+    }
+    return pointer;
+  }
+
+  private static class TrieNode<V> {
+
+    private static final TrieNode<?>[] NO_CHILDREN = new TrieNode<?>[0];
+    private static final VarHandle CHILD = MethodHandles.arrayElementVarHandle(TrieNode[].class);
+
+    private final Coordinates coordinates;
+    private volatile V value;
+    // indexed by child index; slots are only written under the node's lock
+    @SuppressWarnings("unchecked")
+    private volatile TrieNode<V>[] children = (TrieNode<V>[]) NO_CHILDREN;
+
+    private TrieNode(final Coordinates coordinates) {
+      this.coordinates = coordinates;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> TrieNode<V> childAt(final TrieNode<V>[] children, final int index) {
+      return (TrieNode<V>) CHILD.getAcquire(children, index);
+    }
+
+    private TrieNode<V> getChild(final int coordinate) {
+      final TrieNode<V>[] current = children;
+      return coordinate < current.length ? childAt(current, coordinate) : null;
+    }
+
+    private synchronized TrieNode<V> addChild(final int coordinate) {
+      TrieNode<V>[] current = children;
+      if (coordinate < current.length && current[coordinate] != null) {
+        // added concurrently
+        return current[coordinate];
+      }
+      if (coordinate >= current.length) {
+        current = Arrays.copyOf(current, Math.max(coordinate + 1, current.length * 2));
+        children = current;
+      }
+      final TrieNode<V> child = new TrieNode<>(coordinates.getNthChild(coordinate));
+      CHILD.setRelease(current, coordinate, child);
+      return child;
+    }
+
+    private synchronized TrieNode<V> removeChild(final int coordinate) {
+      final TrieNode<V>[] current = children;
+      if (coordinate >= current.length || current[coordinate] == null) {
+        return null;
+      }
+      final TrieNode<V> removed = current[coordinate];
+      CHILD.setRelease(current, coordinate, null);
+      return removed;
+    }
+  }
+
+
+  /**
+   * Walks the nodes below a root depth first, tracking the path from the root as a stack of the
+   * children arrays being walked and the index of the next child to visit within each
+   */
+  private static class DepthFirstIterator<V> implements Iterator<V> {
+
+    private TrieNode<V>[][] path;
+    private int[] nextChild;
+    private int depth;
+    private V pending;
+
+    @SuppressWarnings("unchecked")
+    private DepthFirstIterator(final TrieNode<V> root, final boolean includeRoot) {
+      this.path = (TrieNode<V>[][]) new TrieNode<?>[8][];
+      this.nextChild = new int[8];
+      if (root == null) {
+        depth = -1;
+        return;
+      }
+      path[0] = root.children;
+      final V rootValue = root.value;
+      if (includeRoot && rootValue != null) {
+        pending = rootValue;
+      } else {
+        advance();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return pending != null;
+    }
+
+    @Override
+    public V next() {
+      final V value = pending;
+      if (value == null) {
+        throw new NoSuchElementException();
+      }
+      advance();
+      return value;
+    }
+
+    /**
+     * Moves to the next node holding a value, or clears pending if there are none left
+     */
+    private void advance() {
+      pending = null;
+      while (depth >= 0) {
+        final TrieNode<V>[] siblings = path[depth];
+        final int index = nextChild[depth];
+        if (index >= siblings.length) {
+          depth--;
+          continue;
+        }
+        nextChild[depth] = index + 1;
+        final TrieNode<V> child = TrieNode.childAt(siblings, index);
+        if (child == null) {
+          continue;
+        }
+        if (++depth == path.length) {
+          path = Arrays.copyOf(path, depth * 2);
+          nextChild = Arrays.copyOf(nextChild, depth * 2);
+        }
+        path[depth] = child.children;
+        nextChild[depth] = 0;
+        // values are read once, so that a value cleared concurrently is never returned as null
+        final V value = child.value;
+        if (value != null) {
+          pending = value;
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package io.logicforge.core.common;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Values keyed by {@link Coordinates}, traversed along the tree the coordinates describe: depth
+ * first, parents before children and siblings in index order.
+ *
+ * @param <V>
+ * @see CoordinateTrie
+ * @see ConcurrentCoordinateTrie
+ */
+public interface CoordinateMap<V> extends Iterable<V> {
+
+  void put(final Coordinates coordinates, final V value);
+
+  V get(final Coordinates coordinates);
+
+  /**
+   * Removes the value at the supplied coordinates along with the values of all its descendants,
+   * returning the removed value
+   */
+  V remove(final Coordinates coordinates);
+
+  boolean hasValue(final Coordinates coordinates);
+
+  /**
+   * Visits every value along with its coordinates, depth first
+   */
+  void forEachEntry(final BiConsumer<Coordinates, ? super V> visitor);
+
+  /**
+   * Visits the values of every descendant of the supplied coordinates, depth first
+   */
+  void forEachDescendant(final Coordinates root, final Consumer<? super V> visitor);
+
+  /**
+   * Visits the values of the immediate children of the supplied coordinates, in index order
+   */
+  void forEachChild(final Coordinates root, final Consumer<? super V> visitor);
+
+  /**
+   * Returns an iterator over the values of every descendant of the supplied coordinates, depth
+   * first
+   */
+  Iterator<V> descendantIterator(final Coordinates root);
+
+  default List<V> values() {
+    final List<V> out = new ArrayList<>();
+    forEach(out::add);
+    return out;
+  }
+
+  default List<V> listDescendants(final Coordinates root) {
+    final List<V> out = new ArrayList<>();
+    forEachDescendant(root, out::add);
+    return out;
+  }
+
+  default List<V> listChildren(final Coordinates root) {
+    final List<V> out = new ArrayList<>();
+    forEachChild(root, out::add);
+    return out;
+  }
+
+  default Stream<V> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+}
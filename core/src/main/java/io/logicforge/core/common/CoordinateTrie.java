@@ -1,95 +1,146 @@
 package io.logicforge.core.common;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.TreeMap;
-import java.util.stream.Collectors;
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
-import lombok.Setter;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
- * A very minimal trie implementation used for tracking parent-child coordinate relationships
+ * A very minimal trie implementation used for tracking parent-child coordinate relationships.
+ *
+ * <p>
+ * Since child indexes are small and dense, each node holds its children in an array indexed by
+ * child index. Traversals visit values depth first, parents before children and siblings in index
+ * order, either through {@link #forEach} visitors or through iterators that walk the nodes in
+ * place rather than copying them into intermediate lists.
+ * </p>
  *
  * @param <V>
  */
-@RequiredArgsConstructor
-public class CoordinateTrie<V> {
+public class CoordinateTrie<V> implements CoordinateMap<V> {
 
-  private TrieNode root;
+  private final TrieNode<V> root = new TrieNode<>(Coordinates.ROOT);
 
+  @Override
   public void put(final Coordinates coordinates, final V value) {
-    Objects.requireNonNull(resolveNode(coordinates, true)).setValue(value);
+    Objects.requireNonNull(resolveNode(coordinates, true)).value = value;
   }
 
+  @Override
   public V get(final Coordinates coordinates) {
-    final TrieNode trieNode = resolveNode(coordinates, false);
-    return trieNode != null ? trieNode.getValue() : null;
+    final TrieNode<V> trieNode = resolveNode(coordinates, false);
+    return trieNode != null ? trieNode.value : null;
   }
 
+  @Override
   public V remove(final Coordinates coordinates) {
-    final TrieNode trieNode = resolveNode(coordinates.getParent(), false);
+    final TrieNode<V> trieNode = resolveNode(coordinates.getParent(), false);
     if (trieNode != null) {
-      final TrieNode removed = trieNode.removeChild(coordinates.getFinalIndex());
-      return removed != null ? removed.getValue() : null;
+      final TrieNode<V> removed = trieNode.removeChild(coordinates.getFinalIndex());
+      return removed != null ? removed.value : null;
     }
     return null;
   }
 
-  public List<V> values() {
-    final List<TrieNode> nodes = new ArrayList<>();
-    listRecursive(root, nodes, -1);
-    return nodes.stream()
-        .map(TrieNode::getValue)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+  @Override
+  public boolean hasValue(final Coordinates coordinates) {
+    final TrieNode<V> trieNode = resolveNode(coordinates, false);
+    return trieNode != null && trieNode.value != null;
   }
 
-  public List<V> listDescendants(final Coordinates root) {
-    final List<TrieNode> depthFirstChildren = new ArrayList<>();
-    final TrieNode rootNode = resolveNode(root, false);
-    if (rootNode != null) {
-      rootNode.getOrderedChildren().forEach(child -> listRecursive(child, depthFirstChildren, -1));
-    }
-    return depthFirstChildren.stream()
-        .map(TrieNode::getValue)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+  /**
+   * Visits every value in the trie, depth first
+   */
+  @Override
+  public void forEach(final Consumer<? super V> visitor) {
+    visit(root, visitor, -1);
   }
 
-  public List<V> listChildren(final Coordinates root) {
-    final List<TrieNode> depthFirstChildren = new ArrayList<>();
-    final TrieNode rootNode = resolveNode(root, false);
-    if (rootNode != null) {
-      rootNode.getOrderedChildren().forEach(child -> listRecursive(child, depthFirstChildren, 1));
-    }
-    return depthFirstChildren.stream()
-        .map(TrieNode::getValue)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+  @Override
+  public void forEachEntry(final BiConsumer<Coordinates, ? super V> visitor) {
+    visitEntries(root, visitor);
+  }
+
+  @Override
+  public void forEachDescendant(final Coordinates root, final Consumer<? super V> visitor) {
+    visitChildren(resolveNode(root, false), visitor, -1);
+  }
+
+  @Override
+  public void forEachChild(final Coordinates root, final Consumer<? super V> visitor) {
+    visitChildren(resolveNode(root, false), visitor, 1);
+  }
+
+  /**
+   * Returns an iterator over every value in the trie, depth first. The trie must not be modified
+   * while it is being iterated.
+   */
+  @Override
+  public Iterator<V> iterator() {
+    return new DepthFirstIterator<>(root, true);
+  }
+
+  @Override
+  public Iterator<V> descendantIterator(final Coordinates root) {
+    return new DepthFirstIterator<>(resolveNode(root, false), false);
   }
 
-  private void listRecursive(final TrieNode node, final List<TrieNode> out, final int depth) {
-    out.add(node);
+  @Override
+  public Spliterator<V> spliterator() {
+    return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED
+        | Spliterator.NONNULL);
+  }
+
+  private static <V> void visit(final TrieNode<V> node, final Consumer<? super V> visitor,
+      final int depth) {
+    if (node.value != null) {
+      visitor.accept(node.value);
+    }
     if (depth != 1) {
-      node.getOrderedChildren().forEach(childNode -> listRecursive(childNode, out, depth - 1));
+      visitChildren(node, visitor, depth - 1);
     }
   }
 
-  private TrieNode resolveNode(final Coordinates coordinates, boolean createIfAbsent) {
-    if (root == null) {
-      final Coordinates rootIndex = Coordinates.ROOT;
-      root = new TrieNode(rootIndex);
+  private static <V> void visitChildren(final TrieNode<V> node, final Consumer<? super V> visitor,
+      final int depth) {
+    if (node == null) {
+      return;
     }
-    TrieNode pointer = root;
-    for (final Integer coordinate : coordinates) {
-      if (pointer == null) {
-        return null;
+    final TrieNode<V>[] children = node.children;
+    for (int i = 0; i < node.childSlots; i++) {
+      if (children[i] != null) {
+        visit(children[i], visitor, depth);
       }
-      TrieNode child = pointer.getChild(coordinate);
-      if (child == null && createIfAbsent) {
+    }
+  }
+
+  private static <V> void visitEntries(final TrieNode<V> node,
+      final BiConsumer<Coordinates, ? super V> visitor) {
+    if (node.value != null) {
+      visitor.accept(node.coordinates, node.value);
+    }
+    final TrieNode<V>[] children = node.children;
+    for (int i = 0; i < node.childSlots; i++) {
+      if (children[i] != null) {
+        visitEntries(children[i], visitor);
+      }
+    }
+  }
+
+  private TrieNode<V> resolveNode(final Coordinates coordinates, boolean createIfAbsent) {
+    TrieNode<V> pointer = root;
+    final int size = coordinates.size();
+    for (int depth = 0; depth < size; depth++) {
+      final int coordinate = coordinates.get(depth);
+      TrieNode<V> child = pointer.getChild(coordinate);
+      if (child == null) {
+        if (!createIfAbsent) {
+          return null;
+        }
         child = pointer.addChild(coordinate);
       }
       pointer = child;
@@ -97,38 +148,116 @@ public class CoordinateTrie<V> {
     return pointer;
   }
 
-  public boolean hasValue(Coordinates coordinates) {
-    final TrieNode trieNode = resolveNode(coordinates, false);
-    return trieNode != null && trieNode.getValue() != null;
-  }
+  private static class TrieNode<V> {
 
-  @RequiredArgsConstructor
-  private class TrieNode {
+    private static final TrieNode<?>[] NO_CHILDREN = new TrieNode<?>[0];
 
-    @Getter
     private final Coordinates coordinates;
-    @Getter
-    @Setter
     private V value;
-    private final Map<Integer, TrieNode> childNodes = new TreeMap<>();
+    // indexed by child index; slots up to childSlots may be null where children are missing
+    @SuppressWarnings("unchecked")
+    private TrieNode<V>[] children = (TrieNode<V>[]) NO_CHILDREN;
+    private int childSlots;
 
-    public TrieNode getChild(final Integer coordinate) {
-      return childNodes.get(coordinate);
+    private TrieNode(final Coordinates coordinates) {
+      this.coordinates = coordinates;
     }
 
-    public TrieNode addChild(final Integer coordinate) {
-      final TrieNode child = new TrieNode(coordinates.getNthChild(coordinate));
-      childNodes.put(coordinate, child);
-      return child;
+    private TrieNode<V> getChild(final int coordinate) {
+      return coordinate < childSlots ? children[coordinate] : null;
     }
 
-    public TrieNode removeChild(final Integer coordinate) {
-      return childNodes.remove(coordinate);
+    private TrieNode<V> addChild(final int coordinate) {
+      if (coordinate >= children.length) {
+        children = Arrays.copyOf(children, Math.max(coordinate + 1, children.length * 2));
+      }
+      final TrieNode<V> child = new TrieNode<>(coordinates.getNthChild(coordinate));
+      children[coordinate] = child;
+      childSlots = Math.max(childSlots, coordinate + 1);
+      return child;
     }
 
-    public List<TrieNode> getOrderedChildren() {
-      return new ArrayList<>(childNodes.values());
+    private TrieNode<V> removeChild(final int coordinate) {
+      if (coordinate >= childSlots) {
+        return null;
+      }
+      final TrieNode<V> removed = children[coordinate];
+      children[coordinate] = null;
+      return removed;
     }
   }
 
+
+  /**
+   * Walks the nodes below a root depth first, tracking the path from the root as a stack of nodes
+   * and the index of the next child to visit within each
+   */
+  private static class DepthFirstIterator<V> implements Iterator<V> {
+
+    private TrieNode<V>[] path;
+    private int[] nextChild;
+    private int depth;
+    private TrieNode<V> pending;
+
+    @SuppressWarnings("unchecked")
+    private DepthFirstIterator(final TrieNode<V> root, final boolean includeRoot) {
+      this.path = (TrieNode<V>[]) new TrieNode<?>[8];
+      this.nextChild = new int[8];
+      if (root == null) {
+        depth = -1;
+        return;
+      }
+      path[0] = root;
+      if (includeRoot && root.value != null) {
+        pending = root;
+      } else {
+        advance();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return pending != null;
+    }
+
+    @Override
+    public V next() {
+      if (pending == null) {
+        throw new NoSuchElementException();
+      }
+      final V value = pending.value;
+      advance();
+      return value;
+    }
+
+    /**
+     * Moves to the next node holding a value, or clears pending if there are none left
+     */
+    private void advance() {
+      pending = null;
+      while (depth >= 0) {
+        final TrieNode<V> node = path[depth];
+        final int index = nextChild[depth];
+        if (index >= node.childSlots) {
+          depth--;
+          continue;
+        }
+        nextChild[depth] = index + 1;
+        final TrieNode<V> child = node.children[index];
+        if (child == null) {
+          continue;
+        }
+        if (++depth == path.length) {
+          path = Arrays.copyOf(path, depth * 2);
+          nextChild = Arrays.copyOf(nextChild, depth * 2);
+        }
+        path[depth] = child;
+        nextChild[depth] = 0;
+        if (child.value != null) {
+          pending = child;
+          return;
+        }
+      }
+    }
+  }
 }
@@ -1,88 +1,279 @@
 package io.logicforge.core.common;
 
-import java.util.ArrayList;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import lombok.Data;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-@Data
+/**
+ * The position of an action or block within a process, as the index of each of its ancestors
+ * within their parents, ending with its own index. Coordinates are immutable and compare by value.
+ *
+ * <p>
+ * Shallow coordinates can also be packed into a single long (see {@link #pack()}), for use as
+ * primitive map keys or as a compact serialized form.
+ * </p>
+ */
 public final class Coordinates implements Iterable<Integer> {
 
-  private static final Map<List<Integer>, Coordinates> INTERNAL = new HashMap<>();
+  /*
+   * Since Coordinates objects are immutable and iterating through parents/children would otherwise
+   * create a lot of object churn, canonical instances are kept in a fixed-size, open-addressed
+   * table shared by all threads. Lookups read without locking, and a miss claims an empty slot
+   * within its short probe range with a single compare-and-set. Once every slot in that range is
+   * taken, the new instance evicts the one in its home slot, so the table never holds more than
+   * its size and a miss never costs more than a few probes, however many coordinates have been
+   * created. Evicted instances remain valid, since coordinates compare by value.
+   *
+   * Each instance also links to its parent and caches its children as they are requested, so that
+   * walking between related coordinates only consults the table on first use. Parents are linked
+   * lazily, so creating coordinates never walks their ancestors. Children are cached weakly, since
+   * ROOT and every coordinates held elsewhere would otherwise keep all of their descendants ever
+   * requested reachable, so the caches retain only the coordinates that are still in use.
+   */
+  private static final int TABLE_SIZE = 1 << 14;
+  private static final int MAX_CACHED_CHILDREN = 64;
+  @SuppressWarnings("unchecked")
+  private static final WeakReference<Coordinates>[] NO_CHILDREN = new WeakReference[0];
+  private static final int TABLE_MASK = TABLE_SIZE - 1;
+  private static final int MAX_PROBES = 4;
+  private static final AtomicReferenceArray<Coordinates> INTERNAL = new AtomicReferenceArray<>(
+      TABLE_SIZE);
+
+  /**
+   * Returned by {@link #pack()} for coordinates that are too deep, or whose indexes are too large,
+   * to be packed
+   */
+  public static final long UNPACKABLE = -1L;
+
+  /*
+   * Packed coordinates fit in the low 53 bits, so that they survive a round trip through a
+   * JavaScript number or any other double. The top 4 of those bits hold the depth, followed by
+   * each index from the top down as a prefix code sized to the index: 0 and 3 bits for indexes
+   * below 8, 10 and 6 bits below 64, 110 and 10 bits below 1024, and 111 and 16 bits below 65536.
+   * Unused low bits are zero.
+   */
+  private static final int PACKED_BITS = 53;
+  private static final int DEPTH_BITS = 4;
+  private static final int PAYLOAD_BITS = PACKED_BITS - DEPTH_BITS;
+  // the depth reached when every index takes the shortest, 4-bit code
+  private static final int MAX_PACKED_DEPTH = PAYLOAD_BITS / 4;
 
-  public static final Coordinates ROOT = intern(Collections.emptyList());
+  public static final Coordinates ROOT = from();
 
   public static Coordinates from(final List<Integer> coordinateList) {
-    return intern(coordinateList);
+    return from(coordinateList.stream().mapToInt(Integer::intValue).toArray());
   }
 
-  public static Coordinates from(final int[] coordinateList) {
-    return intern(Arrays.stream(coordinateList).boxed().collect(Collectors.toList()));
+  public static Coordinates from(final int... coordinates) {
+    return intern(coordinates, coordinates.length, false, 0, null);
   }
 
-  public static Coordinates from(final Integer... coordinates) {
-    return intern(Arrays.stream(coordinates).collect(Collectors.toList()));
+  /**
+   * Returns the canonical Coordinates whose indexes are the first {@code length} values of
+   * {@code prefix}, followed by {@code last} if {@code appendLast} is set. The arguments are only
+   * copied if no canonical instance exists yet, so lookups of existing coordinates don't allocate.
+   * The supplied parent, if known, is linked to a newly created instance.
+   */
+  private static Coordinates intern(final int[] prefix, final int length, final boolean appendLast,
+      final int last, final Coordinates parent) {
+    int hash = 1;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + prefix[i];
+    }
+    if (appendLast) {
+      hash = 31 * hash + last;
+    }
+    final int size = appendLast ? length + 1 : length;
+    Coordinates created = null;
+    final int home = spread(hash) & TABLE_MASK;
+    int slot = home;
+    for (int probe = 0; probe < MAX_PROBES; probe++, slot = (slot + 1) & TABLE_MASK) {
+      Coordinates existing = INTERNAL.get(slot);
+      if (existing == null) {
+        if (created == null) {
+          created = create(prefix, length, appendLast, last, hash, parent);
+        }
+        if (INTERNAL.compareAndSet(slot, null, created)) {
+          return created;
+        }
+        // claimed concurrently, possibly by the same coordinates
+        existing = INTERNAL.get(slot);
+      }
+      if (existing.matches(hash, size, prefix, length, appendLast, last)) {
+        return existing;
+      }
+    }
+    if (created == null) {
+      created = create(prefix, length, appendLast, last, hash, parent);
+    }
+    INTERNAL.set(home, created);
+    return created;
+  }
+
+  private static Coordinates create(final int[] prefix, final int length, final boolean appendLast,
+      final int last, final int hash, final Coordinates parent) {
+    final int[] indexes = Arrays.copyOf(prefix, appendLast ? length + 1 : length);
+    if (appendLast) {
+      indexes[length] = last;
+    }
+    return new Coordinates(indexes, hash, parent);
   }
 
   /**
-   * Since Coordinates objects are immutable and iterating throw parents/children would otherwise
-   * create a lot of object churn, we maintain an internal cache. This method returns the canonical
-   * version of the Coordinates object representing the supplied coordinate list if it exists. If it
-   * does not exist, it will create a new object, cache it for reuse, and return the new object.
+   * Returns the coordinates packed into the supplied value by {@link #pack()}
    *
-   * @param coordinateList the list of coordinates for which we want that canonical Coordinates
-   *                       object
-   * @return the corresponding Coordinates
+   * @throws IllegalArgumentException if the value is not packed coordinates
+   */
+  public static Coordinates unpack(final long packed) {
+    if (packed < 0 || packed >>> PACKED_BITS != 0) {
+      throw new IllegalArgumentException("Not packed coordinates: " + packed);
+    }
+    final int depth = (int) (packed >>> PAYLOAD_BITS);
+    if (depth > MAX_PACKED_DEPTH) {
+      throw new IllegalArgumentException("Not packed coordinates: " + packed);
+    }
+    final int[] indexes = new int[depth];
+    // the number of payload bits not yet read
+    int remaining = PAYLOAD_BITS;
+    for (int i = 0; i < depth; i++) {
+      final int prefixBits;
+      final int valueBits;
+      if (remaining >= 1 && bits(packed, remaining, 1) == 0) {
+        prefixBits = 1;
+        valueBits = 3;
+      } else if (remaining >= 2 && bits(packed, remaining, 2) == 0b10) {
+        prefixBits = 2;
+        valueBits = 6;
+      } else if (remaining >= 3 && bits(packed, remaining, 3) == 0b110) {
+        prefixBits = 3;
+        valueBits = 10;
+      } else {
+        prefixBits = 3;
+        valueBits = 16;
+      }
+      remaining -= prefixBits + valueBits;
+      if (remaining < 0) {
+        throw new IllegalArgumentException("Not packed coordinates: " + packed);
+      }
+      indexes[i] = (int) bits(packed, remaining + valueBits, valueBits);
+    }
+    return from(indexes);
+  }
+
+  /**
+   * Returns {@code count} bits of the value, ending {@code top} bits above its lowest bit
    */
-  private static Coordinates intern(final List<Integer> coordinateList) {
-    Coordinates internal = INTERNAL.get(coordinateList);
-    if (internal == null) {
-      final List<Integer> internalListCopy = new ArrayList<>(coordinateList);
-      internal = new Coordinates(internalListCopy);
-      INTERNAL.put(internalListCopy, internal);
+  private static long bits(final long value, final int top, final int count) {
+    return (value >>> (top - count)) & ((1L << count) - 1);
+  }
+
+  private static long pack(final int[] indexes) {
+    if (indexes.length > MAX_PACKED_DEPTH) {
+      return UNPACKABLE;
+    }
+    long payload = 0L;
+    int used = 0;
+    for (final int index : indexes) {
+      final long code;
+      final int width;
+      if (index < 0 || index >= 1 << 16) {
+        return UNPACKABLE;
+      } else if (index < 1 << 3) {
+        code = index;
+        width = 4;
+      } else if (index < 1 << 6) {
+        code = 0b10L << 6 | index;
+        width = 8;
+      } else if (index < 1 << 10) {
+        code = 0b110L << 10 | index;
+        width = 13;
+      } else {
+        code = 0b111L << 16 | index;
+        width = 19;
+      }
+      used += width;
+      if (used > PAYLOAD_BITS) {
+        return UNPACKABLE;
+      }
+      payload |= code << (PAYLOAD_BITS - used);
     }
-    return internal;
+    return (long) indexes.length << PAYLOAD_BITS | payload;
   }
 
-  private final List<Integer> coordinateList;
+  private static int spread(final int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private final int[] indexes;
+  private final int hash;
+  // linked on first use. Racing threads may each look it up, which is harmless, since every field
+  // of the parent they publish is final.
+  private Coordinates parent;
+  private final long packed;
+  // children by index, grown as they are requested. Updates may race and drop an entry, which only
+  // costs a later table lookup, as does a child being collected once nothing else holds it.
+  private volatile WeakReference<Coordinates>[] children = NO_CHILDREN;
 
-  private Coordinates(final List<Integer> coordinates) {
-    this.coordinateList = coordinates;
+  private Coordinates(final int[] indexes, final int hash, final Coordinates parent) {
+    this.indexes = indexes;
+    this.hash = hash;
+    this.parent = parent;
+    this.packed = pack(indexes);
   }
 
-  private Coordinates(final int[] coordinates) {
-    this.coordinateList = Arrays.stream(coordinates).boxed().collect(Collectors.toList());
+  private boolean matches(final int hash, final int size, final int[] prefix, final int length,
+      final boolean appendLast, final int last) {
+    if (this.hash != hash || indexes.length != size) {
+      return false;
+    }
+    if (appendLast && indexes[length] != last) {
+      return false;
+    }
+    return Arrays.equals(indexes, 0, length, prefix, 0, length);
   }
 
   public Coordinates getParent() {
-    final int size = coordinateList.size();
-    if (size == 0) {
-      throw new IllegalStateException("Attempted to find the parent of the root coordinates");
+    Coordinates current = parent;
+    if (current == null) {
+      if (indexes.length == 0) {
+        throw new IllegalStateException("Attempted to find the parent of the root coordinates");
+      }
+      current = intern(indexes, indexes.length - 1, false, 0, null);
+      parent = current;
     }
-    return intern(coordinateList.subList(0, size - 1));
+    return current;
   }
 
   public Coordinates getNthChild(final int childIndex) {
-    return intern(Stream.concat(coordinateList.stream(), Stream.of(childIndex))
-        .collect(Collectors.toList()));
+    final WeakReference<Coordinates>[] cached = children;
+    if (childIndex >= 0 && childIndex < cached.length) {
+      final WeakReference<Coordinates> reference = cached[childIndex];
+      final Coordinates child = reference != null ? reference.get() : null;
+      if (child != null) {
+        return child;
+      }
+    }
+    final Coordinates child = intern(indexes, indexes.length, true, childIndex, this);
+    if (childIndex >= 0 && childIndex < MAX_CACHED_CHILDREN) {
+      final int length = Math.max(cached.length, Math.min(MAX_CACHED_CHILDREN, Math.max(4, Integer
+          .highestOneBit(childIndex) << 1)));
+      final WeakReference<Coordinates>[] grown = Arrays.copyOf(cached, length);
+      grown[childIndex] = new WeakReference<>(child);
+      children = grown;
+    }
+    return child;
   }
 
   public Coordinates getSibling(final int siblingIndex) {
-    final int size = coordinateList.size();
-    return intern(Stream.concat(coordinateList.subList(0, size - 1).stream(), Stream.of(
-        siblingIndex)).collect(Collectors.toList()));
+    return getParent().getNthChild(siblingIndex);
   }
 
   public Coordinates getAncestor() {
-    final int length = coordinateList.size();
-    final int lastSegment = coordinateList.get(length - 1);
+    final int lastSegment = indexes[indexes.length - 1];
     if (lastSegment > 0) {
       return getSibling(lastSegment - 1);
     } else {
@@ -91,21 +282,73 @@ public final class Coordinates implements Iterable<Integer> {
   }
 
   public Integer getFinalIndex() {
-    final int size = coordinateList.size();
+    final int size = indexes.length;
     if (size == 0) {
       throw new IllegalStateException(
           "Attempted to find the final segment of the root coordinates");
     }
-    return coordinateList.get(size - 1);
+    return indexes[size - 1];
+  }
+
+  /**
+   * Returns the index at the supplied depth, where 0 is the index of the top-level ancestor
+   */
+  public int get(final int depth) {
+    return indexes[depth];
   }
 
   public int size() {
-    return coordinateList.size();
+    return indexes.length;
+  }
+
+  /**
+   * Returns the coordinates packed into a single non-negative long below 2<sup>53</sup>, unique to
+   * these coordinates, or {@link #UNPACKABLE} if they don't fit. Being below 2<sup>53</sup>, packed
+   * values are exactly representable as JSON numbers. Coordinates up to 12 deep with indexes below
+   * 8 always fit, as do shallower coordinates with wider indexes up to the encoding's 49 bits of
+   * indexes; any index of 65536 or more, or a depth over 12, never does.
+   */
+  public long pack() {
+    return packed;
+  }
+
+  public boolean isPackable() {
+    return packed != UNPACKABLE;
   }
 
   @Override
   public Iterator<Integer> iterator() {
-    return coordinateList.iterator();
+    return new Iterator<>() {
+
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < indexes.length;
+      }
+
+      @Override
+      public Integer next() {
+        if (next >= indexes.length) {
+          throw new NoSuchElementException();
+        }
+        return indexes[next++];
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof Coordinates other && hash == other.hash && Arrays.equals(indexes,
+        other.indexes);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
   }
 
   @Override
@@ -114,14 +357,35 @@ public final class Coordinates implements Iterable<Integer> {
   }
 
   public String asFormattedString(final String separator) {
-    return coordinateList.stream().map(Objects::toString).collect(Collectors.joining(separator));
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < indexes.length; i++) {
+      if (i > 0) {
+        builder.append(separator);
+      }
+      builder.append(indexes[i]);
+    }
+    return builder.toString();
   }
 
+  /**
+   * Returns an unmodifiable view of the indexes
+   */
   public List<Integer> asList() {
-    return coordinateList;
+    return new AbstractList<>() {
+
+      @Override
+      public Integer get(final int index) {
+        return indexes[index];
+      }
+
+      @Override
+      public int size() {
+        return indexes.length;
+      }
+    };
   }
 
   public int[] asArray() {
-    return coordinateList.stream().mapToInt(Integer::intValue).toArray();
+    return indexes.clone();
   }
 }
@@ -0,0 +1,28 @@
+package io.logicforge.core.constant;
+
+/**
+ * The kind of work an action does, declared through
+ * {@link io.logicforge.core.annotations.elements.Action#cost()} and used to decide where the
+ * action's work runs
+ */
+public enum ActionCost {
+  /**
+   * No cost is declared; the action runs as its return type dictates
+   */
+  UNSPECIFIED,
+  /**
+   * The action does trivial CPU work, which costs less to run on the calling thread than to hand
+   * off to another
+   */
+  CPU_CHEAP,
+  /**
+   * The action blocks on I/O, and is best run on a thread that is cheap to block, such as a virtual
+   * thread
+   */
+  BLOCKING_IO,
+  /**
+   * The action does substantial CPU work, and is best run on a pool bounded by the number of
+   * processors so that it cannot starve other work
+   */
+  CPU_HEAVY
+}
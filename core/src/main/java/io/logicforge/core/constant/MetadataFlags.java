@@ -4,5 +4,9 @@ public class MetadataFlags {
 
   public static final String CATEGORY = "CATEGORY";
   public static final String INFLUENCES_RETURN_TYPE = "INFLUENCES_RETURN_TYPE";
+  public static final String INLINE = "INLINE";
+  public static final String CACHEABLE = "CACHEABLE";
+  public static final String IDEMPOTENT = "IDEMPOTENT";
+  public static final String COST = "COST";
 
 }
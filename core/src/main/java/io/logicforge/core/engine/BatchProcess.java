@@ -0,0 +1,111 @@
+package io.logicforge.core.engine;
+
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A process that can be executed over many inputs in a single call. Every compiled process
+ * implements this alongside its process interface, so that callers holding untyped argument tuples
+ * (e.g. rows read from a file) can execute them without a typed call per record.
+ *
+ * <p>
+ * Each argument tuple holds the process method's arguments in declaration order. All tuples are
+ * checked before any record is executed, so a malformed batch fails without side effects. Records
+ * are then executed in order on the calling thread, each as its own execution with its own deadline
+ * and listener events. The registered listeners and the execution timeout are read once for the
+ * whole batch rather than once per record, so a listener registered mid-batch only sees later
+ * batches. For async processes, this starts every record's execution and returns their futures.
+ * </p>
+ *
+ * @param <R> the process method's return type (boxed), or {@link Void} if it returns nothing
+ */
+public interface BatchProcess<R> {
+
+  /**
+   * Executes the process once for each argument tuple
+   *
+   * @param inputs the argument tuples
+   * @return the result of each execution, in the same order as the inputs
+   * @throws IllegalArgumentException if a tuple does not hold exactly one value per argument, or
+   *                                  holds null for a primitive argument
+   * @throws ClassCastException       if a value is not of its argument's type
+   */
+  List<R> executeBatch(final List<Object[]> inputs);
+
+  /**
+   * Executes the process once for each argument tuple
+   *
+   * @see #executeBatch(List)
+   */
+  default List<R> executeBatch(final Object[][] inputs) {
+    return executeBatch(Arrays.asList(inputs));
+  }
+
+  /**
+   * Executes the process once for a single argument tuple
+   *
+   * @see #executeBatch(List)
+   */
+  default R execute(final Object[] arguments) {
+    return executeBatch(Collections.singletonList(arguments)).getFirst();
+  }
+
+  /**
+   * Returns the batch view of a compiled process
+   *
+   * @param <R> the process method's return type (boxed), or {@link Void} if it returns nothing
+   * @throws IllegalArgumentException if the process was not compiled with batch support
+   */
+  @SuppressWarnings("unchecked")
+  static <R> BatchProcess<R> of(final Process process) {
+    if (process instanceof BatchProcess<?> batchProcess) {
+      return (BatchProcess<R>) batchProcess;
+    }
+    throw new IllegalArgumentException("Process %s does not support batch execution".formatted(
+        process.getProcessId()));
+  }
+
+  /**
+   * Checks that a batch's argument tuple holds one value of the expected type for each argument.
+   * Used by compiled processes before executing a batch.
+   *
+   * @param tuple the argument tuple
+   * @param types the process method's argument types
+   * @param index the tuple's index within the batch
+   * @return the tuple
+   */
+  static Object[] checkTuple(final Object[] tuple, final Class<?>[] types, final int index) {
+    checkArity(tuple, types.length, index);
+    for (int i = 0; i < types.length; i++) {
+      final Object value = tuple[i];
+      if (value == null) {
+        if (types[i].isPrimitive()) {
+          throw new IllegalArgumentException("Batch input %d has null for primitive argument %d"
+              .formatted(index, i));
+        }
+      } else if (!MethodType.methodType(types[i]).wrap().returnType().isInstance(value)) {
+        throw new ClassCastException("Batch input %d argument %d is a %s, expected %s".formatted(
+            index, i, value.getClass().getName(), types[i].getName()));
+      }
+    }
+    return tuple;
+  }
+
+  /**
+   * Checks that a batch's argument tuple holds the expected number of values
+   *
+   * @param tuple the argument tuple
+   * @param arity the number of arguments the process method takes
+   * @param index the tuple's index within the batch
+   * @return the tuple
+   */
+  static Object[] checkArity(final Object[] tuple, final int arity, final int index) {
+    if (tuple == null || tuple.length != arity) {
+      throw new IllegalArgumentException("Batch input %d has %s arguments, expected %d".formatted(
+          index, tuple == null ? "no" : String.valueOf(tuple.length), arity));
+    }
+    return tuple;
+  }
+}
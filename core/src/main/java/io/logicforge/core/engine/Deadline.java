@@ -0,0 +1,111 @@
+package io.logicforge.core.engine;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * A point in time by which a process execution must complete. The deadline of the execution being
+ * performed is bound to the executing thread while actions run, including actions run on an
+ * {@link ExecutionQueue}, so that actions performing their own blocking or async work can bound it
+ * by the remaining budget (see {@link #current()} and {@link #clamp(Duration)}).
+ */
+public final class Deadline {
+
+  /**
+   * A deadline that never expires
+   */
+  public static final Deadline NONE = new Deadline(Long.MAX_VALUE, false);
+
+  private static final ThreadLocal<Deadline> CURRENT = ThreadLocal.withInitial(() -> NONE);
+
+  /**
+   * Returns a deadline the supplied duration from now, or {@link #NONE} if the duration is null
+   */
+  public static Deadline after(final Duration timeout) {
+    if (timeout == null) {
+      return NONE;
+    }
+    return new Deadline(System.nanoTime() + timeout.toNanos(), true);
+  }
+
+  /**
+   * Returns the deadline of the execution the current thread is performing work for, or
+   * {@link #NONE} if there is none
+   */
+  public static Deadline current() {
+    return CURRENT.get();
+  }
+
+  private final long expiresAtNanos;
+  private final boolean bounded;
+
+  private Deadline(final long expiresAtNanos, final boolean bounded) {
+    this.expiresAtNanos = expiresAtNanos;
+    this.bounded = bounded;
+  }
+
+  public boolean isBounded() {
+    return bounded;
+  }
+
+  public boolean isExpired() {
+    return bounded && expiresAtNanos - System.nanoTime() <= 0;
+  }
+
+  /**
+   * Returns the time remaining before this deadline expires (never negative), or null if it never
+   * expires
+   */
+  public Duration remaining() {
+    if (!bounded) {
+      return null;
+    }
+    return Duration.ofNanos(Math.max(0L, expiresAtNanos - System.nanoTime()));
+  }
+
+  /**
+   * Returns the lesser of the supplied timeout and the time remaining before this deadline. Either
+   * may be unbounded, represented by null; null is returned only if both are.
+   */
+  public Duration clamp(final Duration timeout) {
+    final Duration remaining = remaining();
+    if (remaining == null) {
+      return timeout;
+    }
+    return timeout == null || remaining.compareTo(timeout) < 0 ? remaining : timeout;
+  }
+
+  /**
+   * Binds this deadline to the current thread until the returned scope is closed, at which point
+   * the previously bound deadline is restored
+   */
+  public Scope bind() {
+    final Deadline previous = CURRENT.get();
+    CURRENT.set(this);
+    return () -> CURRENT.set(previous);
+  }
+
+  /**
+   * Calls the supplied callable with this deadline bound to the current thread
+   */
+  public <T> T call(final Callable<T> callable) throws Exception {
+    try (final Scope ignored = bind()) {
+      return callable.call();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return bounded ? "Deadline{remaining=" + remaining() + "}" : "Deadline{none}";
+  }
+
+  /**
+   * A deadline binding, restoring the previous binding when closed
+   */
+  @FunctionalInterface
+  public interface Scope extends AutoCloseable {
+
+    @Override
+    void close();
+  }
+}
@@ -0,0 +1,241 @@
+package io.logicforge.core.engine;
+
+import io.logicforge.core.exception.EngineConfigurationException;
+import io.logicforge.core.exception.ProcessConstructionException;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import io.logicforge.core.model.domain.specification.EngineSpec;
+import io.logicforge.core.model.domain.specification.EngineSpecBuilder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds an engine's spec, and the processes built from it, as a series of immutable versions, so
+ * that providers can be added to or removed from a running engine without rebuilding every
+ * process.
+ *
+ * <p>
+ * Each update copies the current spec into an {@link EngineSpecBuilder} (see
+ * {@link EngineSpecBuilder#from(EngineSpec)}), applies the update, and builds the next version's
+ * spec, which shares the specs of the callables and converters the update left unchanged. Only the
+ * processes that use a process interface, action, function or type the update changed, or a type
+ * whose converters it changed, as recorded in the version's {@link ProcessDependencyIndex}, are
+ * rebuilt against the new spec; the others are carried over as they are. The new version is
+ * published only once every affected process has been
+ * rebuilt, so an update that leaves a process unbuildable, such as one removing an action the
+ * process calls, fails without changing the current version.
+ * </p>
+ *
+ * <p>
+ * Reading the current version never locks, while updates and process registrations are applied
+ * one at a time. Processes keep running against the spec they were built with, so callers should
+ * fetch processes from the registry by ID (see {@link #getProcess(Object, Class)}) rather than
+ * holding on to them, to pick up rebuilt processes.
+ * </p>
+ */
+@Slf4j
+public class EngineSpecRegistry {
+
+  /**
+   * A change to an engine's spec, applied to a builder holding the current spec
+   */
+  @FunctionalInterface
+  public interface SpecUpdate {
+
+    void apply(final EngineSpecBuilder builder) throws EngineConfigurationException;
+  }
+
+
+  /**
+   * A process built through the registry
+   *
+   * @param config  the process's configuration
+   * @param process the built process
+   * @param version the number of the version whose spec the process was built against
+   * @param <T>     the process's interface
+   */
+  public record RegisteredProcess<T extends Process>(ProcessConfig<T, ?> config, T process,
+                                                     long version) {
+  }
+
+
+  /**
+   * An immutable version of the registry
+   *
+   * @param number         the version's number, incremented with each change to the registry
+   * @param engineSpec     the version's spec
+   * @param processBuilder the builder of processes against the version's spec
+   * @param processes      the registered processes, by ID
+   * @param dependencies   the parts of the spec used by each registered process
+   */
+  public record Version(long number, EngineSpec engineSpec, ProcessBuilder processBuilder,
+                        Map<Object, RegisteredProcess<?>> processes,
+                        ProcessDependencyIndex dependencies) {
+  }
+
+  private final Function<EngineSpec, ProcessBuilder> processBuilderFactory;
+  private final ExecutionQueue executionQueue;
+  private final ReentrantLock updateLock = new ReentrantLock();
+
+  private volatile Version current;
+
+  /**
+   * @param engineSpec            the initial spec
+   * @param processBuilderFactory creates the builder of processes for each version's spec
+   * @param executionQueue        the queue processes are built to execute on
+   */
+  public EngineSpecRegistry(final EngineSpec engineSpec,
+      final Function<EngineSpec, ProcessBuilder> processBuilderFactory,
+      final ExecutionQueue executionQueue) {
+    this.processBuilderFactory = processBuilderFactory;
+    this.executionQueue = executionQueue;
+    this.current = new Version(0, engineSpec, processBuilderFactory.apply(engineSpec), Map.of(),
+        ProcessDependencyIndex.EMPTY);
+  }
+
+  public Version getCurrentVersion() {
+    return current;
+  }
+
+  public EngineSpec getEngineSpec() {
+    return current.engineSpec();
+  }
+
+  /**
+   * Returns the current build of the process registered with the ID, or null if there is none
+   *
+   * @throws ClassCastException if the process does not implement the supplied interface
+   */
+  public <T extends Process> T getProcess(final Object id, final Class<T> processInterface) {
+    final RegisteredProcess<?> registered = current.processes().get(id);
+    return registered != null ? processInterface.cast(registered.process()) : null;
+  }
+
+  /**
+   * Builds the process against the current spec and registers it under its configuration's ID,
+   * replacing any process already registered under that ID
+   *
+   * @param config the process's configuration, which must have an ID
+   * @return the built process
+   */
+  public <T extends Process> T buildProcess(final ProcessConfig<T, ?> config)
+      throws ProcessConstructionException {
+    final Object id = Objects.requireNonNull(config.getId(), "Registered processes require an ID");
+    updateLock.lock();
+    try {
+      final Version previous = current;
+      final RegisteredProcess<T> registered = build(config, previous);
+      final Map<Object, RegisteredProcess<?>> processes = new HashMap<>(previous.processes());
+      processes.put(id, registered);
+      current = new Version(previous.number() + 1, previous.engineSpec(), previous.processBuilder(),
+          Collections.unmodifiableMap(processes), previous.dependencies()
+              .with(id, ProcessDependencyIndex.dependenciesOf(config, previous.engineSpec())));
+      return registered.process();
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  /**
+   * Unregisters the process. Callers already holding the process may continue to use it.
+   *
+   * @return whether a process was registered with the ID
+   */
+  public boolean removeProcess(final Object id) {
+    updateLock.lock();
+    try {
+      final Version previous = current;
+      if (!previous.processes().containsKey(id)) {
+        return false;
+      }
+      final Map<Object, RegisteredProcess<?>> processes = new HashMap<>(previous.processes());
+      processes.remove(id);
+      current = new Version(previous.number() + 1, previous.engineSpec(), previous.processBuilder(),
+          Collections.unmodifiableMap(processes), previous.dependencies().without(id));
+      return true;
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  /**
+   * Applies the update to the current spec, rebuilding the registered processes it affects, and
+   * publishes the result as the new current version
+   *
+   * @param update the change to apply
+   * @return the new version
+   * @throws EngineConfigurationException if the update could not be applied
+   * @throws ProcessConstructionException if an affected process could not be rebuilt against the
+   *                                      updated spec, in which case the current version is
+   *                                      unchanged
+   */
+  public Version update(final SpecUpdate update) throws EngineConfigurationException,
+      ProcessConstructionException {
+    updateLock.lock();
+    try {
+      final Version previous = current;
+      final EngineSpecBuilder builder = EngineSpecBuilder.from(previous.engineSpec());
+      update.apply(builder);
+      final EngineSpec engineSpec = builder.build();
+      final Version building = new Version(previous.number() + 1, engineSpec, processBuilderFactory
+          .apply(engineSpec), previous.processes(), previous.dependencies());
+
+      final Set<Object> affected = previous.dependencies()
+          .affectedBy(previous.engineSpec(), engineSpec);
+      final Map<Object, RegisteredProcess<?>> processes = new HashMap<>(previous.processes());
+      ProcessDependencyIndex dependencies = previous.dependencies();
+      for (final Object id : affected) {
+        checkAvailable(id, previous.dependencies().get(id), engineSpec);
+      }
+      for (final Object id : affected) {
+        final RegisteredProcess<?> rebuilt = build(previous.processes().get(id).config(), building);
+        processes.put(id, rebuilt);
+        dependencies = dependencies.with(id, ProcessDependencyIndex.dependenciesOf(rebuilt.config(),
+            engineSpec));
+      }
+      log.info("Updated engine spec to version {}, rebuilding {} of {} processes", building
+          .number(), affected.size(), processes.size());
+      current = new Version(building.number(), engineSpec, building.processBuilder(), Collections
+          .unmodifiableMap(processes), dependencies);
+      return current;
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  /**
+   * Checks that the updated spec still holds everything the process uses, since processes are
+   * otherwise only found to be unbuildable partway through building them
+   */
+  private static void checkAvailable(final Object id,
+      final ProcessDependencyIndex.Dependencies dependencies, final EngineSpec engineSpec)
+      throws ProcessConstructionException {
+    if (!engineSpec.getProcesses().containsKey(dependencies.process())) {
+      throw new ProcessConstructionException("Process %s implements %s, which the update removes"
+          .formatted(id, dependencies.process()));
+    }
+    for (final String action : dependencies.actions()) {
+      if (!engineSpec.getActions().containsKey(action)) {
+        throw new ProcessConstructionException(
+            "Process %s calls action %s, which the update removes".formatted(id, action));
+      }
+    }
+    for (final String function : dependencies.functions()) {
+      if (!engineSpec.getFunctions().containsKey(function)) {
+        throw new ProcessConstructionException(
+            "Process %s calls function %s, which the update removes".formatted(id, function));
+      }
+    }
+  }
+
+  private <T extends Process> RegisteredProcess<T> build(final ProcessConfig<T, ?> config,
+      final Version version) throws ProcessConstructionException {
+    return new RegisteredProcess<>(config, version.processBuilder()
+        .buildProcess(config, executionQueue), version.number());
+  }
+}
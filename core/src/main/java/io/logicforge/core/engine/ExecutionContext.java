@@ -2,6 +2,11 @@ package io.logicforge.core.engine;
 
 import io.logicforge.core.common.Coordinates;
 import io.logicforge.core.exception.MissingVariableException;
+import io.logicforge.core.exception.ProcessExecutionException;
+import io.logicforge.core.exception.ProcessTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 /**
  * <p>
@@ -45,7 +50,7 @@ import io.logicforge.core.exception.MissingVariableException;
  * started, are given coordinates made up of a single negative integer ({@code [-1], [-2], [-3]})
  * </p>
  */
-public interface ExecutionContext {
+public interface ExecutionContext extends AutoCloseable {
 
   /**
    * Checks whether the resulting coordinate has both completed and outputted a non-null output
@@ -78,10 +83,125 @@ public interface ExecutionContext {
 
   void setVariable(final Coordinates coordinates, final Object value);
 
+  /**
+   * Stores the output of the named action. If the output is async, it is bounded by the action's
+   * timeout (see {@link LogicForgeOptions}), capped at the execution's remaining budget; if that
+   * elapses before the action completes, the action is cancelled.
+   *
+   * @param coordinates the action's coordinates, as defined above
+   * @param actionName  the name of the action's spec, used to look up its timeout
+   * @param value       the action's output
+   * @throws ProcessTimeoutException if the execution's deadline has already passed
+   */
+  void setVariable(final Coordinates coordinates, final String actionName, final Object value)
+      throws ProcessTimeoutException;
+
+  /**
+   * Runs the named action immediately and stores its output as if by
+   * {@link #setVariable(Coordinates, String, Object)}, reporting the call to the execution's
+   * {@link ExecutionListener} if one was registered when the execution started. Compiled processes
+   * call each action that doesn't wait on another through this while a listener is registered, with
+   * its arguments already evaluated, and otherwise store its output directly.
+   *
+   * @param coordinates the action's coordinates, as defined above
+   * @param actionName  the name of the action's spec
+   * @param action      evaluates the action's arguments and calls it, returning its output
+   * @throws ProcessTimeoutException if the execution's deadline has already passed
+   */
+  void traceAction(final Coordinates coordinates, final String actionName,
+      final Supplier<Object> action) throws ProcessTimeoutException;
+
+  /**
+   * Runs the named action once the actions it depends on have completed, storing its output as if
+   * by {@link #setVariable(Coordinates, String, Object)}. Until then, the action's variable holds a
+   * future of its eventual output, so that actions depending on it are in turn scheduled rather
+   * than blocking the calling thread. If the dependencies have already completed, the action runs
+   * immediately on the calling thread; otherwise it is submitted to the execution's queue once they
+   * have.
+   *
+   * <p>
+   * If a dependency fails, the action does not run and its variable fails likewise. Failures of
+   * scheduled actions fail the execution once it is awaited (see {@link #await()}).
+   * </p>
+   *
+   * @param coordinates  the action's coordinates, as defined above
+   * @param actionName   the name of the action's spec, used to look up its timeout
+   * @param dependencies the coordinates of the actions whose variables the action reads
+   * @param action       evaluates the action's arguments and calls it, returning its output
+   */
+  void scheduleAction(final Coordinates coordinates, final String actionName,
+      final Coordinates[] dependencies, final Supplier<Object> action);
+
+  /**
+   * Returns the deadline by which this execution must complete
+   */
+  Deadline getDeadline();
+
+  /**
+   * Blocks the calling thread until all async actions queued by this context have completed
+   *
+   * @throws ProcessTimeoutException   if the execution's deadline passes first, in which case all
+   *                                   pending actions are cancelled
+   * @throws ProcessExecutionException if a scheduled action failed (see
+   *                                   {@link #scheduleAction(Coordinates, String, Coordinates[],
+   *                                   Supplier)})
+   */
   void await();
 
+  /**
+   * Returns a future that completes once all async actions queued by this context have completed.
+   * Unlike {@link #await()}, this never blocks the calling thread, allowing async processes to
+   * continue once the queued work is done.
+   */
+  CompletableFuture<Void> awaitAsync();
+
+  /**
+   * Returns a future that completes once the execution has been admitted to its queue, or fails
+   * with an {@link io.logicforge.core.exception.ExecutionRejectedException} if it was refused.
+   * Async processes chain their first executable onto this future, so that waiting for admission
+   * never blocks the caller.
+   */
+  CompletableFuture<Void> admitted();
+
+  /**
+   * Returns a CompletableFuture that completes with the result of the supplied plain future, which
+   * is waited on by a task on this execution's queue
+   */
+  CompletableFuture<Object> bridge(final Future<?> future);
+
+  /**
+   * Returns a future that completes once the actions at the supplied coordinates have completed,
+   * after which their variables can be read without blocking. Coordinates that have not been set,
+   * or whose actions are not async, are treated as already completed.
+   *
+   * @param coordinates the coordinates of the actions to wait on, as defined above
+   * @return a future completing once all referenced actions have completed
+   */
+  CompletableFuture<Void> whenActionsCompleted(final Coordinates... coordinates);
+
+  /**
+   * Reports a function call that started at the supplied time to the execution's listener.
+   * Compiled processes only time function calls while a listener is registered.
+   */
+  void reportFunction(final String functionName, final long startNanos);
+
   <T> T convert(final Object value, final Class<T> type);
 
   boolean canConvert(final Object value, final Class<?> type);
 
+  /**
+   * Records a failure that ended the execution, which is reported to the execution's listener once
+   * it is closed, unless an earlier failure was observed. Compiled processes record anything thrown
+   * out of the process, including failures evaluating arguments outside of any action call.
+   */
+  void recordFailure(final Throwable failure);
+
+  /**
+   * Ends the execution, releasing its admission to the queue (see {@link ExecutionQueue#admit()}).
+   * Called once the process has completed, whether normally or exceptionally. An admission still
+   * pending when the execution ends is released once granted.
+   */
+  @Override
+  void close();
+
 }
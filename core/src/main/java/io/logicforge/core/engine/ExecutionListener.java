@@ -0,0 +1,111 @@
+package io.logicforge.core.engine;
+
+import io.logicforge.core.common.Coordinates;
+
+/**
+ * Receives events as processes execute, such as for tracing which actions of a process are slow.
+ * Listeners are registered with {@link ExecutionListeners}; while none are registered, compiled
+ * processes call actions and functions directly, without going through the context's reporting.
+ *
+ * <p>
+ * Events of a single execution share its {@link ExecutionContext}, which can be used to correlate
+ * them. They may be reported from any thread that runs part of the execution, including
+ * concurrently for async actions, so implementations must be thread-safe, and should return quickly
+ * since they run inline with the execution. Durations are measured with {@link System#nanoTime()}.
+ * </p>
+ */
+public interface ExecutionListener {
+
+  /**
+   * Called when an execution starts, before any of its actions run
+   *
+   * @param context   the execution's context
+   * @param processId the ID of the executing process (see {@link Process#getProcessId()})
+   */
+  default void processStarted(final ExecutionContext context, final String processId) {
+  }
+
+  /**
+   * Called when an execution ends, whether normally or exceptionally
+   *
+   * @param context       the execution's context
+   * @param processId     the ID of the executing process
+   * @param durationNanos the time since the execution started
+   * @param error         the first failure observed during the execution, or null if none was
+   */
+  default void processCompleted(final ExecutionContext context, final String processId,
+      final long durationNanos, final Throwable error) {
+  }
+
+  /**
+   * Called when an action is called
+   *
+   * @param context     the execution's context
+   * @param coordinates the action's coordinates
+   * @param actionName  the name of the action's spec
+   */
+  default void actionStarted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName) {
+  }
+
+  /**
+   * Called when an action returns or throws. For async actions, this is when the action returned
+   * its async work, which is then reported by {@link #asyncSubmitted} and {@link #asyncCompleted}.
+   *
+   * @param context       the execution's context
+   * @param coordinates   the action's coordinates
+   * @param actionName    the name of the action's spec
+   * @param durationNanos the time the call took, excluding the evaluation of its arguments
+   * @param error         the exception the action threw, or null if it returned
+   */
+  default void actionCompleted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName, final long durationNanos, final Throwable error) {
+  }
+
+  /**
+   * Called when an action's async work is queued, or its future is tracked
+   *
+   * @param context     the execution's context
+   * @param coordinates the action's coordinates
+   * @param actionName  the name of the action's spec
+   */
+  default void asyncSubmitted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName) {
+  }
+
+  /**
+   * Called when an action's async work completes, fails or is cancelled
+   *
+   * @param context       the execution's context
+   * @param coordinates   the action's coordinates
+   * @param actionName    the name of the action's spec
+   * @param durationNanos the time since the work was submitted, including any time spent queued
+   * @param error         the work's failure, or null if it succeeded
+   */
+  default void asyncCompleted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName, final long durationNanos, final Throwable error) {
+  }
+
+  /**
+   * Called when a function returns
+   *
+   * @param context       the execution's context
+   * @param functionName  the name of the function's spec
+   * @param durationNanos the time the call took, excluding the evaluation of its arguments
+   */
+  default void functionCompleted(final ExecutionContext context, final String functionName,
+      final long durationNanos) {
+  }
+
+  /**
+   * Called when a value is converted by a registered converter
+   *
+   * @param context       the execution's context
+   * @param inputType     the type of the converted value
+   * @param outputType    the type it was converted to
+   * @param durationNanos the time the conversion took
+   */
+  default void converted(final ExecutionContext context, final Class<?> inputType,
+      final Class<?> outputType, final long durationNanos) {
+  }
+}
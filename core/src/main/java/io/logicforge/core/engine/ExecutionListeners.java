@@ -0,0 +1,147 @@
+package io.logicforge.core.engine;
+
+import io.logicforge.core.common.Coordinates;
+import io.logicforge.core.engine.jfr.JfrExecutionListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@link ExecutionListener}s registered with a process builder, which may be added and removed
+ * while its processes are executing. Each execution reads the current listener once, when it
+ * starts, so registration takes effect from the next execution on.
+ *
+ * <p>
+ * While a running JDK Flight Recorder recording enables LogicForge's execution events,
+ * {@link JfrExecutionListener} is included alongside the registered listeners, so that executions
+ * are recorded as JFR events.
+ * </p>
+ */
+public final class ExecutionListeners {
+
+  // held weakly, so that discarded builders' registries can be collected
+  private static final Set<ExecutionListeners> INSTANCES = Collections.newSetFromMap(
+      new WeakHashMap<>());
+
+  static {
+    JfrExecutionListener.onEnabledStateChanged(ExecutionListeners::refreshAll);
+  }
+
+  private final List<ExecutionListener> listeners = new CopyOnWriteArrayList<>();
+  private volatile ExecutionListener current;
+
+  public ExecutionListeners() {
+    synchronized (INSTANCES) {
+      INSTANCES.add(this);
+    }
+    refresh();
+  }
+
+  public void add(final ExecutionListener listener) {
+    listeners.add(listener);
+    refresh();
+  }
+
+  public void remove(final ExecutionListener listener) {
+    listeners.remove(listener);
+    refresh();
+  }
+
+  /**
+   * Returns the listener that receives events for executions starting now, which forwards them to
+   * every registered listener, or null if none are registered
+   */
+  public ExecutionListener current() {
+    return current;
+  }
+
+  private static void refreshAll() {
+    final List<ExecutionListeners> instances;
+    synchronized (INSTANCES) {
+      instances = new ArrayList<>(INSTANCES);
+    }
+    instances.forEach(ExecutionListeners::refresh);
+  }
+
+  private synchronized void refresh() {
+    final List<ExecutionListener> active = new ArrayList<>(listeners);
+    if (JfrExecutionListener.isEnabled()) {
+      active.add(JfrExecutionListener.INSTANCE);
+    }
+    final ExecutionListener[] registered = active.toArray(ExecutionListener[]::new);
+    current = switch (registered.length) {
+      case 0 -> null;
+      case 1 -> registered[0];
+      default -> new Composite(registered);
+    };
+  }
+
+  private record Composite(ExecutionListener[] listeners) implements ExecutionListener {
+
+    @Override
+    public void processStarted(final ExecutionContext context, final String processId) {
+      for (final ExecutionListener listener : listeners) {
+        listener.processStarted(context, processId);
+      }
+    }
+
+    @Override
+    public void processCompleted(final ExecutionContext context, final String processId,
+        final long durationNanos, final Throwable error) {
+      for (final ExecutionListener listener : listeners) {
+        listener.processCompleted(context, processId, durationNanos, error);
+      }
+    }
+
+    @Override
+    public void actionStarted(final ExecutionContext context, final Coordinates coordinates,
+        final String actionName) {
+      for (final ExecutionListener listener : listeners) {
+        listener.actionStarted(context, coordinates, actionName);
+      }
+    }
+
+    @Override
+    public void actionCompleted(final ExecutionContext context, final Coordinates coordinates,
+        final String actionName, final long durationNanos, final Throwable error) {
+      for (final ExecutionListener listener : listeners) {
+        listener.actionCompleted(context, coordinates, actionName, durationNanos, error);
+      }
+    }
+
+    @Override
+    public void asyncSubmitted(final ExecutionContext context, final Coordinates coordinates,
+        final String actionName) {
+      for (final ExecutionListener listener : listeners) {
+        listener.asyncSubmitted(context, coordinates, actionName);
+      }
+    }
+
+    @Override
+    public void asyncCompleted(final ExecutionContext context, final Coordinates coordinates,
+        final String actionName, final long durationNanos, final Throwable error) {
+      for (final ExecutionListener listener : listeners) {
+        listener.asyncCompleted(context, coordinates, actionName, durationNanos, error);
+      }
+    }
+
+    @Override
+    public void functionCompleted(final ExecutionContext context, final String functionName,
+        final long durationNanos) {
+      for (final ExecutionListener listener : listeners) {
+        listener.functionCompleted(context, functionName, durationNanos);
+      }
+    }
+
+    @Override
+    public void converted(final ExecutionContext context, final Class<?> inputType,
+        final Class<?> outputType, final long durationNanos) {
+      for (final ExecutionListener listener : listeners) {
+        listener.converted(context, inputType, outputType, durationNanos);
+      }
+    }
+  }
+}
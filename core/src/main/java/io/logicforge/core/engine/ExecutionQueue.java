@@ -1,6 +1,11 @@
 package io.logicforge.core.engine;
 
+import io.logicforge.core.constant.ActionCost;
+import io.logicforge.core.exception.ExecutionRejectedException;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import java.time.Duration;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 public interface ExecutionQueue {
@@ -9,4 +14,114 @@ public interface ExecutionQueue {
 
   Future<?> submit(final Runnable runnable);
 
+  /**
+   * Submits work known to be cheap, which the queue may choose to run directly on the calling
+   * thread rather than handing it off. By default, this is equivalent to {@link #submit(Callable)}.
+   */
+  default <T> Future<T> submitInline(final Callable<T> callable) {
+    return submit(callable);
+  }
+
+  /**
+   * Submits an action's work along with the action's declared cost, which the queue may use to
+   * choose where the work runs. By default, cheap work is submitted as by
+   * {@link #submitInline(Callable)}, and all other work as by {@link #submit(Callable)}.
+   */
+  default <T> Future<T> submit(final Callable<T> callable, final ActionCost cost) {
+    return cost == ActionCost.CPU_CHEAP ? submitInline(callable) : submit(callable);
+  }
+
+  /**
+   * Requests that previously submitted work that has not yet started be run on the calling thread,
+   * typically because the caller is about to block waiting on it anyway. By default, this is not
+   * supported.
+   *
+   * @param future the future returned when the work was submitted
+   * @return whether the work has completed on return
+   */
+  default boolean runInline(final Future<?> future) {
+    return false;
+  }
+
+  /**
+   * Returns whether the queue is currently unable to start submitted work without it waiting (or
+   * being rejected). Queues that cannot tell return false.
+   */
+  default boolean isSaturated() {
+    return false;
+  }
+
+  /**
+   * Returns whether this queue, or any queue it decorates, schedules or limits the work submitted
+   * to it, and so must see all of that work rather than be bypassed by a decorator routing some of
+   * it elsewhere (see {@link io.logicforge.core.engine.impl.CostAwareExecutionQueue}). Decorators
+   * return their delegate's answer. By default, the queue does neither.
+   */
+  default boolean schedulesWork() {
+    return false;
+  }
+
+  /**
+   * Returns a view of this queue used by all executions of the supplied process, allowing the queue
+   * to apply per-process policies. By default, the queue itself is returned.
+   */
+  default ExecutionQueue forProcess(final ProcessConfig<?, ?> processConfig) {
+    return this;
+  }
+
+  /**
+   * Called before a process execution starts, admitting it to run. The returned permit is closed
+   * once the execution completes. By default, every execution is admitted immediately.
+   *
+   * @return the execution's permit
+   * @throws ExecutionRejectedException if the execution is refused admission
+   */
+  default Permit admit() throws ExecutionRejectedException {
+    return Permit.NONE;
+  }
+
+  /**
+   * Called before an asynchronous process execution starts, admitting it to run without blocking
+   * the calling thread. The returned future completes with the execution's permit once it is
+   * admitted, or fails with an {@link ExecutionRejectedException} if it is refused admission. By
+   * default, admission is decided by {@link #admit()} on the calling thread.
+   *
+   * @return the execution's eventual permit
+   */
+  default CompletableFuture<Permit> admitAsync() {
+    try {
+      return CompletableFuture.completedFuture(admit());
+    } catch (final ExecutionRejectedException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Stops accepting new work and waits up to the supplied grace period for queued and executing
+   * work to drain. Any work still outstanding after the grace period is cancelled, interrupting
+   * executing threads. By default, the queue is assumed not to own the threads running its work, so
+   * there is nothing to shut down and this returns true immediately.
+   *
+   * @param gracePeriod how long to wait for outstanding work to complete
+   * @return whether all outstanding work completed within the grace period
+   * @throws InterruptedException if interrupted while waiting
+   */
+  default boolean shutdown(final Duration gracePeriod) throws InterruptedException {
+    return true;
+  }
+
+
+  /**
+   * Admission of a single process execution, released when closed
+   */
+  @FunctionalInterface
+  interface Permit extends AutoCloseable {
+
+    Permit NONE = () -> {
+    };
+
+    @Override
+    void close();
+  }
+
 }
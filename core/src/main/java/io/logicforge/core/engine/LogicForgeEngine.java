@@ -1,8 +1,12 @@
 package io.logicforge.core.engine;
 
+import io.logicforge.core.engine.impl.SimpleExecutionQueue;
+import io.logicforge.core.engine.impl.VirtualThreadExecutionQueue;
 import io.logicforge.core.exception.ProcessConstructionException;
 import io.logicforge.core.model.domain.config.ProcessConfig;
 import io.logicforge.core.model.domain.specification.EngineSpec;
+import java.util.concurrent.ExecutorService;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -15,11 +19,65 @@ public class LogicForgeEngine {
 
   private final EngineSpec engineSpec;
   private final ProcessBuilder processBuilder;
+  @Getter
   private final ExecutionQueue executionQueue;
+  private final LogicForgeOptions options;
+
+  /**
+   * Creates an engine that executes async actions on the supplied platform thread pool
+   */
+  public static LogicForgeEngine withExecutorService(final EngineSpec engineSpec,
+      final ProcessBuilder processBuilder, final ExecutorService executorService,
+      final LogicForgeOptions options) {
+    return new LogicForgeEngine(engineSpec, processBuilder, new SimpleExecutionQueue(
+        executorService), options);
+  }
+
+  /**
+   * Creates an engine that executes each async action on its own virtual thread, with at most
+   * maxConcurrency actions executing at once. Suited to I/O-bound actions.
+   */
+  public static LogicForgeEngine withVirtualThreads(final EngineSpec engineSpec,
+      final ProcessBuilder processBuilder, final int maxConcurrency,
+      final LogicForgeOptions options) {
+    return new LogicForgeEngine(engineSpec, processBuilder, new VirtualThreadExecutionQueue(
+        maxConcurrency), options);
+  }
+
+  public LogicForgeEngine(final EngineSpec engineSpec, final ProcessBuilder processBuilder,
+      final ExecutionQueue executionQueue) {
+    this(engineSpec, processBuilder, executionQueue, LogicForgeOptions.DEFAULT);
+  }
 
   public <T extends Process> T buildProcess(final ProcessConfig<T, ?> config)
       throws ProcessConstructionException {
     return processBuilder.buildProcess(config, executionQueue);
   }
 
+  /**
+   * Returns an adapter that executes the supplied process over feeds of inputs, running each
+   * execution of a sync process on its own virtual thread
+   *
+   * @param process     a process built by this engine
+   * @param maxInFlight the maximum number of executions started but not yet emitted
+   * @param ordering    the order in which results are emitted
+   * @param <R>         the process's result type; for async processes, the type their futures
+   *                    complete with
+   */
+  public <R> StreamingProcess<R> streaming(final Process process, final int maxInFlight,
+      final StreamingProcess.Ordering ordering) {
+    return new StreamingProcess<>(process, maxInFlight, ordering);
+  }
+
+  /**
+   * Shuts down the engine's execution queue, giving outstanding actions the configured
+   * {@link LogicForgeOptions#shutdownGracePeriod()} to complete before they are cancelled
+   *
+   * @return whether all outstanding actions completed within the grace period
+   */
+  public boolean shutdown() throws InterruptedException {
+    log.info("Shutting down, draining execution queue for up to {}", options.shutdownGracePeriod());
+    return executionQueue.shutdown(options.shutdownGracePeriod());
+  }
+
 }
@@ -2,10 +2,50 @@ package io.logicforge.core.engine;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.Objects;
 
+/**
+ * Engine-wide execution options.
+ *
+ * @param defaultActionTimeout   the maximum time an async action may run before it is cancelled,
+ *                               or null for no limit
+ * @param actionTimeoutOverrides per-action timeouts, keyed by action name, that take precedence
+ *                               over the default
+ * @param shutdownGracePeriod    how long queued and executing actions are given to complete when
+ *                               the engine shuts down before they are interrupted
+ * @param executionTimeout       the maximum time a single process execution may run, or null for
+ *                               no limit. Action timeouts are capped at the execution's remaining
+ *                               budget.
+ * @param lightweightExceptions  whether expected, data-driven failures to resolve or convert a
+ *                               variable throw exceptions without stack traces. Rule sets probing
+ *                               many optional values otherwise spend much of their time filling
+ *                               in traces that are discarded. Failures indicating an engine or
+ *                               converter fault always carry full traces.
+ */
 public record LogicForgeOptions(Duration defaultActionTimeout,
                                 Map<String, Duration> actionTimeoutOverrides,
-                                Duration shutdownGracePeriod) {
+                                Duration shutdownGracePeriod, Duration executionTimeout,
+                                boolean lightweightExceptions) {
+
+  public static final LogicForgeOptions DEFAULT = new LogicForgeOptions(null, Map.of(),
+      Duration.ZERO, null, false);
+
+  public LogicForgeOptions {
+    actionTimeoutOverrides = Objects.requireNonNullElse(actionTimeoutOverrides, Map.of());
+    shutdownGracePeriod = Objects.requireNonNullElse(shutdownGracePeriod, Duration.ZERO);
+  }
+
+  public LogicForgeOptions(final Duration defaultActionTimeout,
+      final Map<String, Duration> actionTimeoutOverrides, final Duration shutdownGracePeriod) {
+    this(defaultActionTimeout, actionTimeoutOverrides, shutdownGracePeriod, null);
+  }
+
+  public LogicForgeOptions(final Duration defaultActionTimeout,
+      final Map<String, Duration> actionTimeoutOverrides, final Duration shutdownGracePeriod,
+      final Duration executionTimeout) {
+    this(defaultActionTimeout, actionTimeoutOverrides, shutdownGracePeriod, executionTimeout,
+        false);
+  }
 
   @Override
   public Duration defaultActionTimeout() {
@@ -21,4 +61,22 @@ public record LogicForgeOptions(Duration defaultActionTimeout,
   public Duration shutdownGracePeriod() {
     return shutdownGracePeriod;
   }
+
+  @Override
+  public Duration executionTimeout() {
+    return executionTimeout;
+  }
+
+  @Override
+  public boolean lightweightExceptions() {
+    return lightweightExceptions;
+  }
+
+  /**
+   * Returns the timeout for the named action: its override if one is defined, otherwise the
+   * default. Returns null if the action has no timeout.
+   */
+  public Duration actionTimeout(final String actionName) {
+    return actionTimeoutOverrides.getOrDefault(actionName, defaultActionTimeout);
+  }
 }
@@ -0,0 +1,267 @@
+package io.logicforge.core.engine;
+
+import io.logicforge.core.model.domain.config.ActionConfig;
+import io.logicforge.core.model.domain.config.BlockConfig;
+import io.logicforge.core.model.domain.config.ConditionalConfig;
+import io.logicforge.core.model.domain.config.ControlStatementConfig;
+import io.logicforge.core.model.domain.config.ExecutableConfig;
+import io.logicforge.core.model.domain.config.ExpressionConfig;
+import io.logicforge.core.model.domain.config.FunctionConfig;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import io.logicforge.core.model.domain.config.ValueConfig;
+import io.logicforge.core.model.domain.specification.CallableSpec;
+import io.logicforge.core.model.domain.specification.ConverterSpec;
+import io.logicforge.core.model.domain.specification.EngineSpec;
+import io.logicforge.core.model.domain.specification.TypeSpec;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable index of the actions, functions, process interfaces and types used by each of a set
+ * of compiled processes, keyed by process ID, for finding the processes affected when an engine's
+ * spec changes (see {@link EngineSpecRegistry}). Converters are not indexed, since a process may
+ * pick up a converter added after it was built; instead a process is affected by any change to the
+ * converters from or to one of its types. Adding or removing a process returns a new index.
+ */
+public final class ProcessDependencyIndex {
+
+  public static final ProcessDependencyIndex EMPTY = new ProcessDependencyIndex(Map.of());
+
+  /**
+   * The parts of an engine spec a process uses
+   *
+   * @param process   the name of the process's spec, which is its interface's name
+   * @param actions   the names of the actions the process calls
+   * @param functions the names of the functions the process calls
+   * @param types     the IDs of the types the process's values may have, including the types of
+   *                  the properties of any compound types among them
+   */
+  public record Dependencies(String process, Set<String> actions, Set<String> functions,
+                             Set<String> types) {
+  }
+
+  private final Map<Object, Dependencies> byProcess;
+  private final Map<String, Set<Object>> byProcessSpec = new HashMap<>();
+  private final Map<String, Set<Object>> byAction = new HashMap<>();
+  private final Map<String, Set<Object>> byFunction = new HashMap<>();
+  private final Map<String, Set<Object>> byType = new HashMap<>();
+
+  private ProcessDependencyIndex(final Map<Object, Dependencies> byProcess) {
+    this.byProcess = byProcess;
+    byProcess.forEach((id, dependencies) -> {
+      byProcessSpec.computeIfAbsent(dependencies.process(), key -> new HashSet<>()).add(id);
+      index(byAction, dependencies.actions(), id);
+      index(byFunction, dependencies.functions(), id);
+      index(byType, dependencies.types(), id);
+    });
+  }
+
+  private static void index(final Map<String, Set<Object>> index, final Set<String> keys,
+      final Object id) {
+    for (final String key : keys) {
+      index.computeIfAbsent(key, ignored -> new HashSet<>()).add(id);
+    }
+  }
+
+  /**
+   * Finds the parts of the spec used by the process configuration
+   */
+  public static Dependencies dependenciesOf(final ProcessConfig<?, ?> config,
+      final EngineSpec engineSpec) {
+    final Set<String> actions = new HashSet<>();
+    final Set<String> functions = new HashSet<>();
+    final Set<String> types = new HashSet<>();
+    collectBlock(config.getRootBlock(), actions, functions, types);
+    collectExpressions(config.getReturnExpression(), functions, types);
+
+    final Map<Class<?>, String> typeIds = new HashMap<>();
+    engineSpec.getTypes().forEach((id, typeSpec) -> typeIds.put(typeSpec.getRuntimeClass(), id));
+    final String process = config.getFunctionalInterface().getName();
+    final List<CallableSpec> callables = new ArrayList<>();
+    callables.add(engineSpec.getProcesses().get(process));
+    actions.forEach(action -> callables.add(engineSpec.getActions().get(action)));
+    functions.forEach(function -> callables.add(engineSpec.getFunctions().get(function)));
+    for (final CallableSpec callable : callables) {
+      if (callable != null) {
+        addType(types, typeIds, callable.getType());
+        callable.getInputs().forEach(input -> addType(types, typeIds, input.getType()));
+      }
+    }
+
+    // values of compound types expose the values of their properties
+    final List<String> toVisit = new ArrayList<>(types);
+    while (!toVisit.isEmpty()) {
+      final TypeSpec typeSpec = engineSpec.getTypes().get(toVisit.removeLast());
+      if (typeSpec != null) {
+        typeSpec.getProperties().values().forEach(property -> {
+          if (types.add(property.getTypeId())) {
+            toVisit.add(property.getTypeId());
+          }
+        });
+      }
+    }
+    return new Dependencies(process, Set.copyOf(actions), Set.copyOf(functions), Set.copyOf(types));
+  }
+
+  private static void addType(final Set<String> types, final Map<Class<?>, String> typeIds,
+      final Class<?> type) {
+    final String id = typeIds.get(type);
+    if (id != null) {
+      types.add(id);
+    }
+  }
+
+  private static void collectBlock(final BlockConfig block, final Set<String> actions,
+      final Set<String> functions, final Set<String> types) {
+    if (block == null) {
+      return;
+    }
+    for (final ExecutableConfig executable : block.getExecutables()) {
+      if (executable instanceof ActionConfig action) {
+        actions.add(action.getName());
+        action.getArguments()
+            .values()
+            .forEach(argument -> collectExpressions(argument, functions, types));
+      } else if (executable instanceof ControlStatementConfig control) {
+        if (control instanceof ConditionalConfig conditional) {
+          collectExpressions(List.of(conditional.getCondition()), functions, types);
+        }
+        control.getBlocks().forEach(child -> collectBlock(child, actions, functions, types));
+      }
+    }
+  }
+
+  private static void collectExpressions(final List<ExpressionConfig> expressions,
+      final Set<String> functions, final Set<String> types) {
+    if (expressions == null) {
+      return;
+    }
+    for (final ExpressionConfig expression : expressions) {
+      if (expression instanceof FunctionConfig function) {
+        functions.add(function.getName());
+        function.getArguments()
+            .values()
+            .forEach(argument -> collectExpressions(argument, functions, types));
+      } else if (expression instanceof ValueConfig value && value.getTypeId() != null) {
+        types.add(value.getTypeId());
+      }
+    }
+  }
+
+  /**
+   * Returns an index that also holds the process, replacing any dependencies it already has
+   */
+  public ProcessDependencyIndex with(final Object processId, final Dependencies dependencies) {
+    final Map<Object, Dependencies> updated = new HashMap<>(byProcess);
+    updated.put(processId, dependencies);
+    return new ProcessDependencyIndex(updated);
+  }
+
+  /**
+   * Returns an index without the process
+   */
+  public ProcessDependencyIndex without(final Object processId) {
+    if (!byProcess.containsKey(processId)) {
+      return this;
+    }
+    final Map<Object, Dependencies> updated = new HashMap<>(byProcess);
+    updated.remove(processId);
+    return new ProcessDependencyIndex(updated);
+  }
+
+  public Dependencies get(final Object processId) {
+    return byProcess.get(processId);
+  }
+
+  public Set<Object> usingAction(final String name) {
+    return byAction.getOrDefault(name, Set.of());
+  }
+
+  public Set<Object> usingFunction(final String name) {
+    return byFunction.getOrDefault(name, Set.of());
+  }
+
+  public Set<Object> usingType(final String typeId) {
+    return byType.getOrDefault(typeId, Set.of());
+  }
+
+  /**
+   * Returns the processes using any process interface, action, function or type that differs
+   * between the two specs, or any type converted from or to by a converter that differs between
+   * them. Callables and converters are compared by identity, since specs built from one another
+   * (see {@link io.logicforge.core.model.domain.specification.EngineSpecBuilder#from(EngineSpec)})
+   * share the specs of unchanged callables and converters, and types by value, so that types whose
+   * supertypes or properties changed are treated as changed.
+   */
+  public Set<Object> affectedBy(final EngineSpec previous, final EngineSpec next) {
+    final Set<Object> affected = new HashSet<>();
+    collectChanged(byProcessSpec, previous.getProcesses(), next.getProcesses(), affected);
+    collectChanged(byAction, previous.getActions(), next.getActions(), affected);
+    collectChanged(byFunction, previous.getFunctions(), next.getFunctions(), affected);
+    byType.forEach((typeId, processes) -> {
+      if (!Objects.equals(previous.getTypes().get(typeId), next.getTypes().get(typeId))) {
+        affected.addAll(processes);
+      }
+    });
+    final Set<Class<?>> converted = changedConverterTypes(previous, next);
+    for (final EngineSpec engineSpec : List.of(previous, next)) {
+      engineSpec.getTypes().forEach((typeId, typeSpec) -> {
+        if (converted.contains(box(typeSpec.getRuntimeClass()))) {
+          affected.addAll(usingType(typeId));
+        }
+      });
+    }
+    return affected;
+  }
+
+  /**
+   * Returns the input and output types of the converters added, removed or replaced between the two
+   * specs, boxed, as converters are looked up by the boxed types of values at runtime
+   */
+  private static Set<Class<?>> changedConverterTypes(final EngineSpec previous,
+      final EngineSpec next) {
+    final Map<List<Class<?>>, ConverterSpec> previousConverters = indexConverters(previous);
+    final Map<List<Class<?>>, ConverterSpec> nextConverters = indexConverters(next);
+    final Set<List<Class<?>>> pairs = new HashSet<>(previousConverters.keySet());
+    pairs.addAll(nextConverters.keySet());
+    final Set<Class<?>> changed = new HashSet<>();
+    for (final List<Class<?>> pair : pairs) {
+      if (previousConverters.get(pair) != nextConverters.get(pair)) {
+        changed.addAll(pair);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Indexes the converters by their boxed input and output types, the last converter registered
+   * for a pair replacing any earlier ones as it does when the converters are indexed for execution
+   */
+  private static Map<List<Class<?>>, ConverterSpec> indexConverters(final EngineSpec engineSpec) {
+    final Map<List<Class<?>>, ConverterSpec> out = new HashMap<>();
+    for (final ConverterSpec converter : engineSpec.getConverters()) {
+      out.put(List.of(box(converter.getInputType()), box(converter.getOutputType())), converter);
+    }
+    return out;
+  }
+
+  private static Class<?> box(final Class<?> type) {
+    return MethodType.methodType(type).wrap().returnType();
+  }
+
+  private static void collectChanged(final Map<String, Set<Object>> index,
+      final Map<String, ?> previous, final Map<String, ?> next, final Collection<Object> affected) {
+    index.forEach((name, processes) -> {
+      if (previous.get(name) != next.get(name)) {
+        affected.addAll(processes);
+      }
+    });
+  }
+}
@@ -0,0 +1,410 @@
+package io.logicforge.core.engine;
+
+import io.logicforge.core.exception.ProcessExecutionException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Executes a process over a continuous feed of inputs, such as an event stream, supplied either as
+ * a {@link Flow.Publisher} or a {@link Stream} of argument tuples (see {@link BatchProcess}).
+ *
+ * <p>
+ * At most {@code maxInFlight} executions are started but not yet emitted at any time. Inputs are
+ * only pulled from the source as results are emitted, so a slow consumer slows consumption of the
+ * source rather than letting results pile up: publishers are subscribed to with matching demand,
+ * and streams are consumed lazily. Results are emitted either in input order or as soon as each
+ * execution completes (see {@link Ordering}). The first failed execution fails the output and
+ * cancels the rest.
+ * </p>
+ *
+ * <p>
+ * Executions never occupy the process's {@link ExecutionQueue}, which stays free for their async
+ * actions. Async processes are called directly on the thread supplying the input, since they
+ * return without waiting on their actions. Sync processes block until their actions complete, so
+ * each is run on a thread of a separate executor, by default a new virtual thread.
+ * </p>
+ *
+ * @param <R> the process's result type; for async processes, the type their futures complete with
+ */
+public class StreamingProcess<R> {
+
+  public enum Ordering {
+    /**
+     * Results are emitted in the order of their inputs, holding back any that complete early
+     */
+    ORDERED,
+    /**
+     * Results are emitted as soon as their executions complete
+     */
+    UNORDERED
+  }
+
+  private static final ExecutorService VIRTUAL_THREADS = Executors.newThreadPerTaskExecutor(Thread
+      .ofVirtual()
+      .name("logicforge-stream-", 0)
+      .factory());
+
+  private final BatchProcess<?> process;
+  private final boolean async;
+  private final ExecutorService executor;
+  private final int maxInFlight;
+  private final Ordering ordering;
+
+  /**
+   * Runs each execution of a sync process on a new virtual thread
+   *
+   * @see #StreamingProcess(Process, ExecutorService, int, Ordering)
+   */
+  public StreamingProcess(final Process process, final int maxInFlight, final Ordering ordering) {
+    this(process, VIRTUAL_THREADS, maxInFlight, ordering);
+  }
+
+  /**
+   * @param process     the process to execute, which must be a compiled process (see
+   *                    {@link BatchProcess#of(Process)})
+   * @param executor    the executor sync processes are run on, one thread per execution in flight;
+   *                    unused for async processes
+   * @param maxInFlight the maximum number of executions started but not yet emitted
+   * @param ordering    the order in which results are emitted
+   */
+  public StreamingProcess(final Process process, final ExecutorService executor,
+      final int maxInFlight, final Ordering ordering) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be positive");
+    }
+    this.process = BatchProcess.of(process);
+    this.async = isAsync(process);
+    this.executor = executor;
+    this.maxInFlight = maxInFlight;
+    this.ordering = ordering;
+  }
+
+  /**
+   * Returns a publisher that subscribes to the inputs for each of its subscribers, publishing the
+   * result of executing the process on each input. Processes that return nothing complete without
+   * publishing any items, since publishers may not emit nulls.
+   */
+  public Flow.Publisher<R> process(final Flow.Publisher<Object[]> inputs) {
+    return subscriber -> inputs.subscribe(new PublisherSubscription(subscriber));
+  }
+
+  /**
+   * Returns a lazy stream of the results of executing the process on each input. Closing the
+   * returned stream cancels any outstanding executions and closes the inputs.
+   */
+  public Stream<R> process(final Stream<Object[]> inputs) {
+    final StreamSpliterator spliterator = new StreamSpliterator(inputs.iterator());
+    return StreamSupport.stream(spliterator, false).onClose(() -> {
+      spliterator.cancel();
+      inputs.close();
+    });
+  }
+
+  /**
+   * Returns whether the process is async, i.e. its process method returns a
+   * {@link CompletableFuture}
+   */
+  private static boolean isAsync(final Process process) {
+    for (final Class<?> type : process.getClass().getInterfaces()) {
+      if (Process.class.isAssignableFrom(type) && !Process.class.equals(type)) {
+        for (final Method method : type.getMethods()) {
+          if (Modifier.isAbstract(method.getModifiers()) && !Process.class.equals(method
+              .getDeclaringClass())) {
+            return CompletableFuture.class.equals(method.getReturnType());
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Starts an execution. The results of async processes are flattened, so that the returned future
+   * completes once the execution does. Cancelling the returned future cancels the execution.
+   */
+  @SuppressWarnings("unchecked")
+  private CompletableFuture<R> start(final Object[] arguments) {
+    final CompletableFuture<R> result = new CompletableFuture<>();
+    if (async) {
+      try {
+        final CompletableFuture<?> execution = (CompletableFuture<?>) process.execute(arguments);
+        execution.whenComplete((value, error) -> complete(result, (R) value, error));
+        result.whenComplete((ignored, error) -> {
+          if (result.isCancelled()) {
+            execution.cancel(true);
+          }
+        });
+      } catch (final Throwable t) {
+        result.completeExceptionally(t);
+      }
+      return result;
+    }
+    try {
+      final Future<?> task = executor.submit(() -> {
+        try {
+          result.complete((R) process.execute(arguments));
+        } catch (final Throwable t) {
+          result.completeExceptionally(t);
+        }
+      });
+      result.whenComplete((ignored, error) -> {
+        if (result.isCancelled()) {
+          task.cancel(true);
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  private static <T> void complete(final CompletableFuture<T> future, final T value,
+      final Throwable error) {
+    if (error != null) {
+      future.completeExceptionally(unwrap(error));
+    } else {
+      future.complete(value);
+    }
+  }
+
+  private static Throwable unwrap(final Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error;
+  }
+
+  /**
+   * Subscribes to the inputs on behalf of a single downstream subscriber. Upstream demand starts at
+   * maxInFlight and is replenished one input per result emitted (or, for processes returning
+   * nothing, per execution completed), bounding the number of executions outstanding.
+   * Downstream signals are serialized by a drain loop, which may run on any thread that changes
+   * the subscription's state.
+   */
+  private class PublisherSubscription implements Flow.Subscriber<Object[]>, Flow.Subscription {
+
+    private final Flow.Subscriber<? super R> downstream;
+    // in ORDERED mode, executions are queued as they start; in UNORDERED mode, as they complete
+    private final Queue<CompletableFuture<R>> results = new ConcurrentLinkedQueue<>();
+    private final Set<CompletableFuture<R>> running = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    private volatile Flow.Subscription upstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable error;
+    private volatile boolean terminated;
+
+    private PublisherSubscription(final Flow.Subscriber<? super R> downstream) {
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+      if (upstream != null) {
+        subscription.cancel();
+        return;
+      }
+      upstream = subscription;
+      downstream.onSubscribe(this);
+      subscription.request(maxInFlight);
+    }
+
+    @Override
+    public void onNext(final Object[] arguments) {
+      if (terminated) {
+        return;
+      }
+      outstanding.incrementAndGet();
+      final CompletableFuture<R> result = start(arguments);
+      running.add(result);
+      if (ordering == Ordering.ORDERED) {
+        results.add(result);
+      }
+      result.whenComplete((value, failure) -> {
+        running.remove(result);
+        if (failure != null && error == null) {
+          error = unwrap(failure);
+        }
+        if (ordering == Ordering.UNORDERED) {
+          results.add(result);
+        }
+        drain();
+      });
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      error = throwable;
+      upstreamDone = true;
+      drain();
+    }
+
+    @Override
+    public void onComplete() {
+      upstreamDone = true;
+      drain();
+    }
+
+    @Override
+    public void request(final long n) {
+      if (n <= 0) {
+        error = new IllegalArgumentException("Requested a non-positive number of results: " + n);
+      } else {
+        requested.accumulateAndGet(n, (current, added) -> current + added < 0
+            ? Long.MAX_VALUE
+            : current + added);
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      terminate();
+    }
+
+    private void drain() {
+      if (drainRequests.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        while (!terminated) {
+          final Throwable failure = error;
+          if (failure != null) {
+            terminate();
+            downstream.onError(failure);
+            return;
+          }
+          final CompletableFuture<R> head = results.peek();
+          if (head == null || !head.isDone()) {
+            if (upstreamDone && outstanding.get() == 0) {
+              terminated = true;
+              downstream.onComplete();
+              return;
+            }
+            break;
+          }
+          final R value;
+          try {
+            value = head.join();
+          } catch (final CompletionException | CancellationException e) {
+            error = unwrap(e);
+            continue;
+          }
+          if (value != null && requested.get() == 0) {
+            break;
+          }
+          results.poll();
+          outstanding.decrementAndGet();
+          if (value != null) {
+            if (requested.get() != Long.MAX_VALUE) {
+              requested.decrementAndGet();
+            }
+            downstream.onNext(value);
+          }
+          upstream.request(1);
+        }
+        missed = drainRequests.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void terminate() {
+      terminated = true;
+      if (upstream != null) {
+        upstream.cancel();
+      }
+      running.forEach(result -> result.cancel(true));
+    }
+  }
+
+
+  /**
+   * Pulls inputs from the source as results are consumed, keeping up to maxInFlight executions
+   * outstanding
+   */
+  private class StreamSpliterator extends Spliterators.AbstractSpliterator<R> {
+
+    private final Iterator<Object[]> inputs;
+    // executions in the order they were started
+    private final ArrayDeque<CompletableFuture<R>> started = new ArrayDeque<>();
+    private final BlockingQueue<CompletableFuture<R>> completed = new LinkedBlockingQueue<>();
+
+    private StreamSpliterator(final Iterator<Object[]> inputs) {
+      super(Long.MAX_VALUE, ordering == Ordering.ORDERED ? Spliterator.ORDERED : 0);
+      this.inputs = inputs;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super R> action) {
+      while (started.size() < maxInFlight && inputs.hasNext()) {
+        final CompletableFuture<R> result = start(inputs.next());
+        started.add(result);
+        if (ordering == Ordering.UNORDERED) {
+          result.whenComplete((value, error) -> completed.add(result));
+        }
+      }
+      if (started.isEmpty()) {
+        return false;
+      }
+      final CompletableFuture<R> next;
+      if (ordering == Ordering.ORDERED) {
+        next = started.poll();
+      } else {
+        next = takeCompleted();
+        started.remove(next);
+      }
+      action.accept(await(next));
+      return true;
+    }
+
+    private CompletableFuture<R> takeCompleted() {
+      try {
+        return completed.take();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancel();
+        throw new ProcessExecutionException(e);
+      }
+    }
+
+    private R await(final CompletableFuture<R> result) {
+      try {
+        return result.join();
+      } catch (final CompletionException | CancellationException e) {
+        cancel();
+        final Throwable cause = unwrap(e);
+        throw cause instanceof RuntimeException runtimeException
+            ? runtimeException
+            : new ProcessExecutionException(cause);
+      }
+    }
+
+    private void cancel() {
+      started.forEach(result -> result.cancel(true));
+    }
+  }
+}
@@ -6,12 +6,22 @@ import io.logicforge.core.common.CoordinateTrie;
 import io.logicforge.core.common.Coordinates;
 import io.logicforge.core.common.Pair;
 import io.logicforge.core.common.TypedArgument;
+import io.logicforge.core.constant.ActionCost;
+import io.logicforge.core.constant.MetadataFlags;
 import io.logicforge.core.engine.Action;
+import io.logicforge.core.engine.BatchProcess;
+import io.logicforge.core.engine.Deadline;
 import io.logicforge.core.engine.ExecutionContext;
+import io.logicforge.core.engine.ExecutionListener;
+import io.logicforge.core.engine.ExecutionListeners;
 import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.engine.LogicForgeOptions;
 import io.logicforge.core.engine.Process;
 import io.logicforge.core.engine.ProcessBuilder;
+import io.logicforge.core.engine.impl.ActionCoalescer;
+import io.logicforge.core.engine.impl.ConverterIndex;
 import io.logicforge.core.engine.impl.DefaultExecutionContext;
+import io.logicforge.core.engine.impl.FunctionCache;
 import io.logicforge.core.exception.ProcessConstructionException;
 import io.logicforge.core.model.domain.config.ActionConfig;
 import io.logicforge.core.model.domain.config.BlockConfig;
@@ -22,19 +32,30 @@ import io.logicforge.core.model.domain.config.FunctionConfig;
 import io.logicforge.core.model.domain.config.ProcessConfig;
 import io.logicforge.core.model.domain.config.ReferenceConfig;
 import io.logicforge.core.model.domain.config.ValueConfig;
+import io.logicforge.core.model.domain.specification.CacheSpec;
 import io.logicforge.core.model.domain.specification.CallableSpec;
 import io.logicforge.core.model.domain.specification.EngineSpec;
 import io.logicforge.core.model.domain.specification.InputSpec;
 import io.logicforge.core.model.domain.specification.ProvidedCallableSpec;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -52,13 +73,23 @@ public class CompilationProcessBuilder implements ProcessBuilder {
    * <li>The package name to for the generated class</li>
    * <li>A string containing a list of formatted import statements</li>
    * <li>The process interface class name</li>
+   * <li>The batch result type (see {@link BatchProcess})</li>
+   * <li>A string containing the declarations of the coordinates constants</li>
    * <li>A string containing a formatted list of fields and a constructor injecting those
    * fields</li>
    * <li>The signature for the process executor method</li>
+   * <li>The execution method call, passing it the current listener and timeout</li>
+   * <li>The execution method's return type</li>
+   * <li>The execution method's parameters, each preceded by a comma</li>
+   * <li>The initial capacity of the "args" map, fitting every process argument</li>
    * <li>Method calls for loading the process arguments into the "args" map</li>
-   * <li>The EngineSpec instance var name and queue var name (comma-separated)</li>
-   * <li>the executable method calls</li>
-   * <li>the function's return statement</li>
+   * <li>The EngineSpec, converter index, queue, and options instance var names and the process ID
+   * (comma-separated)</li>
+   * <li>The executable method calls, followed by the function's return statement (see
+   * {@link #SYNC_BODY_TPL} and {@link #ASYNC_BODY_TPL})</li>
+   * <li>The batch executor method (see {@link #BATCH_METHOD_TPL})</li>
+   * <li>The methods timing function calls, each followed by a blank line (see
+   * {@link #TIMED_FUNCTION_TPL})</li>
    * <li>The Process's unique ID string</li>
    * </ol>
    */
@@ -67,32 +98,137 @@ public class CompilationProcessBuilder implements ProcessBuilder {
 
       %s
 
-      public class CompiledProcess implements %s {
+      public class CompiledProcess implements %s, BatchProcess<%s> {
 
-      \tprivate final AtomicLong executionCount = new AtomicLong(0L);
+      %s\tprivate final LongAdder executionCount = new LongAdder();
       \tprivate final CoordinateTrie<Action> trie = new CoordinateTrie<>();
 
       %s
       \t@Override
       \t%s {
-      \t\tfinal long executionNumber = executionCount.getAndIncrement();
-      \t\tfinal Map<String, Object> args = new HashMap<>();
+      \t\t%s;
+      \t}
+
+      \tprivate %s execute(final ExecutionListener listener, final Duration timeout%s) {
+      \t\texecutionCount.increment();
+      \t\tfinal Map<String, Object> args = new HashMap<>(%d);
+      %s
+      \t\tfinal ExecutionContext context = new DefaultExecutionContext(%s, timeout, listener, args);
       %s
-      \t\tfinal ExecutionContext context = new DefaultExecutionContext(%s, args);
-      \t\t%s
-      \t\tcontext.await();%s
       \t}
 
-      \tpublic String getProcessId() {
+      %s
+
+      %s\tpublic String getProcessId() {
       \t\treturn "%s";
       \t}
 
       \tpublic long getExecutionCount() {
-      \t\treturn executionCount.get();
+      \t\treturn executionCount.sum();
       \t}
       }
       """;
 
+  /**
+   * The process method body used for synchronous processes. Executables are called in order on the
+   * calling thread, which then blocks until any async actions have completed. The execution's
+   * deadline is bound to the calling thread throughout, and the context is closed on return, after
+   * recording anything thrown out of the body. This template requires the following parameters:
+   *
+   * <ol>
+   * <li>the executable method calls</li>
+   * <li>the function's return statement</li>
+   * </ol>
+   */
+  private static final String SYNC_BODY_TPL = """
+      \t\ttry (final Deadline.Scope scope = context.getDeadline().bind()) {
+      %s
+      \t\t\tcontext.await();%s
+      \t\t} catch (final RuntimeException | Error e) {
+      \t\t\tcontext.recordFailure(e);
+      \t\t\tthrow e;
+      \t\t} finally {
+      \t\t\tcontext.close();
+      \t\t}""";
+
+  /**
+   * The process method body used for async processes (those returning a {@link CompletableFuture}).
+   * Each executable is chained as a continuation of the previous one, first waiting on any async
+   * actions it references, so that no thread is ever blocked waiting on an async result. The first
+   * executable starts once the execution is admitted, and the context is closed once the returned
+   * future completes, after recording any failure. This template requires the following
+   * parameters:
+   *
+   * <ol>
+   * <li>the executable continuations</li>
+   * <li>the function's return statement</li>
+   * </ol>
+   */
+  private static final String ASYNC_BODY_TPL = """
+      \t\tCompletableFuture<Void> stage0 = context.admitted();
+      %s\t\treturn stage0.thenCompose(ignored -> context.awaitAsync())%s
+      \t\t\t\t.whenComplete((result, error) -> {
+      \t\t\t\t\tif (error != null) {
+      \t\t\t\t\t\tcontext.recordFailure(error);
+      \t\t\t\t\t}
+      \t\t\t\t\tcontext.close();
+      \t\t\t\t});""";
+
+  /**
+   * The batch executor method, which checks every argument tuple before executing each record in
+   * turn. The listener and timeout are read once for the whole batch rather than once per record.
+   * This template requires the following parameters:
+   *
+   * <ol>
+   * <li>The batch result type</li>
+   * <li>The process method's argument types, as class literals</li>
+   * <li>The execution listeners instance var name</li>
+   * <li>The options instance var name</li>
+   * <li>The execution method call for the current tuple, adding its result to "results"</li>
+   * </ol>
+   */
+  private static final String BATCH_METHOD_TPL = """
+      \t@Override
+      \tpublic List<%1$s> executeBatch(final List<Object[]> inputs) {
+      \t\tfinal int size = inputs.size();
+      \t\tfinal Class<?>[] types = {%2$s};
+      \t\tfor (int i = 0; i < size; i++) {
+      \t\t\tBatchProcess.checkTuple(inputs.get(i), types, i);
+      \t\t}
+      \t\tfinal ExecutionListener listener = %3$s.current();
+      \t\tfinal Duration timeout = %4$s.executionTimeout();
+      \t\tfinal List<%1$s> results = new ArrayList<>(size);
+      \t\tfor (int i = 0; i < size; i++) {
+      \t\t\tfinal Object[] tuple = inputs.get(i);
+      \t\t\t%5$s
+      \t\t}
+      \t\treturn results;
+      \t}""";
+
+  /**
+   * A method calling a function and reporting how long the call took, called in place of the
+   * function while a listener is registered. The function's arguments, which may call further
+   * functions, are evaluated before the start time is taken. This template requires the following
+   * parameters:
+   *
+   * <ol>
+   * <li>The function's return type</li>
+   * <li>The method's name</li>
+   * <li>The function's parameters, each preceded by a comma</li>
+   * <li>The function call</li>
+   * <li>The function's name</li>
+   * </ol>
+   */
+  private static final String TIMED_FUNCTION_TPL = """
+      \tprivate %1$s %2$s(final ExecutionContext context%3$s) {
+      \t\tfinal long start = System.nanoTime();
+      \t\tfinal %1$s result = %4$s;
+      \t\tcontext.reportFunction("%5$s", start);
+      \t\treturn result;
+      \t}
+
+      """;
+
   /**
    * A template usd to generate the top-level class instance var definitions and constructor. This
    * template requires the following parameters:
@@ -113,8 +249,9 @@ public class CompilationProcessBuilder implements ProcessBuilder {
          """;
 
   private static final Set<Class<?>> DEFAULT_IMPORTS = Set.of(Action.class, ExecutionContext.class,
-      DefaultExecutionContext.class, AtomicLong.class, Coordinates.class, CoordinateTrie.class,
-      Map.class, HashMap.class);
+      DefaultExecutionContext.class, ExecutionListener.class, Deadline.class, LongAdder.class,
+      Coordinates.class, CoordinateTrie.class, Map.class, HashMap.class, BatchProcess.class,
+      List.class, ArrayList.class, Duration.class);
 
   private static final Map<Class<?>, Class<?>> BOXED_TYPE_MAPPING = Map.of(boolean.class,
       Boolean.class, int.class, Integer.class, long.class, Long.class, float.class, Float.class,
@@ -122,8 +259,26 @@ public class CompilationProcessBuilder implements ProcessBuilder {
 
   private final EngineSpec engineSpec;
   private final ProcessCompiler compiler;
+  private final LogicForgeOptions options;
+  /**
+   * The listeners receiving events from executions of this builder's processes
+   */
+  @Getter
+  private final ExecutionListeners listeners;
 
   private final AtomicLong processCounter = new AtomicLong(0);
+  // created on first use by a built process, and shared by all of this builder's processes
+  private final Map<String, FunctionCache> functionCaches = new ConcurrentHashMap<>();
+  private final Map<String, ActionCoalescer> actionCoalescers = new ConcurrentHashMap<>();
+
+  public CompilationProcessBuilder(final EngineSpec engineSpec, final ProcessCompiler compiler) {
+    this(engineSpec, compiler, LogicForgeOptions.DEFAULT);
+  }
+
+  public CompilationProcessBuilder(final EngineSpec engineSpec, final ProcessCompiler compiler,
+      final LogicForgeOptions options) {
+    this(engineSpec, compiler, options, new ExecutionListeners());
+  }
 
   @Override
   public <T extends Process> T buildProcess(final ProcessConfig<T, ?> processConfig,
@@ -137,6 +292,41 @@ public class CompilationProcessBuilder implements ProcessBuilder {
     return compiler.compileAndInstantiate(className, code, args, functionalInterface);
   }
 
+  /**
+   * Returns the current cache statistics of each cached function called by this builder's
+   * processes, by function name
+   */
+  public Map<String, FunctionCache.Stats> getFunctionCacheStats() {
+    return functionCaches.entrySet()
+        .stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getStats()));
+  }
+
+  /**
+   * Returns the current coalescing statistics of each idempotent action called by this builder's
+   * processes, by action name
+   */
+  public Map<String, ActionCoalescer.Stats> getActionCoalescerStats() {
+    return actionCoalescers.entrySet()
+        .stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getStats()));
+  }
+
+  private FunctionCache functionCacheFor(final ProvidedCallableSpec spec) {
+    final CacheSpec cache = spec.getCache();
+    if (cache == null) {
+      return null;
+    }
+    return functionCaches.computeIfAbsent(spec.getName(), name -> new FunctionCache(name, cache
+        .getMaxSize(), cache.getTtl()));
+  }
+
+  private ActionCoalescer actionCoalescerFor(final ProvidedCallableSpec spec) {
+    return spec.isCoalesced()
+        ? actionCoalescers.computeIfAbsent(spec.getName(), ActionCoalescer::new)
+        : null;
+  }
+
   public interface SourceSegment {
 
     String getContents(final int tabCount);
@@ -147,12 +337,19 @@ public class CompilationProcessBuilder implements ProcessBuilder {
 
     private final Map<Class<?>, Pair<String, String>> toImport = new HashMap<>();
     private final Map<Object, Pair<Class<?>, String>> instanceVars = new LinkedHashMap<>();
+    private final Map<Coordinates, String> coordinatesConstants = new LinkedHashMap<>();
+    private final Map<String, String> timedFunctions = new HashMap<>();
+    private int localCount;
+    private final StringBuilder timedFunctionDeclarations = new StringBuilder();
     private final long processId;
 
     private final ProcessConfig<?, ?> config;
     private final CallableSpec processSpec;
     private final String engineSpecVarName;
+    private final String convertersVarName;
     private final String queueVarName;
+    private final String optionsVarName;
+    private final String listenersVarName;
     private final String processInterfaceName;
     @Getter
     private final String contents;
@@ -163,7 +360,11 @@ public class CompilationProcessBuilder implements ProcessBuilder {
       this.processId = processCounter.getAndIncrement();
       this.config = config;
       this.engineSpecVarName = ensureInstanceVar(engineSpec);
-      this.queueVarName = ensureInstanceVar(queue, ExecutionQueue.class);
+      this.queueVarName = ensureInstanceVar(queue.forProcess(config), ExecutionQueue.class);
+      this.optionsVarName = ensureInstanceVar(options, LogicForgeOptions.class);
+      // converters are indexed once per process rather than once per execution
+      this.convertersVarName = ensureInstanceVar(ConverterIndex.of(engineSpec));
+      this.listenersVarName = ensureInstanceVar(listeners);
       this.processSpec = engineSpec.getProcesses()
           .values()
           .stream()
@@ -208,21 +409,103 @@ public class CompilationProcessBuilder implements ProcessBuilder {
       }).getRight();
     }
 
+    /**
+     * Returns a reference to a constant holding the supplied coordinates, declaring it if needed.
+     * Executions then don't look coordinates up each time they access a variable.
+     */
+    public String coordinatesConstant(final Coordinates coordinates) {
+      if (ROOT.equals(coordinates)) {
+        return "Coordinates.ROOT";
+      }
+      return coordinatesConstants.computeIfAbsent(coordinates, c -> "COORDINATES_"
+          + coordinatesConstants.size());
+    }
+
+    /**
+     * Formats a list of coordinates as comma-separated references to their constants
+     */
+    public String formatCoordinatesList(final Collection<Coordinates> coordinates) {
+      return coordinates.stream().map(this::coordinatesConstant).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Returns the name of the method timing calls of the named function, declaring it if needed
+     *
+     * @param functionName the function's name
+     * @param declaration  formats the method's declaration, given its name
+     */
+    public String ensureTimedFunction(final String functionName,
+        final Function<String, String> declaration) {
+      final String existing = timedFunctions.get(functionName);
+      if (existing != null) {
+        return existing;
+      }
+      final String methodName = "timed" + timedFunctions.size();
+      timedFunctions.put(functionName, methodName);
+      timedFunctionDeclarations.append(declaration.apply(methodName));
+      return methodName;
+    }
+
+    /**
+     * Returns a name for a new local variable, unique within the source file
+     */
+    public String nextLocalName() {
+      return "local" + localCount++;
+    }
+
+    /**
+     * Returns a reference to the supplied type for use in source code, importing it if needed
+     */
+    public String typeReference(final Class<?> type) {
+      return type.isArray() ? typeReference(type.getComponentType()) + "[]" : ensureImport(type);
+    }
+
     public String getClassName() {
-      return formatPackageName() + ".Process";
+      return formatPackageName() + ".CompiledProcess";
     }
 
-    public String generateContents() {
+    public String generateContents() throws ProcessConstructionException {
 
       // Executable calls an return statement should be formatted first to ensure all
       // needed import statements and instance vars are captured
-      final String executableCalls = formatExecutableCalls();
-      final String returnStatement = formatReturnStatement();
+      final String body = processSpec.isAsync() ? formatAsyncBody() : formatSyncBody();
+      final String batchMethod = formatBatchMethod();
 
       return CLASS_FILE_TPL.formatted(formatPackageName(), formatImports(), processInterfaceName,
-          formatFieldsAndConstructor(), formatMethodSignature(), formatArgsLoadingLogic(), "%s, %s"
-              .formatted(engineSpecVarName, queueVarName), executableCalls, returnStatement,
-          processId);
+          formatBatchResultType(), formatCoordinatesConstants(), formatFieldsAndConstructor(),
+          formatMethodSignature(), formatExecuteCall(), formatReturnType(), formatParameters(", "),
+          argsMapCapacity(), formatArgsLoadingLogic(), "%s, %s, %s, %s, \"%s\", %s".formatted(
+              engineSpecVarName, convertersVarName, queueVarName, optionsVarName, processId,
+              processSpec.isAsync()), body, batchMethod, timedFunctionDeclarations, processId);
+    }
+
+    private String formatCoordinatesConstants() {
+      return coordinatesConstants.entrySet()
+          .stream()
+          .map(entry -> "\tprivate static final Coordinates %s = Coordinates.from(%s);\n".formatted(
+              entry.getValue(), entry.getKey().asFormattedString(",")))
+          .collect(Collectors.joining());
+    }
+
+    /**
+     * Formats the process method's call of the execution method, which reads the current listener
+     * and timeout for each execution
+     */
+    private String formatExecuteCall() {
+      final String arguments = processSpec.getInputs()
+          .stream()
+          .map(input -> ", " + input.getName())
+          .collect(Collectors.joining());
+      return "%sexecute(%s.current(), %s.executionTimeout()%s)".formatted(returnsNothing()
+          ? ""
+          : "return ", listenersVarName, optionsVarName, arguments);
+    }
+
+    /**
+     * Returns the initial capacity at which a HashMap holds every process argument without resizing
+     */
+    private int argsMapCapacity() {
+      return (int) Math.ceil(processSpec.getInputs().size() / 0.75);
     }
 
     private String formatPackageName() {
@@ -230,9 +513,11 @@ public class CompilationProcessBuilder implements ProcessBuilder {
     }
 
     private String formatImports() {
-      return toImport.values()
+      // primitives are referenced by name but can't be imported
+      return toImport.entrySet()
           .stream()
-          .map(Pair::getLeft)
+          .filter(entry -> !entry.getKey().isPrimitive())
+          .map(entry -> entry.getValue().getLeft())
           .sorted()
           .distinct()
           .map("import %s;"::formatted)
@@ -262,17 +547,44 @@ public class CompilationProcessBuilder implements ProcessBuilder {
           fieldInitializations);
     }
 
+    private String formatSyncBody() throws ProcessConstructionException {
+      final String executableCalls = formatExecutableCalls();
+      final String returnStatement = formatReturnStatement();
+      return SYNC_BODY_TPL.formatted(executableCalls, returnStatement);
+    }
+
+    private String formatAsyncBody() throws ProcessConstructionException {
+      ensureImport(CompletableFuture.class);
+      final String executableContinuations = rootBlock.getContinuationContents(2, 0);
+      final String returnContinuation = formatReturnContinuation();
+      return ASYNC_BODY_TPL.formatted(executableContinuations, returnContinuation);
+    }
+
     private String formatMethodSignature() {
+      return "public %s %s(%s)".formatted(formatReturnType(), processSpec.getMethod().getName(),
+          formatParameters(""));
+    }
+
+    private String formatReturnType() {
+      final Class<?> returnType = processSpec.getMethod().getReturnType();
+      if (processSpec.isAsync()) {
+        // the future's type parameter is the process's spec type
+        final Class<?> type = processSpec.getType();
+        return "%s<%s%s>".formatted(ensureImport(CompletableFuture.class), ensureImport(
+            BOXED_TYPE_MAPPING.getOrDefault(type, type)), processSpec.isMulti() ? "[]" : "");
+      }
+      return Void.class.equals(returnType) ? "void" : ensureImport(returnType);
+    }
+
+    /**
+     * Formats the process method's parameters as a comma-separated list
+     *
+     * @param prefix prepended to the list, unless the method has no parameters
+     */
+    private String formatParameters(final String prefix) {
       final StringBuilder builder = new StringBuilder();
-      final Method method = processSpec.getMethod();
-      final Class<?> returnType = method.getReturnType();
-      builder.append("\tpublic ")
-          .append(Void.class.equals(returnType) ? "void" : ensureImport(returnType))
-          .append(" ")
-          .append(method.getName())
-          .append("(");
       for (int i = 0; i < processSpec.getInputs().size(); i++) {
-        builder.append(i > 0 ? ", " : "");
+        builder.append(i > 0 ? ", " : prefix);
         final InputSpec input = processSpec.getInputs().get(i);
         final String name = input.getName();
         final boolean multi = input.isMulti();
@@ -280,10 +592,58 @@ public class CompilationProcessBuilder implements ProcessBuilder {
         final String typeName = ensureImport(type);
         builder.append("final ").append(typeName).append(multi ? "[] " : " ").append(name);
       }
-      builder.append(")");
       return builder.toString();
     }
 
+    /**
+     * Returns the process method's return type as a type argument, i.e. boxed, or Void for methods
+     * returning nothing
+     */
+    private String formatBatchResultType() {
+      if (processSpec.isAsync()) {
+        final Class<?> type = processSpec.getType();
+        return "%s<%s%s>".formatted(ensureImport(CompletableFuture.class), ensureImport(
+            BOXED_TYPE_MAPPING.getOrDefault(type, type)), processSpec.isMulti() ? "[]" : "");
+      }
+      final Class<?> returnType = processSpec.getMethod().getReturnType();
+      if (returnsNothing()) {
+        return ensureImport(Void.class);
+      }
+      return ensureImport(BOXED_TYPE_MAPPING.getOrDefault(returnType, returnType));
+    }
+
+    private String formatBatchMethod() {
+      final List<InputSpec> inputs = processSpec.getInputs();
+      final List<String> types = new ArrayList<>();
+      final List<String> callArgs = new ArrayList<>();
+      for (int i = 0; i < inputs.size(); i++) {
+        final InputSpec input = inputs.get(i);
+        final Class<?> type = input.getType();
+        final String typeName = ensureImport(type);
+        // multi-valued arguments are cast as arrays; single primitive values are unboxed
+        final String dimensions = input.isMulti() ? "[]" : "";
+        types.add(typeName + dimensions + ".class");
+        final String castType = input.isMulti()
+            ? typeName + dimensions
+            : ensureImport(BOXED_TYPE_MAPPING.getOrDefault(type, type));
+        callArgs.add("(%s) tuple[%d]".formatted(castType, i));
+      }
+      final String call = "execute(listener, timeout%s)".formatted(callArgs.stream()
+          .map(arg -> ", " + arg)
+          .collect(Collectors.joining()));
+      final String recordCall = returnsNothing()
+          ? call + ";\n\t\t\tresults.add(null);"
+          : "results.add(%s);".formatted(call);
+      return BATCH_METHOD_TPL.formatted(formatBatchResultType(), String.join(", ", types),
+          listenersVarName, optionsVarName, recordCall);
+    }
+
+    private boolean returnsNothing() {
+      final Class<?> returnType = processSpec.getMethod().getReturnType();
+      return !processSpec.isAsync() && (void.class.equals(returnType) || Void.class.equals(
+          returnType));
+    }
+
     private String formatArgsLoadingLogic() {
       final StringBuilder builder = new StringBuilder();
       for (final InputSpec input : processSpec.getInputs()) {
@@ -294,24 +654,64 @@ public class CompilationProcessBuilder implements ProcessBuilder {
     }
 
     private String formatExecutableCalls() {
-      return rootBlock.getContents(2);
+      return rootBlock.getContents(3);
     }
 
-    private String formatReturnStatement() {
+    private String formatReturnStatement() throws ProcessConstructionException {
       final Class<?> type = processSpec.getType();
       if (Void.class.equals(type)) {
         return "";
       } else {
-        final List<ExpressionConfig> returnStatement = config.getReturnExpression();
+        final boolean multi = processSpec.getType().isArray();
+        final List<ExpressionConfig> returnStatement = getReturnExpression(multi);
         final ExpressionData expressionData;
-        if (processSpec.getType().isArray()) {
+        if (multi) {
           expressionData = new ArrayExpressionData(this, returnStatement, type);
         } else {
-          // TODO add validation and handling
           expressionData = mapExpression(this, returnStatement.getFirst(), type);
         }
-        return "\n\t\treturn %s;".formatted(expressionData.getContents(0));
+        final Locals locals = new Locals(this, tabs(3));
+        final String contents = expressionData.getContents(locals);
+        return "\n%s\t\t\treturn %s;".formatted(locals.getDeclarations(), contents);
+      }
+    }
+
+    private String formatReturnContinuation() throws ProcessConstructionException {
+      final Class<?> type = processSpec.getType();
+      if (Void.class.equals(type) || void.class.equals(type)) {
+        return "";
+      }
+      final List<ExpressionConfig> returnStatement = getReturnExpression(processSpec.isMulti());
+      final ExpressionData expressionData;
+      if (processSpec.isMulti()) {
+        expressionData = new ArrayExpressionData(this, returnStatement, type);
+      } else {
+        expressionData = mapExpression(this, returnStatement.getFirst(), type);
+      }
+      final Locals locals = new Locals(this, tabs(5));
+      final String contents = expressionData.getContents(locals);
+      if (locals.getDeclarations().isEmpty()) {
+        return "%s.thenApply(ignored -> %s)".formatted(awaitReferences(List.of(returnStatement)),
+            contents);
+      }
+      return "%s.thenApply(ignored -> {\n%s\t\t\t\t\treturn %s;\n\t\t\t\t})".formatted(
+          awaitReferences(List.of(returnStatement)), locals.getDeclarations(), contents);
+    }
+
+    /**
+     * Returns the expressions computing the process's return value, of which processes returning a
+     * single value must have exactly one
+     */
+    private List<ExpressionConfig> getReturnExpression(final boolean multi)
+        throws ProcessConstructionException {
+      final List<ExpressionConfig> returnExpression = config.getReturnExpression();
+      if (returnExpression == null || !multi && returnExpression.size() != 1) {
+        throw new ProcessConstructionException("Process %s requires %s return expression, found %d"
+            .formatted(config.getName(), multi ? "a" : "exactly one", returnExpression == null
+                ? 0
+                : returnExpression.size()));
       }
+      return returnExpression;
     }
 
     public List<TypedArgument> getInstanceVariables() {
@@ -320,6 +720,35 @@ public class CompilationProcessBuilder implements ProcessBuilder {
           .map(e -> TypedArgument.from(e.getValue().getLeft(), e.getKey()))
           .collect(Collectors.toList());
     }
+
+    /**
+     * Formats a continuation that waits on all action variables referenced by the supplied
+     * expressions, so that they can then be read without blocking. Returns an empty string when
+     * nothing is referenced.
+     */
+    private String awaitReferences(final Collection<List<ExpressionConfig>> expressions) {
+      final Set<Coordinates> references = referencedActions(expressions);
+      if (references.isEmpty()) {
+        return "";
+      }
+      return ".thenCompose(ignored -> context.whenActionsCompleted(%s))".formatted(
+          formatCoordinatesList(references));
+    }
+
+    /**
+     * Returns the coordinates of the actions whose variables are read by the supplied expressions
+     */
+    private Set<Coordinates> referencedActions(
+        final Collection<List<ExpressionConfig>> expressions) {
+      // sorted so that the generated source is deterministic
+      final Set<Coordinates> references = new TreeSet<>(Comparator.comparing(Coordinates::asArray,
+          Arrays::compare));
+      expressions.forEach(list -> list.forEach(expression -> collectReferences(expression,
+          references)));
+      // process arguments are stored at the root and are never async
+      references.remove(ROOT);
+      return references;
+    }
   }
 
 
@@ -331,6 +760,16 @@ public class CompilationProcessBuilder implements ProcessBuilder {
 
     protected final Coordinates coordinates;
 
+    /**
+     * Returns the executable's code as a continuation chained onto the current stage future of an
+     * async process. The stage variable is reassigned to the new continuation, so that subsequent
+     * executables chain onto it in turn.
+     *
+     * @param tabCount the indentation level
+     * @param depth    the control statement nesting depth, used to name the stage variable
+     */
+    public abstract String getContinuationContents(final int tabCount, final int depth);
+
   }
 
 
@@ -364,6 +803,15 @@ public class CompilationProcessBuilder implements ProcessBuilder {
       }
       return builder.toString();
     }
+
+    @Override
+    public String getContinuationContents(final int tabCount, final int depth) {
+      final StringBuilder builder = new StringBuilder();
+      for (final ExecutableData child : children) {
+        builder.append(child.getContinuationContents(tabCount, depth));
+      }
+      return builder.toString();
+    }
   }
 
 
@@ -379,36 +827,146 @@ public class CompilationProcessBuilder implements ProcessBuilder {
 
     @Override
     public String getContents(final int tabCount) {
+      return formatComment(tabCount) + formatStatements(tabCount);
+    }
+
+    @Override
+    public String getContinuationContents(final int tabCount, final int depth) {
+      final String tab = tabs(tabCount);
+      final String stage = stageVar(depth);
+      final String innerTab = tabs(tabCount + 1);
+      // continuations may run on any thread, so the execution's deadline is bound for the action.
+      // The action itself waits only on the actions it references (see formatStatements), so the
+      // stage doesn't wait on them, leaving later independent actions free to start
+      return formatComment(tabCount) + tab + stage + " = " + stage + ".thenRun(() -> {\n" + innerTab
+          + "try (final Deadline.Scope scope = context.getDeadline().bind()) {\n"
+          + formatStatements(tabCount + 2) + innerTab + "}\n" + tab + "});\n";
+    }
+
+    private String formatComment(final int tabCount) {
+      return tabs(tabCount) + "// Action {" + coordinates.asFormattedString(",") + "}\n";
+    }
+
+    private String formatStatements(final int tabCount) {
       final String tab = tabs(tabCount);
+      final String innerTab = tabs(tabCount + 1);
       final StringBuilder builder = new StringBuilder();
-      builder.append(tab)
-          .append("// Action {")
-          .append(coordinates.asFormattedString(","))
-          .append("}")
-          .append("\n")
-          .append(tab);
 
       final ProvidedCallableSpec actionSpec = engineSpec.getActions().get(config.getName());
       final Class<?> outputType = actionSpec.getType();
       final CallableExpressionData expressionData = new CallableExpressionData(getSourceFile(),
-          outputType, actionSpec, config.getArguments());
+          outputType, actionSpec, config.getArguments(), false);
 
       boolean nonVoid = !void.class.equals(outputType);
+      final boolean offloaded = isOffloaded(actionSpec);
+      final String coordinatesRef = sourceFile.coordinatesConstant(coordinates);
+
+      final Set<Coordinates> references = sourceFile.referencedActions(config.getArguments()
+          .values());
+      if (!references.isEmpty()) {
+        // actions reading other actions' variables are scheduled to run once those have completed,
+        // rather than blocking on them, so their arguments are evaluated within the scheduled call
+        final Locals locals = new Locals(sourceFile, innerTab);
+        final String call = expressionData.formatHoistedCall(locals);
+        builder.append(tab)
+            .append("context.scheduleAction(")
+            .append(coordinatesRef)
+            .append(", \"")
+            .append(config.getName())
+            .append("\", new Coordinates[]{")
+            .append(sourceFile.formatCoordinatesList(references))
+            .append("}, ")
+            .append(formatSupplier(call, locals, nonVoid, offloaded, tabCount))
+            .append(");\n");
+        return builder.toString();
+      }
+
+      // the arguments are evaluated once, ahead of the listener check, so that both branches share
+      // them. Only the traced branch pays for reporting the call
+      final Locals locals = new Locals(sourceFile, tab);
+      final String call = expressionData.formatHoistedCall(locals);
+      builder.append(locals.getDeclarations())
+          .append(tab)
+          .append("if (listener == null) {\n")
+          .append(formatUntracedCall(call, coordinatesRef, nonVoid, offloaded, tabCount + 1))
+          .append(tab)
+          .append("} else {\n")
+          .append(innerTab)
+          .append("context.traceAction(")
+          .append(coordinatesRef)
+          .append(", \"")
+          .append(config.getName())
+          .append("\", ")
+          .append(formatSupplier(call, new Locals(sourceFile, ""), nonVoid, offloaded, tabCount
+              + 1))
+          .append(");\n")
+          .append(tab)
+          .append("}\n");
+      return builder.toString();
+    }
 
-      if (!nonVoid) {
-        builder.append(expressionData.getContents(tabCount)).append("\n").append(tab);
+    /**
+     * Formats the action's call, storing its output directly in the context
+     */
+    private String formatUntracedCall(final String call, final String coordinatesRef,
+        final boolean nonVoid, final boolean offloaded, final int tabCount) {
+      final String tab = tabs(tabCount);
+      final String setVariable = "context.setVariable(%s, \"%s\", %%s);\n".formatted(coordinatesRef,
+          config.getName());
+      if (offloaded) {
+        return tab + setVariable.formatted(formatOffloadedCall(call, nonVoid));
       }
-      builder.append("context.setVariable(")
-          .append(coordinatesAsCodeInitializer(coordinates))
-          .append(", ");
       if (nonVoid) {
-        builder.append(expressionData.getContents(tabCount));
-      } else {
-        builder.append("null");
+        return tab + setVariable.formatted(call);
       }
-      builder.append(");\n");
+      return tab + call + ";\n" + tab + setVariable.formatted("null");
+    }
 
-      return builder.toString();
+    /**
+     * Returns whether the action's call is handed to the execution queue rather than made directly:
+     * synchronous actions declaring a costly {@link ActionCost} would otherwise block the thread
+     * executing the process. Actions returning a Runnable or Callable already hand their work off.
+     */
+    private boolean isOffloaded(final ProvidedCallableSpec actionSpec) {
+      if (actionSpec.isAsync() || actionSpec.getMetadata() == null) {
+        return false;
+      }
+      final Class<?> returnType = actionSpec.getMethod().getReturnType();
+      if (Runnable.class.isAssignableFrom(returnType) || Callable.class.isAssignableFrom(
+          returnType)) {
+        return false;
+      }
+      final Object cost = actionSpec.getMetadata().get(MetadataFlags.COST);
+      return cost == ActionCost.BLOCKING_IO || cost == ActionCost.CPU_HEAVY;
+    }
+
+    /**
+     * Formats the action's call as work for the execution queue, which the context submits with the
+     * action's cost
+     */
+    private String formatOffloadedCall(final String call, final boolean nonVoid) {
+      return nonVoid
+          ? "(%s<Object>) () -> %s".formatted(sourceFile.ensureImport(Callable.class), call)
+          : "(Runnable) () -> " + call;
+    }
+
+    /**
+     * Formats a lambda declaring the supplied locals, then calling the action and returning its
+     * output, or null for void actions. Offloaded actions instead return their call as work for the
+     * execution queue.
+     */
+    private String formatSupplier(final String call, final Locals locals, final boolean nonVoid,
+        final boolean offloaded, final int tabCount) {
+      final String output = offloaded ? formatOffloadedCall(call, nonVoid) : call;
+      final String declarations = locals.getDeclarations();
+      if (declarations.isEmpty() && (nonVoid || offloaded)) {
+        return "() -> " + output;
+      }
+      final String innerTab = tabs(tabCount + 1);
+      final String statements = nonVoid || offloaded
+          ? innerTab + "return " + output + ";\n"
+          : innerTab + call + ";\n" + innerTab + "return null;\n";
+      return "() -> {\n" + declarations + statements + tabs(tabCount) + "}";
     }
   }
 
@@ -433,9 +991,12 @@ public class CompilationProcessBuilder implements ProcessBuilder {
       final String tab = tabs(tabCount);
       final ExpressionData conditional = mapExpression(sourceFile, config.getCondition(),
           boolean.class);
-      builder.append(tab)
+      final Locals locals = new Locals(sourceFile, tab);
+      final String condition = conditional.getContents(locals);
+      builder.append(locals.getDeclarations())
+          .append(tab)
           .append("if (")
-          .append(conditional.getContents(tabCount))
+          .append(condition)
           .append(") {\n")
           .append(thenData.getContents(tabCount + 1))
           .append(tab)
@@ -445,17 +1006,107 @@ public class CompilationProcessBuilder implements ProcessBuilder {
           .append("}\n");
       return builder.toString();
     }
+
+    @Override
+    public String getContinuationContents(final int tabCount, final int depth) {
+      final StringBuilder builder = new StringBuilder();
+      final String tab = tabs(tabCount);
+      final String innerTab = tabs(tabCount + 1);
+      final String stage = stageVar(depth);
+      final String innerStage = stageVar(depth + 1);
+      final ExpressionData conditional = mapExpression(sourceFile, config.getCondition(),
+          boolean.class);
+      final Locals locals = new Locals(sourceFile, innerTab);
+      final String condition = conditional.getContents(locals);
+      // the chosen block's continuations are chained onto a new stage, which the enclosing stage
+      // then composes with
+      builder.append(tab)
+          .append(stage)
+          .append(" = ")
+          .append(stage)
+          .append(sourceFile.awaitReferences(List.of(List.of(config.getCondition()))))
+          .append(".thenCompose(ignored -> {\n")
+          .append(innerTab)
+          .append("CompletableFuture<Void> ")
+          .append(innerStage)
+          .append(" = CompletableFuture.completedFuture(null);\n")
+          .append(locals.getDeclarations())
+          .append(innerTab)
+          .append("if (")
+          .append(condition)
+          .append(") {\n")
+          .append(thenData.getContinuationContents(tabCount + 2, depth + 1))
+          .append(innerTab)
+          .append("} else {\n")
+          .append(elseData.getContinuationContents(tabCount + 2, depth + 1))
+          .append(innerTab)
+          .append("}\n")
+          .append(innerTab)
+          .append("return ")
+          .append(innerStage)
+          .append(";\n")
+          .append(tab)
+          .append("});\n");
+      return builder.toString();
+    }
   }
 
 
   @Getter
-  private static abstract class ExpressionData implements SourceSegment {
+  private static abstract class ExpressionData {
 
     protected final SourceFileData sourceFile;
 
     private ExpressionData(final SourceFileData sourceFile) {
       this.sourceFile = sourceFile;
     }
+
+    /**
+     * Returns the expression's code
+     *
+     * @param locals the locals of the statement using the expression, into which parts of it may be
+     *               hoisted
+     */
+    public abstract String getContents(final Locals locals);
+  }
+
+
+  /**
+   * The locals that parts of a statement's expressions are hoisted into, declared ahead of the
+   * statement. Names are unique within the source file, since the lambdas of async processes can't
+   * redeclare the locals of the continuations enclosing them.
+   */
+  private static class Locals {
+
+    private final SourceFileData sourceFile;
+    private final String tab;
+    private final StringBuilder declarations = new StringBuilder();
+
+    private Locals(final SourceFileData sourceFile, final String tab) {
+      this.sourceFile = sourceFile;
+      this.tab = tab;
+    }
+
+    /**
+     * Declares a local holding the value of the supplied expression, returning its name
+     */
+    public String hoist(final String expression) {
+      final String name = sourceFile.nextLocalName();
+      declarations.append(tab)
+          .append("final var ")
+          .append(name)
+          .append(" = ")
+          .append(expression)
+          .append(";\n");
+      return name;
+    }
+
+    /**
+     * Returns the declarations of the hoisted locals, each on its own line
+     */
+    public String getDeclarations() {
+      return declarations.toString();
+    }
   }
 
 
@@ -465,24 +1116,41 @@ public class CompilationProcessBuilder implements ProcessBuilder {
     private final Method method;
     private final Object provider;
     private final Class<?> outputType;
+    private final FunctionCache cache;
+    private final ActionCoalescer coalescer;
+    private final List<InputSpec> inputSpecs;
+    // the name reported to listeners for functions; actions are reported by the context instead
+    private final String timedName;
 
     private final List<ExpressionData> args;
 
+    /**
+     * @param timed whether calls are reported to the execution's listener, as is done for functions
+     */
     public CallableExpressionData(final SourceFileData sourceFile, final Class<?> requiredType,
-        final ProvidedCallableSpec spec, Map<String, List<ExpressionConfig>> args) {
-      this(sourceFile, requiredType, spec.getMethod(), spec.getProvider(), spec.getType(), spec
-          .getInputs(), args);
+        final ProvidedCallableSpec spec, Map<String, List<ExpressionConfig>> args,
+        final boolean timed) {
+      this(sourceFile, requiredType, spec.getMethod(), spec.getProvider(), spec.getType(),
+          functionCacheFor(spec), actionCoalescerFor(spec), spec.getInputs(), timed
+              ? spec.getName()
+              : null, args);
     }
 
     private CallableExpressionData(final SourceFileData sourceFile, final Class<?> requiredType,
         final Method method, final Object provider, final Class<?> outputType,
-        final List<InputSpec> inputSpecs, final Map<String, List<ExpressionConfig>> arguments) {
+        final FunctionCache cache, final ActionCoalescer coalescer,
+        final List<InputSpec> inputSpecs, final String timedName,
+        final Map<String, List<ExpressionConfig>> arguments) {
       super(sourceFile);
 
       this.requiredType = requiredType;
       this.method = method;
       this.provider = provider;
       this.outputType = outputType;
+      this.cache = cache;
+      this.coalescer = coalescer;
+      this.inputSpecs = inputSpecs;
+      this.timedName = timedName;
       this.args = inputSpecs.stream()
           .map(spec -> getArgument(spec, arguments.get(spec.getName())))
           .collect(Collectors.toList());
@@ -501,12 +1169,21 @@ public class CompilationProcessBuilder implements ProcessBuilder {
     }
 
     @Override
-    public String getContents(final int tabCount) {
-      final String providerVar = this.getSourceFile().ensureInstanceVar(provider);
-      final String functionName = method.getName();
-      final String implementation = providerVar + "." + functionName + "(" + args.stream()
-          .map(arg -> arg.getContents(tabCount))
-          .collect(Collectors.joining(", ")) + ")";
+    public String getContents(final Locals locals) {
+      final String implementation;
+      if (timedName != null) {
+        // the arguments are hoisted so that both sides of the listener check share them. They are
+        // evaluated before the timing method is entered, so that the reported time covers only
+        // this function's call
+        final String argContents = hoistArguments(locals);
+        implementation = "listener == null ? %s : %s(context%s)".formatted(formatCall(argContents),
+            sourceFile.ensureTimedFunction(timedName, this::formatTimedFunction), argContents
+                .isEmpty() ? "" : ", " + argContents);
+      } else {
+        implementation = formatCall(args.stream()
+            .map(arg -> arg.getContents(locals))
+            .collect(Collectors.joining(", ")));
+      }
       if (!requiredType.equals(outputType)) {
         return "context.convert(%s, %s.class)".formatted(implementation, getSourceFile()
             .ensureImport(requiredType));
@@ -514,6 +1191,82 @@ public class CompilationProcessBuilder implements ProcessBuilder {
         return implementation;
       }
     }
+
+    /**
+     * Formats the call of the method with its arguments hoisted into the supplied locals, except
+     * for literal values
+     */
+    public String formatHoistedCall(final Locals locals) {
+      return formatCall(hoistArguments(locals));
+    }
+
+    /**
+     * Formats the arguments as a comma-separated list, hoisting each into the supplied locals
+     * unless it is a literal value
+     */
+    private String hoistArguments(final Locals locals) {
+      return args.stream()
+          .map(arg -> arg instanceof ValueExpressionData
+              ? arg.getContents(locals)
+              : locals.hoist(arg.getContents(locals)))
+          .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Formats the call of the method with the supplied arguments, through its cache or coalescer if
+     * it has one
+     */
+    private String formatCall(final String argContents) {
+      final String providerVar = sourceFile.ensureInstanceVar(provider);
+      final String functionName = method.getName();
+      if (cache != null) {
+        return formatKeyedCall(sourceFile.ensureInstanceVar(cache, FunctionCache.class), "get", "",
+            providerVar, functionName, argContents);
+      } else if (coalescer != null) {
+        return formatKeyedCall(sourceFile.ensureInstanceVar(coalescer, ActionCoalescer.class),
+            "call", ", context::bridge", providerVar, functionName, argContents);
+      }
+      return providerVar + "." + functionName + "(" + argContents + ")";
+    }
+
+    private String formatTimedFunction(final String methodName) {
+      final Class<?>[] parameterTypes = method.getParameterTypes();
+      final StringBuilder parameters = new StringBuilder();
+      final List<String> names = new ArrayList<>();
+      for (int i = 0; i < parameterTypes.length; i++) {
+        parameters.append(", final ")
+            .append(sourceFile.typeReference(parameterTypes[i]))
+            .append(" a")
+            .append(i);
+        names.add("a" + i);
+      }
+      return TIMED_FUNCTION_TPL.formatted(sourceFile.typeReference(method.getReturnType()),
+          methodName, parameters, formatCall(String.join(", ", names)), timedName);
+    }
+
+    /**
+     * Formats a call through a function cache or action coalescer, which calls the method only if
+     * it has no result for equal arguments. The arguments are evaluated once, into the key, and
+     * passed on from there. Any trailing arguments are passed to the keyed method after the call.
+     */
+    private String formatKeyedCall(final String keyedVar, final String keyedMethod,
+        final String trailingArgs, final String providerVar, final String functionName,
+        final String argContents) {
+      final SourceFileData sourceFile = getSourceFile();
+      final List<String> unpacked = new ArrayList<>();
+      for (int i = 0; i < inputSpecs.size(); i++) {
+        final InputSpec input = inputSpecs.get(i);
+        final Class<?> type = input.isMulti()
+            ? input.getType().arrayType()
+            : BOXED_TYPE_MAPPING.getOrDefault(input.getType(), input.getType());
+        unpacked.add("(%s) keyedArgs[%d]".formatted(sourceFile.typeReference(type), i));
+      }
+      final Class<?> returnType = method.getReturnType();
+      return "((%s) %s.%s(new Object[]{%s}, keyedArgs -> %s.%s(%s)%s))".formatted(sourceFile
+          .typeReference(BOXED_TYPE_MAPPING.getOrDefault(returnType, returnType)), keyedVar,
+          keyedMethod, argContents, providerVar, functionName, String.join(", ", unpacked),
+          trailingArgs);
+    }
   }
 
 
@@ -556,7 +1309,7 @@ public class CompilationProcessBuilder implements ProcessBuilder {
     }
 
     @Override
-    public String getContents(final int tabCount) {
+    public String getContents(final Locals locals) {
       return contents;
     }
   }
@@ -575,15 +1328,18 @@ public class CompilationProcessBuilder implements ProcessBuilder {
     }
 
     @Override
-    public String getContents(final int tabCount) {
+    public String getContents(final Locals locals) {
       final StringBuilder writer = new StringBuilder();
       final Class<?> boxedType = BOXED_TYPE_MAPPING.getOrDefault(type, type);
       final String typeName = getSourceFile().ensureImport(boxedType);
 
       final Coordinates coordinates = config.getCoordinates();
       final List<String> path = Objects.requireNonNullElse(config.getPath(), List.of());
+      // the cast makes the conditional a standalone expression. Otherwise, when the reference is
+      // passed to a primitive parameter, the null branch fails to compile
+      writer.append("((").append(typeName).append(") (");
       writer.append("context.isVariableSet(")
-          .append(coordinatesAsCodeInitializer(coordinates))
+          .append(getSourceFile().coordinatesConstant(coordinates))
           .append(", ")
           .append(typeName)
           .append(".class");
@@ -593,7 +1349,7 @@ public class CompilationProcessBuilder implements ProcessBuilder {
       writer.append(")");
       writer.append(" ? ");
       writer.append("context.getVariable(")
-          .append(coordinatesAsCodeInitializer(coordinates))
+          .append(getSourceFile().coordinatesConstant(coordinates))
           .append(", ")
           .append(typeName)
           .append(".class");
@@ -603,7 +1359,7 @@ public class CompilationProcessBuilder implements ProcessBuilder {
       writer.append(")");
       writer.append(" : ");
       writer.append("null");
-      writer.append(" ");
+      writer.append("))");
       return writer.toString();
     }
   }
@@ -625,7 +1381,7 @@ public class CompilationProcessBuilder implements ProcessBuilder {
     }
 
     @Override
-    public String getContents(final int tabCount) {
+    public String getContents(final Locals locals) {
       final StringBuilder builder = new StringBuilder();
       final String typeName = getSourceFile().ensureImport(type);
 
@@ -634,7 +1390,7 @@ public class CompilationProcessBuilder implements ProcessBuilder {
           .append(typeName)
           .append("[]{")
           .append(args.stream()
-              .map(arg -> arg.getContents(tabCount))
+              .map(arg -> arg.getContents(locals))
               .collect(Collectors.joining(", ")))
           .append("}");
       return builder.toString();
@@ -648,7 +1404,7 @@ public class CompilationProcessBuilder implements ProcessBuilder {
       final ProvidedCallableSpec functionSpec = engineSpec.getFunctions()
           .get(functionConfig.getName());
       return new CallableExpressionData(sourceFile, requiredType, functionSpec, functionConfig
-          .getArguments());
+          .getArguments(), true);
     } else if (config instanceof ValueConfig valueConfig) {
       return new ValueExpressionData(sourceFile, valueConfig, requiredType);
     } else if (config instanceof ReferenceConfig referenceConfig) {
@@ -657,12 +1413,18 @@ public class CompilationProcessBuilder implements ProcessBuilder {
     throw new IllegalStateException("Unknown expression config requiredType: " + config.getClass());
   }
 
-  /**
-   * Formats coordinates as a string that can be inserted into Java source code that will evaluate
-   * as an identical instance of Coordinates at runtime
-   */
-  private static String coordinatesAsCodeInitializer(final Coordinates coordinates) {
-    return "Coordinates.from(%s)".formatted(coordinates.asFormattedString(","));
+  private static void collectReferences(final ExpressionConfig config, final Set<Coordinates> out) {
+    if (config instanceof ReferenceConfig referenceConfig) {
+      out.add(referenceConfig.getCoordinates());
+    } else if (config instanceof FunctionConfig functionConfig) {
+      functionConfig.getArguments()
+          .values()
+          .forEach(list -> list.forEach(argument -> collectReferences(argument, out)));
+    }
+  }
+
+  private static String stageVar(final int depth) {
+    return "stage" + depth;
   }
 
   private static String tabs(final int tabCount) {
@@ -3,6 +3,7 @@ package io.logicforge.core.engine.compile;
 import io.logicforge.core.common.Pair;
 import io.logicforge.core.common.TypedArgument;
 import io.logicforge.core.engine.Process;
+import io.logicforge.core.engine.jfr.ProcessCompilationEvent;
 import io.logicforge.core.exception.ProcessConstructionException;
 import lombok.Getter;
 
@@ -45,12 +46,19 @@ public class ProcessCompiler {
     final JavaCompiler.CompilationTask task = compiler.getTask(javacLog, fileManager, diagnostics,
         List.of("-g:source,lines,vars"), null, toCompile);
 
+    final ProcessCompilationEvent event = new ProcessCompilationEvent();
+    event.begin();
+    final long javacStart = System.nanoTime();
     boolean success = task.call();
+    final long javacTime = System.nanoTime() - javacStart;
     // TODO log diagnostic info
 
     if (success) {
-      return loadClassInstance(fileManager, className, argumentsAndTypes, type);
+      final T instance = loadClassInstance(fileManager, className, argumentsAndTypes, type);
+      commit(event, className, code, javacTime, fileManager, true);
+      return instance;
     } else {
+      commit(event, className, code, javacTime, fileManager, false);
       throw new ProcessConstructionException("Error compiling process actions: " + diagnostics
           .getDiagnostics()
           .stream()
@@ -61,6 +69,22 @@ public class ProcessCompiler {
   }
 
 
+  private static void commit(final ProcessCompilationEvent event, final String className,
+      final String code, final long javacTime, final InMemoryFileManager fileManager,
+      final boolean succeeded) {
+    if (event.shouldCommit()) {
+      event.className = className;
+      event.sourceSize = code.length();
+      event.javacTime = javacTime;
+      event.classBytes = fileManager.classes.values()
+          .stream()
+          .mapToLong(compiled -> compiled.getCompiledBytes().length)
+          .sum();
+      event.succeeded = succeeded;
+      event.commit();
+    }
+  }
+
   private <T extends Process> T loadClassInstance(final InMemoryFileManager fileManager,
       final String className, final List<TypedArgument> argumentsAndTypes, final Class<T> type)
       throws ProcessConstructionException {
@@ -0,0 +1,165 @@
+package io.logicforge.core.engine.impl;
+
+import io.logicforge.core.engine.Deadline;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.Getter;
+
+/**
+ * Coalesces concurrent calls of an idempotent async action that have equal arguments into a single
+ * in-flight call, shared by every execution that makes them (see
+ * {@link io.logicforge.core.annotations.metadata.Idempotent}).
+ *
+ * <p>
+ * The first call for a set of arguments calls the action; calls with equal arguments made before
+ * its result completes wait on that result rather than calling the action again. Once the result
+ * completes, the arguments are released, so the next call calls the action again.
+ * </p>
+ *
+ * <p>
+ * Each caller receives its own view of the shared result, so that cancelling one caller's view,
+ * such as when its execution times out, does not fail the others. The action's own future is
+ * cancelled only once every caller has cancelled its view. For the same reason, the action is
+ * called with no {@link Deadline} bound, rather than the first caller's: each caller's deadline
+ * applies only to its own view.
+ * </p>
+ */
+public class ActionCoalescer {
+
+  /**
+   * A snapshot of the coalescer's statistics
+   *
+   * @param calls     the number of calls that called the action
+   * @param coalesced the number of calls that shared another call's result
+   * @param inFlight  the number of shared calls currently in flight
+   */
+  public record Stats(long calls, long coalesced, int inFlight) {
+
+    /**
+     * Returns the fraction of calls that shared another call's result
+     */
+    public double coalescedRate() {
+      final long total = calls + coalesced;
+      return total == 0 ? 0D : (double) coalesced / total;
+    }
+  }
+
+  @Getter
+  private final String name;
+  private final Map<ArgumentsKey, Flight> flights = new ConcurrentHashMap<>();
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  /**
+   * @param name the name of the coalesced action
+   */
+  public ActionCoalescer(final String name) {
+    this.name = name;
+  }
+
+  /**
+   * Returns a future for the action's result for the supplied arguments, calling the action only if
+   * no call with equal arguments is in flight
+   *
+   * @param arguments the action's arguments, which are retained as the key until the call completes
+   * @param action    calls the action with its arguments, returning its future
+   * @param bridge    converts a plain future returned by the action into a CompletableFuture, such
+   *                  as {@link io.logicforge.core.engine.ExecutionContext#bridge(Future)}
+   */
+  public CompletableFuture<Object> call(final Object[] arguments,
+      final Function<Object[], Object> action,
+      final Function<Future<?>, CompletableFuture<Object>> bridge) {
+    final ArgumentsKey key = new ArgumentsKey(arguments);
+    final Flight created = new Flight();
+    final Flight flight = flights.compute(key, (ignored, existing) -> existing != null && existing
+        .join() ? existing : created);
+    if (flight != created) {
+      coalesced.increment();
+      return flight.view();
+    }
+    calls.increment();
+    created.result.whenComplete((value, error) -> flights.remove(key, created));
+    // the view is taken before the action is called, so that a synchronous failure can't complete
+    // the result and release the key before the caller has joined it
+    final CompletableFuture<Object> view = created.view();
+    try (final Deadline.Scope scope = Deadline.NONE.bind()) {
+      created.start(action.apply(arguments), bridge);
+    } catch (final RuntimeException | Error e) {
+      created.result.completeExceptionally(e);
+      throw e;
+    }
+    return view;
+  }
+
+  public Stats getStats() {
+    return new Stats(calls.sum(), coalesced.sum(), flights.size());
+  }
+
+  /**
+   * A single call of the action, shared by its callers
+   */
+  private static final class Flight {
+
+    private final CompletableFuture<Object> result = new CompletableFuture<>();
+    // the number of callers whose views haven't been cancelled; once zero, no caller may join
+    private final AtomicInteger callers = new AtomicInteger(1);
+    private volatile Future<?> underlying;
+
+    /**
+     * Adds a caller, unless the call has completed or every caller has cancelled
+     */
+    private boolean join() {
+      int count;
+      do {
+        count = callers.get();
+        if (count == 0 || result.isDone()) {
+          return false;
+        }
+      } while (!callers.compareAndSet(count, count + 1));
+      return true;
+    }
+
+    private CompletableFuture<Object> view() {
+      final CompletableFuture<Object> view = result.copy();
+      view.whenComplete((value, error) -> {
+        if (view.isCancelled() && callers.decrementAndGet() == 0) {
+          final Future<?> call = underlying;
+          if (call != null) {
+            call.cancel(true);
+          }
+          result.cancel(false);
+        }
+      });
+      return view;
+    }
+
+    private void start(final Object output,
+        final Function<Future<?>, CompletableFuture<Object>> bridge) {
+      if (output instanceof Future<?> aFuture) {
+        underlying = aFuture;
+        // plain futures expose no completion callbacks, so they are waited on through the bridge
+        final CompletableFuture<?> completableFuture = aFuture instanceof CompletableFuture<?> cf
+            ? cf
+            : bridge.apply(aFuture);
+        completableFuture.whenComplete((value, error) -> {
+          if (error != null) {
+            result.completeExceptionally(error);
+          } else {
+            result.complete(value);
+          }
+        });
+      } else {
+        result.complete(output);
+      }
+      if (result.isCancelled() && underlying != null) {
+        // every caller cancelled before the action returned its future
+        underlying.cancel(true);
+      }
+    }
+  }
+}
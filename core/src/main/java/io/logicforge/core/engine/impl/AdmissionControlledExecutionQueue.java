@@ -0,0 +1,380 @@
+package io.logicforge.core.engine.impl;
+
+import io.logicforge.core.constant.ActionCost;
+import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.exception.ExecutionRejectedException;
+import io.logicforge.core.exception.ExecutionRejectedException.Reason;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An ExecutionQueue decorator that applies admission control to process executions, so that
+ * overload degrades gracefully rather than failing executions partway through when the underlying
+ * queue runs out of capacity.
+ *
+ * <p>
+ * Before an execution starts, it must acquire a permit from both its process's limit and the global
+ * limit (see {@link Limits}). If a permit is not available, the execution waits up to the
+ * configured maximum wait, or is rejected immediately if that is zero. If too many executions are
+ * already waiting, new arrivals are shed without waiting at all. Rejections are reported as an
+ * {@link ExecutionRejectedException} before any action has run.
+ * </p>
+ *
+ * <p>
+ * Waiting never blocks an asynchronous execution's caller: {@link #admitAsync()} returns a future
+ * that completes once the execution is admitted, or fails with the rejection. Synchronous
+ * executions block in {@link #admit()}; if interrupted while waiting, they are rejected with
+ * {@link Reason#INTERRUPTED} and the thread's interrupt status is restored.
+ * </p>
+ */
+@Slf4j
+public class AdmissionControlledExecutionQueue implements ExecutionQueue {
+
+  /**
+   * Admission limits
+   *
+   * @param maxExecutions           the maximum number of executions that may run at once across all
+   *                                processes
+   * @param maxExecutionsPerProcess the maximum number of executions of any single process that may
+   *                                run at once
+   * @param maxWaiting              the maximum number of executions that may wait for admission at
+   *                                once; further arrivals are shed
+   * @param maxWait                 how long an execution may wait for admission before it is
+   *                                rejected; zero rejects immediately
+   */
+  public record Limits(int maxExecutions, int maxExecutionsPerProcess, int maxWaiting,
+                       Duration maxWait) {
+
+    public Limits {
+      if (maxExecutions < 1 || maxExecutionsPerProcess < 1 || maxWaiting < 0) {
+        throw new IllegalArgumentException("Execution limits must be positive");
+      }
+      if (maxWait == null || maxWait.isNegative()) {
+        throw new IllegalArgumentException("maxWait must be non-negative");
+      }
+    }
+  }
+
+
+  /**
+   * A snapshot of the queue's admission metrics
+   *
+   * @param executing   the number of executions currently admitted
+   * @param waiting     the number of executions currently waiting for admission (queue depth)
+   * @param admitted    the total number of executions admitted
+   * @param rejected    the total number of executions rejected after reaching a limit
+   * @param shed        the total number of executions shed without waiting
+   * @param averageWait the average time admitted executions spent waiting
+   * @param maxWait     the longest time an admitted execution spent waiting
+   */
+  public record Metrics(int executing, int waiting, long admitted, long rejected, long shed,
+                        Duration averageWait, Duration maxWait) {
+
+  }
+
+  private final ExecutionQueue delegate;
+  private final Limits limits;
+  private final PermitPool globalPermits;
+  // held weakly, so that a process's permits are dropped once no build of it is in use
+  private final Map<Object, WeakReference<PermitPool>> processPermits = new ConcurrentHashMap<>();
+
+  private final AtomicInteger executing = new AtomicInteger();
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder shed = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  public AdmissionControlledExecutionQueue(final ExecutionQueue delegate, final Limits limits) {
+    this.delegate = delegate;
+    this.limits = limits;
+    this.globalPermits = new PermitPool(limits.maxExecutions());
+  }
+
+  @Override
+  public <T> Future<T> submit(final Callable<T> callable) {
+    return delegate.submit(callable);
+  }
+
+  @Override
+  public Future<?> submit(final Runnable runnable) {
+    return delegate.submit(runnable);
+  }
+
+  @Override
+  public <T> Future<T> submitInline(final Callable<T> callable) {
+    return delegate.submitInline(callable);
+  }
+
+  @Override
+  public <T> Future<T> submit(final Callable<T> callable, final ActionCost cost) {
+    return delegate.submit(callable, cost);
+  }
+
+  @Override
+  public boolean runInline(final Future<?> future) {
+    return delegate.runInline(future);
+  }
+
+  @Override
+  public boolean isSaturated() {
+    return delegate.isSaturated();
+  }
+
+  @Override
+  public boolean schedulesWork() {
+    return true;
+  }
+
+  @Override
+  public ExecutionQueue forProcess(final ProcessConfig<?, ?> processConfig) {
+    final ExecutionQueue processDelegate = delegate.forProcess(processConfig);
+    final Object id = processConfig.getId();
+    if (id == null) {
+      // processes without an ID (e.g. unsaved configs) can't be recognized across builds, so each
+      // build is limited individually
+      return new ProcessQueue(processDelegate, new PermitPool(limits.maxExecutionsPerProcess()),
+          processConfig.getName());
+    }
+    // builds of the same process share its limit
+    processPermits.values().removeIf(ref -> ref.get() == null);
+    final PermitPool[] permits = new PermitPool[1];
+    processPermits.compute(id, (key, ref) -> {
+      permits[0] = ref != null ? ref.get() : null;
+      if (permits[0] == null) {
+        permits[0] = new PermitPool(limits.maxExecutionsPerProcess());
+        return new WeakReference<>(permits[0]);
+      }
+      return ref;
+    });
+    return new ProcessQueue(processDelegate, permits[0], id);
+  }
+
+  /**
+   * Admits an execution subject only to the global limit
+   */
+  @Override
+  public Permit admit() throws ExecutionRejectedException {
+    return admit(delegate, null, "(unscoped)");
+  }
+
+  /**
+   * Admits an execution subject only to the global limit, without blocking
+   */
+  @Override
+  public CompletableFuture<Permit> admitAsync() {
+    return admitAsync(delegate, null, "(unscoped)");
+  }
+
+  @Override
+  public boolean shutdown(final Duration gracePeriod) throws InterruptedException {
+    return delegate.shutdown(gracePeriod);
+  }
+
+  public Metrics getMetrics() {
+    final long admittedCount = admitted.sum();
+    return new Metrics(executing.get(), waiting.get(), admittedCount, rejected.sum(), shed.sum(),
+        Duration.ofNanos(admittedCount == 0 ? 0 : totalWaitNanos.sum() / admittedCount), Duration
+            .ofNanos(maxWaitNanos.get()));
+  }
+
+  /**
+   * Admits an execution as {@link #admitAsync(ExecutionQueue, PermitPool, Object)} does, blocking
+   * until the execution is admitted or rejected
+   */
+  private Permit admit(final ExecutionQueue admittingDelegate, final PermitPool processPermits,
+      final Object processKey) throws ExecutionRejectedException {
+    final CompletableFuture<Permit> admission = admitAsync(admittingDelegate, processPermits,
+        processKey);
+    try {
+      return admission.get();
+    } catch (final InterruptedException e) {
+      // the abandoned request still holds its place, so release whatever it is granted
+      admission.thenAccept(Permit::close);
+      Thread.currentThread().interrupt();
+      throw new ExecutionRejectedException(Reason.INTERRUPTED,
+          "Interrupted while waiting for admission of process %s".formatted(processKey));
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof ExecutionRejectedException rejection) {
+        throw rejection;
+      }
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Admission failed", e.getCause());
+    }
+  }
+
+  /**
+   * Admits an execution to both the delegate and this queue, releasing the delegate's admission if
+   * this queue rejects the execution
+   */
+  private CompletableFuture<Permit> admitAsync(final ExecutionQueue admittingDelegate,
+      final PermitPool processPermits, final Object processKey) {
+    return admittingDelegate.admitAsync().thenCompose(delegatePermit -> {
+      final CompletableFuture<Permit> admission = acquire(processPermits, processKey);
+      admission.whenComplete((permit, e) -> {
+        if (e != null) {
+          delegatePermit.close();
+        }
+      });
+      return admission.thenApply(permit -> () -> {
+        permit.close();
+        delegatePermit.close();
+      });
+    });
+  }
+
+  private CompletableFuture<Permit> acquire(final PermitPool processPermits,
+      final Object processKey) {
+    // fast path: admit without counting as waiting if permits are free
+    if (tryAcquire(processPermits)) {
+      if (globalPermits.tryAcquire()) {
+        return CompletableFuture.completedFuture(admitted(processPermits, 0L));
+      }
+      release(processPermits);
+    }
+
+    if (waiting.incrementAndGet() > limits.maxWaiting()) {
+      waiting.decrementAndGet();
+      shed.increment();
+      return CompletableFuture.failedFuture(new ExecutionRejectedException(Reason.SHED,
+          "Execution of process %s shed: %d executions already waiting for admission".formatted(
+              processKey, limits.maxWaiting())));
+    }
+    final long start = System.nanoTime();
+    final long deadline = start + limits.maxWait().toNanos();
+    final CompletableFuture<Permit> admission = acquire(processPermits, deadline)
+        .exceptionallyCompose(e -> CompletableFuture.failedFuture(rejected(Reason.PROCESS_LIMIT,
+            "Process %s is at its limit of %d concurrent executions".formatted(processKey, limits
+                .maxExecutionsPerProcess()))))
+        .thenCompose(ignored -> acquire(globalPermits, deadline).exceptionallyCompose(e -> {
+          release(processPermits);
+          return CompletableFuture.failedFuture(rejected(Reason.GLOBAL_LIMIT,
+              "Engine is at its limit of %d concurrent executions".formatted(limits
+                  .maxExecutions())));
+        }))
+        .thenApply(ignored -> admitted(processPermits, System.nanoTime() - start));
+    admission.whenComplete((permit, e) -> waiting.decrementAndGet());
+    return admission;
+  }
+
+  private Permit admitted(final PermitPool processPermits, final long waitNanos) {
+    admitted.increment();
+    executing.incrementAndGet();
+    totalWaitNanos.add(waitNanos);
+    maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    final AtomicBoolean released = new AtomicBoolean();
+    return () -> {
+      if (released.compareAndSet(false, true)) {
+        executing.decrementAndGet();
+        globalPermits.release();
+        release(processPermits);
+      }
+    };
+  }
+
+  private ExecutionRejectedException rejected(final Reason reason, final String message) {
+    rejected.increment();
+    log.debug("Execution rejected: {}", message);
+    return new ExecutionRejectedException(reason, message);
+  }
+
+  private static boolean tryAcquire(final PermitPool permits) {
+    return permits == null || permits.tryAcquire();
+  }
+
+  private static CompletableFuture<Void> acquire(final PermitPool permits, final long deadline) {
+    return permits == null
+        ? CompletableFuture.completedFuture(null)
+        : permits.acquire(Duration.ofNanos(deadline - System.nanoTime()));
+  }
+
+  private static void release(final PermitPool permits) {
+    if (permits != null) {
+      permits.release();
+    }
+  }
+
+  /**
+   * The view of the queue used by a single process's executions, which are also subject to the
+   * per-process limit
+   */
+  private class ProcessQueue implements ExecutionQueue {
+
+    private final ExecutionQueue processDelegate;
+    private final PermitPool permits;
+    private final Object processKey;
+
+    private ProcessQueue(final ExecutionQueue processDelegate, final PermitPool permits,
+        final Object processKey) {
+      this.processDelegate = processDelegate;
+      this.permits = permits;
+      this.processKey = processKey;
+    }
+
+    @Override
+    public <T> Future<T> submit(final Callable<T> callable) {
+      return processDelegate.submit(callable);
+    }
+
+    @Override
+    public Future<?> submit(final Runnable runnable) {
+      return processDelegate.submit(runnable);
+    }
+
+    @Override
+    public <T> Future<T> submitInline(final Callable<T> callable) {
+      return processDelegate.submitInline(callable);
+    }
+
+    @Override
+    public <T> Future<T> submit(final Callable<T> callable, final ActionCost cost) {
+      return processDelegate.submit(callable, cost);
+    }
+
+    @Override
+    public boolean runInline(final Future<?> future) {
+      return processDelegate.runInline(future);
+    }
+
+    @Override
+    public boolean isSaturated() {
+      return processDelegate.isSaturated();
+    }
+
+    @Override
+    public boolean schedulesWork() {
+      return true;
+    }
+
+    @Override
+    public Permit admit() throws ExecutionRejectedException {
+      return AdmissionControlledExecutionQueue.this.admit(processDelegate, permits, processKey);
+    }
+
+    @Override
+    public CompletableFuture<Permit> admitAsync() {
+      return AdmissionControlledExecutionQueue.this.admitAsync(processDelegate, permits,
+          processKey);
+    }
+
+    @Override
+    public boolean shutdown(final Duration gracePeriod) throws InterruptedException {
+      return AdmissionControlledExecutionQueue.this.shutdown(gracePeriod);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package io.logicforge.core.engine.impl;
+
+import java.util.Arrays;
+
+/**
+ * A key made up of a call's argument values, compared by deep equality, for looking up results
+ * shared between calls with equal arguments
+ */
+final class ArgumentsKey {
+
+  private final Object[] arguments;
+  private final int hash;
+  private final int spreadHash;
+
+  ArgumentsKey(final Object[] arguments) {
+    this.arguments = arguments;
+    this.hash = Arrays.deepHashCode(arguments);
+    final int mixed = hash * 0x9E3779B9;
+    this.spreadHash = mixed ^ (mixed >>> 16);
+  }
+
+  /**
+   * Returns the key's hash with its bits spread, for indexing structures that use the low bits
+   */
+  int spreadHash() {
+    return spreadHash;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return o instanceof ArgumentsKey other && hash == other.hash && Arrays.deepEquals(arguments,
+        other.arguments);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
@@ -0,0 +1,47 @@
+package io.logicforge.core.engine.impl;
+
+import io.logicforge.core.model.domain.specification.ConverterSpec;
+import io.logicforge.core.model.domain.specification.EngineSpec;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An engine's converters, indexed by input and output type. Building the index walks every
+ * registered converter, so it is built once when a process is compiled and then shared, read-only,
+ * by all of that process's executions rather than rebuilt for each one.
+ */
+public final class ConverterIndex {
+
+  private final Map<Class<?>, Map<Class<?>, ConverterSpec>> converters = new HashMap<>();
+
+  private ConverterIndex(final EngineSpec engineSpec) {
+    for (final ConverterSpec converter : engineSpec.getConverters()) {
+      // runtime values are always boxed, so converters between primitives are indexed by the boxed
+      // types
+      final Class<?> inputType = box(converter.getInputType());
+      final Class<?> outputType = box(converter.getOutputType());
+      converters.computeIfAbsent(inputType, type -> new HashMap<>()).put(outputType, converter);
+    }
+  }
+
+  public static ConverterIndex of(final EngineSpec engineSpec) {
+    return new ConverterIndex(engineSpec);
+  }
+
+  /**
+   * Returns the converter from the input type to the output type, or null if none is registered
+   *
+   * @param inputType  the runtime (boxed) type of the value to convert
+   * @param outputType the (boxed) type to convert to
+   */
+  public ConverterSpec get(final Class<?> inputType, final Class<?> outputType) {
+    final Map<Class<?>, ConverterSpec> outputMap = converters.get(inputType);
+    return outputMap != null ? outputMap.get(outputType) : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> Class<T> box(final Class<T> type) {
+    return (Class<T>) MethodType.methodType(type).wrap().returnType();
+  }
+}
@@ -0,0 +1,150 @@
+package io.logicforge.core.engine.impl;
+
+import io.logicforge.core.constant.ActionCost;
+import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.exception.ExecutionRejectedException;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * An ExecutionQueue decorator that routes each action's work by the action's declared
+ * {@link ActionCost}: cheap work is submitted to the delegate to be run inline, work that blocks on
+ * I/O runs on a queue of virtual threads, and CPU-heavy work runs on a pool bounded by the number
+ * of processors, so that neither can tie up the threads of the delegate. Work without a declared
+ * cost is handed to the delegate unchanged.
+ *
+ * <p>
+ * Blocking I/O and CPU-heavy work never reaches the delegate, so this queue must be the innermost
+ * of any decorators that schedule work or limit executions: a {@link FairExecutionQueue} or
+ * {@link AdmissionControlledExecutionQueue} wraps this queue, and hands costly work to it once the
+ * work's turn comes, rather than being its delegate. Delegates that schedule work, directly or
+ * through other decorators, are rejected (see {@link ExecutionQueue#schedulesWork()}).
+ * </p>
+ *
+ * <p>
+ * Per-process views share the blocking I/O and CPU queues, which are shut down along with the
+ * delegate.
+ * </p>
+ */
+public class CostAwareExecutionQueue implements ExecutionQueue {
+
+  private static final String CPU_THREAD_NAME_PREFIX = "logicforge-cpu-";
+
+  private final ExecutionQueue delegate;
+  private final ExecutionQueue blockingQueue;
+  private final ExecutionQueue cpuQueue;
+
+  /**
+   * Creates a queue running blocking I/O work on virtual threads and CPU-heavy work on a fixed
+   * pool with one platform thread per processor, whose threads are interrupted when their work is
+   * cancelled (as on a timeout) or the queue is shut down
+   *
+   * @param delegate               the queue that runs all other work
+   * @param maxBlockingConcurrency the maximum number of blocking I/O tasks that may run at once
+   * @throws IllegalArgumentException if the delegate schedules work
+   */
+  public CostAwareExecutionQueue(final ExecutionQueue delegate, final int maxBlockingConcurrency) {
+    this(delegate, new VirtualThreadExecutionQueue(maxBlockingConcurrency),
+        new SimpleExecutionQueue(Executors.newFixedThreadPool(Runtime.getRuntime()
+            .availableProcessors(), Thread.ofPlatform()
+                .name(CPU_THREAD_NAME_PREFIX, 0)
+                .factory())));
+  }
+
+  /**
+   * @param delegate      the queue that runs cheap work and work without a declared cost
+   * @param blockingQueue the queue that runs blocking I/O work
+   * @param cpuQueue      the queue that runs CPU-heavy work
+   * @throws IllegalArgumentException if the delegate schedules work
+   */
+  public CostAwareExecutionQueue(final ExecutionQueue delegate, final ExecutionQueue blockingQueue,
+      final ExecutionQueue cpuQueue) {
+    if (delegate.schedulesWork()) {
+      throw new IllegalArgumentException(("%s schedules work but would not see blocking I/O or "
+          + "CPU-heavy work; wrap the cost aware queue in the scheduling queue instead").formatted(
+              delegate.getClass().getSimpleName()));
+    }
+    this.delegate = delegate;
+    this.blockingQueue = blockingQueue;
+    this.cpuQueue = cpuQueue;
+  }
+
+  @Override
+  public <T> Future<T> submit(final Callable<T> callable) {
+    return delegate.submit(callable);
+  }
+
+  @Override
+  public Future<?> submit(final Runnable runnable) {
+    return delegate.submit(runnable);
+  }
+
+  @Override
+  public <T> Future<T> submitInline(final Callable<T> callable) {
+    return delegate.submitInline(callable);
+  }
+
+  @Override
+  public <T> Future<T> submit(final Callable<T> callable, final ActionCost cost) {
+    return switch (cost) {
+      case CPU_CHEAP -> delegate.submitInline(callable);
+      case BLOCKING_IO -> blockingQueue.submit(callable);
+      case CPU_HEAVY -> cpuQueue.submit(callable);
+      case UNSPECIFIED -> delegate.submit(callable);
+    };
+  }
+
+  @Override
+  public boolean runInline(final Future<?> future) {
+    return delegate.runInline(future);
+  }
+
+  @Override
+  public boolean isSaturated() {
+    return delegate.isSaturated();
+  }
+
+  @Override
+  public boolean schedulesWork() {
+    return delegate.schedulesWork();
+  }
+
+  @Override
+  public ExecutionQueue forProcess(final ProcessConfig<?, ?> processConfig) {
+    final ExecutionQueue processDelegate = delegate.forProcess(processConfig);
+    return processDelegate == delegate
+        ? this
+        : new CostAwareExecutionQueue(processDelegate, blockingQueue, cpuQueue);
+  }
+
+  @Override
+  public Permit admit() throws ExecutionRejectedException {
+    return delegate.admit();
+  }
+
+  @Override
+  public CompletableFuture<Permit> admitAsync() {
+    return delegate.admitAsync();
+  }
+
+  /**
+   * Shuts down the delegate and then the blocking I/O and CPU queues, all within the one grace
+   * period
+   */
+  @Override
+  public boolean shutdown(final Duration gracePeriod) throws InterruptedException {
+    final long deadline = System.nanoTime() + gracePeriod.toNanos();
+    boolean drained = delegate.shutdown(gracePeriod);
+    drained &= blockingQueue.shutdown(remaining(deadline));
+    drained &= cpuQueue.shutdown(remaining(deadline));
+    return drained;
+  }
+
+  private static Duration remaining(final long deadline) {
+    return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+  }
+}
@@ -1,68 +1,137 @@
 package io.logicforge.core.engine.impl;
 
-import io.logicforge.core.common.CoordinateTrie;
+import io.logicforge.core.common.ConcurrentCoordinateTrie;
 import io.logicforge.core.common.Coordinates;
+import io.logicforge.core.constant.ActionCost;
+import io.logicforge.core.constant.MetadataFlags;
+import io.logicforge.core.engine.Deadline;
 import io.logicforge.core.engine.ExecutionContext;
+import io.logicforge.core.engine.ExecutionListener;
 import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.engine.LogicForgeOptions;
 import io.logicforge.core.exception.ConversionException;
 import io.logicforge.core.exception.MissingVariableException;
 import io.logicforge.core.exception.ProcessExecutionException;
+import io.logicforge.core.exception.ProcessTimeoutException;
 import io.logicforge.core.exception.UnexpectedVariableException;
 import io.logicforge.core.model.domain.specification.ConverterSpec;
 import io.logicforge.core.model.domain.specification.EngineSpec;
+import io.logicforge.core.model.domain.specification.ProvidedCallableSpec;
 import io.logicforge.core.model.domain.specification.TypePropertySpec;
 import io.logicforge.core.model.domain.specification.TypeSpec;
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public class DefaultExecutionContext implements ExecutionContext {
 
   private final EngineSpec engineSpec;
-  private final CoordinateTrie<Optional<Object>> values = new CoordinateTrie<>();
-  private final Map<Class<?>, Map<Class<?>, ConverterSpec>> converters = new HashMap<>();
+  private final ConcurrentCoordinateTrie<Optional<Object>> values =
+      new ConcurrentCoordinateTrie<>();
+  private final ConverterIndex converters;
   private final ExecutionQueue queue;
   private final CompletableFuture<Void> future = new CompletableFuture<>();
   private final AtomicInteger executingAsyncCount = new AtomicInteger();
+  private final Set<Future<?>> pending = ConcurrentHashMap.newKeySet();
+  private final AtomicReference<Throwable> scheduledFailure = new AtomicReference<>();
+  private final LogicForgeOptions options;
+  private final CompletableFuture<ExecutionQueue.Permit> admission;
+  @Getter
+  private final Deadline deadline;
+  private final String processId;
+  // null unless a listener was registered when the execution started
+  private final ExecutionListener listener;
+  private final long startNanos;
+  private final AtomicReference<Throwable> tracedFailure = new AtomicReference<>();
 
-  private boolean mainThreadWaiting = false;
+  private volatile boolean mainThreadWaiting = false;
+  private volatile Future<?> lastQueued;
 
   public DefaultExecutionContext(final EngineSpec engineSpec, ExecutionQueue queue,
       final Map<String, Object> args) {
-    this.engineSpec = engineSpec;
-    this.queue = queue;
-    setVariable(Coordinates.ROOT, args);
+    this(engineSpec, queue, LogicForgeOptions.DEFAULT, args);
+  }
+
+  public DefaultExecutionContext(final EngineSpec engineSpec, final ExecutionQueue queue,
+      final LogicForgeOptions options, final Map<String, Object> args) {
+    this(engineSpec, ConverterIndex.of(engineSpec), queue, options, args);
+  }
+
+  /**
+   * @param converters the engine's converters, built once and shared between executions
+   */
+  public DefaultExecutionContext(final EngineSpec engineSpec, final ConverterIndex converters,
+      final ExecutionQueue queue, final LogicForgeOptions options, final Map<String, Object> args) {
+    this(engineSpec, converters, queue, options, null, false, options.executionTimeout(), null,
+        args);
+  }
 
-    for (final ConverterSpec converter : engineSpec.getConverters()) {
-      final Class<?> inputType = converter.getInputType();
-      final Class<?> outputType = converter.getOutputType();
-      final Map<Class<?>, ConverterSpec> outputMap = converters.computeIfAbsent(inputType,
-          type -> new HashMap<>());
-      outputMap.put(outputType, converter);
+  /**
+   * @param converters     the engine's converters, built once and shared between executions
+   * @param processId      the ID of the executing process, reported to the listener
+   * @param asyncAdmission whether the execution is admitted without blocking the calling thread, in
+   *                       which case a rejection fails {@link #admitted()} rather than being thrown
+   * @param timeout        the options' execution timeout, which callers starting many executions
+   *                       read once for all of them
+   * @param listener       the listener receiving the execution's events, or null if none is
+   *                       registered
+   */
+  public DefaultExecutionContext(final EngineSpec engineSpec, final ConverterIndex converters,
+      final ExecutionQueue queue, final LogicForgeOptions options, final String processId,
+      final boolean asyncAdmission, final Duration timeout, final ExecutionListener listener,
+      final Map<String, Object> args) {
+    // admission comes first, so that a rejected execution has not started any work
+    this.admission = asyncAdmission
+        ? queue.admitAsync()
+        : CompletableFuture.completedFuture(queue.admit());
+    try {
+      this.engineSpec = engineSpec;
+      this.converters = converters;
+      this.queue = queue;
+      this.options = options;
+      this.deadline = Deadline.after(timeout);
+      this.processId = processId;
+      this.listener = listener;
+      this.startNanos = listener != null ? System.nanoTime() : 0L;
+      setVariable(Coordinates.ROOT, args);
+      if (listener != null) {
+        listener.processStarted(this, processId);
+      }
+    } catch (final RuntimeException | Error e) {
+      // the execution never starts, so it will never be closed
+      admission.thenAccept(ExecutionQueue.Permit::close);
+      throw e;
     }
   }
 
   @Override
   public boolean isVariableSet(final Coordinates coordinates, final Class<?> expectedType,
       final String... path) {
-    Object variable = values.get(coordinates).orElseThrow(MissingVariableException::new);
-    if (variable instanceof Future<?>) {
-      try {
-        variable = ((Future<?>) variable).get();
-      } catch (InterruptedException | ExecutionException e) {
-        throw new ProcessExecutionException(e);
-      }
+    Object variable = values.get(coordinates).orElseThrow(this::missingVariable);
+    if (variable instanceof Future<?> aFuture) {
+      variable = resolve(aFuture);
     }
     if (variable == null) {
       return false;
@@ -75,14 +144,7 @@ public class DefaultExecutionContext implements ExecutionContext {
       final String name = pathSegments.remove(0);
       variable = ((Map<String, Object>) variable).get(name);
     }
-    final Class<?> rootType = variable.getClass();
-    TypeSpec typeSpec = engineSpec.getTypes()
-        .values()
-        .stream()
-        .filter(spec -> spec.getRuntimeClass().equals(rootType))
-        .findFirst()
-        .orElseThrow(() -> new RuntimeException("Action %s return var contains unexpected type %s"
-            .formatted(coordinates, rootType)));
+    TypeSpec typeSpec = pathSegments.isEmpty() ? null : findTypeSpec(coordinates, variable);
     for (final String property : pathSegments) {
       if (variable == null) {
         return false;
@@ -104,6 +166,23 @@ public class DefaultExecutionContext implements ExecutionContext {
     return variable != null && canConvert(variable, expectedType);
   }
 
+  private MissingVariableException missingVariable() {
+    return options.lightweightExceptions()
+        ? MissingVariableException.STACKLESS
+        : new MissingVariableException();
+  }
+
+  private TypeSpec findTypeSpec(final Coordinates coordinates, final Object variable) {
+    final Class<?> rootType = variable.getClass();
+    return engineSpec.getTypes()
+        .values()
+        .stream()
+        .filter(spec -> spec.getRuntimeClass().equals(rootType))
+        .findFirst()
+        .orElseThrow(() -> new RuntimeException("Action %s return var contains unexpected type %s"
+            .formatted(coordinates, rootType)));
+  }
+
   @Override
   public boolean isActionCompleted(final Coordinates coordinates) {
     if (values.hasValue(coordinates) && values.get(coordinates).isPresent()) {
@@ -119,13 +198,9 @@ public class DefaultExecutionContext implements ExecutionContext {
   @Override
   public <T> T getVariable(final Coordinates coordinates, final Class<T> expectedType,
       final String... path) {
-    Object variable = values.get(coordinates).orElseThrow(MissingVariableException::new);
-    if (variable instanceof Future<?>) {
-      try {
-        variable = ((Future<?>) variable).get();
-      } catch (InterruptedException | ExecutionException e) {
-        throw new ProcessExecutionException(e);
-      }
+    Object variable = values.get(coordinates).orElseThrow(this::missingVariable);
+    if (variable instanceof Future<?> aFuture) {
+      variable = resolve(aFuture);
     }
     final List<String> pathSegments = new ArrayList<>(Arrays.asList(path));
     if (coordinates.equals(Coordinates.ROOT) && !pathSegments.isEmpty()) {
@@ -135,14 +210,7 @@ public class DefaultExecutionContext implements ExecutionContext {
       final String name = pathSegments.removeFirst();
       variable = ((Map<String, Object>) variable).get(name);
     }
-    final Class<?> rootType = variable.getClass();
-    TypeSpec typeSpec = engineSpec.getTypes()
-        .values()
-        .stream()
-        .filter(spec -> spec.getRuntimeClass().equals(rootType))
-        .findFirst()
-        .orElseThrow(() -> new RuntimeException("Action %s return var contains unexpected type %s"
-            .formatted(coordinates, rootType)));
+    TypeSpec typeSpec = pathSegments.isEmpty() ? null : findTypeSpec(coordinates, variable);
     for (final String property : pathSegments) {
       final TypePropertySpec typePropertySpec = typeSpec.getProperties().get(property);
       if (typePropertySpec == null) {
@@ -159,95 +227,424 @@ public class DefaultExecutionContext implements ExecutionContext {
       }
     }
     if (!canConvert(variable, expectedType)) {
-      throw new UnexpectedVariableException();
+      throw options.lightweightExceptions()
+          ? UnexpectedVariableException.STACKLESS
+          : new UnexpectedVariableException();
     }
     return convert(variable, expectedType);
   }
 
   @Override
   public void setVariable(final Coordinates coordinates, final Object value) {
+    setVariable(coordinates, null, value);
+  }
+
+  @Override
+  public void setVariable(final Coordinates coordinates, final String actionName,
+      final Object value) {
+    values.put(coordinates, Optional.ofNullable(toStoredValue(coordinates, actionName, value)));
+  }
+
+  @Override
+  public void traceAction(final Coordinates coordinates, final String actionName,
+      final Supplier<Object> action) {
+    setVariable(coordinates, actionName, call(coordinates, actionName, action));
+  }
+
+  @Override
+  public void scheduleAction(final Coordinates coordinates, final String actionName,
+      final Coordinates[] dependencies, final Supplier<Object> action) {
+    final CompletableFuture<Void> ready = whenActionsCompleted(dependencies);
+    if (ready.isDone() && !ready.isCompletedExceptionally()) {
+      // nothing to wait on, so the action runs in order, exactly as if it were not scheduled
+      try (final Deadline.Scope scope = deadline.bind()) {
+        setVariable(coordinates, actionName, call(coordinates, actionName, action));
+      }
+      return;
+    }
+    // the action is submitted to the queue rather than run by whichever thread completes its last
+    // dependency, which may belong to a provider or to another action's task
+    final CompletableFuture<Object> result = ready.thenComposeAsync(ignored -> {
+      try (final Deadline.Scope scope = deadline.bind()) {
+        final Object stored = toStoredValue(coordinates, actionName, call(coordinates, actionName,
+            action));
+        return stored instanceof CompletableFuture<?> asyncResult
+            ? asyncResult.<Object>thenApply(output -> output)
+            : CompletableFuture.completedFuture(stored);
+      }
+    }, queue::submit).whenComplete((value, error) -> {
+      // recorded before the tracked future completes, so that a waiter released by it sees it
+      if (error != null) {
+        scheduledFailure.compareAndSet(null, unwrap(error));
+      }
+    });
+    // the future is stored straight away, so that actions depending on this one wait on it
+    values.put(coordinates, Optional.of(track(result)));
+  }
+
+  /**
+   * Converts an action's output into the value stored for its variable, queueing async work and
+   * bounding async results by the action's timeout
+   */
+  private Object toStoredValue(final Coordinates coordinates, final String actionName,
+      final Object value) {
+    if (deadline.isExpired()) {
+      // no further work should be started once the execution has run out of time
+      cancelPending();
+      throw executionTimedOut();
+    }
+    final Duration timeout = deadline.clamp(actionName != null
+        ? options.actionTimeout(actionName)
+        : null);
+    final ActionCost cost = costOf(actionName);
+    final CompletableFuture<?> asyncResult;
     if (value instanceof Runnable runnable) {
-      values.put(coordinates, Optional.of(queue.submit(new RunnableWrapper(runnable))));
-      executingAsyncCount.incrementAndGet();
+      asyncResult = submit(Executors.callable(runnable), coordinates, timeout, cost);
     } else if (value instanceof Callable<?> callable) {
-      values.put(coordinates, Optional.of(queue.submit(new CallableWrapper(callable))));
-      executingAsyncCount.incrementAndGet();
+      asyncResult = submit(callable, coordinates, timeout, cost);
+    } else if (value instanceof CompletableFuture<?> completableFuture) {
+      asyncResult = track(bound(completableFuture, completableFuture, coordinates, timeout));
+    } else if (value instanceof Future<?> aFuture) {
+      asyncResult = track(bound(bridge(aFuture), aFuture, coordinates, timeout));
     } else {
-      values.put(coordinates, Optional.ofNullable(value));
+      return value;
+    }
+    if (listener != null) {
+      final long submittedAt = System.nanoTime();
+      listener.asyncSubmitted(this, coordinates, actionName);
+      asyncResult.whenComplete((result, error) -> {
+        final Throwable failure = error != null ? unwrap(error) : null;
+        if (failure != null) {
+          tracedFailure.compareAndSet(null, failure);
+        }
+        listener.asyncCompleted(this, coordinates, actionName, System.nanoTime() - submittedAt,
+            failure);
+      });
     }
+    return asyncResult;
+  }
+
+  /**
+   * Calls the action, reporting the call to the listener if there is one
+   */
+  private Object call(final Coordinates coordinates, final String actionName,
+      final Supplier<Object> action) {
+    if (listener == null) {
+      return action.get();
+    }
+    listener.actionStarted(this, coordinates, actionName);
+    final long start = System.nanoTime();
+    final Object output;
+    try {
+      output = action.get();
+    } catch (final RuntimeException | Error e) {
+      tracedFailure.compareAndSet(null, e);
+      listener.actionCompleted(this, coordinates, actionName, System.nanoTime() - start, e);
+      throw e;
+    }
+    listener.actionCompleted(this, coordinates, actionName, System.nanoTime() - start, null);
+    return output;
   }
 
   @Override
   public void await() {
+    // the calling thread would otherwise sit idle while the final action runs elsewhere, so it may
+    // as well run that action itself if it hasn't started yet
+    final Future<?> last = lastQueued;
+    if (last != null && executingAsyncCount.get() == 1 && !last.isDone()) {
+      queue.runInline(last);
+    }
     try {
-      if (executingAsyncCount.get() > 0) {
-        mainThreadWaiting = true;
-        future.get();
+      awaitAsync().get();
+    } catch (final InterruptedException e) {
+      cancelPending();
+      Thread.currentThread().interrupt();
+      throw new ProcessExecutionException(e);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof ProcessTimeoutException timeoutException) {
+        throw timeoutException;
       }
-    } catch (InterruptedException | ExecutionException e) {
       throw new ProcessExecutionException(e);
     }
   }
 
   @Override
-  public <T> T convert(final Object value, final Class<T> type) {
+  public CompletableFuture<Void> awaitAsync() {
+    if (!mainThreadWaiting) {
+      mainThreadWaiting = true;
+      final Duration remaining = deadline.remaining();
+      if (remaining != null) {
+        future.orTimeout(remaining.toNanos(), TimeUnit.NANOSECONDS)
+            .whenComplete((result, error) -> {
+              if (error instanceof TimeoutException) {
+                cancelPending();
+              }
+            });
+      }
+    }
+    // the final async action may have completed before the waiting flag was set, in which case
+    // nothing else will complete the future
+    if (executingAsyncCount.get() == 0) {
+      future.complete(null);
+    }
+    final CompletableFuture<Void> awaited = future.thenCompose(ignored -> {
+      final Throwable failure = scheduledFailure.get();
+      if (failure != null) {
+        return CompletableFuture.<Void>failedFuture(failure);
+      }
+      // the actions' own timeouts share the execution's deadline, so the last of them may time out
+      // and complete the future before the execution timeout fires
+      return deadline.isExpired()
+          ? CompletableFuture.<Void>failedFuture(executionTimedOut())
+          : CompletableFuture.<Void>completedFuture(null);
+    })
+        .exceptionallyCompose(error -> CompletableFuture.failedFuture(unwrap(
+            error) instanceof TimeoutException ? executionTimedOut() : unwrap(error)));
+    if (listener == null) {
+      return awaited;
+    }
+    // the failure is recorded before the waiter resumes, so that it is reported once the execution
+    // is closed
+    return awaited.whenComplete((ignored, error) -> {
+      if (error != null) {
+        tracedFailure.compareAndSet(null, unwrap(error));
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> admitted() {
+    return admission.thenAccept(permit -> {
+    }).whenComplete((ignored, error) -> {
+      if (error != null) {
+        tracedFailure.compareAndSet(null, unwrap(error));
+      }
+    });
+  }
+
+  @Override
+  public void recordFailure(final Throwable failure) {
+    if (listener != null) {
+      tracedFailure.compareAndSet(null, unwrap(failure));
+    }
+  }
+
+  @Override
+  public void close() {
+    admission.thenAccept(ExecutionQueue.Permit::close);
+    if (listener != null) {
+      final Throwable failure = tracedFailure.get();
+      listener.processCompleted(this, processId, System.nanoTime() - startNanos, failure != null
+          ? failure
+          : scheduledFailure.get());
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> whenActionsCompleted(final Coordinates... coordinates) {
+    final List<CompletableFuture<?>> incomplete = new ArrayList<>();
+    for (final Coordinates coordinate : coordinates) {
+      final Optional<Object> value = values.get(coordinate);
+      if (value != null && value.orElse(null) instanceof Future<?> aFuture && !aFuture.isDone()) {
+        incomplete.add(aFuture instanceof CompletableFuture<?> completableFuture
+            ? completableFuture
+            : bridge(aFuture));
+      }
+    }
+    if (incomplete.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.allOf(incomplete.toArray(CompletableFuture[]::new));
+  }
+
+  @Override
+  public void reportFunction(final String functionName, final long startNanos) {
+    listener.functionCompleted(this, functionName, System.nanoTime() - startNanos);
+  }
+
+  @Override
+  public <T> T convert(final Object value, final Class<T> requestedType) {
     Objects.requireNonNull(value);
+    final Class<T> type = ConverterIndex.box(requestedType);
     final Class<?> inputClass = value.getClass();
     if (inputClass.equals(type)) {
       return (T) value;
     }
-    if (!converters.containsKey(inputClass) || !converters.get(inputClass).containsKey(type)) {
-      throw new ConversionException(value, type, "No converter registered");
+    final ConverterSpec converterSpec = converters.get(inputClass, type);
+    if (converterSpec == null) {
+      throw new ConversionException(value, type, "No converter registered", !options
+          .lightweightExceptions());
     }
-    final ConverterSpec converterSpec = converters.get(inputClass).get(type);
     try {
-      return (T) converterSpec.getMethod().invoke(converterSpec.getProvider(), value);
+      if (listener == null) {
+        return (T) converterSpec.getMethod().invoke(converterSpec.getProvider(), value);
+      }
+      final long start = System.nanoTime();
+      final T converted = (T) converterSpec.getMethod().invoke(converterSpec.getProvider(), value);
+      listener.converted(this, inputClass, type, System.nanoTime() - start);
+      return converted;
     } catch (IllegalAccessException | InvocationTargetException e) {
       throw new ConversionException(value, type, "Unexpected error", e);
     }
   }
 
   @Override
-  public boolean canConvert(final Object value, final Class<?> type) {
+  public boolean canConvert(final Object value, final Class<?> requestedType) {
     Objects.requireNonNull(value);
+    final Class<?> type = ConverterIndex.box(requestedType);
     final Class<?> inputClass = value.getClass();
-    return inputClass.equals(type) || (converters.containsKey(inputClass) && converters.get(
-        inputClass).containsKey(type));
+    return inputClass.equals(type) || converters.get(inputClass, type) != null;
   }
 
-  @RequiredArgsConstructor
-  private class CallableWrapper implements Callable<Object> {
+  private CompletableFuture<Object> submit(final Callable<?> callable,
+      final Coordinates coordinates, final Duration timeout, final ActionCost cost) {
+    final CompletableFuture<Object> result = new CompletableFuture<>();
+    final CallableWrapper wrapper = new CallableWrapper(callable, result, deadline);
+    final Future<?> task = queue.submit(wrapper, cost);
+    lastQueued = task;
+    return track(bound(result, task, coordinates, timeout));
+  }
 
-    private final Callable<?> callable;
+  /**
+   * Returns the action's declared cost, treating
+   * {@link io.logicforge.core.annotations.metadata.Inline}
+   * actions as cheap
+   */
+  private ActionCost costOf(final String actionName) {
+    if (actionName == null) {
+      return ActionCost.UNSPECIFIED;
+    }
+    final ProvidedCallableSpec actionSpec = engineSpec.getActions().get(actionName);
+    if (actionSpec == null || actionSpec.getMetadata() == null) {
+      return ActionCost.UNSPECIFIED;
+    }
+    if (actionSpec.getMetadata().get(MetadataFlags.COST) instanceof ActionCost cost) {
+      return cost;
+    }
+    return actionSpec.getMetadata().containsKey(MetadataFlags.INLINE)
+        ? ActionCost.CPU_CHEAP
+        : ActionCost.UNSPECIFIED;
+  }
 
-    @Override
-    public Object call() throws Exception {
-      try {
-        return callable.call();
-      } finally {
-        final int count = executingAsyncCount.decrementAndGet();
-        if (count == 0 && mainThreadWaiting) {
-          future.complete(null);
-        }
+  /**
+   * Bounds the supplied action result by the action's timeout. If the timeout elapses first, the
+   * underlying work is cancelled (interrupting it if it is executing) and the returned future fails
+   * with a {@link ProcessTimeoutException}. Cancelling the returned future likewise cancels the
+   * underlying work.
+   */
+  private <T> CompletableFuture<T> bound(final CompletableFuture<T> result,
+      final Future<?> underlying, final Coordinates coordinates, final Duration timeout) {
+    final CompletableFuture<T> bounded = timeout == null
+        ? result
+        : result.copy()
+            .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS)
+            .exceptionallyCompose(error -> {
+              if (error instanceof TimeoutException) {
+                underlying.cancel(true);
+                log.warn("Action {} timed out after {}", coordinates, timeout);
+                return CompletableFuture.failedFuture(new ProcessTimeoutException(
+                    "Action %s exceeded its timeout of %s".formatted(coordinates, timeout)));
+              }
+              return CompletableFuture.failedFuture(error);
+            });
+    bounded.whenComplete((value, error) -> {
+      if (bounded.isCancelled()) {
+        underlying.cancel(true);
+      }
+    });
+    return bounded;
+  }
+
+  /**
+   * Counts the supplied future as an executing async action until it completes, so that
+   * {@link #await()} and {@link #awaitAsync()} wait on it
+   */
+  private <T> CompletableFuture<T> track(final CompletableFuture<T> asyncResult) {
+    executingAsyncCount.incrementAndGet();
+    pending.add(asyncResult);
+    asyncResult.whenComplete((result, error) -> {
+      pending.remove(asyncResult);
+      final int count = executingAsyncCount.decrementAndGet();
+      if (count == 0 && mainThreadWaiting) {
+        future.complete(null);
       }
+    });
+    return asyncResult;
+  }
+
+  /**
+   * Cancels all async actions that have not yet completed. Cancelling the tracked futures cascades
+   * to the underlying queued work through the action timeouts' cancellation hooks.
+   */
+  private void cancelPending() {
+    for (final Future<?> aFuture : pending) {
+      aFuture.cancel(true);
     }
   }
 
+  private static Throwable unwrap(final Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error;
+  }
+
+  private ProcessTimeoutException executionTimedOut() {
+    return new ProcessTimeoutException("Process execution exceeded its timeout of %s".formatted(
+        options.executionTimeout()));
+  }
+
+  /**
+   * Blocks until the supplied future completes, no longer than the execution's remaining budget
+   */
+  private Object resolve(final Future<?> aFuture) {
+    try {
+      final Duration remaining = deadline.remaining();
+      return remaining == null
+          ? aFuture.get()
+          : aFuture.get(remaining.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (final TimeoutException e) {
+      cancelPending();
+      throw executionTimedOut();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProcessExecutionException(e);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof ProcessTimeoutException timeoutException) {
+        throw timeoutException;
+      }
+      throw new ProcessExecutionException(e);
+    }
+  }
+
+  /**
+   * Plain futures expose no completion callbacks, so the only way to observe their completion is to
+   * block on them. To keep that off the calling thread, the blocking wait is handed to the queue.
+   */
+  @Override
+  public CompletableFuture<Object> bridge(final Future<?> aFuture) {
+    final CompletableFuture<Object> result = new CompletableFuture<>();
+    queue.submit(new CallableWrapper(aFuture::get, result, Deadline.NONE));
+    return result;
+  }
 
   @RequiredArgsConstructor
-  private class RunnableWrapper implements Runnable {
+  private static class CallableWrapper implements Callable<Object> {
 
-    private final Runnable runnable;
+    private final Callable<?> callable;
+    private final CompletableFuture<Object> result;
+    private final Deadline deadline;
 
     @Override
-    public void run() {
+    public Object call() throws Exception {
       try {
-        runnable.run();
-      } finally {
-        final int count = executingAsyncCount.decrementAndGet();
-        if (count == 0 && mainThreadWaiting) {
-          future.complete(null);
-        }
+        final Object value = deadline.call(callable);
+        result.complete(value);
+        return value;
+      } catch (final Throwable t) {
+        result.completeExceptionally(t instanceof ExecutionException e && e.getCause() != null
+            ? e.getCause()
+            : t);
+        throw t;
       }
     }
   }
@@ -0,0 +1,555 @@
+package io.logicforge.core.engine.impl;
+
+import io.logicforge.core.constant.ActionCost;
+import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.exception.ExecutionRejectedException;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * An ExecutionQueue decorator that shares the delegate's capacity fairly between keys, so that one
+ * process (or tenant) fanning out many actions cannot starve everyone else.
+ *
+ * <p>
+ * Each process's work is tagged with a key, by default the process's ID (see
+ * {@link #withTenantKey(Function)} to group processes by tenant instead). At most
+ * {@code maxInFlight} tasks are handed to the delegate at once; the rest wait in per-key queues,
+ * which are served by deficit round-robin: on each turn a key may dispatch as many tasks as its
+ * weight, so over time keys receive capacity in proportion to their weights regardless of how much
+ * work each submits. A key's quota additionally caps how many of its tasks may be in flight at
+ * once.
+ * </p>
+ *
+ * <p>
+ * A task's slot is released once it finishes, or once it is cancelled or rejected before starting.
+ * Where the delegate returns a {@link CompletableFuture}, a task the delegate completes without
+ * ever running (e.g. drops under load) is cancelled as soon as the delegate's future completes.
+ * Other delegates' futures cannot report their completion, so a task such a delegate abandons
+ * holds its slot until it is cancelled, as when the action awaiting it times out, or until the
+ * queue is shut down, which cancels every task that has not started.
+ * </p>
+ *
+ * <p>
+ * The statistics of keys with no work outstanding are kept, so that they remain readable between
+ * bursts of work, up to a limit on the number of such idle keys (see
+ * {@link #withIdleKeyLimit(int)}) beyond which the longest idle are dropped.
+ * </p>
+ *
+ * <p>
+ * Weights, quotas and the tenant key function should be configured before the queue is used.
+ * </p>
+ */
+public class FairExecutionQueue implements ExecutionQueue {
+
+  /**
+   * The key used for work submitted directly rather than through a process view
+   */
+  public static final String DEFAULT_KEY = "";
+
+  /**
+   * Per-key scheduling statistics
+   *
+   * @param submitted   the total number of tasks submitted under the key
+   * @param completed   the total number of tasks that have finished under the key
+   * @param queued      the number of tasks currently waiting to be dispatched
+   * @param inFlight    the number of tasks currently dispatched to the delegate
+   * @param averageWait the average time tasks waited before starting
+   * @param maxWait     the longest time a task waited before starting
+   * @param averageRun  the average time tasks took to run
+   */
+  public record KeyStats(long submitted, long completed, int queued, int inFlight,
+                         Duration averageWait, Duration maxWait, Duration averageRun) {
+
+  }
+
+  private final ExecutionQueue delegate;
+  private final int maxInFlight;
+  private final Map<String, Integer> weights = new HashMap<>();
+  private final Map<String, Integer> quotas = new HashMap<>();
+  private Function<ProcessConfig<?, ?>, String> tenantKey = config -> String.valueOf(Objects
+      .requireNonNullElse(config.getId(), config.getName()));
+  private int defaultQuota = Integer.MAX_VALUE;
+  private int idleKeyLimit = 1024;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<String, KeyState> states = new LinkedHashMap<>();
+  private final ArrayDeque<KeyState> active = new ArrayDeque<>();
+  // unconfigured keys with no outstanding work, longest idle first
+  private final Set<KeyState> idle = new LinkedHashSet<>();
+  private final Set<FairTask<?>> dispatched = new HashSet<>();
+  private int inFlight;
+
+  /**
+   * @param delegate    the queue that runs dispatched tasks
+   * @param maxInFlight the maximum number of tasks dispatched to the delegate at once
+   */
+  public FairExecutionQueue(final ExecutionQueue delegate, final int maxInFlight) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be positive");
+    }
+    this.delegate = delegate;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Sets the function used to derive a process's scheduling key, e.g. to group all processes
+   * belonging to a tenant under one key
+   */
+  public FairExecutionQueue withTenantKey(final Function<ProcessConfig<?, ?>, String> tenantKey) {
+    this.tenantKey = tenantKey;
+    return this;
+  }
+
+  /**
+   * Sets the key's weight: the number of tasks it may dispatch per round-robin turn (default 1)
+   */
+  public FairExecutionQueue withWeight(final String key, final int weight) {
+    if (weight < 1) {
+      throw new IllegalArgumentException("weight must be positive");
+    }
+    weights.put(key, weight);
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of the key's tasks that may be in flight at once
+   */
+  public FairExecutionQueue withQuota(final String key, final int quota) {
+    if (quota < 1) {
+      throw new IllegalArgumentException("quota must be positive");
+    }
+    quotas.put(key, quota);
+    return this;
+  }
+
+  /**
+   * Sets the quota for keys without one of their own (unlimited by default)
+   */
+  public FairExecutionQueue withDefaultQuota(final int quota) {
+    if (quota < 1) {
+      throw new IllegalArgumentException("quota must be positive");
+    }
+    this.defaultQuota = quota;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of unconfigured keys with no outstanding work whose statistics are kept
+   * (1024 by default)
+   */
+  public FairExecutionQueue withIdleKeyLimit(final int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit must not be negative");
+    }
+    this.idleKeyLimit = limit;
+    return this;
+  }
+
+  @Override
+  public <T> Future<T> submit(final Callable<T> callable) {
+    return enqueue(DEFAULT_KEY, delegate, callable, ActionCost.UNSPECIFIED);
+  }
+
+  @Override
+  public Future<?> submit(final Runnable runnable) {
+    return submit(Executors.callable(runnable));
+  }
+
+  /**
+   * Cheap work costs less to run than to schedule, so it bypasses the fair queues
+   */
+  @Override
+  public <T> Future<T> submitInline(final Callable<T> callable) {
+    return delegate.submitInline(callable);
+  }
+
+  /**
+   * Costly work is queued fairly like any other, and handed to the delegate with its cost once
+   * dispatched
+   */
+  @Override
+  public <T> Future<T> submit(final Callable<T> callable, final ActionCost cost) {
+    return cost == ActionCost.CPU_CHEAP
+        ? submitInline(callable)
+        : enqueue(DEFAULT_KEY, delegate, callable, cost);
+  }
+
+  @Override
+  public boolean isSaturated() {
+    lock.lock();
+    try {
+      return inFlight >= maxInFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean schedulesWork() {
+    return true;
+  }
+
+  @Override
+  public ExecutionQueue forProcess(final ProcessConfig<?, ?> processConfig) {
+    return new KeyedQueue(tenantKey.apply(processConfig), delegate.forProcess(processConfig));
+  }
+
+  @Override
+  public Permit admit() throws ExecutionRejectedException {
+    return delegate.admit();
+  }
+
+  @Override
+  public CompletableFuture<Permit> admitAsync() {
+    return delegate.admitAsync();
+  }
+
+  /**
+   * Shuts down the delegate, then cancels every task that has not started, since tasks the delegate
+   * abandoned would otherwise never complete
+   */
+  @Override
+  public boolean shutdown(final Duration gracePeriod) throws InterruptedException {
+    final boolean drained = delegate.shutdown(gracePeriod);
+    final List<FairTask<?>> outstanding = new ArrayList<>();
+    lock.lock();
+    try {
+      outstanding.addAll(dispatched);
+      states.values().forEach(state -> outstanding.addAll(state.queue));
+    } finally {
+      lock.unlock();
+    }
+    for (final FairTask<?> task : outstanding) {
+      if (!task.started) {
+        task.cancel(false);
+      }
+    }
+    return drained;
+  }
+
+  /**
+   * Returns a snapshot of the scheduling statistics of every key with work queued or in flight,
+   * every key with a configured weight or quota, and the most recently idle of the other keys.
+   */
+  public Map<String, KeyStats> getStats() {
+    lock.lock();
+    try {
+      final Map<String, KeyStats> stats = new LinkedHashMap<>();
+      states.forEach((key, state) -> stats.put(key, state.snapshot()));
+      return Collections.unmodifiableMap(stats);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private <T> Future<T> enqueue(final String key, final ExecutionQueue target,
+      final Callable<T> callable, final ActionCost cost) {
+    final FairTask<T> task;
+    lock.lock();
+    try {
+      final KeyState state = states.computeIfAbsent(key, KeyState::new);
+      idle.remove(state);
+      task = new FairTask<>(callable, state, target, cost);
+      state.submitted.increment();
+      state.queue.addLast(task);
+      if (!state.active) {
+        state.active = true;
+        active.addLast(state);
+      }
+    } finally {
+      lock.unlock();
+    }
+    dispatch();
+    return task;
+  }
+
+  /**
+   * Hands queued tasks to the delegate while capacity remains, choosing between keys by deficit
+   * round-robin. Tasks are selected under the lock but submitted outside of it, since the delegate
+   * may run them on the calling thread.
+   */
+  private void dispatch() {
+    final List<FairTask<?>> toRun = new ArrayList<>();
+    lock.lock();
+    try {
+      select(toRun);
+    } finally {
+      lock.unlock();
+    }
+    for (final FairTask<?> task : toRun) {
+      final Future<?> delegateFuture;
+      try {
+        delegateFuture = task.cost == ActionCost.UNSPECIFIED
+            ? task.target.submit((Runnable) task)
+            : task.target.submit(Executors.callable(task), task.cost);
+      } catch (final RejectedExecutionException e) {
+        task.reject(e);
+        continue;
+      }
+      task.delegateFuture = delegateFuture;
+      if (delegateFuture instanceof CompletableFuture<?> completable) {
+        // a task whose delegate future completes before the task started was dropped by the
+        // delegate and will never run
+        completable.whenComplete((result, error) -> {
+          if (!task.started) {
+            task.cancel(false);
+          }
+        });
+      }
+    }
+  }
+
+  private void select(final List<FairTask<?>> toRun) {
+    // stop once every active key has been visited without dispatching anything, i.e. all of them
+    // are held back by their quotas
+    int idleVisits = 0;
+    while (inFlight < maxInFlight && !active.isEmpty() && idleVisits < active.size()) {
+      final KeyState state = active.pollFirst();
+      if (state.deficit < 1) {
+        // the start of the key's turn
+        state.deficit += state.weight;
+      }
+      boolean anyDispatched = false;
+      while (state.deficit >= 1 && !state.queue.isEmpty() && state.inFlight < state.quota
+          && inFlight < maxInFlight) {
+        final FairTask<?> task = state.queue.pollFirst();
+        toRun.add(task);
+        dispatched.add(task);
+        state.deficit--;
+        state.inFlight++;
+        inFlight++;
+        anyDispatched = true;
+      }
+      if (state.queue.isEmpty()) {
+        // idle keys don't bank credit
+        state.deficit = 0;
+        state.active = false;
+        removeIfIdle(state);
+      } else if (state.deficit >= 1 && inFlight >= maxInFlight) {
+        // out of capacity mid-turn: the key resumes its turn once capacity frees up
+        active.addFirst(state);
+      } else {
+        active.addLast(state);
+      }
+      idleVisits = anyDispatched ? 0 : idleVisits + 1;
+    }
+  }
+
+  /**
+   * Removes a task that will not run (or has finished running) from the queue's bookkeeping,
+   * releasing its slot if it was dispatched. Must be called with the lock held, and has no effect
+   * if the task was already removed.
+   */
+  private void release(final FairTask<?> task) {
+    final KeyState state = task.state;
+    if (dispatched.remove(task)) {
+      state.inFlight--;
+      inFlight--;
+    } else if (!state.queue.remove(task)) {
+      return;
+    }
+    state.completed.increment();
+    removeIfIdle(state);
+  }
+
+  private void finished(final FairTask<?> task) {
+    lock.lock();
+    try {
+      release(task);
+    } finally {
+      lock.unlock();
+    }
+    dispatch();
+  }
+
+  /**
+   * Records that a key has no outstanding work, unless the key was configured explicitly, dropping
+   * the state of the longest idle key once more than the limit are idle
+   */
+  private void removeIfIdle(final KeyState state) {
+    if (state.inFlight == 0 && state.queue.isEmpty() && !state.active && !weights.containsKey(
+        state.key) && !quotas.containsKey(state.key)) {
+      idle.remove(state);
+      idle.add(state);
+      while (idle.size() > idleKeyLimit) {
+        final KeyState eldest = idle.iterator().next();
+        idle.remove(eldest);
+        states.remove(eldest.key, eldest);
+      }
+    }
+  }
+
+  private class KeyState {
+
+    private final String key;
+    private final ArrayDeque<FairTask<?>> queue = new ArrayDeque<>();
+    private final int weight;
+    private final int quota;
+    private int deficit;
+    private int inFlight;
+    private boolean active;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private KeyState(final String key) {
+      this.key = key;
+      this.weight = weights.getOrDefault(key, 1);
+      this.quota = quotas.getOrDefault(key, defaultQuota);
+    }
+
+    private KeyStats snapshot() {
+      final long completedCount = completed.sum();
+      return new KeyStats(submitted.sum(), completedCount, queue.size(), inFlight, average(
+          totalWaitNanos, completedCount), Duration.ofNanos(maxWaitNanos.get()), average(
+              totalRunNanos, completedCount));
+    }
+
+    private static Duration average(final LongAdder totalNanos, final long count) {
+      return Duration.ofNanos(count == 0 ? 0 : totalNanos.sum() / count);
+    }
+  }
+
+
+  private class FairTask<T> extends FutureTask<T> {
+
+    private final KeyState state;
+    private final ExecutionQueue target;
+    private final ActionCost cost;
+    private final long enqueuedAt = System.nanoTime();
+    private volatile boolean started;
+    // the delegate's future for the task, once dispatched
+    private volatile Future<?> delegateFuture;
+
+    private FairTask(final Callable<T> callable, final KeyState state, final ExecutionQueue target,
+        final ActionCost cost) {
+      super(callable);
+      this.state = state;
+      this.target = target;
+      this.cost = cost;
+    }
+
+    @Override
+    public void run() {
+      started = true;
+      final long startedAt = System.nanoTime();
+      final long waitNanos = startedAt - enqueuedAt;
+      state.totalWaitNanos.add(waitNanos);
+      state.maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+      try {
+        super.run();
+      } finally {
+        state.totalRunNanos.add(System.nanoTime() - startedAt);
+        finished(this);
+      }
+    }
+
+    /**
+     * A task cancelled before it starts gives up its place, and is withdrawn from the delegate
+     */
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+      final boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled && !started) {
+        final Future<?> submitted = delegateFuture;
+        if (submitted != null) {
+          submitted.cancel(false);
+        }
+        finished(this);
+      }
+      return cancelled;
+    }
+
+    private void reject(final RejectedExecutionException e) {
+      setException(e);
+      finished(this);
+    }
+  }
+
+
+  /**
+   * The view of the queue used by a single process's executions, whose work is scheduled under the
+   * process's key
+   */
+  private class KeyedQueue implements ExecutionQueue {
+
+    private final String key;
+    private final ExecutionQueue processDelegate;
+
+    private KeyedQueue(final String key, final ExecutionQueue processDelegate) {
+      this.key = key;
+      this.processDelegate = processDelegate;
+    }
+
+    @Override
+    public <T> Future<T> submit(final Callable<T> callable) {
+      return enqueue(key, processDelegate, callable, ActionCost.UNSPECIFIED);
+    }
+
+    @Override
+    public Future<?> submit(final Runnable runnable) {
+      return submit(Executors.callable(runnable));
+    }
+
+    @Override
+    public <T> Future<T> submitInline(final Callable<T> callable) {
+      return processDelegate.submitInline(callable);
+    }
+
+    @Override
+    public <T> Future<T> submit(final Callable<T> callable, final ActionCost cost) {
+      return cost == ActionCost.CPU_CHEAP
+          ? submitInline(callable)
+          : enqueue(key, processDelegate, callable, cost);
+    }
+
+    @Override
+    public boolean isSaturated() {
+      return FairExecutionQueue.this.isSaturated();
+    }
+
+    @Override
+    public boolean schedulesWork() {
+      return true;
+    }
+
+    @Override
+    public Permit admit() throws ExecutionRejectedException {
+      return processDelegate.admit();
+    }
+
+    @Override
+    public CompletableFuture<Permit> admitAsync() {
+      return processDelegate.admitAsync();
+    }
+
+    @Override
+    public boolean shutdown(final Duration gracePeriod) throws InterruptedException {
+      return FairExecutionQueue.this.shutdown(gracePeriod);
+    }
+  }
+}
@@ -0,0 +1,456 @@
+package io.logicforge.core.engine.impl;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import lombok.Getter;
+
+/**
+ * A bounded, concurrent cache of a function's results, keyed by argument values and shared by every
+ * execution that calls the function (see
+ * {@link io.logicforge.core.annotations.metadata.Cacheable}).
+ *
+ * <p>
+ * Eviction follows the W-TinyLFU policy. New results enter a small LRU admission window; results
+ * leaving the window compete for a place in the main space, which is split into probationary and
+ * protected LRU segments, against that space's least recently used result. Whichever has been
+ * requested less often, as estimated by a compact count-min sketch of recent request frequencies,
+ * is evicted. This keeps frequently requested results cached through bursts of one-off requests
+ * that would flush a plain LRU cache.
+ * </p>
+ *
+ * <p>
+ * Lookups read the backing map without locking. Each hit is recorded in one of several small ring
+ * buffers, chosen by thread to spread contention, and the buffered hits are applied to the access
+ * order and frequencies under a lock, either by the reader that half fills a buffer or before the
+ * next write. Readers never wait for the lock; a hit is only dropped if its buffer is full and the
+ * lock is held by another thread. Concurrent misses for the same arguments may each compute the
+ * result, and failed computations are not cached.
+ * </p>
+ */
+public class FunctionCache {
+
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+  private static final int REMOVED = -1;
+
+  private static final int READ_BUFFERS = Math.min(64, Integer.highestOneBit(Runtime.getRuntime()
+      .availableProcessors() * 2 - 1) << 1);
+  private static final int READ_BUFFER_SIZE = 16;
+  private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+  /**
+   * A snapshot of the cache's statistics
+   *
+   * @param hits        the number of calls answered from the cache
+   * @param misses      the number of calls that computed their result
+   * @param evictions   the number of results evicted to keep the cache within its maximum size
+   * @param expirations the number of results discarded after outliving their time-to-live
+   * @param size        the number of results currently cached
+   */
+  public record Stats(long hits, long misses, long evictions, long expirations, int size) {
+
+    /**
+     * Returns the fraction of calls answered from the cache
+     */
+    public double hitRate() {
+      final long calls = hits + misses;
+      return calls == 0 ? 0D : (double) hits / calls;
+    }
+  }
+
+  @Getter
+  private final String name;
+  @Getter
+  private final int maxSize;
+  private final int windowMaxSize;
+  private final int protectedMaxSize;
+  private final long ttlNanos;
+
+  private final Map<ArgumentsKey, Node> data = new ConcurrentHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final FrequencySketch sketch;
+  private final AccessList window = new AccessList();
+  private final AccessList probation = new AccessList();
+  private final AccessList protectedSegment = new AccessList();
+  private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFERS];
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+
+  /**
+   * @param name    the name of the cached function
+   * @param maxSize the maximum number of results cached
+   * @param ttl     how long a result remains cached after it is computed, or null if results remain
+   *                cached until evicted
+   */
+  public FunctionCache(final String name, final int maxSize, final Duration ttl) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    this.name = name;
+    this.maxSize = maxSize;
+    // the window takes 1% of capacity, and the protected segment 80% of the remainder
+    this.windowMaxSize = Math.max(1, maxSize / 100);
+    this.protectedMaxSize = (int) ((maxSize - windowMaxSize) * 0.8);
+    this.ttlNanos = ttl != null ? ttl.toNanos() : 0L;
+    this.sketch = new FrequencySketch(maxSize);
+    for (int i = 0; i < readBuffers.length; i++) {
+      readBuffers[i] = new ReadBuffer();
+    }
+  }
+
+  /**
+   * Returns the cached result for the supplied arguments, computing and caching it with the loader
+   * if it is not cached
+   *
+   * @param arguments the function's arguments, which are retained as the cache key
+   * @param loader    computes the function's result from its arguments
+   */
+  public Object get(final Object[] arguments, final Function<Object[], Object> loader) {
+    final ArgumentsKey key = new ArgumentsKey(arguments);
+    final Node node = data.get(key);
+    if (node != null) {
+      if (!node.isExpired(System.nanoTime())) {
+        hits.increment();
+        afterRead(node);
+        return node.value;
+      }
+      expire(node);
+    }
+    misses.increment();
+    final Object value = loader.apply(arguments);
+    put(key, value);
+    return value;
+  }
+
+  /**
+   * Returns how long a result remains cached after it is computed, or null if results remain cached
+   * until evicted
+   */
+  public Duration getTtl() {
+    return ttlNanos > 0 ? Duration.ofNanos(ttlNanos) : null;
+  }
+
+  public Stats getStats() {
+    return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), data.size());
+  }
+
+  private void afterRead(final Node node) {
+    final long threadHash = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+    final ReadBuffer buffer = readBuffers[(int) (threadHash >>> 32) & (readBuffers.length - 1)];
+    final int pending = buffer.offer(node);
+    // access order is a heuristic, so it isn't worth making readers wait for it
+    if ((pending < 0 || pending >= READ_BUFFER_DRAIN_THRESHOLD) && lock.tryLock()) {
+      try {
+        drainReadBuffers();
+        if (pending < 0) {
+          buffer.offer(node);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Applies buffered hits to the frequencies and access order. Must be called under the lock.
+   */
+  private void drainReadBuffers() {
+    for (final ReadBuffer buffer : readBuffers) {
+      buffer.drain();
+    }
+  }
+
+  private void put(final ArgumentsKey key, final Object value) {
+    lock.lock();
+    try {
+      drainReadBuffers();
+      sketch.increment(key.spreadHash());
+      final Node existing = data.get(key);
+      if (existing != null) {
+        // computed concurrently, or replacing an expired result
+        existing.value = value;
+        existing.writtenAt = System.nanoTime();
+        onAccess(existing);
+        return;
+      }
+      final Node node = new Node(key, value, System.nanoTime());
+      window.addLast(node);
+      data.put(key, node);
+      evict();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void onAccess(final Node node) {
+    switch (node.segment) {
+      case WINDOW -> window.moveToLast(node);
+      case PROBATION -> {
+        // a second request promotes a result to the protected segment, demoting the protected
+        // segment's least recently used results if it is full
+        probation.remove(node);
+        node.segment = PROTECTED;
+        protectedSegment.addLast(node);
+        while (protectedSegment.size > protectedMaxSize) {
+          final Node demoted = protectedSegment.removeFirst();
+          demoted.segment = PROBATION;
+          probation.addLast(demoted);
+        }
+      }
+      case PROTECTED -> protectedSegment.moveToLast(node);
+      default -> {
+        // removed concurrently
+      }
+    }
+  }
+
+  private void evict() {
+    while (window.size > windowMaxSize) {
+      final Node candidate = window.removeFirst();
+      candidate.segment = PROBATION;
+      probation.addLast(candidate);
+    }
+    while (window.size + probation.size + protectedSegment.size > maxSize) {
+      final Node victim = probation.head;
+      final Node candidate = probation.tail;
+      final Node evicted;
+      if (victim == null) {
+        evicted = protectedSegment.head != null ? protectedSegment.head : window.head;
+      } else if (victim == candidate) {
+        evicted = victim;
+      } else {
+        // the candidate is admitted only if it is requested more often than the victim
+        evicted = sketch.frequency(candidate.key.spreadHash()) > sketch.frequency(victim.key
+            .spreadHash()) ? victim : candidate;
+      }
+      remove(evicted);
+      evictions.increment();
+    }
+  }
+
+  private void expire(final Node node) {
+    lock.lock();
+    try {
+      drainReadBuffers();
+      if (node.segment != REMOVED && node.isExpired(System.nanoTime())) {
+        remove(node);
+        expirations.increment();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void remove(final Node node) {
+    switch (node.segment) {
+      case WINDOW -> window.remove(node);
+      case PROBATION -> probation.remove(node);
+      case PROTECTED -> protectedSegment.remove(node);
+      default -> {
+        return;
+      }
+    }
+    node.segment = REMOVED;
+    data.remove(node.key, node);
+  }
+
+  private final class Node {
+
+    private final ArgumentsKey key;
+    private volatile Object value;
+    private volatile long writtenAt;
+    // guarded by the cache's lock, as are the links
+    private int segment = WINDOW;
+    private Node previous;
+    private Node next;
+
+    private Node(final ArgumentsKey key, final Object value, final long writtenAt) {
+      this.key = key;
+      this.value = value;
+      this.writtenAt = writtenAt;
+    }
+
+    private boolean isExpired(final long now) {
+      return ttlNanos > 0 && now - writtenAt >= ttlNanos;
+    }
+  }
+
+
+  /**
+   * A bounded ring of hits awaiting the lock. Any thread may add to it, but only the thread holding
+   * the cache's lock drains it.
+   */
+  private final class ReadBuffer {
+
+    private final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong writes = new AtomicLong();
+    // advanced only under the cache's lock
+    private volatile long reads;
+
+    /**
+     * Adds a hit, returning the number of hits now pending, or -1 if the buffer is full
+     */
+    private int offer(final Node node) {
+      while (true) {
+        final long head = reads;
+        final long tail = writes.get();
+        final long pending = tail - head;
+        if (pending >= READ_BUFFER_SIZE) {
+          return -1;
+        }
+        if (writes.compareAndSet(tail, tail + 1)) {
+          slots.set((int) (tail & (READ_BUFFER_SIZE - 1)), node);
+          return (int) pending + 1;
+        }
+      }
+    }
+
+    private void drain() {
+      long head = reads;
+      final long tail = writes.get();
+      for (; head < tail; head++) {
+        final int index = (int) (head & (READ_BUFFER_SIZE - 1));
+        final Node node = slots.get(index);
+        if (node == null) {
+          // claimed but not yet written; left for the next drain
+          break;
+        }
+        slots.set(index, null);
+        sketch.increment(node.key.spreadHash());
+        onAccess(node);
+      }
+      reads = head;
+    }
+  }
+
+
+  /**
+   * A doubly linked list of nodes in access order, least recently used first
+   */
+  private static final class AccessList {
+
+    private Node head;
+    private Node tail;
+    private int size;
+
+    private void addLast(final Node node) {
+      node.previous = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      size++;
+    }
+
+    private void remove(final Node node) {
+      if (node.previous == null) {
+        head = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.previous = null;
+      node.next = null;
+      size--;
+    }
+
+    private Node removeFirst() {
+      final Node first = head;
+      remove(first);
+      return first;
+    }
+
+    private void moveToLast(final Node node) {
+      if (node != tail) {
+        remove(node);
+        addLast(node);
+      }
+    }
+  }
+
+
+  /**
+   * Estimates how often each key has been requested recently, using a count-min sketch of 4-bit
+   * counters. Once the number of recorded requests reaches ten times the cache's size, every
+   * counter is halved, so that estimates favour recent requests.
+   */
+  private static final class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+        0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    // each long holds 16 counters
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    private FrequencySketch(final int maxSize) {
+      final int length = Integer.highestOneBit(Math.max(1, maxSize - 1)) << 1;
+      this.table = new long[length];
+      this.tableMask = length - 1;
+      this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * maxSize);
+    }
+
+    private int frequency(final int hash) {
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < SEEDS.length; i++) {
+        final int shift = counterOffset(hash, i) << 2;
+        frequency = Math.min(frequency, (int) ((table[index(hash, i)] >>> shift) & 0xFL));
+      }
+      return frequency;
+    }
+
+    private void increment(final int hash) {
+      boolean added = false;
+      for (int i = 0; i < SEEDS.length; i++) {
+        final int index = index(hash, i);
+        final int shift = counterOffset(hash, i) << 2;
+        final long mask = 0xFL << shift;
+        // counters saturate at 15
+        if ((table[index] & mask) != mask) {
+          table[index] += 1L << shift;
+          added = true;
+        }
+      }
+      if (added && ++additions >= sampleSize) {
+        reset();
+      }
+    }
+
+    private void reset() {
+      for (int i = 0; i < table.length; i++) {
+        table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      additions /= 2;
+    }
+
+    private int index(final int hash, final int i) {
+      long mixed = (hash + SEEDS[i]) * SEEDS[i];
+      mixed += mixed >>> 32;
+      return (int) mixed & tableMask;
+    }
+
+    private static int counterOffset(final int hash, final int i) {
+      return (hash >>> (i << 2)) & 0xF;
+    }
+  }
+}
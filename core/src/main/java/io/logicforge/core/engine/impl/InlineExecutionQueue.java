@@ -0,0 +1,210 @@
+package io.logicforge.core.engine.impl;
+
+import io.logicforge.core.constant.ActionCost;
+import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.exception.ExecutionRejectedException;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An ExecutionQueue decorator that runs work directly on the calling thread ("caller runs") when
+ * handing it to the delegate queue would cost more than it saves. This avoids context switches for
+ * trivial work and avoids {@link RejectedExecutionException}s under load. Which situations trigger
+ * inline execution is configured by the supplied {@link Condition}s.
+ *
+ * <p>
+ * All work is wrapped in a claim-once task before being handed to the delegate, so whichever
+ * thread reaches it first runs it: if the calling thread runs a task inline, the delegate's later
+ * attempt to run it does nothing, and vice versa.
+ * </p>
+ */
+@Slf4j
+public class InlineExecutionQueue implements ExecutionQueue {
+
+  public enum Condition {
+    /**
+     * Run work inline when the delegate queue is saturated or rejects it
+     */
+    SATURATED,
+    /**
+     * Run work inline when the caller is about to block waiting on it and it has not yet started
+     * (see {@link ExecutionQueue#runInline(Future)})
+     */
+    AWAITED,
+    /**
+     * Run work inline when it is submitted as cheap (see
+     * {@link ExecutionQueue#submitInline(Callable)})
+     */
+    CHEAP
+  }
+
+  private final ExecutionQueue delegate;
+  private final Set<Condition> conditions;
+
+  private final LongAdder inlined;
+
+  /**
+   * Creates a queue that runs work inline under all conditions
+   */
+  public InlineExecutionQueue(final ExecutionQueue delegate) {
+    this(delegate, EnumSet.allOf(Condition.class));
+  }
+
+  public InlineExecutionQueue(final ExecutionQueue delegate, final Set<Condition> conditions) {
+    this(delegate, conditions.isEmpty()
+        ? EnumSet.noneOf(Condition.class)
+        : EnumSet.copyOf(conditions), new LongAdder());
+  }
+
+  private InlineExecutionQueue(final ExecutionQueue delegate, final Set<Condition> conditions,
+      final LongAdder inlined) {
+    this.delegate = delegate;
+    this.conditions = conditions;
+    this.inlined = inlined;
+  }
+
+  @Override
+  public <T> Future<T> submit(final Callable<T> callable) {
+    return submit(callable, ActionCost.UNSPECIFIED);
+  }
+
+  /**
+   * Cheap work is submitted as by {@link #submitInline(Callable)}; other work is handed to the
+   * delegate along with its cost
+   */
+  @Override
+  public <T> Future<T> submit(final Callable<T> callable, final ActionCost cost) {
+    if (cost == ActionCost.CPU_CHEAP) {
+      return submitInline(callable);
+    }
+    final InlineTask<T> task = new InlineTask<>(callable);
+    if (conditions.contains(Condition.SATURATED) && delegate.isSaturated()) {
+      return runNow(task);
+    }
+    try {
+      if (cost == ActionCost.UNSPECIFIED) {
+        delegate.submit(task);
+      } else {
+        delegate.submit(Executors.callable(task), cost);
+      }
+    } catch (final RejectedExecutionException e) {
+      if (!conditions.contains(Condition.SATURATED)) {
+        throw e;
+      }
+      log.debug("Delegate queue rejected work, running it on the calling thread");
+      return runNow(task);
+    }
+    return task;
+  }
+
+  @Override
+  public Future<?> submit(final Runnable runnable) {
+    return submit(Executors.callable(runnable));
+  }
+
+  @Override
+  public <T> Future<T> submitInline(final Callable<T> callable) {
+    if (conditions.contains(Condition.CHEAP)) {
+      return runNow(new InlineTask<>(callable));
+    }
+    return submit(callable);
+  }
+
+  @Override
+  public boolean runInline(final Future<?> future) {
+    if (conditions.contains(Condition.AWAITED) && future instanceof InlineTask<?> task) {
+      // a no-op if the delegate has already started the task
+      runNow(task);
+    }
+    return future.isDone();
+  }
+
+  @Override
+  public boolean isSaturated() {
+    // saturation is handled by running work inline, so callers never see it
+    return !conditions.contains(Condition.SATURATED) && delegate.isSaturated();
+  }
+
+  @Override
+  public boolean schedulesWork() {
+    return delegate.schedulesWork();
+  }
+
+  @Override
+  public ExecutionQueue forProcess(final ProcessConfig<?, ?> processConfig) {
+    final ExecutionQueue processDelegate = delegate.forProcess(processConfig);
+    return processDelegate == delegate
+        ? this
+        : new InlineExecutionQueue(processDelegate, conditions, inlined);
+  }
+
+  @Override
+  public Permit admit() throws ExecutionRejectedException {
+    return delegate.admit();
+  }
+
+  @Override
+  public CompletableFuture<Permit> admitAsync() {
+    return delegate.admitAsync();
+  }
+
+  @Override
+  public boolean shutdown(final Duration gracePeriod) throws InterruptedException {
+    return delegate.shutdown(gracePeriod);
+  }
+
+  /**
+   * Returns the number of tasks that have been run on a calling thread
+   */
+  public long getInlinedCount() {
+    return inlined.sum();
+  }
+
+  private <T> InlineTask<T> runNow(final InlineTask<T> task) {
+    if (task.tryRun()) {
+      inlined.increment();
+      if (task.isCancelled()) {
+        // cancelling with interruption targets the thread running the task, which was this one;
+        // the interrupt was meant for the task, not the caller
+        Thread.interrupted();
+      }
+    }
+    return task;
+  }
+
+  private static class InlineTask<T> extends FutureTask<T> {
+
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private InlineTask(final Callable<T> callable) {
+      super(callable);
+    }
+
+    @Override
+    public void run() {
+      tryRun();
+    }
+
+    /**
+     * Runs the task if no other thread has claimed it, returning whether this call ran it
+     */
+    private boolean tryRun() {
+      if (!claimed.compareAndSet(false, true)) {
+        return false;
+      }
+      super.run();
+      return true;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package io.logicforge.core.engine.impl;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fair counting semaphore whose waiters hold futures rather than blocked threads, so that permits
+ * can be awaited by asynchronous executions without tying up a thread.
+ *
+ * <p>
+ * Waiters are granted permits in arrival order. Grants are completed on a background thread, so
+ * work chained onto a granted future never runs on the thread releasing the permit.
+ * </p>
+ */
+final class PermitPool {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+  private int available;
+
+  PermitPool(final int permits) {
+    this.available = permits;
+  }
+
+  /**
+   * Takes a permit if one is free and nobody is waiting for it
+   */
+  boolean tryAcquire() {
+    lock.lock();
+    try {
+      if (available > 0 && waiters.isEmpty()) {
+        available--;
+        return true;
+      }
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns a future that completes once a permit is granted, or fails with a TimeoutException once
+   * the supplied timeout elapses. Cancelling the future withdraws the request; a permit granted
+   * concurrently with the cancellation is returned to the pool.
+   */
+  CompletableFuture<Void> acquire(final Duration timeout) {
+    final CompletableFuture<Void> waiter = new CompletableFuture<>();
+    lock.lock();
+    try {
+      if (available > 0 && waiters.isEmpty()) {
+        available--;
+        waiter.complete(null);
+        return waiter;
+      }
+      waiters.addLast(waiter);
+    } finally {
+      lock.unlock();
+    }
+    waiter.whenComplete((ignored, e) -> {
+      if (e != null) {
+        withdraw(waiter);
+      }
+    });
+    return waiter.orTimeout(Math.max(0L, timeout.toNanos()), TimeUnit.NANOSECONDS);
+  }
+
+  void release() {
+    final CompletableFuture<Void> waiter;
+    lock.lock();
+    try {
+      waiter = waiters.pollFirst();
+      if (waiter == null) {
+        available++;
+        return;
+      }
+    } finally {
+      lock.unlock();
+    }
+    // the permit passes to the waiter, or back to the pool if the waiter gave up meanwhile
+    CompletableFuture.runAsync(() -> {
+      if (!waiter.complete(null)) {
+        release();
+      }
+    });
+  }
+
+  private void withdraw(final CompletableFuture<Void> waiter) {
+    lock.lock();
+    try {
+      waiters.remove(waiter);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
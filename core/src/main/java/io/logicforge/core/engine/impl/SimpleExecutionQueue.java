@@ -2,14 +2,20 @@ package io.logicforge.core.engine.impl;
 
 import io.logicforge.core.engine.ExecutionQueue;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * A simple ActionQueue implementation that submits actions directly to an executor as they are
  * queued.
  */
+@Slf4j
 public class SimpleExecutionQueue implements ExecutionQueue {
 
   private final ExecutorService executorService;
@@ -27,4 +33,37 @@ public class SimpleExecutionQueue implements ExecutionQueue {
   public Future<?> submit(final Runnable runnable) {
     return executorService.submit(runnable);
   }
+
+  /**
+   * Only pools that expose their sizing can report saturation: a {@link ThreadPoolExecutor} is
+   * saturated once all of its threads are busy and its work queue is full, at which point further
+   * submissions are rejected.
+   */
+  @Override
+  public boolean isSaturated() {
+    if (executorService instanceof ThreadPoolExecutor pool) {
+      return pool.getActiveCount() >= pool.getMaximumPoolSize() && pool.getQueue()
+          .remainingCapacity() == 0;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean shutdown(final Duration gracePeriod) throws InterruptedException {
+    executorService.shutdown();
+    if (executorService.awaitTermination(gracePeriod.toNanos(), TimeUnit.NANOSECONDS)) {
+      return true;
+    }
+    final List<Runnable> abandoned = executorService.shutdownNow();
+    // tasks that never started are returned rather than cancelled, so anyone holding their futures
+    // would otherwise wait on them indefinitely
+    for (final Runnable task : abandoned) {
+      if (task instanceof Future<?> aFuture) {
+        aFuture.cancel(false);
+      }
+    }
+    log.warn("Execution queue did not drain within {}; cancelled {} queued tasks", gracePeriod,
+        abandoned.size());
+    return false;
+  }
 }
@@ -0,0 +1,167 @@
+package io.logicforge.core.engine.impl;
+
+import io.logicforge.core.common.Coordinates;
+import io.logicforge.core.engine.ExecutionContext;
+import io.logicforge.core.engine.ExecutionListener;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An {@link ExecutionListener} that keeps traces of the most recent slow executions, showing how
+ * long each of their actions took. Executions are traced while they run and, once complete, kept
+ * only if they took at least the threshold, in a ring buffer that overwrites its oldest trace once
+ * full.
+ */
+public class SlowExecutionRecorder implements ExecutionListener {
+
+  public enum SpanType {
+    /**
+     * The call of an action, up to when it returned its output or async work
+     */
+    ACTION,
+    /**
+     * An action's async work, from when it was submitted until it completed
+     */
+    ASYNC,
+    /**
+     * A conversion by a registered converter
+     */
+    CONVERSION
+  }
+
+
+  /**
+   * A timed part of an execution
+   *
+   * @param type        the kind of work timed
+   * @param coordinates the coordinates of the action, or null for conversions
+   * @param name        the name of the action, or the converted types for conversions
+   * @param startOffset the time from the start of the execution to the start of the work
+   * @param duration    the time the work took
+   * @param error       the work's failure, or null if it succeeded
+   */
+  public record Span(SpanType type, Coordinates coordinates, String name, Duration startOffset,
+                     Duration duration, Throwable error) {
+
+  }
+
+
+  /**
+   * The trace of a slow execution
+   *
+   * @param processId the ID of the executed process
+   * @param startedAt when the execution started
+   * @param duration  the time the execution took
+   * @param error     the first failure observed during the execution, or null if none was
+   * @param spans     the execution's timed work, in the order it was reported
+   */
+  public record Trace(String processId, Instant startedAt, Duration duration, Throwable error,
+                      List<Span> spans) {
+
+  }
+
+  private final Duration threshold;
+  private final AtomicReferenceArray<Trace> traces;
+  private final AtomicLong recorded = new AtomicLong();
+  private final Map<ExecutionContext, Execution> executing = new ConcurrentHashMap<>();
+
+  /**
+   * @param capacity  the number of slow executions kept
+   * @param threshold the minimum duration of an execution for it to be kept
+   */
+  public SlowExecutionRecorder(final int capacity, final Duration threshold) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.threshold = threshold;
+    this.traces = new AtomicReferenceArray<>(capacity);
+  }
+
+  /**
+   * Returns the kept traces, most recent first
+   */
+  public List<Trace> getSlowExecutions() {
+    final long end = recorded.get();
+    final int capacity = traces.length();
+    final List<Trace> out = new ArrayList<>(capacity);
+    for (long i = end - 1; i >= 0 && i >= end - capacity; i--) {
+      final Trace trace = traces.get((int) (i % capacity));
+      if (trace != null) {
+        out.add(trace);
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Returns the number of slow executions recorded since the recorder was created, including those
+   * since overwritten
+   */
+  public long getRecordedCount() {
+    return recorded.get();
+  }
+
+  @Override
+  public void processStarted(final ExecutionContext context, final String processId) {
+    executing.put(context, new Execution());
+  }
+
+  @Override
+  public void processCompleted(final ExecutionContext context, final String processId,
+      final long durationNanos, final Throwable error) {
+    final Execution execution = executing.remove(context);
+    if (execution == null || durationNanos < threshold.toNanos()) {
+      return;
+    }
+    final Trace trace = new Trace(processId, execution.startedAt, Duration.ofNanos(durationNanos),
+        error, List.copyOf(execution.spans));
+    final long index = recorded.getAndIncrement();
+    traces.set((int) (index % traces.length()), trace);
+  }
+
+  @Override
+  public void actionCompleted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName, final long durationNanos, final Throwable error) {
+    addSpan(context, SpanType.ACTION, coordinates, actionName, durationNanos, error);
+  }
+
+  @Override
+  public void asyncCompleted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName, final long durationNanos, final Throwable error) {
+    addSpan(context, SpanType.ASYNC, coordinates, actionName, durationNanos, error);
+  }
+
+  @Override
+  public void converted(final ExecutionContext context, final Class<?> inputType,
+      final Class<?> outputType, final long durationNanos) {
+    addSpan(context, SpanType.CONVERSION, null, inputType.getSimpleName() + " -> " + outputType
+        .getSimpleName(), durationNanos, null);
+  }
+
+  private void addSpan(final ExecutionContext context, final SpanType type,
+      final Coordinates coordinates, final String name, final long durationNanos,
+      final Throwable error) {
+    final Execution execution = executing.get(context);
+    if (execution != null) {
+      // spans are reported as they end, so their start is derived from their duration
+      final long startOffset = System.nanoTime() - durationNanos - execution.startNanos;
+      execution.spans.add(new Span(type, coordinates, name, Duration.ofNanos(Math.max(0L,
+          startOffset)), Duration.ofNanos(durationNanos), error));
+    }
+  }
+
+  private static final class Execution {
+
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+  }
+}
@@ -0,0 +1,204 @@
+package io.logicforge.core.engine.impl;
+
+import io.logicforge.core.engine.ExecutionQueue;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An ExecutionQueue that runs each action on its own virtual thread. Since actions are mostly
+ * I/O-bound, this supports far more concurrent in-flight actions than a platform thread pool
+ * without any pool tuning.
+ *
+ * <p>
+ * Concurrency is capped by a semaphore rather than by a pool size: every submitted action gets a
+ * virtual thread immediately, which then waits for a permit before running. Waiting is cheap for a
+ * virtual thread, so bursts queue up rather than being rejected.
+ * </p>
+ *
+ * <p>
+ * Virtual threads are pinned to their carrier thread while inside a synchronized block, so blocking
+ * I/O performed in synchronized provider code occupies a carrier and limits throughput. When a
+ * pinning threshold is supplied, pinning events on this queue's threads are recorded via JFR,
+ * counted in the queue's metrics, and logged with the offending stack.
+ * </p>
+ */
+@Slf4j
+public class VirtualThreadExecutionQueue implements ExecutionQueue {
+
+  private static final String THREAD_NAME_PREFIX = "logicforge-action-";
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int LOGGED_FRAMES = 8;
+
+  private final ExecutorService executorService;
+  private final Semaphore permits;
+  private final int maxConcurrency;
+  private final RecordingStream pinningRecording;
+
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder pinned = new LongAdder();
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final AtomicInteger peakActive = new AtomicInteger();
+
+  /**
+   * Creates a queue without pinning diagnostics
+   *
+   * @param maxConcurrency the maximum number of actions that may execute at once
+   */
+  public VirtualThreadExecutionQueue(final int maxConcurrency) {
+    this(maxConcurrency, null);
+  }
+
+  /**
+   * @param maxConcurrency   the maximum number of actions that may execute at once
+   * @param pinningThreshold the minimum time a thread must remain pinned to be reported, or null to
+   *                         disable pinning diagnostics
+   */
+  public VirtualThreadExecutionQueue(final int maxConcurrency, final Duration pinningThreshold) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("maxConcurrency must be positive");
+    }
+    this.maxConcurrency = maxConcurrency;
+    this.permits = new Semaphore(maxConcurrency);
+    this.executorService = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+        .name(THREAD_NAME_PREFIX, 0)
+        .factory());
+    this.pinningRecording = pinningThreshold != null
+        ? startPinningRecording(pinningThreshold)
+        : null;
+  }
+
+  @Override
+  public <T> Future<T> submit(final Callable<T> callable) {
+    submitted.increment();
+    return executorService.submit(() -> {
+      acquire();
+      try {
+        final T result = callable.call();
+        completed.increment();
+        return result;
+      } catch (final Exception e) {
+        failed.increment();
+        throw e;
+      } finally {
+        release();
+      }
+    });
+  }
+
+  @Override
+  public Future<?> submit(final Runnable runnable) {
+    return submit(Executors.callable(runnable));
+  }
+
+  @Override
+  public boolean isSaturated() {
+    return permits.availablePermits() == 0;
+  }
+
+  @Override
+  public boolean shutdown(final Duration gracePeriod) throws InterruptedException {
+    executorService.shutdown();
+    try {
+      if (executorService.awaitTermination(gracePeriod.toNanos(), TimeUnit.NANOSECONDS)) {
+        return true;
+      }
+      // a thread-per-task executor starts every task immediately, so none are ever abandoned; any
+      // still waiting on a permit are interrupted along with those executing
+      executorService.shutdownNow();
+      log.warn("Execution queue did not drain within {}; interrupted {} executing and {} waiting "
+          + "actions", gracePeriod, active.get(), waiting.get());
+      return false;
+    } finally {
+      if (pinningRecording != null) {
+        pinningRecording.close();
+      }
+    }
+  }
+
+  /**
+   * Returns a point-in-time snapshot of this queue's metrics
+   */
+  public Metrics getMetrics() {
+    return new Metrics(submitted.sum(), completed.sum(), failed.sum(), active.get(), waiting.get(),
+        peakActive.get(), maxConcurrency, pinned.sum());
+  }
+
+  private void acquire() throws InterruptedException {
+    waiting.incrementAndGet();
+    try {
+      permits.acquire();
+    } finally {
+      waiting.decrementAndGet();
+    }
+    final int nowActive = active.incrementAndGet();
+    peakActive.accumulateAndGet(nowActive, Math::max);
+  }
+
+  private void release() {
+    active.decrementAndGet();
+    permits.release();
+  }
+
+  private RecordingStream startPinningRecording(final Duration threshold) {
+    final RecordingStream recording = new RecordingStream();
+    recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    recording.onEvent(PINNED_EVENT, this::onPinned);
+    recording.startAsync();
+    return recording;
+  }
+
+  private void onPinned(final RecordedEvent event) {
+    if (event.getThread() == null || event.getThread().getJavaName() == null || !event.getThread()
+        .getJavaName()
+        .startsWith(THREAD_NAME_PREFIX)) {
+      return;
+    }
+    pinned.increment();
+    if (log.isWarnEnabled()) {
+      final List<RecordedFrame> frames = event.getStackTrace() != null
+          ? event.getStackTrace().getFrames()
+          : List.of();
+      log.warn("Action thread {} was pinned to its carrier for {}, likely by blocking inside a "
+          + "synchronized block:\n\t{}", event.getThread().getJavaName(), event.getDuration(),
+          frames.stream()
+              .limit(LOGGED_FRAMES)
+              .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod()
+                  .getName() + ":" + frame.getLineNumber())
+              .collect(Collectors.joining("\n\t")));
+    }
+  }
+
+  /**
+   * A snapshot of the queue's metrics
+   *
+   * @param submitted      the total number of actions submitted
+   * @param completed      the total number of actions that completed normally
+   * @param failed         the total number of actions that threw an exception
+   * @param active         the number of actions currently executing
+   * @param waiting        the number of actions currently waiting for a permit to execute
+   * @param peakActive     the highest number of actions that have executed at once
+   * @param maxConcurrency the maximum number of actions that may execute at once
+   * @param pinned         the number of times an action thread was reported as pinned (always zero
+   *                       when pinning diagnostics are disabled)
+   */
+  public record Metrics(long submitted, long completed, long failed, int active, int waiting,
+                        int peakActive, int maxConcurrency, long pinned) {
+
+  }
+}
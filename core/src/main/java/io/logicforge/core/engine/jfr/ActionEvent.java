@@ -0,0 +1,36 @@
+package io.logicforge.core.engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for each call of an action. For async actions, this covers the call returning the
+ * async work, which is recorded separately as an {@link AsyncActionEvent}.
+ */
+@Name("io.logicforge.Action")
+@Label("Action")
+@Category("LogicForge")
+@Description("A call of an action by a process execution")
+@Enabled(false)
+@StackTrace(false)
+public final class ActionEvent extends jdk.jfr.Event {
+
+  @Label("Process ID")
+  public String processId;
+
+  @Label("Execution Number")
+  public long executionNumber;
+
+  @Label("Coordinates")
+  public String coordinates;
+
+  @Label("Action Name")
+  public String actionName;
+
+  @Label("Failure")
+  public String failure;
+}
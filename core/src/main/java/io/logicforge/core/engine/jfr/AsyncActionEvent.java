@@ -0,0 +1,36 @@
+package io.logicforge.core.engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for each action's async work, from when it is submitted until it completes, including
+ * any time spent queued
+ */
+@Name("io.logicforge.AsyncAction")
+@Label("Async Action")
+@Category("LogicForge")
+@Description("The async work of an action, from submission to completion")
+@Enabled(false)
+@StackTrace(false)
+public final class AsyncActionEvent extends jdk.jfr.Event {
+
+  @Label("Process ID")
+  public String processId;
+
+  @Label("Execution Number")
+  public long executionNumber;
+
+  @Label("Coordinates")
+  public String coordinates;
+
+  @Label("Action Name")
+  public String actionName;
+
+  @Label("Failure")
+  public String failure;
+}
@@ -0,0 +1,184 @@
+package io.logicforge.core.engine.jfr;
+
+import io.logicforge.core.common.Coordinates;
+import io.logicforge.core.engine.ExecutionContext;
+import io.logicforge.core.engine.ExecutionListener;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records process executions and action calls as JDK Flight Recorder events
+ * ({@link ProcessExecutionEvent}, {@link ActionEvent} and {@link AsyncActionEvent}).
+ *
+ * <p>
+ * The listener is registered with every {@link io.logicforge.core.engine.ExecutionListeners} while
+ * a running flight recording enables any of these events, and removed once none does, so
+ * executions pay nothing for it while only other events are being recorded. The events are
+ * disabled by default, so a recording must enable them explicitly, through its settings or
+ * {@link Recording#enable(Class)}, which also controls their thresholds like any other JFR event.
+ * </p>
+ */
+@Slf4j
+public final class JfrExecutionListener implements ExecutionListener {
+
+  public static final JfrExecutionListener INSTANCE = new JfrExecutionListener();
+
+  private static final List<Class<? extends Event>> RECORDED_EVENTS = List.of(
+      ProcessExecutionEvent.class, ActionEvent.class, AsyncActionEvent.class);
+  private static final List<Runnable> STATE_LISTENERS = new CopyOnWriteArrayList<>();
+  private static final AtomicLong EXECUTION_NUMBERS = new AtomicLong();
+  private static volatile boolean enabled;
+
+  static {
+    try {
+      FlightRecorder.addListener(new FlightRecorderListener() {
+        @Override
+        public void recorderInitialized(final FlightRecorder recorder) {
+          refreshEnabledState();
+        }
+
+        @Override
+        public void recordingStateChanged(final Recording changed) {
+          refreshEnabledState();
+        }
+      });
+      refreshEnabledState();
+    } catch (final RuntimeException | LinkageError e) {
+      // the runtime doesn't support flight recording, so events are never recorded
+      log.debug("Flight recorder unavailable, JFR events disabled", e);
+    }
+  }
+
+  private final Map<ExecutionContext, Execution> executions = new ConcurrentHashMap<>();
+
+  private JfrExecutionListener() {
+  }
+
+  /**
+   * Returns whether a running flight recording enables any of the events this listener records
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Registers a callback run whenever recording of this listener's events is enabled or disabled
+   */
+  public static void onEnabledStateChanged(final Runnable callback) {
+    STATE_LISTENERS.add(callback);
+  }
+
+  private static void refreshEnabledState() {
+    // checked only once the recorder is initialized, so that looking up the event types doesn't
+    // start it
+    final boolean recorded = FlightRecorder.isInitialized() && RECORDED_EVENTS.stream()
+        .anyMatch(event -> EventType.getEventType(event).isEnabled());
+    if (recorded != enabled) {
+      enabled = recorded;
+      STATE_LISTENERS.forEach(Runnable::run);
+    }
+  }
+
+  @Override
+  public void processStarted(final ExecutionContext context, final String processId) {
+    final ProcessExecutionEvent event = new ProcessExecutionEvent();
+    final Execution execution = new Execution(processId, EXECUTION_NUMBERS.incrementAndGet(),
+        event);
+    event.begin();
+    executions.put(context, execution);
+  }
+
+  @Override
+  public void processCompleted(final ExecutionContext context, final String processId,
+      final long durationNanos, final Throwable error) {
+    final Execution execution = executions.remove(context);
+    if (execution == null) {
+      // started before recording did
+      return;
+    }
+    final ProcessExecutionEvent event = execution.event;
+    if (event.shouldCommit()) {
+      event.processId = processId;
+      event.executionNumber = execution.number;
+      event.failure = failureName(error);
+      event.commit();
+    }
+  }
+
+  @Override
+  public void actionStarted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName) {
+    final Execution execution = executions.get(context);
+    if (execution != null) {
+      final ActionEvent event = new ActionEvent();
+      event.begin();
+      execution.actions.put(coordinates, event);
+    }
+  }
+
+  @Override
+  public void actionCompleted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName, final long durationNanos, final Throwable error) {
+    final Execution execution = executions.get(context);
+    final ActionEvent event = execution != null ? execution.actions.remove(coordinates) : null;
+    if (event != null && event.shouldCommit()) {
+      event.processId = execution.processId;
+      event.executionNumber = execution.number;
+      event.coordinates = coordinates.toString();
+      event.actionName = actionName;
+      event.failure = failureName(error);
+      event.commit();
+    }
+  }
+
+  @Override
+  public void asyncSubmitted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName) {
+    final Execution execution = executions.get(context);
+    if (execution != null) {
+      final AsyncActionEvent event = new AsyncActionEvent();
+      event.begin();
+      execution.asyncActions.put(coordinates, event);
+    }
+  }
+
+  @Override
+  public void asyncCompleted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName, final long durationNanos, final Throwable error) {
+    final Execution execution = executions.get(context);
+    final AsyncActionEvent event = execution != null
+        ? execution.asyncActions.remove(coordinates)
+        : null;
+    if (event != null && event.shouldCommit()) {
+      event.processId = execution.processId;
+      event.executionNumber = execution.number;
+      event.coordinates = coordinates.toString();
+      event.actionName = actionName;
+      event.failure = failureName(error);
+      event.commit();
+    }
+  }
+
+  private static String failureName(final Throwable error) {
+    return error != null ? error.getClass().getName() : null;
+  }
+
+  private record Execution(String processId, long number, ProcessExecutionEvent event,
+                           Map<Coordinates, ActionEvent> actions,
+                           Map<Coordinates, AsyncActionEvent> asyncActions) {
+
+    private Execution(final String processId, final long number,
+        final ProcessExecutionEvent event) {
+      this(processId, number, event, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+  }
+}
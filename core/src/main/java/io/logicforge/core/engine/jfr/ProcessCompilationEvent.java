@@ -0,0 +1,39 @@
+package io.logicforge.core.engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when a process's generated source is compiled and its class loaded (see
+ * {@link io.logicforge.core.engine.compile.ProcessCompiler})
+ */
+@Name("io.logicforge.ProcessCompilation")
+@Label("Process Compilation")
+@Category("LogicForge")
+@Description("Compilation of a process configuration into a generated class")
+@StackTrace(false)
+public final class ProcessCompilationEvent extends jdk.jfr.Event {
+
+  @Label("Class Name")
+  public String className;
+
+  @Label("Source Size")
+  @Description("The length of the generated source, in characters")
+  public int sourceSize;
+
+  @Label("Javac Time")
+  @Timespan(Timespan.NANOSECONDS)
+  public long javacTime;
+
+  @Label("Class Bytes")
+  @DataAmount
+  public long classBytes;
+
+  @Label("Succeeded")
+  public boolean succeeded;
+}
@@ -0,0 +1,31 @@
+package io.logicforge.core.engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for each execution of a process, from when it starts until it completes
+ */
+@Name("io.logicforge.ProcessExecution")
+@Label("Process Execution")
+@Category("LogicForge")
+@Description("An execution of a compiled process")
+@Enabled(false)
+@StackTrace(false)
+public final class ProcessExecutionEvent extends jdk.jfr.Event {
+
+  @Label("Process ID")
+  public String processId;
+
+  @Label("Execution Number")
+  @Description("Identifies the execution among those recorded, correlating it with its actions")
+  public long executionNumber;
+
+  @Label("Failure")
+  @Description("The class of the first failure observed during the execution, if any")
+  public String failure;
+}
@@ -0,0 +1,84 @@
+package io.logicforge.core.engine.metrics;
+
+import io.logicforge.core.common.Coordinates;
+import io.logicforge.core.engine.ExecutionContext;
+import io.logicforge.core.engine.ExecutionListener;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * An {@link ExecutionListener} collecting latency and error metrics for every process, action and
+ * function executed while it is registered (see
+ * {@link io.logicforge.core.engine.ExecutionListeners}). Metrics are kept as one fixed-size series
+ * per name, and are read as a point-in-time {@link Snapshot}, which can be exported to any metrics
+ * system.
+ */
+public class ExecutionMetrics implements ExecutionListener {
+
+  private final Map<String, OperationMetrics> processes = new ConcurrentHashMap<>();
+  private final Map<String, OperationMetrics> actions = new ConcurrentHashMap<>();
+  private final Map<String, OperationMetrics> asyncActions = new ConcurrentHashMap<>();
+  private final Map<String, OperationMetrics> functions = new ConcurrentHashMap<>();
+
+  /**
+   * A snapshot of all collected metrics, each keyed by name
+   *
+   * @param processes    executions, by process ID
+   * @param actions      action calls, by action name. For async actions, this covers the call
+   *                     returning the async work.
+   * @param asyncActions async work, from submission to completion, by action name
+   * @param functions    function calls, by function name, excluding the evaluation of their
+   *                     arguments
+   */
+  public record Snapshot(Map<String, OperationMetrics.Snapshot> processes,
+                         Map<String, OperationMetrics.Snapshot> actions,
+                         Map<String, OperationMetrics.Snapshot> asyncActions,
+                         Map<String, OperationMetrics.Snapshot> functions) {
+
+  }
+
+  public Snapshot snapshot() {
+    return new Snapshot(snapshot(processes), snapshot(actions), snapshot(asyncActions), snapshot(
+        functions));
+  }
+
+  @Override
+  public void processCompleted(final ExecutionContext context, final String processId,
+      final long durationNanos, final Throwable error) {
+    series(processes, processId).record(durationNanos, error);
+  }
+
+  @Override
+  public void actionCompleted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName, final long durationNanos, final Throwable error) {
+    series(actions, actionName).record(durationNanos, error);
+  }
+
+  @Override
+  public void asyncCompleted(final ExecutionContext context, final Coordinates coordinates,
+      final String actionName, final long durationNanos, final Throwable error) {
+    series(asyncActions, actionName).record(durationNanos, error);
+  }
+
+  @Override
+  public void functionCompleted(final ExecutionContext context, final String functionName,
+      final long durationNanos) {
+    series(functions, functionName).record(durationNanos, null);
+  }
+
+  private static OperationMetrics series(final Map<String, OperationMetrics> metrics,
+      final String name) {
+    final String key = name != null ? name : "";
+    final OperationMetrics existing = metrics.get(key);
+    return existing != null ? existing : metrics.computeIfAbsent(key, k -> new OperationMetrics());
+  }
+
+  private static Map<String, OperationMetrics.Snapshot> snapshot(
+      final Map<String, OperationMetrics> metrics) {
+    return metrics.entrySet()
+        .stream()
+        .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> entry.getValue()
+            .snapshot()));
+  }
+}
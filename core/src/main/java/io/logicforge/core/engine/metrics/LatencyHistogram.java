@@ -0,0 +1,119 @@
+package io.logicforge.core.engine.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, with a fixed memory footprint.
+ *
+ * <p>
+ * Buckets are log-linear: each power of two is split into {@value #SUB_BUCKETS} equal buckets, so
+ * any recorded latency is reported to within 1/{@value #SUB_BUCKETS} of its value, from single
+ * nanoseconds up to about 73 minutes. Longer latencies are counted in the last bucket. Recording a
+ * latency increments a single bucket, so concurrent recorders only contend when they land in the
+ * same bucket.
+ * </p>
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // the highest power of two tracked, 2^41 nanoseconds being about 37 minutes
+  private static final int MAX_MAGNITUDE = 41;
+  static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+  /**
+   * A snapshot of a histogram
+   *
+   * @param count    the number of latencies recorded
+   * @param sumNanos the sum of the latencies recorded
+   * @param maxNanos the longest latency recorded
+   * @param buckets  the number of latencies recorded in each bucket
+   */
+  public record Snapshot(long count, long sumNanos, long maxNanos, long[] buckets) {
+
+    public Snapshot {
+      buckets = buckets.clone();
+    }
+
+    /**
+     * Returns a copy of the bucket counts
+     */
+    @Override
+    public long[] buckets() {
+      return buckets.clone();
+    }
+
+    public double meanNanos() {
+      return count == 0 ? 0D : (double) sumNanos / count;
+    }
+
+    /**
+     * Returns the latency that the given fraction of recorded latencies were at or below, to within
+     * the histogram's precision
+     *
+     * @param quantile a fraction between 0 and 1, such as 0.99 for the 99th percentile
+     */
+    public long percentileNanos(final double quantile) {
+      if (count == 0) {
+        return 0L;
+      }
+      final long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+      long seen = 0L;
+      for (int i = 0; i < buckets.length; i++) {
+        seen += buckets[i];
+        if (seen >= rank) {
+          return Math.min(upperBound(i), maxNanos);
+        }
+      }
+      return maxNanos;
+    }
+  }
+
+  public void record(final long nanos) {
+    final long value = Math.max(0L, nanos);
+    buckets.incrementAndGet(indexOf(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  public Snapshot snapshot() {
+    final long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return new Snapshot(count.sum(), sum.sum(), max.get(), counts);
+  }
+
+  static int indexOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    if (magnitude > MAX_MAGNITUDE) {
+      return BUCKET_COUNT - 1;
+    }
+    final int shift = magnitude - SUB_BUCKET_BITS;
+    final int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+    return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Returns the largest latency counted in the bucket at the given index
+   */
+  static long upperBound(final int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    final int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+    final long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+    return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,74 @@
+package io.logicforge.core.engine.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * The metrics of one process, action or function: how often it ran, how long it took, and how
+ * often it failed, by exception type. Each series has a fixed memory footprint; once
+ * {@value #MAX_ERROR_TYPES} exception types have been counted, further types are counted together
+ * under {@value #OTHER_ERRORS}.
+ */
+public class OperationMetrics {
+
+  static final int MAX_ERROR_TYPES = 16;
+  public static final String OTHER_ERRORS = "other";
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder errors = new LongAdder();
+  private final Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+  private final LongAdder otherErrors = new LongAdder();
+
+  /**
+   * A snapshot of an operation's metrics
+   *
+   * @param calls        the number of times the operation ran
+   * @param errors       the number of times it failed
+   * @param errorsByType the number of failures by exception class name
+   * @param latency      how long it took
+   */
+  public record Snapshot(long calls, long errors, Map<String, Long> errorsByType,
+                         LatencyHistogram.Snapshot latency) {
+
+  }
+
+  /**
+   * Records a run of the operation
+   *
+   * @param durationNanos how long it took
+   * @param error         its failure, or null if it succeeded
+   */
+  public void record(final long durationNanos, final Throwable error) {
+    latency.record(durationNanos);
+    if (error != null) {
+      errors.increment();
+      errorCounter(error.getClass().getName()).increment();
+    }
+  }
+
+  public Snapshot snapshot() {
+    final LatencyHistogram.Snapshot latencySnapshot = latency.snapshot();
+    final Map<String, Long> byType = errorsByType.entrySet()
+        .stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    final long other = otherErrors.sum();
+    if (other > 0) {
+      byType.put(OTHER_ERRORS, other);
+    }
+    return new Snapshot(latencySnapshot.count(), errors.sum(), Map.copyOf(byType), latencySnapshot);
+  }
+
+  private LongAdder errorCounter(final String type) {
+    final LongAdder counter = errorsByType.get(type);
+    if (counter != null) {
+      return counter;
+    }
+    // the size check can race, letting a few more types in, but stays bounded by the thread count
+    if (errorsByType.size() >= MAX_ERROR_TYPES) {
+      return otherErrors;
+    }
+    return errorsByType.computeIfAbsent(type, ignored -> new LongAdder());
+  }
+}
@@ -7,6 +7,17 @@ public class ConversionException extends ProcessExecutionException {
     super("Failed to convert %s to %s: %s".formatted(value, outputType, message));
   }
 
+  /**
+   * @param writableStackTrace whether the stack trace is filled in. Failures caused by the data
+   *                           being converted, rather than a faulty converter, may skip it, since
+   *                           filling it in is costly and it says nothing about the failure.
+   */
+  public ConversionException(final Object value, final Class<?> outputType, final String message,
+      final boolean writableStackTrace) {
+    super("Failed to convert %s to %s: %s".formatted(value, outputType, message), null, false,
+        writableStackTrace);
+  }
+
   public ConversionException(final Object value, final Class<?> outputType, final String message,
       final Throwable cause) {
     // TODO try to capture variable title, type, and requested path for debugging
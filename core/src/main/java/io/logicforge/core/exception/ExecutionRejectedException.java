@@ -0,0 +1,39 @@
+package io.logicforge.core.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a process execution is refused admission because the engine is overloaded. Rejection
+ * always happens before any of the process's actions have run, so a rejected execution can be
+ * safely retried.
+ */
+@Getter
+public class ExecutionRejectedException extends ProcessExecutionException {
+
+  public enum Reason {
+    /**
+     * The maximum number of concurrent executions across all processes was reached
+     */
+    GLOBAL_LIMIT,
+    /**
+     * The maximum number of concurrent executions of the process was reached
+     */
+    PROCESS_LIMIT,
+    /**
+     * Too many executions were already waiting for admission, so the execution was shed without
+     * waiting
+     */
+    SHED,
+    /**
+     * The thread waiting for admission was interrupted
+     */
+    INTERRUPTED
+  }
+
+  private final Reason reason;
+
+  public ExecutionRejectedException(final Reason reason, final String message) {
+    super(message);
+    this.reason = reason;
+  }
+}
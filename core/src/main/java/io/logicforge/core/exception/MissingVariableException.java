@@ -2,8 +2,21 @@ package io.logicforge.core.exception;
 
 public class MissingVariableException extends ProcessExecutionException {
 
+  private static final String MESSAGE =
+      "Attempted to resolve an optional variable or variable property that was not set.";
+
+  /**
+   * A shared instance without a stack trace, thrown in place of a new exception when
+   * {@link io.logicforge.core.engine.LogicForgeOptions#lightweightExceptions()} is set
+   */
+  public static final MissingVariableException STACKLESS = new MissingVariableException(false);
+
   public MissingVariableException() {
     // TODO try to capture variable title, type, and requested path for debugging
-    super("Attempted to resolve an optional variable or variable property that was not set.");
+    super(MESSAGE);
+  }
+
+  private MissingVariableException(final boolean writableStackTrace) {
+    super(MESSAGE, null, false, writableStackTrace);
   }
 }
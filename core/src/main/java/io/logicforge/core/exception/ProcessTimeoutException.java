@@ -0,0 +1,12 @@
+package io.logicforge.core.exception;
+
+/**
+ * Thrown when an action or process execution exceeds its configured timeout. Any work still
+ * pending for the timed-out action or execution is cancelled.
+ */
+public class ProcessTimeoutException extends ProcessExecutionException {
+
+  public ProcessTimeoutException(final String message) {
+    super(message);
+  }
+}
@@ -2,8 +2,22 @@ package io.logicforge.core.exception;
 
 public class UnexpectedVariableException extends ProcessExecutionException {
 
+  private static final String MESSAGE =
+      "Attempted to resolve a variable but found a variable of unexpected type";
+
+  /**
+   * A shared instance without a stack trace, thrown in place of a new exception when
+   * {@link io.logicforge.core.engine.LogicForgeOptions#lightweightExceptions()} is set
+   */
+  public static final UnexpectedVariableException STACKLESS = new UnexpectedVariableException(
+      false);
+
   public UnexpectedVariableException() {
     // TODO try to capture variable title, type, and requested path for debugging
-    super("Attempted to resolve a variable but found a variable of unexpected type");
+    super(MESSAGE);
+  }
+
+  private UnexpectedVariableException(final boolean writableStackTrace) {
+    super(MESSAGE, null, false, writableStackTrace);
   }
 }
@@ -47,9 +47,21 @@ import java.util.stream.Collectors;
 public abstract class DTOMapper<ID> {
 
   private final EngineSpec engineSpec;
+  private final boolean compactCoordinates;
 
   public DTOMapper(final EngineSpec engineSpec) {
+    this(engineSpec, false);
+  }
+
+  /**
+   * @param engineSpec         the engine's specification
+   * @param compactCoordinates whether references' coordinates are written packed into a single
+   *                           value where possible, rather than as an array of indexes. Either form
+   *                           is read regardless.
+   */
+  public DTOMapper(final EngineSpec engineSpec, final boolean compactCoordinates) {
     this.engineSpec = engineSpec;
+    this.compactCoordinates = compactCoordinates;
   }
 
   public <T> ProcessConfig<T, ID> internal(final ProcessConfigDTO external,
@@ -179,11 +191,27 @@ public abstract class DTOMapper<ID> {
 
   protected ReferenceConfig referenceInternal(final ReferenceConfigDTO external) {
     return ReferenceConfig.builder()
-        .coordinates(Coordinates.from(external.getCoordinates()))
+        .coordinates(referenceCoordinates(external.getCoordinates(), external
+            .getPackedCoordinates()))
         .path(Arrays.stream(external.getPath()).collect(Collectors.toList()))
         .build();
   }
 
+  /**
+   * Returns a reference's coordinates, which are stored either as an index array or packed
+   *
+   * @throws IllegalArgumentException if the reference has neither
+   */
+  private static Coordinates referenceCoordinates(final int[] coordinates, final Long packed) {
+    if (coordinates != null) {
+      return Coordinates.from(coordinates);
+    }
+    if (packed == null) {
+      throw new IllegalArgumentException("Reference has neither coordinates nor packedCoordinates");
+    }
+    return Coordinates.unpack(packed);
+  }
+
   protected ExecutableConfigDTO executableExternal(final ExecutableConfig internal) {
     if (internal instanceof ActionConfig actionConfig) {
       return actionExternal(actionConfig);
@@ -272,7 +300,12 @@ public abstract class DTOMapper<ID> {
   protected ReferenceConfigDTO referenceExternal(final ReferenceConfig internal) {
     final ReferenceConfigDTO out = new ReferenceConfigDTO();
     out.setPath(internal.getPath().toArray(new String[0]));
-    out.setCoordinates(internal.getCoordinates().asArray());
+    final Coordinates coordinates = internal.getCoordinates();
+    if (compactCoordinates && coordinates.isPackable()) {
+      out.setPackedCoordinates(coordinates.pack());
+    } else {
+      out.setCoordinates(coordinates.asArray());
+    }
     return out;
   }
 
@@ -0,0 +1,26 @@
+package io.logicforge.core.model.domain.specification;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * How a function's results are cached (see
+ * {@link io.logicforge.core.annotations.metadata.Cacheable}). The cache itself is created by the
+ * process builder.
+ */
+@Data
+@Builder
+@RequiredArgsConstructor
+public class CacheSpec {
+
+  private final int maxSize;
+
+  /**
+   * How long a result remains cached after it is computed, or null if results remain cached until
+   * evicted
+   */
+  private final Duration ttl;
+
+}
@@ -4,6 +4,7 @@ import java.lang.reflect.Method;
 import java.util.List;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.experimental.SuperBuilder;
 
 @EqualsAndHashCode(callSuper = true)
@@ -13,6 +14,25 @@ public class CallableSpec extends ExpressionSpec {
 
   private final String name;
   private final Method method;
+
+  /**
+   * The method to resolve on first use, in place of {@link #method}, for callables read from an
+   * {@link EngineSpecSnapshot}
+   */
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final MethodReference methodReference;
+
   private final List<InputSpec> inputs;
 
+  /**
+   * Whether the callable completes asynchronously, returning a future of its declared type rather
+   * than the type itself
+   */
+  private final boolean async;
+
+  public Method getMethod() {
+    return method != null ? method : methodReference.resolve();
+  }
+
 }
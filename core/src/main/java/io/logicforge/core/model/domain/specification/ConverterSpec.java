@@ -4,7 +4,9 @@ import java.lang.reflect.Method;
 import java.util.List;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
+import lombok.ToString;
 
 @Data
 @Builder
@@ -17,8 +19,20 @@ public class ConverterSpec {
 
   private final Method method;
 
+  /**
+   * The method to resolve on first use, in place of {@link #method}, for converters read from an
+   * {@link EngineSpecSnapshot}
+   */
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final MethodReference methodReference;
+
   private final Object provider;
 
   private final List<InputSpec> inputs;
 
+  public Method getMethod() {
+    return method != null ? method : methodReference.resolve();
+  }
+
 }
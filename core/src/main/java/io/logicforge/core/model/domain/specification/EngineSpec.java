@@ -23,4 +23,11 @@ public class EngineSpec {
   private final List<ControlStatementType> controls;
 
   private final List<ConverterSpec> converters;
+
+  /**
+   * The relationships between the engine's types, for checking whether values of one type can be
+   * used where another is expected
+   */
+  private final TypeLattice typeLattice;
+
 }
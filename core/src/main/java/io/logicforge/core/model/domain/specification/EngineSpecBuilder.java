@@ -5,10 +5,14 @@ import io.logicforge.core.annotations.elements.CompoundType;
 import io.logicforge.core.annotations.elements.Converter;
 import io.logicforge.core.annotations.elements.Function;
 import io.logicforge.core.annotations.elements.Property;
+import io.logicforge.core.annotations.metadata.Cacheable;
 import io.logicforge.core.annotations.metadata.Category;
+import io.logicforge.core.annotations.metadata.Idempotent;
 import io.logicforge.core.annotations.metadata.InfluencesReturnType;
+import io.logicforge.core.annotations.metadata.Inline;
 import io.logicforge.core.annotations.metadata.Name;
 import io.logicforge.core.common.Pair;
+import io.logicforge.core.constant.ActionCost;
 import io.logicforge.core.constant.ControlStatementType;
 import io.logicforge.core.constant.EngineMethodType;
 import io.logicforge.core.constant.MetadataFlags;
@@ -25,15 +29,16 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import lombok.Getter;
@@ -49,10 +54,47 @@ public class EngineSpecBuilder {
   private final Map<String, CallableSpec> processes = new HashMap<>();
   private final Set<Class<?>> types = new HashSet<>();
   private final Map<Class<?>, Map<String, PropertyInfo>> compoundTypes = new HashMap<>();
+  /* compound type properties read from provider registries, used in place of analyzing the types */
+  private final Map<Class<?>, List<ProviderRegistry.CompoundProperty>> registeredCompoundTypes =
+      new HashMap<>();
   private final Map<String, ProvidedCallableSpec> actions = new HashMap<>();
   private final Map<String, ProvidedCallableSpec> functions = new HashMap<>();
   private final Set<ControlStatementType> controls = new HashSet<>();
   private final List<ConverterSpec> converters = new ArrayList<>();
+  /* whether anything was removed, leaving types that may no longer be referenced */
+  private boolean removed;
+
+  /**
+   * Returns a builder holding the contents of an existing spec, to which further providers and
+   * processes can be added, or from which they can be removed, to build a new spec. The new spec
+   * shares the existing spec's action, function, process and converter specs, so that callables
+   * left unchanged are the same instances in both.
+   *
+   * @param engineSpec the spec to copy
+   * @return a new builder
+   */
+  public static EngineSpecBuilder from(final EngineSpec engineSpec) {
+    final EngineSpecBuilder builder = new EngineSpecBuilder();
+    builder.processes.putAll(engineSpec.getProcesses());
+    builder.actions.putAll(engineSpec.getActions());
+    builder.functions.putAll(engineSpec.getFunctions());
+    builder.controls.addAll(engineSpec.getControls());
+    builder.converters.addAll(engineSpec.getConverters());
+    for (final TypeSpec typeSpec : engineSpec.getTypes().values()) {
+      final Class<?> type = typeSpec.getRuntimeClass();
+      builder.types.add(type);
+      if (type.getAnnotation(CompoundType.class) != null) {
+        final Map<String, PropertyInfo> propertyInfos = new HashMap<>();
+        typeSpec.getProperties()
+            .values()
+            .forEach(property -> propertyInfos.put(property.getName(), new PropertyInfo(property
+                .getName(), engineSpec.getTypes().get(property.getTypeId()).getRuntimeClass(),
+                property.isMulti(), property.isOptional(), property.getGetter())));
+        builder.compoundTypes.put(type, propertyInfos);
+      }
+    }
+    return builder;
+  }
 
   /**
    * Adds methods annotated on the provider object's class to this builder. Only methods annotated
@@ -62,7 +104,10 @@ public class EngineSpecBuilder {
    * <br>
    * <p>
    * All annotated methods will be checked for validity. An exception will be thrown if errors are
-   * found.
+   * found.<br>
+   * <br>
+   * If the provider class was compiled with the LogicForge annotation processor, its methods are
+   * read from its generated {@link ProviderRegistry} rather than found by scanning the class.
    *
    * @param provider the provider instance
    * @return this builder instance
@@ -75,8 +120,13 @@ public class EngineSpecBuilder {
     }
 
     final Class<?> providerClass = provider.getClass();
-    for (final Method method : providerClass.getMethods()) {
-      processMethod(method, provider);
+    final ProviderRegistry registry = findRegistry(providerClass);
+    if (registry != null) {
+      processRegistry(registry, provider);
+    } else {
+      for (final Method method : providerClass.getMethods()) {
+        processMethod(method, provider);
+      }
     }
     if (processStaticMethods) {
       withProviderClass(providerClass);
@@ -89,7 +139,11 @@ public class EngineSpecBuilder {
    * Processes are defined from interfaces with a single method. This method will be inspected to
    * generate the process's name, parameters, and return type (if any). When a process is built, it
    * will be returned as an instance of this interface, allowing the process to be called as is if
-   * were a normal Java method.
+   * were a normal Java method.<br>
+   * <br>
+   * If the method returns a {@link CompletableFuture}, the process is built to run asynchronously:
+   * the call returns immediately, and async action results are composed through continuations
+   * rather than blocking the calling thread.
    *
    * @param processClass the interface to use
    * @return this builder
@@ -109,6 +163,11 @@ public class EngineSpecBuilder {
       throw new IllegalArgumentException("Process interfaces must declare a single method");
     }
     final Method method = declaredMethods[0];
+    if (CompletableFuture.class.equals(method.getReturnType()) && !(method
+        .getGenericReturnType() instanceof ParameterizedType)) {
+      throw new IllegalArgumentException(
+          "Async process interfaces must declare the CompletableFuture type parameter");
+    }
     processProcess(method);
     return this;
   }
@@ -121,22 +180,99 @@ public class EngineSpecBuilder {
     return this;
   }
 
+  /**
+   * Adds static methods annotated on the provider class to this builder, reading them from the
+   * class's generated {@link ProviderRegistry} if it has one
+   *
+   * @param providerClass the provider class
+   * @return this builder instance
+   * @see #withProviderInstance(Object, boolean)
+   */
   public EngineSpecBuilder withProviderClass(final Class<?> providerClass)
       throws EngineConfigurationException {
+    final ProviderRegistry registry = findRegistry(providerClass);
+    if (registry != null) {
+      processRegistry(registry, providerClass);
+      return this;
+    }
     for (final Method method : providerClass.getMethods()) {
       processMethod(method, providerClass);
     }
     return this;
   }
 
+  /**
+   * Removes the actions, functions and converters called on the provider, which may be a provider
+   * instance or, for static methods, a provider class
+   *
+   * @param provider the provider instance or class
+   * @return this builder instance
+   */
+  public EngineSpecBuilder withoutProvider(final Object provider) {
+    actions.values().removeIf(action -> action.getProvider() == provider);
+    functions.values().removeIf(function -> function.getProvider() == provider);
+    converters.removeIf(converter -> converter.getProvider() == provider);
+    removed = true;
+    return this;
+  }
+
+  public EngineSpecBuilder withoutAction(final String name) {
+    removed |= actions.remove(name) != null;
+    return this;
+  }
+
+  public EngineSpecBuilder withoutFunction(final String name) {
+    removed |= functions.remove(name) != null;
+    return this;
+  }
+
   public EngineSpecBuilder withControls(final ControlStatementType... types) {
     controls.addAll(Arrays.asList(types));
     return this;
   }
 
   public EngineSpec build() {
-    return new EngineSpec(processes, processTypes(), actions, functions, controls.stream().toList(),
-        converters);
+    if (removed) {
+      retainReferencedTypes();
+    }
+    /* a mapping from runtime classes to the external type ID used to represent each class */
+    final Map<Class<?>, String> typesByClass = types.stream()
+        .collect(Collectors.toMap(java.util.function.Function.identity(), TYPE_ID_NAMING_STRATEGY));
+    final TypeLattice typeLattice = TypeLattice.of(typesByClass, converters);
+    return new EngineSpec(processes, processTypes(typesByClass, typeLattice), actions, functions,
+        controls.stream().toList(), converters, typeLattice);
+  }
+
+  /**
+   * Drops the types no longer used by any process, action, function or converter, or by the
+   * properties of a compound type that is
+   */
+  private void retainReferencedTypes() {
+    final Set<Class<?>> referenced = new HashSet<>();
+    final List<CallableSpec> callables = new ArrayList<>(processes.values());
+    callables.addAll(actions.values());
+    callables.addAll(functions.values());
+    for (final CallableSpec callable : callables) {
+      referenced.add(callable.getType());
+      callable.getInputs().forEach(input -> referenced.add(input.getType()));
+    }
+    for (final ConverterSpec converter : converters) {
+      referenced.add(converter.getInputType());
+      referenced.add(converter.getOutputType());
+    }
+    final List<Class<?>> toVisit = new ArrayList<>(referenced);
+    while (!toVisit.isEmpty()) {
+      final Map<String, PropertyInfo> propertyInfos = compoundTypes.get(toVisit.removeLast());
+      if (propertyInfos != null) {
+        propertyInfos.values()
+            .stream()
+            .map(PropertyInfo::getType)
+            .filter(referenced::add)
+            .forEach(toVisit::add);
+      }
+    }
+    types.retainAll(referenced);
+    compoundTypes.keySet().retainAll(referenced);
   }
 
   private void processMethod(final Method method, final Object instanceOrClass)
@@ -155,22 +291,71 @@ public class EngineSpecBuilder {
     }
   }
 
+  private void processRegistry(final ProviderRegistry registry, final Object instanceOrClass)
+      throws EngineConfigurationException {
+    final boolean processStatic = instanceOrClass instanceof Class<?>;
+    final Class<?> providerClass = registry.getProviderClass();
+    registeredCompoundTypes.putAll(registry.getCompoundTypes());
+    for (final ProviderRegistry.ProviderMethod providerMethod : registry.getMethods()) {
+      if (providerMethod.isStatic() != processStatic) {
+        continue;
+      }
+      final Method method;
+      try {
+        method = providerClass.getMethod(providerMethod.methodName(), providerMethod
+            .parameterTypes());
+      } catch (final NoSuchMethodException e) {
+        throw new EngineConfigurationException(
+            "Provider registry for %s lists method %s, which does not exist. The registry may be out of date."
+                .formatted(providerClass.getName(), providerMethod.methodName()), e);
+      }
+      switch (providerMethod.type()) {
+        case ACTION -> processAction(method, instanceOrClass);
+        case FUNCTION -> processFunction(method, instanceOrClass);
+        case CONVERTER -> processConverter(method, instanceOrClass);
+      }
+    }
+  }
+
+  /**
+   * Returns the generated registry for the provider class, or null if it has none
+   */
+  private static ProviderRegistry findRegistry(final Class<?> providerClass)
+      throws EngineConfigurationException {
+    final Class<?> registryClass;
+    try {
+      registryClass = Class.forName(ProviderRegistry.registryClassName(providerClass), true,
+          providerClass.getClassLoader());
+    } catch (final ClassNotFoundException e) {
+      return null;
+    }
+    try {
+      final ProviderRegistry registry = (ProviderRegistry) registryClass.getConstructor()
+          .newInstance();
+      return registry.getProviderClass().equals(providerClass) ? registry : null;
+    } catch (final ReflectiveOperationException | ClassCastException e) {
+      throw new EngineConfigurationException("Failed to load provider registry %s".formatted(
+          registryClass.getName()), e);
+    }
+  }
+
   /**
    * Registers a type, throwing if the type does not meet restrictions. Returns the sanitized type.
    *
-   * @param type         the raw type
-   * @param actionReturn whether this type represents an action return value
+   * @param type        the raw type
+   * @param asyncReturn whether this type represents an action or async process return value
    * @return a pair consisting of the sanitized class that should be used to represent the type and
    *         a boolean indicating whether the type is multiple
    * @throws EngineConfigurationException if the provided type did not meet restrictions
    */
-  private Pair<Class<?>, Boolean> registerType(final Type type, final boolean actionReturn)
+  private Pair<Class<?>, Boolean> registerType(final Type type, final boolean asyncReturn)
       throws EngineConfigurationException {
     // For Action returnTypes, the runtime handles futures transparently, resolving them as needed.
     //  Therefore, we want to treat the parameterized type as the actual return type in terms of
-    //  the stored values that will be made available to subsequent operations
+    //  the stored values that will be made available to subsequent operations. The same applies to
+    //  async processes, which complete the returned future with the process's actual return value
     final Type typeToProcess;
-    if (actionReturn && type instanceof ParameterizedType parameterizedType && parameterizedType
+    if (asyncReturn && type instanceof ParameterizedType parameterizedType && parameterizedType
         .getRawType() instanceof Class<?> typeClass && Future.class.isAssignableFrom(typeClass)) {
       typeToProcess = parameterizedType.getActualTypeArguments()[0];
     } else {
@@ -191,7 +376,11 @@ public class EngineSpecBuilder {
     types.add(singularType);
     if (singularType.getAnnotation(CompoundType.class) != null && !compoundTypes.containsKey(
         singularType)) {
-      final Map<String, PropertyInfo> propertyInfos = analyzeCompoundType(singularType);
+      final List<ProviderRegistry.CompoundProperty> registered = registeredCompoundTypes.get(
+          singularType);
+      final Map<String, PropertyInfo> propertyInfos = registered != null
+          ? readCompoundType(singularType, registered)
+          : analyzeCompoundType(singularType);
       compoundTypes.put(singularType, propertyInfos);
       propertyInfos.values().forEach(propertyInfo -> types.add(propertyInfo.getType()));
     }
@@ -203,20 +392,18 @@ public class EngineSpecBuilder {
    * until all types are registered because we need to determine relationships between all types in
    * the set.
    *
+   * @param typesByClass a mapping from runtime classes to the external type ID used to represent
+   *                     each class
+   * @param typeLattice  the relationships between the types
    * @return a collection of type specifications mapped by their IDs
    */
-  private Map<String, TypeSpec> processTypes() {
-
-    /* a mapping from runtime classes to the external type ID used to represent each class */
-    final Map<Class<?>, String> typesByClass = types.stream()
-        .collect(Collectors.toMap(java.util.function.Function.identity(), TYPE_ID_NAMING_STRATEGY));
-    /* a mapping from type ID to a list of IDs for parent types */
-    final Map<String, Set<String>> parentTypeIdMappings = buildParentTypeMappings(typesByClass);
-
+  private Map<String, TypeSpec> processTypes(final Map<Class<?>, String> typesByClass,
+      final TypeLattice typeLattice) {
     return types.stream().map(type -> {
       final String id = typesByClass.get(type);
-      final Set<String> supertypes = parentTypeIdMappings.computeIfAbsent(id, (
-          i) -> new HashSet<>());
+      // types to which there exists a conversion are also considered "supertypes", to simplify the
+      // frontend, meaning the "input" type can be used in their place
+      final Set<String> supertypes = typeLattice.supertypes(id);
       final List<String> values;
       if (type.isEnum()) {
         values = Arrays.stream((Enum<?>[]) type.getEnumConstants())
@@ -233,69 +420,29 @@ public class EngineSpecBuilder {
         final Map<String, PropertyInfo> propertyInfos = compoundTypes.get(type);
         propertyInfos.values()
             .stream()
-            .map(propertyInfo -> new TypePropertySpec(propertyInfo.getName(), typesByClass.get(
-                propertyInfo.getType()), propertyInfo.isMulti(), propertyInfo.isOptional(),
-                propertyInfo.getGetter()
-
-            ))
+            .map(propertyInfo -> TypePropertySpec.builder()
+                .name(propertyInfo.getName())
+                .typeId(typesByClass.get(propertyInfo.getType()))
+                .multi(propertyInfo.isMulti())
+                .optional(propertyInfo.isOptional())
+                .getter(propertyInfo.getGetter())
+                .build())
             .forEach(propertyInfo -> properties.put(propertyInfo.getName(), propertyInfo));
 
       }
-      return new TypeSpec(type, values, new HashSet<>(supertypes), properties, valueType);
+      return new TypeSpec(type, values, supertypes, properties, valueType);
     })
         .collect(Collectors.toMap(typeSpec -> typesByClass.get(typeSpec.getRuntimeClass()),
             java.util.function.Function.identity()));
   }
 
 
-  private Map<String, Set<String>> buildParentTypeMappings(
-      final Map<Class<?>, String> typesByClass) {
-    final Map<String, Set<String>> parentMapping = new HashMap<>();
-
-    // Find inheritance relationships. Runs in N*N time, so should be cached
-    for (final Entry<Class<?>, String> subtypeEntry : typesByClass.entrySet()) {
-      final Class<?> subtypeClass = subtypeEntry.getKey();
-      final String subtypeId = subtypeEntry.getValue();
-      for (final Entry<Class<?>, String> supertypeEntry : typesByClass.entrySet()) {
-        final Class<?> supertypeClass = supertypeEntry.getKey();
-        final String supertypeId = supertypeEntry.getValue();
-
-        if (subtypeId.equals(supertypeId)) {
-          continue;
-        }
-
-        final Set<String> supertypes = parentMapping.computeIfAbsent(subtypeId, (
-            k) -> new HashSet<>());
-
-        if (supertypeClass.isAssignableFrom(subtypeClass)) {
-          supertypes.add(supertypeId);
-        }
-      }
-    }
-
-    // Find conversion relationships. To simplify the frontend, we will consider types to which there exists a
-    // conversion to be "supertypes", meaning the "input" type can be used in its place
-    for (final ConverterSpec converter : converters) {
-      final Class<?> inputType = converter.getInputType();
-      final Class<?> outputType = converter.getOutputType();
-
-      if (typesByClass.containsKey(inputType) && typesByClass.containsKey(outputType)) {
-        final String subtypeId = typesByClass.get(inputType);
-        final String supertypeId = typesByClass.get(outputType);
-        final Set<String> supertypes = parentMapping.computeIfAbsent(subtypeId, (
-            k) -> new HashSet<>());
-        supertypes.add(supertypeId);
-      }
-    }
-
-    return parentMapping;
-  }
-
   private void processProcess(final Method method) throws EngineConfigurationException {
     final String name = method.getDeclaringClass().getName();
     final List<InputSpec> inputSpecs = processParameters(method);
     final Type outputType = method.getGenericReturnType();
-    final Pair<Class<?>, Boolean> typeInfo = registerType(outputType, false);
+    final boolean async = CompletableFuture.class.equals(method.getReturnType());
+    final Pair<Class<?>, Boolean> typeInfo = registerType(outputType, async);
 
     final CallableSpec processSpec = CallableSpec.builder()
         .name(name)
@@ -303,6 +450,7 @@ public class EngineSpecBuilder {
         .method(method)
         .type(typeInfo.getLeft())
         .multi(typeInfo.getRight())
+        .async(async)
         .build();
     processes.put(name, processSpec);
   }
@@ -317,6 +465,26 @@ public class EngineSpecBuilder {
     final Map<String, Object> metadata = new HashMap<>();
     final Optional<String> categoryOptional = getCategoryForMethod(method);
     categoryOptional.ifPresent(s -> metadata.put(MetadataFlags.CATEGORY, s));
+    final ActionCost cost = method.getAnnotation(Action.class).cost();
+    if (method.isAnnotationPresent(Inline.class)) {
+      if (cost == ActionCost.BLOCKING_IO || cost == ActionCost.CPU_HEAVY) {
+        throw new EngineConfigurationException(String.format(
+            "Action %s is marked Inline but declares cost %s", method, cost));
+      }
+      metadata.put(MetadataFlags.INLINE, true);
+    }
+    if (cost != ActionCost.UNSPECIFIED) {
+      metadata.put(MetadataFlags.COST, cost);
+    }
+    final boolean async = Future.class.isAssignableFrom(method.getReturnType());
+    final boolean coalesced = method.isAnnotationPresent(Idempotent.class);
+    if (coalesced) {
+      if (!async) {
+        throw new EngineConfigurationException(String.format(
+            "Idempotent action %s must return a Future", method));
+      }
+      metadata.put(MetadataFlags.IDEMPOTENT, true);
+    }
 
     final ProvidedCallableSpec actionSpec = ProvidedCallableSpec.builder()
         .name(name)
@@ -325,7 +493,9 @@ public class EngineSpecBuilder {
         .method(method)
         .type(typeInfo.getLeft())
         .multi(typeInfo.getRight())
+        .async(async)
         .metadata(metadata)
+        .coalesced(coalesced)
         .build();
     actions.put(name, actionSpec);
   }
@@ -344,6 +514,18 @@ public class EngineSpecBuilder {
     final Map<String, Object> metadata = new HashMap<>();
     final Optional<String> categoryOptional = getCategoryForMethod(method);
     categoryOptional.ifPresent(s -> metadata.put(MetadataFlags.CATEGORY, s));
+    CacheSpec cache = null;
+    final Cacheable cacheable = method.getAnnotation(Cacheable.class);
+    if (cacheable != null) {
+      if (cacheable.maxSize() < 1 || cacheable.ttl() < 0) {
+        throw new EngineConfigurationException(String.format(
+            "Cacheable function %s must have a positive maxSize and a non-negative ttl", method));
+      }
+      metadata.put(MetadataFlags.CACHEABLE, true);
+      cache = new CacheSpec(cacheable.maxSize(), cacheable.ttl() > 0
+          ? Duration.of(cacheable.ttl(), cacheable.ttlUnit().toChronoUnit())
+          : null);
+    }
 
     final ProvidedCallableSpec functionSpec = ProvidedCallableSpec.builder()
         .name(name)
@@ -353,6 +535,7 @@ public class EngineSpecBuilder {
         .type(typeInfo.getLeft())
         .multi(typeInfo.getRight())
         .metadata(metadata)
+        .cache(cache)
         .build();
     functions.put(name, functionSpec);
   }
@@ -375,7 +558,13 @@ public class EngineSpecBuilder {
           "Converter-annotated method %s must not use multi-parameters", method));
     }
     final Class<?> inputType = inputSpec.getType();
-    converters.add(new ConverterSpec(returnType, inputType, method, provider, inputSpecs));
+    converters.add(ConverterSpec.builder()
+        .outputType(returnType)
+        .inputType(inputType)
+        .method(method)
+        .provider(provider)
+        .inputs(inputSpecs)
+        .build());
   }
 
   private List<InputSpec> processParameters(final Method method)
@@ -459,6 +648,25 @@ public class EngineSpecBuilder {
     return name != null ? name.value() : parameter.getName();
   }
 
+  private static Map<String, PropertyInfo> readCompoundType(final Class<?> type,
+      final List<ProviderRegistry.CompoundProperty> properties)
+      throws EngineConfigurationException {
+    final Map<String, PropertyInfo> out = new HashMap<>();
+    for (final ProviderRegistry.CompoundProperty property : properties) {
+      final Method getter;
+      try {
+        getter = type.getMethod(property.getterName());
+      } catch (final NoSuchMethodException e) {
+        throw new EngineConfigurationException(
+            "Provider registry lists getter %s for CompoundType class %s, which does not exist"
+                .formatted(property.getterName(), type.getName()), e);
+      }
+      out.put(property.name(), new PropertyInfo(property.name(), property.type(), property.multi(),
+          property.optional(), getter));
+    }
+    return out;
+  }
+
   private static Map<String, PropertyInfo> analyzeCompoundType(final Class<?> type)
       throws EngineConfigurationException {
     final Map<String, PropertyInfo> out = new HashMap<>();
@@ -0,0 +1,654 @@
+package io.logicforge.core.model.domain.specification;
+
+import io.logicforge.core.annotations.elements.Action;
+import io.logicforge.core.annotations.elements.CompoundType;
+import io.logicforge.core.annotations.elements.Converter;
+import io.logicforge.core.annotations.elements.Property;
+import io.logicforge.core.annotations.metadata.Cacheable;
+import io.logicforge.core.annotations.metadata.Category;
+import io.logicforge.core.annotations.metadata.Idempotent;
+import io.logicforge.core.annotations.metadata.InfluencesReturnType;
+import io.logicforge.core.annotations.metadata.Inline;
+import io.logicforge.core.annotations.metadata.Name;
+import io.logicforge.core.constant.ActionCost;
+import io.logicforge.core.constant.ControlStatementType;
+import io.logicforge.core.constant.EngineMethodType;
+import io.logicforge.core.constant.MetadataFlags;
+import io.logicforge.core.util.EngineMethodUtil;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes {@link EngineSpec}s to, and reads them from, a compact binary snapshot, so that an engine
+ * whose configuration rarely changes can be started from the snapshot written by a previous run
+ * rather than rebuilt by {@link EngineSpecBuilder}, which inspects every provider method, parameter
+ * and compound type by reflection.
+ *
+ * <p>
+ * A snapshot holds the engine's processes, types, actions, functions, converters and controls,
+ * along with their inputs and metadata. Methods are recorded by name and looked up only when they
+ * are first used (see {@link MethodReference}), and the type lattice is rebuilt from the types and
+ * converters. Provider instances cannot be recorded, so they are supplied again when the snapshot
+ * is read, and matched to the snapshot's methods by class.
+ * </p>
+ *
+ * <p>
+ * Each snapshot records a fingerprint of the class files of the provider, process and type classes
+ * it was built from, and of the core classes that build, hold and write specs, so that upgrading
+ * LogicForge invalidates it too. Reading returns an empty result, rather than a spec that may not
+ * match the code, if those class files have changed, if the snapshot was written in another format
+ * or by another Java version, or if the supplied providers are not those the spec was built with.
+ * The spec should then be rebuilt and the snapshot rewritten. Configuration changes that add
+ * provider classes or processes without changing any recorded class are not detected, so a
+ * snapshot should be kept for each configuration.
+ * </p>
+ */
+@Slf4j
+public final class EngineSpecSnapshot {
+
+  // "LFSP"
+  private static final int MAGIC = 0x4C465350;
+  private static final int FORMAT_VERSION = 1;
+
+  // tags identifying the types of metadata values
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte BOOLEAN = 2;
+  private static final byte INTEGER = 3;
+  private static final byte LONG = 4;
+  private static final byte DOUBLE = 5;
+  private static final byte ENUM = 6;
+
+  // the core classes whose changes could change the spec built from the same providers, or how it
+  // is written and read
+  private static final List<Class<?>> CORE_CLASSES = List.of(EngineSpecBuilder.class,
+      EngineSpecSnapshot.class, EngineSpec.class, CallableSpec.class, ProvidedCallableSpec.class,
+      ConverterSpec.class, CacheSpec.class, TypeSpec.class, TypePropertySpec.class, InputSpec.class,
+      ExpressionSpec.class, VariableSpec.class, MethodReference.class, TypeLattice.class,
+      ProviderRegistry.class, EngineMethodUtil.class, Action.class,
+      io.logicforge.core.annotations.elements.Function.class, Converter.class, CompoundType.class,
+      Property.class, Cacheable.class, Category.class, Idempotent.class, InfluencesReturnType.class,
+      Inline.class, Name.class, ActionCost.class, ControlStatementType.class,
+      EngineMethodType.class, MetadataFlags.class);
+
+  private EngineSpecSnapshot() {
+  }
+
+  /**
+   * Writes a snapshot of the spec to the file, replacing it atomically where the file system allows
+   * so that a concurrently starting engine never reads a partially written snapshot
+   */
+  public static void write(final EngineSpec spec, final Path file) throws IOException {
+    final Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+        write(spec, out);
+      }
+      try {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (final AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Writes a snapshot of the spec to the stream, leaving the stream open
+   *
+   * @throws IllegalArgumentException if the spec holds metadata values of a type that cannot be
+   *                                  written
+   */
+  public static void write(final EngineSpec spec, final OutputStream outputStream)
+      throws IOException {
+    final DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    out.writeUTF(System.getProperty("java.version"));
+
+    final Map<String, ClassLoader> recordedClasses = new TreeMap<>();
+    final Set<String> providerClasses = new TreeSet<>();
+    CORE_CLASSES.forEach(coreClass -> recordCoreClass(recordedClasses, coreClass));
+    spec.getProcesses()
+        .values()
+        .forEach(process -> recordClass(recordedClasses, process.getMethod().getDeclaringClass()));
+    spec.getTypes().values().forEach(type -> recordClass(recordedClasses, type.getRuntimeClass()));
+    for (final ProvidedCallableSpec callable : providedCallables(spec)) {
+      recordProvider(recordedClasses, providerClasses, callable.getProvider());
+    }
+    for (final ConverterSpec converter : spec.getConverters()) {
+      recordProvider(recordedClasses, providerClasses, converter.getProvider());
+    }
+    writeStrings(out, recordedClasses.keySet());
+    writeBytes(out, fingerprint(recordedClasses.keySet(), name -> recordedClasses.get(name)
+        .getResourceAsStream(classFilePath(name))));
+    writeStrings(out, providerClasses);
+
+    out.writeInt(spec.getProcesses().size());
+    for (final CallableSpec process : spec.getProcesses().values()) {
+      writeCallable(out, process);
+    }
+    out.writeInt(spec.getTypes().size());
+    for (final Map.Entry<String, TypeSpec> entry : spec.getTypes().entrySet()) {
+      out.writeUTF(entry.getKey());
+      writeType(out, entry.getValue());
+    }
+    writeProvidedCallables(out, spec.getActions().values());
+    writeProvidedCallables(out, spec.getFunctions().values());
+    out.writeInt(spec.getConverters().size());
+    for (final ConverterSpec converter : spec.getConverters()) {
+      writeConverter(out, converter);
+    }
+    writeStrings(out, spec.getControls().stream().map(Enum::name).toList());
+    out.flush();
+  }
+
+  /**
+   * Reads a spec from the snapshot file
+   *
+   * @param file        the snapshot file
+   * @param classLoader the loader of the spec's classes
+   * @param providers   the provider instances the spec was built with
+   * @return the spec, or empty if the file does not exist or the snapshot is out of date
+   * @throws IOException if the file cannot be read or is not a snapshot
+   */
+  public static Optional<EngineSpec> read(final Path file, final ClassLoader classLoader,
+      final Object... providers) throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+    try (final InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+      return read(in, classLoader, providers);
+    }
+  }
+
+  /**
+   * Reads a spec from a snapshot stream, leaving the stream open
+   *
+   * @param inputStream the snapshot stream
+   * @param classLoader the loader of the spec's classes
+   * @param providers   the provider instances the spec was built with
+   * @return the spec, or empty if the snapshot is out of date
+   * @throws IOException if the stream cannot be read or is not a snapshot
+   */
+  public static Optional<EngineSpec> read(final InputStream inputStream,
+      final ClassLoader classLoader, final Object... providers) throws IOException {
+    final DataInputStream in = new DataInputStream(inputStream);
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Stream is not an engine spec snapshot");
+    }
+    final int formatVersion = in.readInt();
+    if (formatVersion != FORMAT_VERSION) {
+      return stale("it was written in format version %d".formatted(formatVersion));
+    }
+    final String javaVersion = in.readUTF();
+    if (!javaVersion.equals(System.getProperty("java.version"))) {
+      return stale("it was written by Java " + javaVersion);
+    }
+    final List<String> recordedClasses = readStrings(in);
+    final byte[] fingerprint = readBytes(in);
+    if (!Arrays.equals(fingerprint, fingerprint(recordedClasses, name -> classLoader
+        .getResourceAsStream(classFilePath(name))))) {
+      return stale("the classes it was built from have changed");
+    }
+    final Set<String> providerClasses = new HashSet<>(readStrings(in));
+    final Map<String, Object> providersByClass = new HashMap<>();
+    for (final Object provider : providers) {
+      providersByClass.put(provider.getClass().getName(), provider);
+    }
+    if (!providersByClass.keySet().equals(providerClasses)) {
+      return stale("it was built with different providers");
+    }
+    try {
+      return Optional.of(new Reader(in, classLoader, providersByClass).readSpec());
+    } catch (final ClassNotFoundException e) {
+      return stale("class %s no longer exists".formatted(e.getMessage()));
+    }
+  }
+
+  private static Optional<EngineSpec> stale(final String reason) {
+    log.debug("Ignoring engine spec snapshot because {}", reason);
+    return Optional.empty();
+  }
+
+  private static List<ProvidedCallableSpec> providedCallables(final EngineSpec spec) {
+    final List<ProvidedCallableSpec> out = new ArrayList<>(spec.getActions().values());
+    out.addAll(spec.getFunctions().values());
+    return out;
+  }
+
+  private static void recordProvider(final Map<String, ClassLoader> recordedClasses,
+      final Set<String> providerClasses, final Object provider) {
+    if (provider instanceof Class<?> providerClass) {
+      recordClass(recordedClasses, providerClass);
+    } else {
+      recordClass(recordedClasses, provider.getClass());
+      providerClasses.add(provider.getClass().getName());
+    }
+  }
+
+  /**
+   * Records the class and its superclasses and interfaces, skipping the platform's own classes
+   */
+  private static void recordClass(final Map<String, ClassLoader> recordedClasses,
+      final Class<?> type) {
+    if (type == null || type.getClassLoader() == null || recordedClasses.containsKey(type
+        .getName())) {
+      return;
+    }
+    recordedClasses.put(type.getName(), type.getClassLoader());
+    recordClass(recordedClasses, type.getSuperclass());
+    for (final Class<?> implemented : type.getInterfaces()) {
+      recordClass(recordedClasses, implemented);
+    }
+  }
+
+  /**
+   * Records the core class along with its nested classes, which have class files of their own
+   */
+  private static void recordCoreClass(final Map<String, ClassLoader> recordedClasses,
+      final Class<?> type) {
+    recordClass(recordedClasses, type);
+    for (final Class<?> nested : type.getDeclaredClasses()) {
+      recordCoreClass(recordedClasses, nested);
+    }
+  }
+
+  private static String classFilePath(final String className) {
+    return className.replace('.', '/') + ".class";
+  }
+
+  /**
+   * Returns a digest of the names and class files of the classes
+   */
+  private static byte[] fingerprint(final Collection<String> classNames,
+      final Function<String, InputStream> classFiles) throws IOException {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+    for (final String className : classNames) {
+      digest.update(className.getBytes(StandardCharsets.UTF_8));
+      try (final InputStream classFile = classFiles.apply(className)) {
+        if (classFile == null) {
+          digest.update((byte) 0);
+        } else {
+          digest.update((byte) 1);
+          digest.update(classFile.readAllBytes());
+        }
+      }
+    }
+    return digest.digest();
+  }
+
+  private static void writeCallable(final DataOutputStream out, final CallableSpec callable)
+      throws IOException {
+    out.writeUTF(callable.getName());
+    out.writeUTF(callable.getType().getName());
+    out.writeBoolean(callable.isMulti());
+    out.writeBoolean(callable.isAsync());
+    writeMethod(out, callable.getMethodReference(), callable.getMethod());
+    writeInputs(out, callable.getInputs());
+  }
+
+  private static void writeProvidedCallables(final DataOutputStream out,
+      final Collection<ProvidedCallableSpec> callables) throws IOException {
+    out.writeInt(callables.size());
+    for (final ProvidedCallableSpec callable : callables) {
+      writeCallable(out, callable);
+      writeProvider(out, callable.getProvider());
+      out.writeInt(callable.getMetadata().size());
+      for (final Map.Entry<String, Object> entry : callable.getMetadata().entrySet()) {
+        out.writeUTF(entry.getKey());
+        writeValue(out, entry.getValue());
+      }
+      final CacheSpec cache = callable.getCache();
+      out.writeBoolean(cache != null);
+      if (cache != null) {
+        out.writeInt(cache.getMaxSize());
+        out.writeLong(cache.getTtl() != null ? cache.getTtl().toNanos() : 0L);
+      }
+      out.writeBoolean(callable.isCoalesced());
+    }
+  }
+
+  private static void writeType(final DataOutputStream out, final TypeSpec type)
+      throws IOException {
+    out.writeUTF(type.getRuntimeClass().getName());
+    writeStrings(out, type.getValues());
+    writeStrings(out, type.getSupertypes());
+    out.writeBoolean(type.isValueType());
+    out.writeInt(type.getProperties().size());
+    for (final TypePropertySpec property : type.getProperties().values()) {
+      out.writeUTF(property.getName());
+      out.writeUTF(property.getTypeId());
+      out.writeBoolean(property.isMulti());
+      out.writeBoolean(property.isOptional());
+      writeMethod(out, property.getGetterReference(), property.getGetter());
+    }
+  }
+
+  private static void writeConverter(final DataOutputStream out, final ConverterSpec converter)
+      throws IOException {
+    out.writeUTF(converter.getOutputType().getName());
+    out.writeUTF(converter.getInputType().getName());
+    writeMethod(out, converter.getMethodReference(), converter.getMethod());
+    writeProvider(out, converter.getProvider());
+    writeInputs(out, converter.getInputs());
+  }
+
+  private static void writeInputs(final DataOutputStream out, final List<InputSpec> inputs)
+      throws IOException {
+    out.writeInt(inputs.size());
+    for (final InputSpec input : inputs) {
+      out.writeUTF(input.getName());
+      out.writeUTF(input.getType().getName());
+      out.writeBoolean(input.isMulti());
+      out.writeInt(input.getMetadata().size());
+      for (final Map.Entry<String, String> entry : input.getMetadata().entrySet()) {
+        out.writeUTF(entry.getKey());
+        writeNullableString(out, entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Writes the method by name, using its existing reference so that methods of specs read from
+   * snapshots need not be resolved
+   */
+  private static void writeMethod(final DataOutputStream out, final MethodReference reference,
+      final Method method) throws IOException {
+    final MethodReference toWrite = reference != null ? reference : MethodReference.of(method);
+    out.writeUTF(toWrite.getClassName());
+    out.writeUTF(toWrite.getMethodName());
+    writeStrings(out, toWrite.getParameterTypeNames());
+  }
+
+  private static void writeProvider(final DataOutputStream out, final Object provider)
+      throws IOException {
+    final boolean isStatic = provider instanceof Class<?>;
+    out.writeBoolean(isStatic);
+    out.writeUTF(isStatic ? ((Class<?>) provider).getName() : provider.getClass().getName());
+  }
+
+  private static void writeValue(final DataOutputStream out, final Object value)
+      throws IOException {
+    switch (value) {
+      case null -> out.writeByte(NULL);
+      case String string -> {
+        out.writeByte(STRING);
+        out.writeUTF(string);
+      }
+      case Boolean bool -> {
+        out.writeByte(BOOLEAN);
+        out.writeBoolean(bool);
+      }
+      case Integer integer -> {
+        out.writeByte(INTEGER);
+        out.writeInt(integer);
+      }
+      case Long longValue -> {
+        out.writeByte(LONG);
+        out.writeLong(longValue);
+      }
+      case Double doubleValue -> {
+        out.writeByte(DOUBLE);
+        out.writeDouble(doubleValue);
+      }
+      case Enum<?> enumValue -> {
+        out.writeByte(ENUM);
+        out.writeUTF(enumValue.getDeclaringClass().getName());
+        out.writeUTF(enumValue.name());
+      }
+      default -> throw new IllegalArgumentException(
+          "Metadata values of type %s cannot be written to a snapshot".formatted(value.getClass()
+              .getName()));
+    }
+  }
+
+  private static void writeNullableString(final DataOutputStream out, final String value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static void writeStrings(final DataOutputStream out, final Collection<String> values)
+      throws IOException {
+    out.writeInt(values.size());
+    for (final String value : values) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static void writeBytes(final DataOutputStream out, final byte[] bytes)
+      throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static List<String> readStrings(final DataInputStream in) throws IOException {
+    final int size = in.readInt();
+    final List<String> out = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      out.add(in.readUTF());
+    }
+    return out;
+  }
+
+  private static byte[] readBytes(final DataInputStream in) throws IOException {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * Reads the body of a snapshot, whose header has been checked
+   */
+  private static class Reader {
+
+    private final DataInputStream in;
+    private final ClassLoader classLoader;
+    private final Map<String, Object> providersByClass;
+    private final Map<String, Class<?>> classes = new HashMap<>();
+
+    private Reader(final DataInputStream in, final ClassLoader classLoader,
+        final Map<String, Object> providersByClass) {
+      this.in = in;
+      this.classLoader = classLoader;
+      this.providersByClass = providersByClass;
+    }
+
+    private EngineSpec readSpec() throws IOException, ClassNotFoundException {
+      final int processCount = in.readInt();
+      final Map<String, CallableSpec> processes = new HashMap<>();
+      for (int i = 0; i < processCount; i++) {
+        final CallableSpec process = readCallable(CallableSpec.builder().name(in.readUTF()))
+            .build();
+        processes.put(process.getName(), process);
+      }
+
+      final int typeCount = in.readInt();
+      final Map<String, TypeSpec> types = new HashMap<>();
+      final Map<Class<?>, String> typesByClass = new HashMap<>();
+      for (int i = 0; i < typeCount; i++) {
+        final String typeId = in.readUTF();
+        final TypeSpec type = readType();
+        types.put(typeId, type);
+        typesByClass.put(type.getRuntimeClass(), typeId);
+      }
+
+      final Map<String, ProvidedCallableSpec> actions = readProvidedCallables();
+      final Map<String, ProvidedCallableSpec> functions = readProvidedCallables();
+      final int converterCount = in.readInt();
+      final List<ConverterSpec> converters = new ArrayList<>();
+      for (int i = 0; i < converterCount; i++) {
+        converters.add(readConverter());
+      }
+      final List<ControlStatementType> controls = readStrings(in).stream()
+          .map(ControlStatementType::valueOf)
+          .toList();
+      return new EngineSpec(processes, types, actions, functions, controls, converters, TypeLattice
+          .of(typesByClass, converters));
+    }
+
+    /**
+     * Reads the fields common to all callables, other than the name, into the builder
+     */
+    private <B extends CallableSpec.CallableSpecBuilder<?, ?>> B readCallable(final B builder)
+        throws IOException, ClassNotFoundException {
+      builder.type(readClass())
+          .multi(in.readBoolean())
+          .async(in.readBoolean())
+          .methodReference(readMethod())
+          .inputs(readInputs());
+      return builder;
+    }
+
+    private Map<String, ProvidedCallableSpec> readProvidedCallables() throws IOException,
+        ClassNotFoundException {
+      final int count = in.readInt();
+      final Map<String, ProvidedCallableSpec> out = new HashMap<>();
+      for (int i = 0; i < count; i++) {
+        final String name = in.readUTF();
+        final ProvidedCallableSpec.ProvidedCallableSpecBuilder<?, ?> builder = readCallable(
+            ProvidedCallableSpec.builder().name(name));
+        builder.provider(readProvider());
+        final int metadataCount = in.readInt();
+        final Map<String, Object> metadata = new HashMap<>();
+        for (int j = 0; j < metadataCount; j++) {
+          metadata.put(in.readUTF(), readValue());
+        }
+        builder.metadata(metadata);
+        if (in.readBoolean()) {
+          final int maxSize = in.readInt();
+          final long ttlNanos = in.readLong();
+          builder.cache(new CacheSpec(maxSize, ttlNanos > 0 ? Duration.ofNanos(ttlNanos) : null));
+        }
+        builder.coalesced(in.readBoolean());
+        out.put(name, builder.build());
+      }
+      return out;
+    }
+
+    private TypeSpec readType() throws IOException, ClassNotFoundException {
+      final Class<?> runtimeClass = readClass();
+      final List<String> values = readStrings(in);
+      final Set<String> supertypes = new HashSet<>(readStrings(in));
+      final boolean valueType = in.readBoolean();
+      final int propertyCount = in.readInt();
+      final Map<String, TypePropertySpec> properties = new HashMap<>();
+      for (int i = 0; i < propertyCount; i++) {
+        final TypePropertySpec property = TypePropertySpec.builder()
+            .name(in.readUTF())
+            .typeId(in.readUTF())
+            .multi(in.readBoolean())
+            .optional(in.readBoolean())
+            .getterReference(readMethod())
+            .build();
+        properties.put(property.getName(), property);
+      }
+      return new TypeSpec(runtimeClass, values, supertypes, properties, valueType);
+    }
+
+    private ConverterSpec readConverter() throws IOException, ClassNotFoundException {
+      return ConverterSpec.builder()
+          .outputType(readClass())
+          .inputType(readClass())
+          .methodReference(readMethod())
+          .provider(readProvider())
+          .inputs(readInputs())
+          .build();
+    }
+
+    private List<InputSpec> readInputs() throws IOException, ClassNotFoundException {
+      final int count = in.readInt();
+      final List<InputSpec> out = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        final InputSpec.InputSpecBuilder<?, ?> builder = InputSpec.builder()
+            .name(in.readUTF())
+            .type(readClass())
+            .multi(in.readBoolean());
+        final int metadataCount = in.readInt();
+        final Map<String, String> metadata = new HashMap<>();
+        for (int j = 0; j < metadataCount; j++) {
+          metadata.put(in.readUTF(), in.readBoolean() ? in.readUTF() : null);
+        }
+        out.add(builder.metadata(metadata).build());
+      }
+      return out;
+    }
+
+    private MethodReference readMethod() throws IOException {
+      return new MethodReference(in.readUTF(), in.readUTF(), readStrings(in), classLoader);
+    }
+
+    private Object readProvider() throws IOException, ClassNotFoundException {
+      final boolean isStatic = in.readBoolean();
+      final String className = in.readUTF();
+      return isStatic ? loadClass(className) : providersByClass.get(className);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readValue() throws IOException, ClassNotFoundException {
+      final byte tag = in.readByte();
+      return switch (tag) {
+        case NULL -> null;
+        case STRING -> in.readUTF();
+        case BOOLEAN -> in.readBoolean();
+        case INTEGER -> in.readInt();
+        case LONG -> in.readLong();
+        case DOUBLE -> in.readDouble();
+        case ENUM -> Enum.valueOf((Class<? extends Enum>) loadClass(in.readUTF()), in.readUTF());
+        default -> throw new IOException("Unknown metadata value tag " + tag);
+      };
+    }
+
+    private Class<?> readClass() throws IOException, ClassNotFoundException {
+      return loadClass(in.readUTF());
+    }
+
+    private Class<?> loadClass(final String name) throws ClassNotFoundException {
+      final Class<?> loaded = classes.get(name);
+      if (loaded != null) {
+        return loaded;
+      }
+      final Class<?> type = MethodReference.loadClass(name, classLoader);
+      classes.put(name, type);
+      return type;
+    }
+  }
+}
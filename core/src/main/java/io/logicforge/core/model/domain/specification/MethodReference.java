@@ -0,0 +1,94 @@
+package io.logicforge.core.model.domain.specification;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * A method identified by its class, name and parameter types, and resolved to the {@link Method}
+ * itself on first use. Specs read from an {@link EngineSpecSnapshot} hold their methods as
+ * references, so that loading a snapshot does not look up every method of the engine by
+ * reflection, only those that are later called or compiled.
+ */
+public final class MethodReference {
+
+  private static final Map<String, Class<?>> PRIMITIVES = Map.of("boolean", boolean.class, "byte",
+      byte.class, "char", char.class, "short", short.class, "int", int.class, "long", long.class,
+      "float", float.class, "double", double.class, "void", void.class);
+
+  @Getter
+  private final String className;
+  @Getter
+  private final String methodName;
+  @Getter
+  private final List<String> parameterTypeNames;
+  private final ClassLoader classLoader;
+
+  private volatile Method method;
+
+  /**
+   * @param className          the binary name of the class the method is looked up on
+   * @param methodName         the method's Java name
+   * @param parameterTypeNames the binary names of the method's parameter types
+   * @param classLoader        the loader used to load the classes
+   */
+  public MethodReference(final String className, final String methodName,
+      final List<String> parameterTypeNames, final ClassLoader classLoader) {
+    this.className = className;
+    this.methodName = methodName;
+    this.parameterTypeNames = List.copyOf(parameterTypeNames);
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * Returns a reference to an already resolved method
+   */
+  public static MethodReference of(final Method method) {
+    final MethodReference reference = new MethodReference(method.getDeclaringClass().getName(),
+        method.getName(), Arrays.stream(method.getParameterTypes()).map(Class::getName).toList(),
+        method.getDeclaringClass().getClassLoader());
+    reference.method = method;
+    return reference;
+  }
+
+  /**
+   * Returns the referenced method, looking it up the first time it is requested
+   *
+   * @throws IllegalStateException if the method no longer exists
+   */
+  public Method resolve() {
+    Method resolved = method;
+    if (resolved == null) {
+      try {
+        final Class<?>[] parameterTypes = new Class<?>[parameterTypeNames.size()];
+        for (int i = 0; i < parameterTypes.length; i++) {
+          parameterTypes[i] = loadClass(parameterTypeNames.get(i), classLoader);
+        }
+        resolved = loadClass(className, classLoader).getMethod(methodName, parameterTypes);
+      } catch (final ClassNotFoundException | NoSuchMethodException e) {
+        throw new IllegalStateException(
+            "Failed to resolve method %s.%s. The class may have changed since the engine spec was built."
+                .formatted(className, methodName), e);
+      }
+      method = resolved;
+    }
+    return resolved;
+  }
+
+  /**
+   * Loads a class by its binary name, as returned by {@link Class#getName()}, without initializing
+   * it. Unlike {@link Class#forName(String)}, this also accepts the names of primitive types.
+   */
+  static Class<?> loadClass(final String name, final ClassLoader classLoader)
+      throws ClassNotFoundException {
+    final Class<?> primitive = PRIMITIVES.get(name);
+    return primitive != null ? primitive : Class.forName(name, false, classLoader);
+  }
+
+  @Override
+  public String toString() {
+    return "%s.%s(%s)".formatted(className, methodName, String.join(", ", parameterTypeNames));
+  }
+}
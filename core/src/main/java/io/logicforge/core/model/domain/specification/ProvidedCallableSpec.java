@@ -13,4 +13,16 @@ public class ProvidedCallableSpec extends CallableSpec {
   private final Object provider;
   private final Map<String, Object> metadata;
 
+  /**
+   * How the function's results are cached, or null if its results are not cached (see
+   * {@link io.logicforge.core.annotations.metadata.Cacheable})
+   */
+  private final CacheSpec cache;
+
+  /**
+   * Whether the action's concurrent calls with equal arguments are coalesced (see
+   * {@link io.logicforge.core.annotations.metadata.Idempotent})
+   */
+  private final boolean coalesced;
+
 }
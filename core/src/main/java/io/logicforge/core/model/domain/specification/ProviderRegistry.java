@@ -0,0 +1,65 @@
+package io.logicforge.core.model.domain.specification;
+
+import io.logicforge.core.constant.EngineMethodType;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metadata for a provider class, generated at compile time by the LogicForge annotation processor.
+ * When a provider's registry is on the classpath, {@link EngineSpecBuilder} registers the
+ * provider's actions, functions and converters from it, looking each method up directly rather
+ * than scanning and inspecting every method of the provider, and reads the properties of the
+ * compound types they use without scanning those types' fields.
+ *
+ * <p>
+ * A provider's registry is named after the provider's binary name, with nested class separators
+ * replaced by underscores, followed by {@link #SUFFIX} (see {@link #registryClassName(Class)}).
+ * </p>
+ */
+public interface ProviderRegistry {
+
+  String SUFFIX = "_LogicForgeRegistry";
+
+  /**
+   * An action, function or converter method of the provider
+   *
+   * @param type           the kind of method, from its annotation
+   * @param methodName     the method's Java name
+   * @param parameterTypes the method's parameter types, for looking the method up
+   * @param isStatic       whether the method is static
+   */
+  record ProviderMethod(EngineMethodType type, String methodName, Class<?>[] parameterTypes,
+                        boolean isStatic) {
+  }
+
+
+  /**
+   * A property of a compound type
+   *
+   * @param name       the property's name
+   * @param type       the property's type, or its component type if it is multiple
+   * @param multi      whether the property is an array
+   * @param optional   whether the property is optional
+   * @param getterName the name of the property's getter
+   */
+  record CompoundProperty(String name, Class<?> type, boolean multi, boolean optional,
+                          String getterName) {
+  }
+
+  Class<?> getProviderClass();
+
+  /**
+   * Returns the provider's public action, function and converter methods, including those it
+   * inherits
+   */
+  List<ProviderMethod> getMethods();
+
+  /**
+   * Returns the properties of each compound type used by the provider's methods, by type
+   */
+  Map<Class<?>, List<CompoundProperty>> getCompoundTypes();
+
+  static String registryClassName(final Class<?> providerClass) {
+    return providerClass.getName().replace('$', '_') + SUFFIX;
+  }
+}
@@ -0,0 +1,192 @@
+package io.logicforge.core.model.domain.specification;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The relationships between an engine's types. Each type is assigned a dense index, and the types
+ * each can be used as are held as bitsets indexed by type, so that relationship checks are a single
+ * bit test.
+ *
+ * <p>
+ * A type is <em>assignable</em> to another if it is the same type, or a subclass or implementation
+ * of it. A type can be <em>coerced</em> to another if it is assignable to it or a converter is
+ * registered from the one to the other; these are the types listed as its supertypes (see
+ * {@link TypeSpec#getSupertypes()}), since a value of the type can be used wherever any of them is
+ * expected.
+ * </p>
+ */
+public final class TypeLattice {
+
+  private final String[] typeIds;
+  private final Map<String, Integer> indexes;
+  private final long[][] assignable;
+  private final long[][] coercible;
+
+  private TypeLattice(final String[] typeIds, final Map<String, Integer> indexes,
+      final long[][] assignable, final long[][] coercible) {
+    this.typeIds = typeIds;
+    this.indexes = indexes;
+    this.assignable = assignable;
+    this.coercible = coercible;
+  }
+
+  /**
+   * Builds the lattice of the supplied types. Each type's ancestors are found by walking its
+   * superclasses and interfaces, so building takes time proportional to the number of types and
+   * the depth of their hierarchies, rather than to every pair of types.
+   *
+   * @param typesByClass the engine's types, mapped to their IDs
+   * @param converters   the engine's converters
+   */
+  public static TypeLattice of(final Map<Class<?>, String> typesByClass,
+      final List<ConverterSpec> converters) {
+    final int size = typesByClass.size();
+    final String[] typeIds = new String[size];
+    final Map<Class<?>, Integer> classIndexes = new HashMap<>();
+    final Map<String, Integer> indexes = new HashMap<>();
+    typesByClass.forEach((type, id) -> {
+      final int index = classIndexes.size();
+      classIndexes.put(type, index);
+      indexes.put(id, index);
+      typeIds[index] = id;
+    });
+
+    final int words = (size + 63) >>> 6;
+    final long[][] assignable = new long[size][words];
+    final Integer objectIndex = classIndexes.get(Object.class);
+    classIndexes.forEach((type, index) -> {
+      for (final Class<?> ancestor : ancestors(type)) {
+        final Integer ancestorIndex = classIndexes.get(ancestor);
+        if (ancestorIndex != null) {
+          set(assignable[index], ancestorIndex);
+        }
+      }
+      // every reference type, interfaces included, is assignable to Object
+      if (objectIndex != null && !type.isPrimitive()) {
+        set(assignable[index], objectIndex);
+      }
+    });
+
+    final long[][] coercible = new long[size][];
+    for (int i = 0; i < size; i++) {
+      coercible[i] = assignable[i].clone();
+    }
+    for (final ConverterSpec converter : converters) {
+      final Integer inputIndex = classIndexes.get(converter.getInputType());
+      final Integer outputIndex = classIndexes.get(converter.getOutputType());
+      if (inputIndex != null && outputIndex != null) {
+        set(coercible[inputIndex], outputIndex);
+      }
+    }
+    return new TypeLattice(typeIds, indexes, assignable, coercible);
+  }
+
+  /**
+   * Returns the type and all of its superclasses and interfaces
+   */
+  private static Set<Class<?>> ancestors(final Class<?> type) {
+    final Set<Class<?>> ancestors = new LinkedHashSet<>();
+    final Deque<Class<?>> toVisit = new ArrayDeque<>();
+    toVisit.add(type);
+    while (!toVisit.isEmpty()) {
+      final Class<?> next = toVisit.poll();
+      if (ancestors.add(next)) {
+        if (next.getSuperclass() != null) {
+          toVisit.add(next.getSuperclass());
+        }
+        Collections.addAll(toVisit, next.getInterfaces());
+      }
+    }
+    return ancestors;
+  }
+
+  private static void set(final long[] bits, final int index) {
+    bits[index >>> 6] |= 1L << index;
+  }
+
+  private static boolean test(final long[] bits, final int index) {
+    return (bits[index >>> 6] & (1L << index)) != 0;
+  }
+
+  public int size() {
+    return typeIds.length;
+  }
+
+  /**
+   * Returns the type's index, or -1 if it is not one of the engine's types
+   */
+  public int indexOf(final String typeId) {
+    final Integer index = indexes.get(typeId);
+    return index != null ? index : -1;
+  }
+
+  public String typeId(final int index) {
+    return typeIds[index];
+  }
+
+  /**
+   * Returns whether values of the first type are instances of the second
+   */
+  public boolean isAssignable(final int subtype, final int supertype) {
+    return test(assignable[subtype], supertype);
+  }
+
+  /**
+   * Returns whether values of the first type are instances of the second. Unknown types are not
+   * assignable to or from any type.
+   */
+  public boolean isAssignable(final String subtypeId, final String supertypeId) {
+    final int subtype = indexOf(subtypeId);
+    final int supertype = indexOf(supertypeId);
+    return subtype >= 0 && supertype >= 0 && isAssignable(subtype, supertype);
+  }
+
+  /**
+   * Returns whether values of the first type can be used where the second is expected, either
+   * directly or through a converter
+   */
+  public boolean canCoerce(final int type, final int targetType) {
+    return test(coercible[type], targetType);
+  }
+
+  /**
+   * Returns whether values of the first type can be used where the second is expected, either
+   * directly or through a converter. Unknown types cannot be coerced to or from any type.
+   */
+  public boolean canCoerce(final String typeId, final String targetTypeId) {
+    final int type = indexOf(typeId);
+    final int targetType = indexOf(targetTypeId);
+    return type >= 0 && targetType >= 0 && canCoerce(type, targetType);
+  }
+
+  /**
+   * Returns the IDs of the other types that values of the type can be coerced to
+   */
+  public Set<String> supertypes(final String typeId) {
+    final int type = indexOf(typeId);
+    final Set<String> supertypes = new HashSet<>();
+    if (type < 0) {
+      return supertypes;
+    }
+    final long[] bits = coercible[type];
+    for (int word = 0; word < bits.length; word++) {
+      long remaining = bits[word];
+      while (remaining != 0) {
+        final int index = (word << 6) + Long.numberOfTrailingZeros(remaining);
+        if (index != type) {
+          supertypes.add(typeIds[index]);
+        }
+        remaining &= remaining - 1;
+      }
+    }
+    return supertypes;
+  }
+}
@@ -3,7 +3,9 @@ package io.logicforge.core.model.domain.specification;
 import java.lang.reflect.Method;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
+import lombok.ToString;
 
 @Data
 @Builder
@@ -20,4 +22,16 @@ public class TypePropertySpec {
 
   private final Method getter;
 
+  /**
+   * The getter to resolve on first use, in place of {@link #getter}, for properties read from an
+   * {@link EngineSpecSnapshot}
+   */
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final MethodReference getterReference;
+
+  public Method getGetter() {
+    return getter != null ? getter : getterReference.resolve();
+  }
+
 }
@@ -11,6 +11,12 @@ import lombok.ToString;
 public class ReferenceConfigDTO extends ExpressionConfigDTO {
 
   private int[] coordinates;
+  /**
+   * The coordinates packed into a single value (see
+   * {@link io.logicforge.core.common.Coordinates#pack()}), set in place of {@link #coordinates}
+   * when compact coordinates are requested
+   */
+  private Long packedCoordinates;
   private String[] path;
 
   @Override
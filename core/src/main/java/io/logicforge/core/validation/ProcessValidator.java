@@ -78,7 +78,7 @@ public class ProcessValidator {
 
     @Override
     public Stream<ValidationError> validate() {
-      return trie.values().stream().flatMap(Validator::validate);
+      return trie.stream().flatMap(Validator::validate);
     }
   }
 
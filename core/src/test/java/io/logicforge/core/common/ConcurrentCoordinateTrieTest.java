@@ -0,0 +1,100 @@
+package io.logicforge.core.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentCoordinateTrieTest {
+
+  private static final int THREADS = 8;
+  private static final int PUTS = 200;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testPut_keepsEveryConcurrentWrite() throws Exception {
+    for (int round = 0; round < 20; round++) {
+      final ConcurrentCoordinateTrie<Integer> trie = new ConcurrentCoordinateTrie<>();
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < THREADS; thread++) {
+        final int writer = thread;
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < PUTS; i++) {
+            // writers share parents, so that they race to grow the same children arrays
+            trie.put(coordinates(i, writer), i * THREADS + writer);
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (final Future<?> future : futures) {
+        future.get(5, TimeUnit.SECONDS);
+      }
+
+      assertEquals(THREADS * PUTS, trie.values().size());
+      for (int i = 0; i < PUTS; i++) {
+        for (int writer = 0; writer < THREADS; writer++) {
+          assertEquals(i * THREADS + writer, trie.get(coordinates(i, writer)));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testIterator_neverReturnsNullDuringConcurrentWrites() throws Exception {
+    final ConcurrentCoordinateTrie<Integer> trie = new ConcurrentCoordinateTrie<>();
+    final Future<?> writer = executor.submit(() -> {
+      for (int i = 0; i < 20_000; i++) {
+        trie.put(coordinates(i % PUTS, i % THREADS), i);
+        if (i % 3 == 0) {
+          trie.remove(coordinates(i % PUTS, i % THREADS));
+        }
+      }
+    });
+
+    while (!writer.isDone()) {
+      final Iterator<Integer> iterator = trie.iterator();
+      while (iterator.hasNext()) {
+        assertNotNull(iterator.next());
+      }
+      trie.forEachEntry((coordinates, value) -> assertNotNull(value));
+    }
+    writer.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void testRemove_removesDescendants() {
+    final CoordinateMap<String> trie = new ConcurrentCoordinateTrie<>();
+    trie.put(Coordinates.from(0), "0");
+    trie.put(Coordinates.from(0, 9), "09");
+    trie.put(Coordinates.from(1), "1");
+
+    assertEquals("0", trie.remove(Coordinates.from(0)));
+
+    assertFalse(trie.hasValue(Coordinates.from(0, 9)));
+    assertEquals(List.of("1"), trie.values());
+    assertEquals(List.of("1"), trie.stream().toList());
+  }
+
+  private static Coordinates coordinates(final int i, final int writer) {
+    return Coordinates.from(i % 10, i / 10, writer);
+  }
+}
@@ -0,0 +1,78 @@
+package io.logicforge.core.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CoordinateTrieTest {
+
+  private CoordinateTrie<String> trie;
+
+  @BeforeEach
+  void setUp() {
+    trie = new CoordinateTrie<>();
+    trie.put(Coordinates.from(2), "2");
+    trie.put(Coordinates.from(0, 1), "01");
+    trie.put(Coordinates.from(0), "0");
+    trie.put(Coordinates.from(0, 0, 5), "005");
+    trie.put(Coordinates.from(3, 1), "31");
+  }
+
+  @Test
+  void testValues_listsValuesDepthFirstInIndexOrder() {
+    assertEquals(List.of("0", "005", "01", "2", "31"), trie.values());
+  }
+
+  @Test
+  void testIterator_andStream_matchValues() {
+    final List<String> iterated = new ArrayList<>();
+    trie.iterator().forEachRemaining(iterated::add);
+    final List<String> visited = new ArrayList<>();
+    trie.forEach(visited::add);
+
+    assertEquals(trie.values(), iterated);
+    assertEquals(trie.values(), visited);
+    assertEquals(trie.values(), trie.stream().toList());
+  }
+
+  @Test
+  void testListDescendants_excludesRoot() {
+    final List<String> iterated = new ArrayList<>();
+    trie.descendantIterator(Coordinates.from(0)).forEachRemaining(iterated::add);
+
+    assertEquals(List.of("005", "01"), trie.listDescendants(Coordinates.from(0)));
+    assertEquals(List.of("005", "01"), iterated);
+    assertEquals(List.of("31"), trie.listDescendants(Coordinates.from(3)));
+    assertTrue(trie.listDescendants(Coordinates.from(7)).isEmpty());
+  }
+
+  @Test
+  void testListChildren_skipsChildrenWithoutValues() {
+    assertEquals(List.of("01"), trie.listChildren(Coordinates.from(0)));
+    assertEquals(List.of("0", "2"), trie.listChildren(Coordinates.ROOT));
+  }
+
+  @Test
+  void testForEachEntry_passesEachValuesCoordinates() {
+    final List<String> entries = new ArrayList<>();
+    trie.forEachEntry((coordinates, value) -> entries.add(coordinates + value));
+
+    assertEquals(List.of("[0]0", "[0,0,5]005", "[0,1]01", "[2]2", "[3,1]31"), entries);
+  }
+
+  @Test
+  void testRemove_clearsValueOnly() {
+    assertEquals("01", trie.remove(Coordinates.from(0, 1)));
+
+    assertFalse(trie.hasValue(Coordinates.from(0, 1)));
+    assertNull(trie.get(Coordinates.from(0, 1)));
+    assertNull(trie.remove(Coordinates.from(9, 9)));
+    assertEquals(List.of("0", "005", "2", "31"), trie.values());
+  }
+}
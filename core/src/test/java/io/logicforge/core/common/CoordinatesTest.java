@@ -0,0 +1,164 @@
+package io.logicforge.core.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CoordinatesTest {
+
+  private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+  @Test
+  void testFrom_returnsCanonicalInstance() {
+    final Coordinates coordinates = Coordinates.from(1, 2, 3);
+
+    assertSame(coordinates, Coordinates.from(1, 2, 3));
+    assertSame(coordinates, Coordinates.from(List.of(1, 2, 3)));
+    assertArrayEquals(new int[] {1, 2, 3}, coordinates.asArray());
+    assertEquals("[1,2,3]", coordinates.toString());
+  }
+
+  @Test
+  void testFrom_doesNotShareCallersArray() {
+    final int[] indexes = {4, 5, 6};
+    final Coordinates coordinates = Coordinates.from(indexes);
+
+    indexes[0] = 9;
+
+    assertEquals(4, coordinates.get(0));
+  }
+
+  @Test
+  void testGetNthChild_returnsCachedChild() {
+    final Coordinates parent = Coordinates.from(1, 2);
+
+    for (int i = 0; i < 100; i++) {
+      final Coordinates child = parent.getNthChild(i);
+      assertEquals(Coordinates.from(1, 2, i), child);
+      assertSame(child, parent.getNthChild(i));
+      assertSame(parent, child.getParent());
+    }
+  }
+
+  @Test
+  void testGetParent_walksToRoot() {
+    final Coordinates coordinates = Coordinates.from(3, 1, 4);
+
+    assertEquals(Coordinates.from(3, 1), coordinates.getParent());
+    assertSame(coordinates.getParent(), coordinates.getParent());
+    assertEquals(Coordinates.ROOT, coordinates.getParent().getParent().getParent());
+    assertThrows(IllegalStateException.class, Coordinates.ROOT::getParent);
+  }
+
+  @Test
+  void testGetSibling_andGetAncestor_navigateWithinParent() {
+    final Coordinates coordinates = Coordinates.from(1, 2, 3);
+
+    assertEquals(Coordinates.from(1, 2, 5), coordinates.getSibling(5));
+    assertSame(coordinates.getSibling(5), coordinates.getSibling(5));
+    assertEquals(Coordinates.from(1, 2, 2), coordinates.getAncestor());
+    assertEquals(Coordinates.from(1, 2), Coordinates.from(1, 2, 0).getAncestor());
+  }
+
+  @Test
+  void testPack_roundTripsWithinJavaScriptSafeIntegers() {
+    final Random random = new Random(1);
+    final Set<Coordinates> packable = new HashSet<>();
+    final Set<Long> packed = new HashSet<>();
+    for (int n = 0; n < 100_000; n++) {
+      final int[] indexes = new int[random.nextInt(16)];
+      for (int i = 0; i < indexes.length; i++) {
+        final int kind = random.nextInt(5);
+        indexes[i] = kind < 3
+            ? random.nextInt(8)
+            : kind == 3 ? random.nextInt(1024) : random.nextInt(70_000);
+      }
+      final Coordinates coordinates = Coordinates.from(indexes);
+      if (coordinates.isPackable()) {
+        packable.add(coordinates);
+        final long value = coordinates.pack();
+        assertTrue(value >= 0 && value <= MAX_SAFE_INTEGER, coordinates.toString());
+        assertEquals(coordinates, Coordinates.unpack(value));
+        assertEquals(value, (long) (double) value);
+        packed.add(value);
+      }
+    }
+
+    assertTrue(packable.size() > 10_000);
+    assertEquals(packable.size(), packed.size());
+    assertEquals(0L, Coordinates.ROOT.pack());
+  }
+
+  @Test
+  void testPack_limitsDepthToShortestCodes() {
+    assertTrue(Coordinates.from(new int[12]).isPackable());
+    assertFalse(Coordinates.from(new int[13]).isPackable());
+    assertFalse(Coordinates.from(65_536).isPackable());
+    assertEquals(Coordinates.UNPACKABLE, Coordinates.from(new int[13]).pack());
+  }
+
+  @Test
+  void testUnpack_rejectsValuesOutsideEncoding() {
+    assertThrows(IllegalArgumentException.class, () -> Coordinates.unpack(-1L));
+    assertThrows(IllegalArgumentException.class, () -> Coordinates.unpack(MAX_SAFE_INTEGER + 1));
+    // a depth of 15, deeper than any packed coordinates
+    assertThrows(IllegalArgumentException.class, () -> Coordinates.unpack(15L << 49));
+  }
+
+  @Test
+  void testFrom_staysCorrectOnceTableIsFull() {
+    // far more coordinates than the table holds, each with a parent missing from the table
+    for (int i = 0; i < 100_000; i++) {
+      final Coordinates coordinates = Coordinates.from(i, i + 1, i + 2);
+      assertEquals(i + 2, coordinates.getFinalIndex());
+      assertEquals(Coordinates.from(i, i + 1), coordinates.getParent());
+    }
+
+    // a miss evicts an older instance, so recently used coordinates are canonical again
+    final Coordinates recent = Coordinates.from(100_000, 1, 2);
+    assertSame(recent, Coordinates.from(100_000, 1, 2));
+    assertEquals(recent, Coordinates.from(100_000, 1).getNthChild(2));
+  }
+
+  @Test
+  void testFrom_agreesAcrossThreads() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<Coordinates[]>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        futures.add(executor.submit(() -> {
+          final Coordinates[] created = new Coordinates[2_000];
+          for (int i = 0; i < created.length; i++) {
+            created[i] = Coordinates.from(7, i % 50, i);
+          }
+          return created;
+        }));
+      }
+
+      final Coordinates[] first = futures.getFirst().get(5, TimeUnit.SECONDS);
+      for (final Future<Coordinates[]> future : futures) {
+        final Coordinates[] created = future.get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < created.length; i++) {
+          assertEquals(first[i], created[i]);
+          assertEquals(first[i].hashCode(), created[i].hashCode());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package io.logicforge.core.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.impl.SimpleExecutionQueue;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchProcessTest {
+
+  private final SimpleExecutionQueue queue = new SimpleExecutionQueue(Executors.newFixedThreadPool(
+      4));
+  private EngineSpecUtils.Functions functions;
+  private CompilationProcessBuilder builder;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    functions = new EngineSpecUtils.Functions();
+    builder = new CompilationProcessBuilder(EngineSpecUtils.buildSpec(functions),
+        new ProcessCompiler());
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    queue.shutdown(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void testExecuteBatch_returnsResultsInInputOrder() throws Exception {
+    final BatchProcess<String> batch = BatchProcess.of(buildProcess());
+
+    assertEquals(List.of("The sum is 42", "The sum is 20"), batch.executeBatch(new Object[][] {{
+        "World!", 16}, {"x", 5}}));
+    assertEquals(4, functions.recordedPairs.size());
+  }
+
+  @Test
+  void testExecuteBatch_startsEveryAsyncExecution() throws Exception {
+    final EngineSpecUtils.TestAsyncProcess process = builder.buildProcess(EngineSpecUtils
+        .buildBasicProcessConfig(EngineSpecUtils.TestAsyncProcess.class, "Hello, ", 3, "Hi, ", 7),
+        queue);
+    final BatchProcess<CompletableFuture<String>> batch = BatchProcess.of(process);
+
+    final List<CompletableFuture<String>> results = batch.executeBatch(new Object[][] {{"World!",
+        16}, {"x", 5}});
+
+    assertEquals("The sum is 42", results.get(0).get(5, TimeUnit.SECONDS));
+    assertEquals("The sum is 20", results.get(1).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testExecuteBatch_rejectsWrongArityBeforeExecuting() throws Exception {
+    final BatchProcess<String> batch = BatchProcess.of(buildProcess());
+
+    final IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> batch
+        .executeBatch(new Object[][] {{"World!", 16}, {"x"}}));
+    assertTrue(e.getMessage().contains("Batch input 1"));
+    assertTrue(functions.recordedPairs.isEmpty());
+  }
+
+  @Test
+  void testExecuteBatch_rejectsNullPrimitiveNamingItsIndex() throws Exception {
+    final BatchProcess<String> batch = BatchProcess.of(buildProcess());
+
+    final IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> batch
+        .executeBatch(new Object[][] {{"World!", 16}, {"x", 5}, {"y", null}}));
+    assertEquals("Batch input 2 has null for primitive argument 1", e.getMessage());
+    assertTrue(functions.recordedPairs.isEmpty());
+  }
+
+  @Test
+  void testExecuteBatch_rejectsMistypedValueBeforeExecuting() throws Exception {
+    final BatchProcess<String> batch = BatchProcess.of(buildProcess());
+
+    final ClassCastException e = assertThrows(ClassCastException.class, () -> batch.executeBatch(
+        new Object[][] {{"World!", 16}, {"x", "5"}}));
+    assertTrue(e.getMessage().contains("Batch input 1 argument 1"));
+    assertTrue(functions.recordedPairs.isEmpty());
+  }
+
+  @Test
+  void testExecuteBatch_acceptsNullReferenceArguments() throws Exception {
+    final BatchProcess<String> batch = BatchProcess.of(buildProcess());
+
+    assertEquals(1, batch.executeBatch(new Object[][] {{null, 16}}).size());
+  }
+
+  private EngineSpecUtils.TestProcess buildProcess() throws Exception {
+    return builder.buildProcess(EngineSpecUtils.buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7),
+        queue);
+  }
+}
@@ -0,0 +1,160 @@
+package io.logicforge.core.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.annotations.elements.Action;
+import io.logicforge.core.annotations.elements.Converter;
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.impl.SimpleExecutionQueue;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import io.logicforge.core.exception.ProcessConstructionException;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EngineSpecRegistryTest {
+
+  private final SimpleExecutionQueue queue = new SimpleExecutionQueue(Executors.newFixedThreadPool(
+      4));
+  private final ProcessCompiler compiler = new ProcessCompiler();
+  private final ProcessConfig<EngineSpecUtils.TestProcess, UUID> config = EngineSpecUtils
+      .buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7);
+  private EngineSpecUtils.Functions functions;
+  private EngineSpecRegistry registry;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    functions = new EngineSpecUtils.Functions();
+    registry = new EngineSpecRegistry(EngineSpecUtils.buildSpec(functions),
+        spec -> new CompilationProcessBuilder(spec, compiler), queue);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    queue.shutdown(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void testBuildProcess_registersProcessWithItsDependencies() throws Exception {
+    final EngineSpecUtils.TestProcess process = registry.buildProcess(config);
+
+    assertEquals("The sum is 42", process.doTheThing("World!", 16));
+    assertSame(process, registry.getProcess(config.getId(), EngineSpecUtils.TestProcess.class));
+    final ProcessDependencyIndex.Dependencies dependencies = registry.getCurrentVersion()
+        .dependencies()
+        .get(config.getId());
+    assertEquals(EngineSpecUtils.TestProcess.class.getName(), dependencies.process());
+    assertTrue(dependencies.actions().contains("recordPair"));
+    assertTrue(dependencies.functions().contains("concat"));
+  }
+
+  @Test
+  void testUpdate_keepsProcessesUnaffectedByUpdate() throws Exception {
+    final EngineSpecUtils.TestProcess process = registry.buildProcess(config);
+    final UnrelatedProvider unrelated = new UnrelatedProvider();
+
+    registry.update(builder -> builder.withProviderInstance(unrelated, false));
+
+    assertTrue(registry.getEngineSpec().getTypes().containsKey(Instant.class.getName()));
+    assertSame(process, registry.getProcess(config.getId(), EngineSpecUtils.TestProcess.class));
+
+    registry.update(builder -> builder.withoutProvider(unrelated));
+
+    assertFalse(registry.getEngineSpec().getTypes().containsKey(Instant.class.getName()));
+    assertSame(process, registry.getProcess(config.getId(), EngineSpecUtils.TestProcess.class));
+  }
+
+  @Test
+  void testUpdate_rebuildsProcessesUsingReplacedProvider() throws Exception {
+    final EngineSpecUtils.TestProcess process = registry.buildProcess(config);
+    final EngineSpecUtils.Functions replacement = new EngineSpecUtils.Functions();
+
+    final EngineSpecRegistry.Version version = registry.update(builder -> builder.withoutProvider(
+        functions).withProviderInstance(replacement, false));
+
+    final EngineSpecUtils.TestProcess rebuilt = registry.getProcess(config.getId(),
+        EngineSpecUtils.TestProcess.class);
+    assertNotSame(process, rebuilt);
+    assertEquals(version.number(), version.processes().get(config.getId()).version());
+    assertEquals("The sum is 42", rebuilt.doTheThing("World!", 16));
+    assertEquals(2, replacement.recordedPairs.size());
+    assertTrue(functions.recordedPairs.isEmpty());
+  }
+
+  @Test
+  void testUpdate_rebuildsProcessesUsingTypesOfChangedConverter() throws Exception {
+    final EngineSpecUtils.TestProcess process = registry.buildProcess(config);
+
+    registry.update(builder -> builder.withProviderInstance(new SpellingConverter(), false));
+
+    final EngineSpecUtils.TestProcess rebuilt = registry.getProcess(config.getId(),
+        EngineSpecUtils.TestProcess.class);
+    assertNotSame(process, rebuilt);
+    assertEquals("The sum is forty-two", rebuilt.doTheThing("World!", 16));
+  }
+
+  @Test
+  void testUpdate_keepsProcessesWhenConverterBetweenOtherTypesChanges() throws Exception {
+    final EngineSpecUtils.TestProcess process = registry.buildProcess(config);
+
+    registry.update(builder -> builder.withProviderInstance(new UnrelatedConverter(), false));
+
+    assertSame(process, registry.getProcess(config.getId(), EngineSpecUtils.TestProcess.class));
+  }
+
+  @Test
+  void testUpdate_failsWithoutChangingVersionWhenProcessBecomesUnbuildable() throws Exception {
+    registry.buildProcess(config);
+    final EngineSpecRegistry.Version before = registry.getCurrentVersion();
+
+    assertThrows(ProcessConstructionException.class, () -> registry.update(builder -> builder
+        .withoutAction("recordPair")));
+
+    assertSame(before, registry.getCurrentVersion());
+    assertTrue(registry.removeProcess(config.getId()));
+    assertNull(registry.getProcess(config.getId(), EngineSpecUtils.TestProcess.class));
+    registry.update(builder -> builder.withoutAction("recordPair"));
+    assertFalse(registry.getEngineSpec().getActions().containsKey("recordPair"));
+  }
+
+  public static class UnrelatedProvider {
+
+    @Action
+    public Duration sinceEpoch(final Instant instant) {
+      return Duration.ofMillis(instant.toEpochMilli());
+    }
+  }
+
+
+  /**
+   * Replaces the test functions' integer to string converter
+   */
+  public static class SpellingConverter {
+
+    @Converter
+    public String spellOut(final int integer) {
+      return integer == 42 ? "forty-two" : Integer.toString(integer);
+    }
+  }
+
+
+  public static class UnrelatedConverter {
+
+    @Converter
+    public Duration toDuration(final Instant instant) {
+      return Duration.ofMillis(instant.toEpochMilli());
+    }
+  }
+}
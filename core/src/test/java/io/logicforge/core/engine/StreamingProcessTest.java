@@ -0,0 +1,290 @@
+package io.logicforge.core.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.annotations.elements.Action;
+import io.logicforge.core.constant.ActionCost;
+import io.logicforge.core.engine.StreamingProcess.Ordering;
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.impl.VirtualThreadExecutionQueue;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StreamingProcessTest {
+
+  private static final int INPUTS = 30;
+  private static final List<String> EXPECTED = IntStream.range(0, INPUTS)
+      .mapToObj(i -> "The sum is " + (2 * i + 10))
+      .toList();
+
+  private final VirtualThreadExecutionQueue queue = new VirtualThreadExecutionQueue(64);
+  private EngineSpecUtils.TestProcess process;
+  private EngineSpecUtils.TestAsyncProcess asyncProcess;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(EngineSpecUtils
+        .buildSpec(new ScramblingFunctions()), new ProcessCompiler());
+    process = builder.buildProcess(EngineSpecUtils.buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7),
+        queue);
+    asyncProcess = builder.buildProcess(EngineSpecUtils.buildBasicProcessConfig(
+        EngineSpecUtils.TestAsyncProcess.class, "Hello, ", 3, "Hi, ", 7), queue);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    queue.shutdown(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void testProcessStream_emitsResultsInInputOrder() {
+    final StreamingProcess<String> streaming = new StreamingProcess<>(process, 4, Ordering.ORDERED);
+
+    try (Stream<String> results = streaming.process(inputs())) {
+      assertEquals(EXPECTED, results.toList());
+    }
+  }
+
+  @Test
+  void testProcessStream_emitsEveryResultUnordered() {
+    final StreamingProcess<String> streaming = new StreamingProcess<>(asyncProcess, 4,
+        Ordering.UNORDERED);
+
+    try (Stream<String> results = streaming.process(inputs())) {
+      assertEquals(new HashSet<>(EXPECTED), new HashSet<>(results.toList()));
+    }
+  }
+
+  @Test
+  void testProcessStream_pullsInputsOnlyAsResultsAreConsumed() {
+    final AtomicInteger pulled = new AtomicInteger();
+    final StreamingProcess<String> streaming = new StreamingProcess<>(process, 4, Ordering.ORDERED);
+
+    try (Stream<String> results = streaming.process(inputs().peek(input -> pulled
+        .incrementAndGet()))) {
+      final Iterator<String> iterator = results.iterator();
+      assertEquals(EXPECTED.getFirst(), iterator.next());
+      assertEquals(4, pulled.get());
+      iterator.next();
+      assertEquals(5, pulled.get());
+    }
+  }
+
+  @Test
+  void testProcessStream_failsOnFailedExecution() {
+    final StreamingProcess<String> streaming = new StreamingProcess<>(process, 4, Ordering.ORDERED);
+
+    try (Stream<String> results = streaming.process(Stream.of(new Object[] {"x", 1}, new Object[] {
+        "x"}))) {
+      assertThrows(IllegalArgumentException.class, results::toList);
+    }
+  }
+
+  @Test
+  void testProcessStream_keepsQueueFreeForActionsOfExecutions() throws Exception {
+    final VirtualThreadExecutionQueue singleSlot = new VirtualThreadExecutionQueue(1);
+    try {
+      final EngineSpecUtils.TestProcess offloading = new CompilationProcessBuilder(EngineSpecUtils
+          .buildSpec(new OffloadedFunctions()), new ProcessCompiler()).buildProcess(EngineSpecUtils
+              .buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7), singleSlot);
+      final StreamingProcess<String> streaming = new StreamingProcess<>(offloading, 4,
+          Ordering.ORDERED);
+
+      final CompletableFuture<List<String>> results = CompletableFuture.supplyAsync(() -> {
+        try (Stream<String> stream = streaming.process(inputs())) {
+          return stream.toList();
+        }
+      });
+
+      assertEquals(EXPECTED, results.get(5, TimeUnit.SECONDS));
+    } finally {
+      singleSlot.shutdown(Duration.ofSeconds(1));
+    }
+  }
+
+  @Test
+  void testProcessPublisher_emitsResultsInInputOrder() throws Exception {
+    final CountingPublisher publisher = new CountingPublisher(INPUTS);
+    final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+    new StreamingProcess<String>(asyncProcess, 4, Ordering.ORDERED).process(publisher)
+        .subscribe(subscriber);
+
+    assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+    assertEquals(EXPECTED, subscriber.received);
+  }
+
+  @Test
+  void testProcessPublisher_limitsUpstreamDemandToDownstreamDemand() throws Exception {
+    final CountingPublisher publisher = new CountingPublisher(INPUTS);
+    final RecordingSubscriber subscriber = new RecordingSubscriber(2);
+
+    new StreamingProcess<String>(process, 4, Ordering.UNORDERED).process(publisher)
+        .subscribe(subscriber);
+
+    // give any further executions time to complete, which must not pull more inputs
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (subscriber.received.size() < 2 && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    Thread.sleep(200);
+    assertEquals(2, subscriber.received.size());
+    assertEquals(4 + 2, publisher.requested.get());
+  }
+
+  @Test
+  void testProcessPublisher_failsAndCancelsUpstreamOnFailedExecution() throws Exception {
+    final CountingPublisher publisher = new CountingPublisher(INPUTS, 3);
+    final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+    new StreamingProcess<String>(process, 4, Ordering.ORDERED).process(publisher)
+        .subscribe(subscriber);
+
+    assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalArgumentException.class, subscriber.error.get());
+    assertTrue(publisher.cancelled.get());
+    assertTrue(subscriber.received.size() <= 3);
+  }
+
+  private static Stream<Object[]> inputs() {
+    return IntStream.range(0, INPUTS).mapToObj(i -> new Object[] {"x", i});
+  }
+
+  /**
+   * Delays each execution by an amount depending on its input, so that executions complete out of
+   * order
+   */
+  public static class ScramblingFunctions extends EngineSpecUtils.Functions {
+
+    @Action
+    @Override
+    public int recordPair(final String a, final int b) {
+      try {
+        Thread.sleep(b % 4 * 5L);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return b;
+    }
+  }
+
+
+  /**
+   * The test functions, declaring recording a pair as blocking I/O, so that it is run on the
+   * process's queue
+   */
+  public static class OffloadedFunctions extends EngineSpecUtils.Functions {
+
+    @Action(cost = ActionCost.BLOCKING_IO)
+    @Override
+    public int recordPair(final String a, final int b) {
+      return b;
+    }
+  }
+
+
+  /**
+   * Publishes argument tuples as they are requested, recording the total demand
+   */
+  private static class CountingPublisher implements Flow.Publisher<Object[]> {
+
+    private final int size;
+    private final int malformedIndex;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    private CountingPublisher(final int size) {
+      this(size, -1);
+    }
+
+    private CountingPublisher(final int size, final int malformedIndex) {
+      this.size = size;
+      this.malformedIndex = malformedIndex;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super Object[]> subscriber) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+
+        private int emitted;
+        private boolean completed;
+
+        @Override
+        public synchronized void request(final long n) {
+          requested.addAndGet(n);
+          for (long i = 0; i < n && emitted < size && !cancelled.get(); i++) {
+            final int index = emitted++;
+            subscriber.onNext(index == malformedIndex
+                ? new Object[] {"x"}
+                : new Object[] {"x", index});
+          }
+          if (emitted == size && !completed) {
+            completed = true;
+            subscriber.onComplete();
+          }
+        }
+
+        @Override
+        public void cancel() {
+          cancelled.set(true);
+        }
+      });
+    }
+  }
+
+
+  private static class RecordingSubscriber implements Flow.Subscriber<String> {
+
+    private final long demand;
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private RecordingSubscriber(final long demand) {
+      this.demand = demand;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+      subscription.request(demand);
+    }
+
+    @Override
+    public void onNext(final String item) {
+      received.add(item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      error.set(throwable);
+      done.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      done.countDown();
+    }
+  }
+}
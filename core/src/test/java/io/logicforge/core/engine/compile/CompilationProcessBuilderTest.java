@@ -3,23 +3,45 @@ package io.logicforge.core.engine.compile;
 import static io.logicforge.core.engine.util.EngineSpecUtils.buildBasicProcessConfig;
 import static io.logicforge.core.engine.util.EngineSpecUtils.buildSpec;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.openMocks;
 
+import io.logicforge.core.annotations.elements.Action;
+import io.logicforge.core.annotations.elements.Function;
+import io.logicforge.core.common.Coordinates;
 import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.engine.Process;
 import io.logicforge.core.engine.impl.SimpleExecutionQueue;
 import io.logicforge.core.engine.util.EngineSpecUtils;
 import io.logicforge.core.engine.util.FileUtil;
 import io.logicforge.core.exception.EngineConfigurationException;
 import io.logicforge.core.exception.ProcessConstructionException;
+import io.logicforge.core.model.domain.config.ActionConfig;
+import io.logicforge.core.model.domain.config.BlockConfig;
+import io.logicforge.core.model.domain.config.ExpressionConfig;
+import io.logicforge.core.model.domain.config.FunctionConfig;
 import io.logicforge.core.model.domain.config.ProcessConfig;
+import io.logicforge.core.model.domain.config.ReferenceConfig;
+import io.logicforge.core.model.domain.config.ValueConfig;
 import io.logicforge.core.model.domain.specification.EngineSpec;
+import io.logicforge.core.model.domain.specification.EngineSpecBuilder;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
@@ -65,4 +87,223 @@ public class CompilationProcessBuilderTest {
     final String basicSource = FileUtil.loadGeneratedJavaFileSource("basic");
     assertEquals(basicSource, sourceCaptor.getValue());
   }
+
+  @Test
+  void testBuildProcess_buildsBasicAsyncProcess() throws ProcessConstructionException,
+      EngineConfigurationException, IOException {
+    final EngineSpecUtils.Functions functions = new EngineSpecUtils.Functions();
+    final EngineSpec engineSpec = buildSpec(functions);
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(engineSpec, compiler);
+    final ProcessConfig<EngineSpecUtils.TestAsyncProcess, UUID> config = buildBasicProcessConfig(
+        EngineSpecUtils.TestAsyncProcess.class, "Hello, ", 3, "Hi, ", 7);
+    builder.buildProcess(config, queue);
+
+    verify(compiler).compileAndInstantiate(anyString(), sourceCaptor.capture(), ArgumentMatchers
+        .any(), eq(EngineSpecUtils.TestAsyncProcess.class));
+    final String basicAsyncSource = FileUtil.loadGeneratedJavaFileSource("basic-async");
+    assertEquals(basicAsyncSource, sourceCaptor.getValue());
+  }
+
+  @Test
+  void testBuildProcess_rejectsMissingReturnExpression() throws EngineConfigurationException {
+    final EngineSpec engineSpec = buildSpec(new EngineSpecUtils.Functions());
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(engineSpec, compiler);
+    final ProcessConfig<EngineSpecUtils.TestAsyncProcess, UUID> basicConfig =
+        buildBasicProcessConfig(EngineSpecUtils.TestAsyncProcess.class, "Hello, ", 3, "Hi, ", 7);
+    final ProcessConfig<EngineSpecUtils.TestAsyncProcess, UUID> config =
+        ProcessConfig.<EngineSpecUtils.TestAsyncProcess, UUID>builder()
+            .functionalInterface(EngineSpecUtils.TestAsyncProcess.class)
+            .id(UUID.randomUUID())
+            .name("example")
+            .rootBlock(basicConfig.getRootBlock())
+            .returnExpression(List.of())
+            .build();
+
+    assertThrows(ProcessConstructionException.class, () -> builder.buildProcess(config, queue));
+  }
+
+  @Test
+  void testBuildProcess_asyncProcessReturnsBeforeActionsComplete() throws Exception {
+    final GatedFunctions functions = new GatedFunctions();
+    final EngineSpec engineSpec = buildSpec(functions);
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(engineSpec,
+        new ProcessCompiler());
+    final EngineSpecUtils.TestAsyncProcess process = builder.buildProcess(buildBasicProcessConfig(
+        EngineSpecUtils.TestAsyncProcess.class, "Hello, ", 3, "Hi, ", 7), queue);
+
+    final CompletableFuture<String> result = process.doTheThingAsync("World!", 16);
+
+    assertFalse(result.isDone());
+    functions.gate.complete(null);
+    assertEquals("The sum is 42", result.get(5, TimeUnit.SECONDS));
+    assertEquals(2, functions.recordedPairs.size());
+  }
+
+  @Test
+  void testBuildProcess_startsIndependentActionsBeforeDependenciesComplete() throws Exception {
+    final GatedActions actions = new GatedActions();
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(buildDataflowSpec(
+        actions), new ProcessCompiler());
+    final DataflowProcess process = builder.buildProcess(buildDataflowConfig(DataflowProcess.class),
+        queue);
+
+    final CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> process.run("x"));
+
+    actions.awaitStarted("a", "b");
+    assertFalse(actions.started.contains("a!"));
+    actions.open("a");
+    actions.awaitStarted("a!");
+    actions.open("a!");
+    actions.open("b");
+    assertEquals("a!!b!", result.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testBuildProcess_chainsDependentActionsInAsyncProcess() throws Exception {
+    final GatedActions actions = new GatedActions();
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(buildDataflowSpec(
+        actions), new ProcessCompiler());
+    final AsyncDataflowProcess process = builder.buildProcess(buildDataflowConfig(
+        AsyncDataflowProcess.class), queue);
+
+    final CompletableFuture<String> result = process.runAsync("x");
+
+    actions.awaitStarted("a", "b");
+    assertFalse(actions.started.contains("a!"));
+    assertFalse(result.isDone());
+    actions.open("a");
+    actions.open("a!");
+    actions.open("b");
+    assertEquals("a!!b!", result.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testBuildProcess_failsAsyncProcessWithDependentActionFailure() throws Exception {
+    final GatedActions actions = new GatedActions();
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(buildDataflowSpec(
+        actions), new ProcessCompiler());
+    final AsyncDataflowProcess process = builder.buildProcess(buildDataflowConfig(
+        AsyncDataflowProcess.class), queue);
+
+    final CompletableFuture<String> result = process.runAsync("x");
+    actions.awaitStarted("a");
+    actions.open("a");
+    actions.awaitStarted("a!");
+    actions.gate("a!").completeExceptionally(new IllegalStateException("dependent failed"));
+    actions.open("b");
+
+    final ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5,
+        TimeUnit.SECONDS));
+    assertInstanceOf(IllegalStateException.class, getRootCause(e));
+  }
+
+  /**
+   * Builds a process running slow("a"), then slow on the first action's result, then slow("b"),
+   * and returning join of the last two results. Only the second action depends on another.
+   */
+  private static <T extends Process> ProcessConfig<T, UUID> buildDataflowConfig(
+      final Class<T> functionalInterface) {
+    final BlockConfig rootBlock = BlockConfig.builder()
+        .executables(List.of(slowAction(ValueConfig.builder().value("a").build()), slowAction(
+            ReferenceConfig.builder().coordinates(Coordinates.from(0)).build()), slowAction(
+                ValueConfig.builder().value("b").build())))
+        .build();
+    return ProcessConfig.<T, UUID>builder()
+        .functionalInterface(functionalInterface)
+        .id(UUID.randomUUID())
+        .name("dataflow")
+        .rootBlock(rootBlock)
+        .returnExpression(List.of(FunctionConfig.builder()
+            .name("join")
+            .arguments(Map.of("a", List.of(ReferenceConfig.builder()
+                .coordinates(Coordinates.from(1))
+                .build()), "b", List.of(ReferenceConfig.builder()
+                    .coordinates(Coordinates.from(2))
+                    .build())))
+            .build()))
+        .build();
+  }
+
+  private static ActionConfig slowAction(final ExpressionConfig argument) {
+    return ActionConfig.builder().name("slow").arguments(Map.of("s", List.of(argument))).build();
+  }
+
+  private static EngineSpec buildDataflowSpec(final GatedActions actions)
+      throws EngineConfigurationException {
+    return new EngineSpecBuilder().withProviderInstance(actions, true)
+        .withProcess(DataflowProcess.class)
+        .withProcess(AsyncDataflowProcess.class)
+        .build();
+  }
+
+  private static Throwable getRootCause(final Throwable throwable) {
+    Throwable cause = throwable;
+    while (cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  public interface DataflowProcess extends Process {
+
+    String run(final String text);
+  }
+
+
+  public interface AsyncDataflowProcess extends Process {
+
+    CompletableFuture<String> runAsync(final String text);
+  }
+
+
+  /**
+   * An async action whose calls each complete only once the gate for their argument is opened
+   */
+  public static class GatedActions {
+
+    private final Map<String, CompletableFuture<String>> gates = new ConcurrentHashMap<>();
+    private final Set<String> started = ConcurrentHashMap.newKeySet();
+
+    @Action
+    public CompletableFuture<String> slow(final String s) {
+      started.add(s);
+      return gate(s).thenApply(ignored -> s + "!");
+    }
+
+    @Function
+    public String join(final String a, final String b) {
+      return a + b;
+    }
+
+    private CompletableFuture<String> gate(final String s) {
+      return gates.computeIfAbsent(s, key -> new CompletableFuture<>());
+    }
+
+    private void open(final String s) {
+      gate(s).complete(s);
+    }
+
+    private void awaitStarted(final String... calls) throws InterruptedException {
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (!started.containsAll(List.of(calls)) && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      assertTrue(started.containsAll(List.of(calls)));
+    }
+  }
+
+
+  /**
+   * Functions whose async action completes only once the gate is opened
+   */
+  public static class GatedFunctions extends EngineSpecUtils.Functions {
+
+    private final CompletableFuture<Void> gate = new CompletableFuture<>();
+
+    @Action
+    @Override
+    public Future<String> asyncString(final String s) {
+      return gate.thenApply(ignored -> s);
+    }
+  }
 }
@@ -0,0 +1,234 @@
+package io.logicforge.core.engine.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.annotations.elements.Action;
+import io.logicforge.core.annotations.elements.Function;
+import io.logicforge.core.annotations.metadata.Idempotent;
+import io.logicforge.core.common.Coordinates;
+import io.logicforge.core.engine.Deadline;
+import io.logicforge.core.engine.Process;
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.model.domain.config.ActionConfig;
+import io.logicforge.core.model.domain.config.BlockConfig;
+import io.logicforge.core.model.domain.config.FunctionConfig;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import io.logicforge.core.model.domain.config.ReferenceConfig;
+import io.logicforge.core.model.domain.specification.EngineSpec;
+import io.logicforge.core.model.domain.specification.EngineSpecBuilder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ActionCoalescerTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testCall_sharesInFlightCallWithEqualArguments() throws Exception {
+    final ActionCoalescer coalescer = new ActionCoalescer("fetch");
+    final CompletableFuture<String> underlying = new CompletableFuture<>();
+    final AtomicInteger calls = new AtomicInteger();
+
+    final CompletableFuture<Object> first = coalescer.call(new Object[] {"a"}, args -> {
+      calls.incrementAndGet();
+      return underlying;
+    }, this::bridge);
+    final CompletableFuture<Object> second = coalescer.call(new Object[] {"a"}, args -> {
+      calls.incrementAndGet();
+      return underlying;
+    }, this::bridge);
+    underlying.complete("body");
+
+    assertEquals("body", first.get(5, TimeUnit.SECONDS));
+    assertEquals("body", second.get(5, TimeUnit.SECONDS));
+    assertEquals(1, calls.get());
+    assertEquals(new ActionCoalescer.Stats(1, 1, 0), coalescer.getStats());
+  }
+
+  @Test
+  void testCall_callsAgainOnceSharedCallCompletes() throws Exception {
+    final ActionCoalescer coalescer = new ActionCoalescer("fetch");
+    final AtomicInteger calls = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(i + 1, coalescer.call(new Object[] {"a"}, args -> CompletableFuture
+          .completedFuture(calls.incrementAndGet()), this::bridge).get(5, TimeUnit.SECONDS));
+    }
+
+    assertEquals(3, coalescer.getStats().calls());
+    assertEquals(0, coalescer.getStats().coalesced());
+  }
+
+  @Test
+  void testCall_cancelsActionOnceEveryCallerCancels() {
+    final ActionCoalescer coalescer = new ActionCoalescer("fetch");
+    final CompletableFuture<String> underlying = new CompletableFuture<>();
+    final CompletableFuture<Object> first = coalescer.call(new Object[] {"a"}, args -> underlying,
+        this::bridge);
+    final CompletableFuture<Object> second = coalescer.call(new Object[] {"a"}, args -> underlying,
+        this::bridge);
+
+    first.cancel(false);
+    assertFalse(underlying.isCancelled());
+    assertFalse(second.isDone());
+
+    second.cancel(false);
+    assertTrue(underlying.isCancelled());
+    assertEquals(0, coalescer.getStats().inFlight());
+  }
+
+  @Test
+  void testCall_callsActionWithoutCallersDeadline() throws Exception {
+    final ActionCoalescer coalescer = new ActionCoalescer("fetch");
+    final AtomicReference<Deadline> seen = new AtomicReference<>();
+    final Deadline callerDeadline = Deadline.after(Duration.ofMillis(50));
+
+    try (final Deadline.Scope scope = callerDeadline.bind()) {
+      coalescer.call(new Object[] {"a"}, args -> {
+        seen.set(Deadline.current());
+        return CompletableFuture.completedFuture("body");
+      }, this::bridge).get(5, TimeUnit.SECONDS);
+      assertSame(callerDeadline, Deadline.current());
+    }
+
+    assertSame(Deadline.NONE, seen.get());
+  }
+
+  @Test
+  void testCall_waitsOnPlainFutureThroughBridge() throws Exception {
+    final ActionCoalescer coalescer = new ActionCoalescer("fetch");
+    final FutureTask<String> underlying = new FutureTask<>(() -> "body");
+    final AtomicInteger bridged = new AtomicInteger();
+
+    final CompletableFuture<Object> result = coalescer.call(new Object[] {"a"}, args -> underlying,
+        future -> {
+          bridged.incrementAndGet();
+          return bridge(future);
+        });
+    underlying.run();
+
+    assertEquals("body", result.get(5, TimeUnit.SECONDS));
+    assertEquals(1, bridged.get());
+  }
+
+  @Test
+  void testBuildProcess_coalescesIdempotentActionAcrossExecutions() throws Exception {
+    final GatedHttp http = new GatedHttp();
+    final EngineSpec spec = new EngineSpecBuilder().withProviderInstance(http, true)
+        .withProcess(FetchProcess.class)
+        .build();
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(spec,
+        new ProcessCompiler());
+    final VirtualThreadExecutionQueue queue = new VirtualThreadExecutionQueue(64);
+    final FetchProcess process = builder.buildProcess(buildFetchConfig(), queue);
+
+    final List<CompletableFuture<String>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(CompletableFuture.supplyAsync(() -> process.fetchBody("a"), executor));
+    }
+    awaitCallers(builder, 8);
+    http.gate.complete(null);
+
+    for (final CompletableFuture<String> result : results) {
+      assertEquals("body:a", result.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, http.calls.get());
+    assertEquals(7, builder.getActionCoalescerStats().get("fetch").coalesced());
+    queue.shutdown(Duration.ofSeconds(1));
+  }
+
+  private CompletableFuture<Object> bridge(final Future<?> future) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return future.get();
+      } catch (final Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }, executor);
+  }
+
+  private static void awaitCallers(final CompilationProcessBuilder builder, final int count)
+      throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (System.nanoTime() < deadline) {
+      final ActionCoalescer.Stats stats = builder.getActionCoalescerStats().get("fetch");
+      if (stats != null && stats.calls() + stats.coalesced() == count) {
+        return;
+      }
+      Thread.sleep(5);
+    }
+    throw new AssertionError("Callers did not reach the coalescer");
+  }
+
+  private static ProcessConfig<FetchProcess, UUID> buildFetchConfig() {
+    return ProcessConfig.<FetchProcess, UUID>builder()
+        .functionalInterface(FetchProcess.class)
+        .id(UUID.randomUUID())
+        .name("fetch")
+        .rootBlock(BlockConfig.builder()
+            .executables(List.of(ActionConfig.builder()
+                .name("fetch")
+                .arguments(Map.of("url", List.of(ReferenceConfig.builder()
+                    .coordinates(Coordinates.ROOT)
+                    .path(List.of("url"))
+                    .build())))
+                .build()))
+            .build())
+        .returnExpression(List.of(FunctionConfig.builder()
+            .name("echo")
+            .arguments(Map.of("body", List.of(ReferenceConfig.builder()
+                .coordinates(Coordinates.from(0))
+                .build())))
+            .build()))
+        .build();
+  }
+
+  public interface FetchProcess extends Process {
+
+    String fetchBody(final String url);
+  }
+
+
+  /**
+   * An idempotent action whose calls complete only once the gate is opened
+   */
+  public static class GatedHttp {
+
+    private final CompletableFuture<Void> gate = new CompletableFuture<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Action
+    @Idempotent
+    public Future<String> fetch(final String url) {
+      calls.incrementAndGet();
+      return gate.thenApply(ignored -> "body:" + url);
+    }
+
+    @Function
+    public String echo(final String body) {
+      return body;
+    }
+  }
+}
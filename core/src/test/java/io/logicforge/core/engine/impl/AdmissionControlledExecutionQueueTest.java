@@ -0,0 +1,244 @@
+package io.logicforge.core.engine.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.engine.ExecutionContext;
+import io.logicforge.core.engine.ExecutionListener;
+import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import io.logicforge.core.exception.ExecutionRejectedException;
+import io.logicforge.core.exception.ExecutionRejectedException.Reason;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import io.logicforge.core.model.domain.specification.EngineSpec;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AdmissionControlledExecutionQueueTest {
+
+  private final SimpleExecutionQueue delegate = new SimpleExecutionQueue(Executors
+      .newFixedThreadPool(4));
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    delegate.shutdown(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void testAdmit_rejectsExecutionsBeyondProcessLimit() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(2, 1, 1, Duration.ofMillis(50));
+    final ExecutionQueue view = queue.forProcess(savedConfig());
+    final ExecutionQueue.Permit permit = view.admit();
+
+    final ExecutionRejectedException e = assertThrows(ExecutionRejectedException.class,
+        view::admit);
+    assertEquals(Reason.PROCESS_LIMIT, e.getReason());
+
+    // closing twice releases once
+    permit.close();
+    permit.close();
+    view.admit().close();
+    final AdmissionControlledExecutionQueue.Metrics metrics = queue.getMetrics();
+    assertEquals(2, metrics.admitted());
+    assertEquals(1, metrics.rejected());
+    assertEquals(0, metrics.executing());
+  }
+
+  @Test
+  void testAdmit_rejectsExecutionsBeyondGlobalLimit() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(1, 1, 1, Duration.ofMillis(50));
+    final ExecutionQueue.Permit permit = queue.forProcess(savedConfig()).admit();
+
+    final ExecutionRejectedException e = assertThrows(ExecutionRejectedException.class, queue
+        .forProcess(savedConfig())::admit);
+    assertEquals(Reason.GLOBAL_LIMIT, e.getReason());
+    permit.close();
+  }
+
+  @Test
+  void testAdmit_shedsArrivalsBeyondMaxWaiting() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(1, 1, 0, Duration.ofSeconds(5));
+    final ExecutionQueue.Permit permit = queue.admit();
+
+    final ExecutionRejectedException e = assertThrows(ExecutionRejectedException.class,
+        queue::admit);
+    assertEquals(Reason.SHED, e.getReason());
+    assertEquals(1, queue.getMetrics().shed());
+    permit.close();
+  }
+
+  @Test
+  void testAdmit_admitsWaiterOncePermitIsReleased() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(1, 1, 1, Duration.ofSeconds(5));
+    final ExecutionQueue.Permit permit = queue.admit();
+    final CompletableFuture<ExecutionQueue.Permit> waiter = CompletableFuture.supplyAsync(() -> {
+      try {
+        return queue.admit();
+      } catch (final ExecutionRejectedException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    awaitWaiting(queue, 1);
+
+    permit.close();
+
+    waiter.get(5, TimeUnit.SECONDS).close();
+    assertTrue(queue.getMetrics().maxWait().toNanos() > 0);
+  }
+
+  @Test
+  void testForProcess_sharesLimitBetweenBuildsOfSameProcess() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(2, 1, 1, Duration.ofMillis(50));
+    final ProcessConfig<?, ?> config = savedConfig();
+    final ExecutionQueue.Permit permit = queue.forProcess(config).admit();
+
+    assertThrows(ExecutionRejectedException.class, queue.forProcess(config)::admit);
+    permit.close();
+  }
+
+  @Test
+  void testForProcess_limitsUnsavedConfigsIndividually() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(2, 1, 1, Duration.ofMillis(50));
+    final ProcessConfig<?, ?> config = config(null);
+
+
+    final ExecutionQueue.Permit first = queue.forProcess(config).admit();
+    final ExecutionQueue.Permit second = queue.forProcess(config).admit();
+    first.close();
+    second.close();
+  }
+
+  @Test
+  void testAdmitAsync_waitsWithoutBlockingCaller() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(1, 1, 1, Duration.ofSeconds(5));
+    final ExecutionQueue.Permit permit = queue.admit();
+
+    final CompletableFuture<ExecutionQueue.Permit> admission = queue.admitAsync();
+    assertFalse(admission.isDone());
+
+    permit.close();
+    admission.get(5, TimeUnit.SECONDS).close();
+  }
+
+  @Test
+  void testAdmitAsync_failsFutureOnRejection() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(1, 1, 1, Duration.ofMillis(50));
+    final ExecutionQueue.Permit permit = queue.admit();
+
+    final ExecutionException e = assertThrows(ExecutionException.class, () -> queue.admitAsync()
+        .get(5, TimeUnit.SECONDS));
+    assertInstanceOf(ExecutionRejectedException.class, e.getCause());
+    permit.close();
+  }
+
+  @Test
+  void testAdmit_reportsInterruptDistinctlyAndRestoresFlag() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(1, 1, 1, Duration.ofSeconds(5));
+    final ExecutionQueue.Permit permit = queue.admit();
+    final AtomicReference<ExecutionRejectedException> rejection = new AtomicReference<>();
+    final AtomicReference<Boolean> interrupted = new AtomicReference<>();
+    final Thread waiter = Thread.ofPlatform().start(() -> {
+      try {
+        queue.admit().close();
+      } catch (final ExecutionRejectedException e) {
+        rejection.set(e);
+        interrupted.set(Thread.currentThread().isInterrupted());
+      }
+    });
+    awaitWaiting(queue, 1);
+
+    waiter.interrupt();
+    waiter.join(5_000);
+
+    assertEquals(Reason.INTERRUPTED, rejection.get().getReason());
+    assertTrue(interrupted.get());
+    // the abandoned request's permit is returned once granted
+    permit.close();
+    awaitWaiting(queue, 0);
+    queue.admit().close();
+    assertEquals(0, queue.getMetrics().executing());
+  }
+
+  @Test
+  void testBuildProcess_failsAsyncProcessFutureOnRejection() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(1, 1, 1, Duration.ofMillis(50));
+    final CompilationProcessBuilder builder = builder();
+    final EngineSpecUtils.TestAsyncProcess process = builder.buildProcess(EngineSpecUtils
+        .buildBasicProcessConfig(EngineSpecUtils.TestAsyncProcess.class, "Hello, ", 3, "Hi, ", 7),
+        queue);
+    final ExecutionQueue.Permit permit = queue.admit();
+
+    final CompletableFuture<String> result = process.doTheThingAsync("World!", 16);
+
+    final ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5,
+        TimeUnit.SECONDS));
+    assertInstanceOf(ExecutionRejectedException.class, e.getCause());
+    permit.close();
+    assertEquals("The sum is 42", process.doTheThingAsync("World!", 16).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testBuildProcess_releasesPermitWhenExecutionFailsToStart() throws Exception {
+    final AdmissionControlledExecutionQueue queue = queue(1, 1, 1, Duration.ofMillis(50));
+    final CompilationProcessBuilder builder = builder();
+    final EngineSpecUtils.TestProcess process = builder.buildProcess(EngineSpecUtils
+        .buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7), queue);
+    final ExecutionListener failing = new ExecutionListener() {
+      @Override
+      public void processStarted(final ExecutionContext context, final String processId) {
+        throw new IllegalStateException("listener failed");
+      }
+    };
+    builder.getListeners().add(failing);
+
+    assertThrows(IllegalStateException.class, () -> process.doTheThing("World!", 16));
+    builder.getListeners().remove(failing);
+
+    assertEquals(0, queue.getMetrics().executing());
+    assertEquals("The sum is 42", process.doTheThing("World!", 16));
+  }
+
+  private AdmissionControlledExecutionQueue queue(final int maxExecutions,
+      final int maxExecutionsPerProcess, final int maxWaiting, final Duration maxWait) {
+    return new AdmissionControlledExecutionQueue(delegate,
+        new AdmissionControlledExecutionQueue.Limits(maxExecutions, maxExecutionsPerProcess,
+            maxWaiting, maxWait));
+  }
+
+  private static CompilationProcessBuilder builder() throws Exception {
+    final EngineSpec spec = EngineSpecUtils.buildSpec(new EngineSpecUtils.Functions());
+    return new CompilationProcessBuilder(spec, new ProcessCompiler());
+  }
+
+  private static ProcessConfig<?, ?> savedConfig() {
+    return config(UUID.randomUUID());
+  }
+
+  private static ProcessConfig<?, ?> config(final UUID id) {
+    final ProcessConfig<EngineSpecUtils.TestProcess, ?> config = EngineSpecUtils
+        .buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7);
+    return new ProcessConfig<>(config.getFunctionalInterface(), id, config.getName(), config
+        .getRootBlock(), config.getReturnExpression());
+  }
+
+  private static void awaitWaiting(final AdmissionControlledExecutionQueue queue, final int count)
+      throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (queue.getMetrics().waiting() != count && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(count, queue.getMetrics().waiting());
+  }
+}
@@ -0,0 +1,143 @@
+package io.logicforge.core.engine.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.annotations.elements.Action;
+import io.logicforge.core.constant.ActionCost;
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import io.logicforge.core.model.domain.specification.EngineSpec;
+import io.logicforge.core.model.domain.specification.EngineSpecBuilder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class CostAwareExecutionQueueTest {
+
+  private final SimpleExecutionQueue delegate = new SimpleExecutionQueue(Executors
+      .newFixedThreadPool(2, Thread.ofPlatform().name("delegate-", 0).factory()));
+  private final CostAwareExecutionQueue queue = new CostAwareExecutionQueue(delegate, 4);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    release.countDown();
+    queue.shutdown(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void testSubmit_routesWorkByCost() throws Exception {
+    assertTrue(queue.submit(CostAwareExecutionQueueTest::threadName, ActionCost.BLOCKING_IO)
+        .get(5, TimeUnit.SECONDS)
+        .startsWith("virtual:"));
+    assertTrue(queue.submit(CostAwareExecutionQueueTest::threadName, ActionCost.CPU_HEAVY)
+        .get(5, TimeUnit.SECONDS)
+        .startsWith("logicforge-cpu-"));
+    assertTrue(queue.submit(CostAwareExecutionQueueTest::threadName, ActionCost.UNSPECIFIED)
+        .get(5, TimeUnit.SECONDS)
+        .startsWith("delegate-"));
+  }
+
+  @Test
+  void testCancel_interruptsRunningCpuHeavyWork() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    final Future<?> future = queue.submit(() -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (final InterruptedException e) {
+        interrupted.countDown();
+      }
+      return null;
+    }, ActionCost.CPU_HEAVY);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    assertTrue(future.cancel(true));
+
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testConstructor_rejectsDecoratorsThatMustWrapIt() {
+    assertThrows(IllegalArgumentException.class, () -> new CostAwareExecutionQueue(
+        new FairExecutionQueue(delegate, 2), 4));
+    assertThrows(IllegalArgumentException.class, () -> new CostAwareExecutionQueue(
+        new AdmissionControlledExecutionQueue(delegate,
+            new AdmissionControlledExecutionQueue.Limits(1, 1, 0, Duration.ZERO)), 4));
+    assertThrows(IllegalArgumentException.class, () -> new CostAwareExecutionQueue(
+        new InlineExecutionQueue(new FairExecutionQueue(delegate, 2)), 4));
+  }
+
+  @Test
+  void testSubmit_queuesCostlyWorkFairlyWhenWrapped() throws Exception {
+    final FairExecutionQueue fair = new FairExecutionQueue(queue, 1);
+    final CountDownLatch started = new CountDownLatch(1);
+    final Future<?> blocker = fair.submit(() -> {
+      started.countDown();
+      release.await();
+      return null;
+    });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    final AtomicBoolean ran = new AtomicBoolean();
+
+    final Future<String> costly = fair.submit(() -> {
+      ran.set(true);
+      return threadName();
+    }, ActionCost.BLOCKING_IO);
+
+    assertEquals(1, fair.getStats().get(FairExecutionQueue.DEFAULT_KEY).queued());
+    assertFalse(ran.get());
+    release.countDown();
+    blocker.get(5, TimeUnit.SECONDS);
+    assertTrue(costly.get(5, TimeUnit.SECONDS).startsWith("virtual:"));
+  }
+
+  @Test
+  void testBuildProcess_runsActionsWhereTheirCostDirects() throws Exception {
+    final CostlyFunctions functions = new CostlyFunctions();
+    final EngineSpec spec = new EngineSpecBuilder().withProviderInstance(functions, true)
+        .withProcess(EngineSpecUtils.TestProcess.class)
+        .build();
+    final EngineSpecUtils.TestProcess process = new CompilationProcessBuilder(spec,
+        new ProcessCompiler()).buildProcess(EngineSpecUtils.buildBasicProcessConfig("Hello, ", 3,
+            "Hi, ", 7), queue);
+
+    assertEquals("The sum is 42", process.doTheThing("World!", 16));
+    assertEquals(2, functions.threads.size());
+    assertTrue(functions.threads.stream().allMatch(thread -> thread.startsWith("virtual:")));
+  }
+
+  private static String threadName() {
+    final Thread thread = Thread.currentThread();
+    return thread.isVirtual() ? "virtual:" + thread.getName() : thread.getName();
+  }
+
+  /**
+   * The test functions, declaring recording a pair as blocking I/O, which records only the thread
+   * it runs on
+   */
+  public static class CostlyFunctions extends EngineSpecUtils.Functions {
+
+    public final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+
+    @Action(cost = ActionCost.BLOCKING_IO)
+    @Override
+    public int recordPair(final String a, final int b) {
+      threads.add(threadName());
+      return b;
+    }
+  }
+}
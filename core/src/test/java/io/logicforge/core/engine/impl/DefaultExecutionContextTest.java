@@ -0,0 +1,291 @@
+package io.logicforge.core.engine.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.common.Coordinates;
+import io.logicforge.core.engine.Deadline;
+import io.logicforge.core.engine.ExecutionContext;
+import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.engine.LogicForgeOptions;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import io.logicforge.core.exception.ConversionException;
+import io.logicforge.core.exception.EngineConfigurationException;
+import io.logicforge.core.exception.MissingVariableException;
+import io.logicforge.core.exception.ProcessExecutionException;
+import io.logicforge.core.exception.ProcessTimeoutException;
+import io.logicforge.core.exception.UnexpectedVariableException;
+import io.logicforge.core.model.domain.specification.EngineSpec;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DefaultExecutionContextTest {
+
+  private static final Coordinates FIRST = Coordinates.from(0);
+  private static final Coordinates SECOND = Coordinates.from(1);
+
+  private EngineSpec engineSpec;
+  private ExecutionQueue queue;
+
+  @BeforeEach
+  void setUp() throws EngineConfigurationException {
+    engineSpec = EngineSpecUtils.buildSpec(new EngineSpecUtils.Functions());
+    queue = new SimpleExecutionQueue(Executors.newFixedThreadPool(4));
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    queue.shutdown(Duration.ZERO);
+  }
+
+  @Test
+  void testSetVariable_interruptsActionExceedingItsTimeout() throws InterruptedException {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue, actionTimeout(
+        Duration.ofMillis(100)), Map.of());
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    context.setVariable(FIRST, "slow", (Callable<String>) () -> {
+      try {
+        Thread.sleep(30_000);
+      } catch (final InterruptedException e) {
+        interrupted.countDown();
+        throw e;
+      }
+      return "late";
+    });
+
+    context.await();
+
+    assertThrows(ProcessTimeoutException.class, () -> context.getVariable(FIRST, String.class));
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testSetVariable_cancelsFutureExceedingItsTimeout() {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue, actionTimeout(
+        Duration.ofMillis(100)), Map.of());
+    final CompletableFuture<String> never = new CompletableFuture<>();
+    context.setVariable(FIRST, "slow", never);
+
+    context.await();
+
+    assertThrows(ProcessTimeoutException.class, () -> context.getVariable(FIRST, String.class));
+    assertTrue(never.isCancelled());
+  }
+
+  @Test
+  void testSetVariable_appliesActionTimeoutOverride() {
+    final LogicForgeOptions options = new LogicForgeOptions(Duration.ofMillis(50), Map.of("patient",
+        Duration.ofSeconds(30)), Duration.ZERO);
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue, options, Map
+        .of());
+    context.setVariable(FIRST, "patient", (Callable<String>) () -> {
+      Thread.sleep(300);
+      return "done";
+    });
+
+    context.await();
+
+    assertEquals("done", context.getVariable(FIRST, String.class));
+  }
+
+  @Test
+  void testSetVariable_bindsExecutionDeadlineForActions() {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue,
+        executionTimeout(Duration.ofSeconds(10)), Map.of());
+    final AtomicReference<Deadline> seen = new AtomicReference<>();
+    context.setVariable(FIRST, "bounded", (Callable<String>) () -> {
+      seen.set(Deadline.current());
+      return "done";
+    });
+
+    context.await();
+
+    assertTrue(seen.get().isBounded());
+    assertTrue(seen.get().remaining().compareTo(Duration.ofSeconds(10)) <= 0);
+  }
+
+  @Test
+  void testAwait_failsOnceExecutionTimeoutElapses() {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue,
+        executionTimeout(Duration.ofMillis(150)), Map.of());
+    context.setVariable(FIRST, "slow", (Callable<String>) () -> {
+      Thread.sleep(30_000);
+      return "late";
+    });
+    context.setVariable(SECOND, "fast", (Callable<String>) () -> "fast");
+
+    assertThrows(ProcessTimeoutException.class, context::await);
+  }
+
+  @Test
+  void testAwaitAsync_failsOnceExecutionTimeoutElapses() {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue,
+        executionTimeout(Duration.ofMillis(150)), Map.of());
+    context.setVariable(FIRST, "slow", new CompletableFuture<>());
+
+    final ExecutionException e = assertThrows(ExecutionException.class, () -> context.awaitAsync()
+        .get(5, TimeUnit.SECONDS));
+    assertInstanceOf(ProcessTimeoutException.class, e.getCause());
+  }
+
+  @Test
+  void testScheduleAction_runsInOrderWithoutPendingDependencies() {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue,
+        LogicForgeOptions.DEFAULT, Map.of());
+    context.setVariable(FIRST, "a");
+    final Thread caller = Thread.currentThread();
+    final AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+    context.scheduleAction(SECOND, "dependent", new Coordinates[] {FIRST}, () -> {
+      ranOn.set(Thread.currentThread());
+      return context.getVariable(FIRST, String.class) + "!";
+    });
+
+    assertEquals(caller, ranOn.get());
+    assertEquals("a!", context.getVariable(SECOND, String.class));
+  }
+
+  @Test
+  void testScheduleAction_waitsForPendingDependencies() {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue,
+        LogicForgeOptions.DEFAULT, Map.of());
+    final CompletableFuture<String> first = new CompletableFuture<>();
+    context.setVariable(FIRST, "slow", first);
+    final AtomicBoolean ran = new AtomicBoolean();
+
+    context.scheduleAction(SECOND, "dependent", new Coordinates[] {FIRST}, () -> {
+      ran.set(true);
+      return context.getVariable(FIRST, String.class) + "!";
+    });
+
+    assertFalse(ran.get());
+    assertFalse(context.isActionCompleted(SECOND));
+    first.complete("a");
+    context.await();
+    assertTrue(ran.get());
+    assertEquals("a!", context.getVariable(SECOND, String.class));
+  }
+
+  @Test
+  void testScheduleAction_runsOnQueueOnceDependenciesComplete() {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue,
+        LogicForgeOptions.DEFAULT, Map.of());
+    final CompletableFuture<String> first = new CompletableFuture<>();
+    context.setVariable(FIRST, "slow", first);
+    final AtomicReference<Thread> ranOn = new AtomicReference<>();
+    context.scheduleAction(SECOND, "dependent", new Coordinates[] {FIRST}, () -> {
+      ranOn.set(Thread.currentThread());
+      return context.getVariable(FIRST, String.class) + "!";
+    });
+
+    first.complete("a");
+    context.await();
+
+    assertNotEquals(Thread.currentThread(), ranOn.get());
+    assertTrue(ranOn.get().getName().startsWith("pool-"));
+    assertEquals("a!", context.getVariable(SECOND, String.class));
+  }
+
+  @Test
+  void testAwait_failsWithScheduledActionFailure() {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue,
+        LogicForgeOptions.DEFAULT, Map.of());
+    final CompletableFuture<String> first = new CompletableFuture<>();
+    context.setVariable(FIRST, "slow", first);
+    context.scheduleAction(SECOND, "dependent", new Coordinates[] {FIRST}, () -> {
+      throw new IllegalStateException("dependent failed");
+    });
+
+    first.complete("a");
+
+    final ProcessExecutionException e = assertThrows(ProcessExecutionException.class,
+        context::await);
+    assertInstanceOf(IllegalStateException.class, e.getCause().getCause());
+  }
+
+  @Test
+  void testGetVariable_throwsTracedExceptionsByDefault() {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue,
+        LogicForgeOptions.DEFAULT, Map.of());
+    context.setVariable(FIRST, "a");
+    context.setVariable(SECOND, null);
+
+    final MissingVariableException missing = assertThrows(MissingVariableException.class,
+        () -> context.getVariable(SECOND, String.class));
+    final UnexpectedVariableException unexpected = assertThrows(UnexpectedVariableException.class,
+        () -> context.getVariable(FIRST, Thread.class));
+
+    assertNotSame(MissingVariableException.STACKLESS, missing);
+    assertTrue(missing.getStackTrace().length > 0);
+    assertNotSame(UnexpectedVariableException.STACKLESS, unexpected);
+    assertTrue(unexpected.getStackTrace().length > 0);
+  }
+
+  @Test
+  void testGetVariable_throwsSharedStacklessExceptionsWhenLightweight() {
+    final ExecutionContext context = new DefaultExecutionContext(engineSpec, queue,
+        lightweightExceptions(), Map.of());
+    context.setVariable(FIRST, "a");
+    context.setVariable(SECOND, null);
+
+    final MissingVariableException missing = assertThrows(MissingVariableException.class,
+        () -> context.getVariable(SECOND, String.class));
+    final UnexpectedVariableException unexpected = assertThrows(UnexpectedVariableException.class,
+        () -> context.getVariable(FIRST, Thread.class));
+
+    assertSame(MissingVariableException.STACKLESS, missing);
+    assertEquals(0, missing.getStackTrace().length);
+    assertSame(UnexpectedVariableException.STACKLESS, unexpected);
+    assertEquals(0, unexpected.getStackTrace().length);
+    // suppression is disabled, so the shared instances never accumulate state
+    missing.addSuppressed(new IllegalStateException());
+    assertEquals(0, missing.getSuppressed().length);
+  }
+
+  @Test
+  void testConvert_omitsTraceForUnregisteredConversionWhenLightweight() {
+    final ExecutionContext lightweight = new DefaultExecutionContext(engineSpec, queue,
+        lightweightExceptions(), Map.of());
+    final ExecutionContext traced = new DefaultExecutionContext(engineSpec, queue,
+        LogicForgeOptions.DEFAULT, Map.of());
+
+    final ConversionException untraced = assertThrows(ConversionException.class, () -> lightweight
+        .convert(new Object(), Thread.class));
+    final ConversionException full = assertThrows(ConversionException.class, () -> traced.convert(
+        new Object(), Thread.class));
+
+    assertEquals(0, untraced.getStackTrace().length);
+    assertTrue(full.getStackTrace().length > 0);
+    assertEquals(full.getMessage().replaceAll("@\\w+", ""), untraced.getMessage()
+        .replaceAll("@\\w+", ""));
+  }
+
+  private static LogicForgeOptions actionTimeout(final Duration timeout) {
+    return new LogicForgeOptions(timeout, Map.of(), Duration.ZERO);
+  }
+
+  private static LogicForgeOptions lightweightExceptions() {
+    return new LogicForgeOptions(null, Map.of(), Duration.ZERO, null, true);
+  }
+
+  private static LogicForgeOptions executionTimeout(final Duration timeout) {
+    return new LogicForgeOptions(null, Map.of(), Duration.ZERO, timeout);
+  }
+}
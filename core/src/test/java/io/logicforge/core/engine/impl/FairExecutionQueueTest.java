@@ -0,0 +1,216 @@
+package io.logicforge.core.engine.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.model.domain.config.ProcessConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class FairExecutionQueueTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testSubmit_servesKeysInProportionToWeight() throws Exception {
+    final FairExecutionQueue queue = new FairExecutionQueue(new SimpleExecutionQueue(Executors
+        .newSingleThreadExecutor()), 1).withWeight("b", 2);
+    final ExecutionQueue a = queue.forProcess(config("a"));
+    final ExecutionQueue b = queue.forProcess(config("b"));
+    final Future<?> blocker = occupy(queue.forProcess(config("c")));
+    final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      futures.add(a.submit(() -> order.add("a")));
+    }
+    for (int i = 0; i < 4; i++) {
+      futures.add(b.submit(() -> order.add("b")));
+    }
+
+    release.countDown();
+    blocker.get(5, TimeUnit.SECONDS);
+    for (final Future<?> future : futures) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+
+    assertEquals(List.of("a", "b", "b", "a", "b", "b", "a", "a"), order);
+    assertEquals(4, queue.getStats().get("b").completed());
+  }
+
+  @Test
+  void testSubmit_capsKeyAtItsQuota() throws Exception {
+    final FairExecutionQueue queue = new FairExecutionQueue(new SimpleExecutionQueue(executor), 4)
+        .withQuota("a", 1);
+    final ExecutionQueue a = queue.forProcess(config("a"));
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger peak = new AtomicInteger();
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      futures.add(a.submit(() -> {
+        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(10);
+        running.decrementAndGet();
+        return null;
+      }));
+    }
+    for (final Future<?> future : futures) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+
+    assertEquals(1, peak.get());
+  }
+
+  @Test
+  void testGetStats_keepsIdleKeysUpToLimit() throws Exception {
+    final FairExecutionQueue queue = new FairExecutionQueue(new SimpleExecutionQueue(executor), 2)
+        .withWeight("configured", 2)
+        .withIdleKeyLimit(2);
+    for (final String key : List.of("configured", "first", "second", "third")) {
+      queue.forProcess(config(key)).submit(() -> "done").get(5, TimeUnit.SECONDS);
+      // the slot is released just after the task's future completes
+      awaitInFlight(queue, key, 0);
+    }
+
+    assertEquals(List.of("configured", "second", "third"), List.copyOf(queue.getStats().keySet()));
+    assertEquals(1, queue.getStats().get("third").completed());
+
+    queue.forProcess(config("second")).submit(() -> "done").get(5, TimeUnit.SECONDS);
+    awaitInFlight(queue, "second", 0);
+    queue.forProcess(config("fourth")).submit(() -> "done").get(5, TimeUnit.SECONDS);
+    awaitInFlight(queue, "fourth", 0);
+
+    assertEquals(List.of("configured", "second", "fourth"), List.copyOf(queue.getStats().keySet()));
+    assertEquals(2, queue.getStats().get("second").completed());
+  }
+
+  @Test
+  void testSubmit_releasesSlotWhenDelegateRejects() {
+    final ExecutorService stopped = Executors.newSingleThreadExecutor();
+    stopped.shutdown();
+    final FairExecutionQueue queue = new FairExecutionQueue(new SimpleExecutionQueue(stopped), 1);
+
+    for (int i = 0; i < 3; i++) {
+      final Future<String> future = queue.submit(() -> "never");
+      final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5,
+          TimeUnit.SECONDS));
+      assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+    assertFalse(queue.isSaturated());
+  }
+
+  @Test
+  void testSubmit_releasesTasksDroppedByDelegate() throws Exception {
+    final List<CompletableFuture<?>> accepted = Collections.synchronizedList(new ArrayList<>());
+    final ExecutionQueue delegate = new ExecutionQueue() {
+      @Override
+      public <T> Future<T> submit(final Callable<T> callable) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        accepted.add(future);
+        return future;
+      }
+
+      @Override
+      public Future<?> submit(final Runnable runnable) {
+        return submit(Executors.callable(runnable));
+      }
+    };
+    final FairExecutionQueue queue = new FairExecutionQueue(delegate, 1);
+    final Future<String> dropped = queue.submit(() -> "never");
+    final Future<String> waiting = queue.submit(() -> "waiting");
+    assertTrue(queue.isSaturated());
+    assertEquals(1, accepted.size());
+
+    // the delegate drops the task without running it
+    accepted.getFirst().cancel(false);
+
+    assertTrue(dropped.isCancelled());
+    assertEquals(2, accepted.size());
+    assertFalse(waiting.isDone());
+  }
+
+  @Test
+  void testShutdown_cancelsTasksThatNeverStarted() throws Exception {
+    final FairExecutionQueue queue = new FairExecutionQueue(new SimpleExecutionQueue(Executors
+        .newSingleThreadExecutor()), 2);
+    final Future<?> blocker = occupy(queue);
+    final Future<?> dispatched = queue.submit(() -> "dispatched");
+    final Future<?> queued = queue.submit(() -> "queued");
+
+    assertFalse(queue.shutdown(Duration.ofMillis(50)));
+
+    assertTrue(dispatched.isCancelled());
+    assertTrue(queued.isDone());
+    assertThrows(ExecutionException.class, () -> blocker.get(5, TimeUnit.SECONDS));
+    assertFalse(queue.isSaturated());
+  }
+
+  @Test
+  void testCancel_withdrawsQueuedTask() throws Exception {
+    final FairExecutionQueue queue = new FairExecutionQueue(new SimpleExecutionQueue(executor), 1);
+    final Future<?> blocker = occupy(queue);
+    final AtomicBoolean ran = new AtomicBoolean();
+    final Future<?> queued = queue.submit(() -> ran.set(true));
+    assertEquals(1, queue.getStats().get(FairExecutionQueue.DEFAULT_KEY).queued());
+
+    assertTrue(queued.cancel(false));
+
+    assertEquals(0, queue.getStats().get(FairExecutionQueue.DEFAULT_KEY).queued());
+    release.countDown();
+    blocker.get(5, TimeUnit.SECONDS);
+    assertEquals("next", queue.submit(() -> "next").get(5, TimeUnit.SECONDS));
+    assertFalse(ran.get());
+  }
+
+  /**
+   * Submits a task that holds its slot until the test releases it
+   */
+  private Future<?> occupy(final ExecutionQueue queue) throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final Future<?> future = queue.submit(() -> {
+      started.countDown();
+      release.await();
+      return null;
+    });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    return future;
+  }
+
+  private static void awaitInFlight(final FairExecutionQueue queue, final String key,
+      final int inFlight) throws InterruptedException {
+    final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (queue.getStats().get(key).inFlight() != inFlight && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(inFlight, queue.getStats().get(key).inFlight());
+  }
+
+  private static ProcessConfig<?, ?> config(final String id) {
+    return ProcessConfig.builder().id(id).build();
+  }
+}
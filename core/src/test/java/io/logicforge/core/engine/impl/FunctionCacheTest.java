@@ -0,0 +1,188 @@
+package io.logicforge.core.engine.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.annotations.elements.Function;
+import io.logicforge.core.annotations.metadata.Cacheable;
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import io.logicforge.core.model.domain.specification.EngineSpec;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class FunctionCacheTest {
+
+  @Test
+  void testGet_computesEachResultOnce() {
+    final FunctionCache cache = new FunctionCache("add", 10, null);
+    final AtomicInteger loads = new AtomicInteger();
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals(3, cache.get(new Object[] {1, 2}, args -> {
+        loads.incrementAndGet();
+        return (int) args[0] + (int) args[1];
+      }));
+    }
+
+    assertEquals(1, loads.get());
+    final FunctionCache.Stats stats = cache.getStats();
+    assertEquals(4, stats.hits());
+    assertEquals(1, stats.misses());
+    assertEquals(0.8, stats.hitRate());
+  }
+
+  @Test
+  void testGet_doesNotCacheFailedComputations() {
+    final FunctionCache cache = new FunctionCache("fail", 10, null);
+
+    assertThrows(IllegalStateException.class, () -> cache.get(new Object[] {1}, args -> {
+      throw new IllegalStateException("failed");
+    }));
+
+    assertEquals("ok", cache.get(new Object[] {1}, args -> "ok"));
+    assertEquals(0, cache.getStats().hits());
+  }
+
+  @Test
+  void testGet_staysWithinMaxSize() {
+    final FunctionCache cache = new FunctionCache("bounded", 100, null);
+
+    for (int i = 0; i < 1_000; i++) {
+      cache.get(new Object[] {i}, args -> args[0]);
+    }
+
+    final FunctionCache.Stats stats = cache.getStats();
+    assertEquals(100, stats.size());
+    assertEquals(900, stats.evictions());
+  }
+
+  @Test
+  void testGet_keepsFrequentResultsThroughScan() {
+    final FunctionCache cache = new FunctionCache("scan", 100, null);
+    load(cache);
+    for (int round = 0; round < 20; round++) {
+      for (int i = 0; i < 50; i++) {
+        cache.get(new Object[] {"hot", i}, args -> args[1]);
+      }
+    }
+
+    for (int i = 0; i < 10_000; i++) {
+      cache.get(new Object[] {"scan", i}, args -> args[1]);
+    }
+
+    final long hitsBefore = cache.getStats().hits();
+    for (int i = 0; i < 50; i++) {
+      cache.get(new Object[] {"hot", i}, args -> args[1]);
+    }
+    assertEquals(50, cache.getStats().hits() - hitsBefore);
+  }
+
+  @Test
+  void testGet_countsConcurrentReadsTowardsAdmission() throws Exception {
+    final FunctionCache cache = new FunctionCache("concurrent", 100, null);
+    load(cache);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<?>> readers = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        readers.add(executor.submit(() -> {
+          for (int round = 0; round < 1_000; round++) {
+            for (int i = 0; i < 50; i++) {
+              assertEquals(i, cache.get(new Object[] {"hot", i}, args -> args[1]));
+            }
+          }
+        }));
+      }
+      for (final Future<?> reader : readers) {
+        reader.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (int i = 0; i < 10_000; i++) {
+      cache.get(new Object[] {"scan", i}, args -> args[1]);
+    }
+
+    final long hitsBefore = cache.getStats().hits();
+    for (int i = 0; i < 50; i++) {
+      cache.get(new Object[] {"hot", i}, args -> args[1]);
+    }
+    assertEquals(50, cache.getStats().hits() - hitsBefore);
+    assertTrue(cache.getStats().size() <= 100);
+  }
+
+  @Test
+  void testGet_recomputesExpiredResults() throws Exception {
+    final FunctionCache cache = new FunctionCache("ttl", 10, Duration.ofMillis(50));
+    final AtomicInteger loads = new AtomicInteger();
+
+    cache.get(new Object[] {1}, args -> loads.incrementAndGet());
+    cache.get(new Object[] {1}, args -> loads.incrementAndGet());
+    Thread.sleep(80);
+    cache.get(new Object[] {1}, args -> loads.incrementAndGet());
+
+    assertEquals(2, loads.get());
+    assertEquals(1, cache.getStats().expirations());
+  }
+
+  @Test
+  void testBuildProcess_sharesBuilderCacheBetweenProcesses() throws Exception {
+    final CachedFunctions functions = new CachedFunctions();
+    final EngineSpec spec = EngineSpecUtils.buildSpec(functions);
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(spec,
+        new ProcessCompiler());
+    final SimpleExecutionQueue queue = new SimpleExecutionQueue(Executors.newFixedThreadPool(2));
+    final EngineSpecUtils.TestProcess first = builder.buildProcess(EngineSpecUtils
+        .buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7), queue);
+    final EngineSpecUtils.TestProcess second = builder.buildProcess(EngineSpecUtils
+        .buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7), queue);
+
+    assertEquals("The sum is 42", first.doTheThing("World!", 16));
+    final int calls = functions.calls.get();
+    assertEquals("The sum is 42", second.doTheThing("World!", 16));
+
+    assertEquals(calls, functions.calls.get());
+    assertEquals(100, spec.getFunctions().get("add").getCache().getMaxSize());
+    assertTrue(builder.getFunctionCacheStats().get("add").hits() > 0);
+    // a separate builder has its own caches
+    final CompilationProcessBuilder other = new CompilationProcessBuilder(spec,
+        new ProcessCompiler());
+    assertNull(other.getFunctionCacheStats().get("add"));
+    queue.shutdown(Duration.ofSeconds(1));
+  }
+
+  /**
+   * Caches the hot results, then one more so that every hot result has left the admission window
+   */
+  private static void load(final FunctionCache cache) {
+    for (int i = 0; i < 50; i++) {
+      cache.get(new Object[] {"hot", i}, args -> args[1]);
+    }
+    cache.get(new Object[] {"warm"}, args -> args[0]);
+  }
+
+  public static class CachedFunctions extends EngineSpecUtils.Functions {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Function
+    @Cacheable(maxSize = 100)
+    @Override
+    public int add(final int a, final int b) {
+      calls.incrementAndGet();
+      return a + b;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package io.logicforge.core.engine.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InlineExecutionQueueTest {
+
+  private ThreadPoolExecutor pool;
+  private SimpleExecutionQueue delegate;
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @BeforeEach
+  void setUp() {
+    // a single thread with room for one queued task
+    pool = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+    delegate = new SimpleExecutionQueue(pool);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    release.countDown();
+    delegate.shutdown(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void testSubmit_runsWorkInlineWhenDelegateIsSaturated() throws Exception {
+    final InlineExecutionQueue queue = new InlineExecutionQueue(delegate, EnumSet.of(
+        InlineExecutionQueue.Condition.SATURATED));
+    occupyDelegate();
+    // fills the delegate's work queue
+    delegate.submit(() -> {
+    });
+
+    final Future<Thread> future = queue.submit(Thread::currentThread);
+
+    assertSame(Thread.currentThread(), future.get(5, TimeUnit.SECONDS));
+    assertEquals(1, queue.getInlinedCount());
+  }
+
+  @Test
+  void testSubmit_propagatesRejectionWithoutSaturatedCondition() throws Exception {
+    final InlineExecutionQueue queue = new InlineExecutionQueue(delegate, EnumSet.noneOf(
+        InlineExecutionQueue.Condition.class));
+    occupyDelegate();
+    delegate.submit(() -> {
+    });
+
+    assertThrows(RejectedExecutionException.class, () -> queue.submit(Thread::currentThread));
+  }
+
+  @Test
+  void testSubmitInline_runsCheapWorkOnCallingThread() throws Exception {
+    final InlineExecutionQueue queue = new InlineExecutionQueue(delegate, EnumSet.of(
+        InlineExecutionQueue.Condition.CHEAP));
+
+    final Future<Thread> future = queue.submitInline(Thread::currentThread);
+
+    assertTrue(future.isDone());
+    assertSame(Thread.currentThread(), future.get());
+  }
+
+  @Test
+  void testSubmitInline_handsWorkOffWithoutCheapCondition() throws Exception {
+    final InlineExecutionQueue queue = new InlineExecutionQueue(delegate, EnumSet.noneOf(
+        InlineExecutionQueue.Condition.class));
+
+    final Future<Thread> future = queue.submitInline(Thread::currentThread);
+
+    assertNotSame(Thread.currentThread(), future.get(5, TimeUnit.SECONDS));
+    assertEquals(0, queue.getInlinedCount());
+  }
+
+  @Test
+  void testRunInline_runsAwaitedWorkThatHasNotStartedOnlyOnce() throws Exception {
+    final InlineExecutionQueue queue = new InlineExecutionQueue(delegate, EnumSet.of(
+        InlineExecutionQueue.Condition.AWAITED));
+    occupyDelegate();
+    final AtomicInteger runs = new AtomicInteger();
+    final Future<Thread> future = queue.submit(() -> {
+      runs.incrementAndGet();
+      return Thread.currentThread();
+    });
+
+    assertTrue(queue.runInline(future));
+    assertSame(Thread.currentThread(), future.get());
+
+    // the delegate's later attempt to run the task does nothing
+    release.countDown();
+    delegate.shutdown(Duration.ofSeconds(5));
+    assertEquals(1, runs.get());
+    assertEquals(1, queue.getInlinedCount());
+  }
+
+  /**
+   * Blocks the delegate's only thread until the test ends
+   */
+  private void occupyDelegate() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    delegate.submit(() -> {
+      started.countDown();
+      release.await();
+      return null;
+    });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+  }
+}
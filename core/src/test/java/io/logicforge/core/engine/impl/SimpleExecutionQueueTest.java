@@ -0,0 +1,45 @@
+package io.logicforge.core.engine.impl;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SimpleExecutionQueueTest {
+
+  @Test
+  void testShutdown_returnsTrueOnceWorkDrains() throws Exception {
+    final SimpleExecutionQueue queue = new SimpleExecutionQueue(Executors.newFixedThreadPool(1));
+    final Future<?> task = queue.submit(() -> {
+      Thread.sleep(50);
+      return null;
+    });
+
+    assertTrue(queue.shutdown(Duration.ofSeconds(5)));
+    assertTrue(task.isDone());
+  }
+
+  @Test
+  void testShutdown_interruptsAndCancelsOutstandingWork() throws Exception {
+    final SimpleExecutionQueue queue = new SimpleExecutionQueue(Executors.newFixedThreadPool(1));
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    queue.submit(() -> {
+      try {
+        Thread.sleep(30_000);
+      } catch (final InterruptedException e) {
+        interrupted.countDown();
+      }
+    });
+    final Future<?> queued = queue.submit(() -> {
+    });
+
+    assertFalse(queue.shutdown(Duration.ofMillis(100)));
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    assertTrue(queued.isCancelled());
+  }
+}
@@ -0,0 +1,138 @@
+package io.logicforge.core.engine.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.annotations.elements.Action;
+import io.logicforge.core.common.Coordinates;
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SlowExecutionRecorderTest {
+
+  private final SimpleExecutionQueue queue = new SimpleExecutionQueue(Executors.newFixedThreadPool(
+      4));
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    queue.shutdown(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void testBuildProcess_tracesEachActionOnce() throws Exception {
+    final EngineSpecUtils.Functions functions = new EngineSpecUtils.Functions();
+    final CompilationProcessBuilder builder = builder(functions);
+    final EngineSpecUtils.TestProcess process = buildProcess(builder);
+    final SlowExecutionRecorder recorder = new SlowExecutionRecorder(4, Duration.ZERO);
+    builder.getListeners().add(recorder);
+
+    assertEquals("The sum is 42", process.doTheThing("World!", 16));
+
+    assertEquals(2, functions.recordedPairs.size());
+    final SlowExecutionRecorder.Trace trace = recorder.getSlowExecutions().getFirst();
+    assertNull(trace.error());
+    final Map<Coordinates, Long> actionSpans = trace.spans()
+        .stream()
+        .filter(span -> span.type() == SlowExecutionRecorder.SpanType.ACTION)
+        .collect(Collectors.groupingBy(SlowExecutionRecorder.Span::coordinates, Collectors
+            .counting()));
+    assertEquals(Map.of(Coordinates.from(0), 1L, Coordinates.from(1), 1L, Coordinates.from(2), 1L),
+        actionSpans);
+    assertTrue(trace.spans()
+        .stream()
+        .anyMatch(span -> span.type() == SlowExecutionRecorder.SpanType.ASYNC && "asyncString"
+            .equals(span.name())));
+  }
+
+  @Test
+  void testProcessCompleted_keepsOnlyExecutionsOverThreshold() throws Exception {
+    final CompilationProcessBuilder builder = builder(new EngineSpecUtils.Functions());
+    final EngineSpecUtils.TestProcess process = buildProcess(builder);
+    final SlowExecutionRecorder recorder = new SlowExecutionRecorder(4, Duration.ofHours(1));
+    builder.getListeners().add(recorder);
+
+    process.doTheThing("World!", 16);
+
+    assertEquals(0, recorder.getRecordedCount());
+    assertTrue(recorder.getSlowExecutions().isEmpty());
+  }
+
+  @Test
+  void testGetSlowExecutions_overwritesOldestOnceFull() throws Exception {
+    final CompilationProcessBuilder builder = builder(new EngineSpecUtils.Functions());
+    final EngineSpecUtils.TestProcess process = buildProcess(builder);
+    final SlowExecutionRecorder recorder = new SlowExecutionRecorder(2, Duration.ZERO);
+    builder.getListeners().add(recorder);
+
+    for (int i = 0; i < 3; i++) {
+      process.doTheThing("World!", i);
+    }
+
+    assertEquals(3, recorder.getRecordedCount());
+    final List<SlowExecutionRecorder.Trace> traces = recorder.getSlowExecutions();
+    assertEquals(2, traces.size());
+    assertTrue(traces.get(0).startedAt().compareTo(traces.get(1).startedAt()) >= 0);
+  }
+
+  @Test
+  void testProcessCompleted_recordsFailedAction() throws Exception {
+    final CompilationProcessBuilder builder = builder(new FailingFunctions());
+    final EngineSpecUtils.TestProcess process = buildProcess(builder);
+    final SlowExecutionRecorder recorder = new SlowExecutionRecorder(4, Duration.ZERO);
+    builder.getListeners().add(recorder);
+
+    assertThrows(IllegalStateException.class, () -> process.doTheThing("World!", 16));
+
+    final SlowExecutionRecorder.Trace trace = recorder.getSlowExecutions().getFirst();
+    assertInstanceOf(IllegalStateException.class, trace.error());
+    assertTrue(trace.spans()
+        .stream()
+        .anyMatch(span -> "recordPair".equals(span.name()) && span.error() != null));
+  }
+
+  @Test
+  void testRemove_stopsTracingLaterExecutions() throws Exception {
+    final CompilationProcessBuilder builder = builder(new EngineSpecUtils.Functions());
+    final EngineSpecUtils.TestProcess process = buildProcess(builder);
+    final SlowExecutionRecorder recorder = new SlowExecutionRecorder(4, Duration.ZERO);
+    builder.getListeners().add(recorder);
+    process.doTheThing("World!", 16);
+
+    builder.getListeners().remove(recorder);
+    process.doTheThing("World!", 16);
+
+    assertEquals(1, recorder.getRecordedCount());
+  }
+
+  private static CompilationProcessBuilder builder(final EngineSpecUtils.Functions functions)
+      throws Exception {
+    return new CompilationProcessBuilder(EngineSpecUtils.buildSpec(functions),
+        new ProcessCompiler());
+  }
+
+  private EngineSpecUtils.TestProcess buildProcess(final CompilationProcessBuilder builder)
+      throws Exception {
+    return builder.buildProcess(EngineSpecUtils.buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7),
+        queue);
+  }
+
+  public static class FailingFunctions extends EngineSpecUtils.Functions {
+
+    @Action
+    @Override
+    public int recordPair(final String a, final int b) {
+      throw new IllegalStateException("failed");
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package io.logicforge.core.engine.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadExecutionQueueTest {
+
+  private VirtualThreadExecutionQueue queue;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    queue.shutdown(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void testSubmit_runsWorkOnVirtualThreads() throws Exception {
+    queue = new VirtualThreadExecutionQueue(4);
+
+    assertTrue(queue.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testSubmit_capsConcurrentExecutions() throws Exception {
+    queue = new VirtualThreadExecutionQueue(3);
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      futures.add(queue.submit(() -> {
+        Thread.sleep(20);
+        return null;
+      }));
+    }
+    for (final Future<?> future : futures) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+
+    final VirtualThreadExecutionQueue.Metrics metrics = queue.getMetrics();
+    assertEquals(20, metrics.submitted());
+    assertEquals(20, metrics.completed());
+    assertTrue(metrics.peakActive() <= 3);
+    assertEquals(0, metrics.active());
+  }
+
+  @Test
+  void testSubmit_countsFailures() {
+    queue = new VirtualThreadExecutionQueue(1);
+
+    final Future<Object> future = queue.submit(() -> {
+      throw new IllegalStateException("failed");
+    });
+
+    assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+    assertEquals(1, queue.getMetrics().failed());
+  }
+
+  @Test
+  void testSubmit_reportsPinnedThreads() throws Exception {
+    queue = new VirtualThreadExecutionQueue(4, Duration.ofMillis(5));
+    final Object lock = new Object();
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(queue.submit(() -> {
+        synchronized (lock) {
+          Thread.sleep(20);
+        }
+        return null;
+      }));
+    }
+    for (final Future<?> future : futures) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+
+    // pinning events are streamed asynchronously
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (queue.getMetrics().pinned() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+    }
+    assertTrue(queue.getMetrics().pinned() > 0);
+  }
+
+  @Test
+  void testBuildProcess_executesOnVirtualThreadQueue() throws Exception {
+    queue = new VirtualThreadExecutionQueue(4);
+    final EngineSpecUtils.Functions functions = new EngineSpecUtils.Functions();
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(EngineSpecUtils
+        .buildSpec(functions), new ProcessCompiler());
+    final EngineSpecUtils.TestProcess process = builder.buildProcess(EngineSpecUtils
+        .buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7), queue);
+
+    assertEquals("The sum is 42", process.doTheThing("World!", 16));
+    assertEquals(2, functions.recordedPairs.size());
+  }
+}
@@ -0,0 +1,134 @@
+package io.logicforge.core.engine.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.impl.SimpleExecutionQueue;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JfrExecutionListenerTest {
+
+  private final SimpleExecutionQueue queue = new SimpleExecutionQueue(Executors.newFixedThreadPool(
+      4));
+  private CompilationProcessBuilder builder;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    builder = new CompilationProcessBuilder(EngineSpecUtils.buildSpec(
+        new EngineSpecUtils.Functions()), new ProcessCompiler());
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    queue.shutdown(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void testListeners_includeJfrListenerOnlyWhileItsEventsAreRecorded() throws Exception {
+    assertNull(builder.getListeners().current());
+
+    try (Recording recording = new Recording()) {
+      recording.enable(ActionEvent.class);
+      recording.start();
+      await(() -> builder.getListeners().current() == JfrExecutionListener.INSTANCE);
+      assertSame(JfrExecutionListener.INSTANCE, builder.getListeners().current());
+      recording.stop();
+    }
+
+    await(() -> builder.getListeners().current() == null);
+    assertNull(builder.getListeners().current());
+  }
+
+  @Test
+  void testListeners_excludeJfrListenerWhileOnlyOtherEventsAreRecorded() throws Exception {
+    try (RecordingStream pinning = new RecordingStream(); Recording recording = new Recording()) {
+      pinning.enable("jdk.VirtualThreadPinned");
+      pinning.startAsync();
+      recording.enable(ActionEvent.class);
+      recording.start();
+      await(() -> builder.getListeners().current() != null);
+      recording.stop();
+
+      await(() -> builder.getListeners().current() == null);
+      assertNull(builder.getListeners().current());
+    }
+  }
+
+  @Test
+  void testRecording_capturesCompilationExecutionAndActions() throws Exception {
+    final Path file = Files.createTempFile("logicforge", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(ProcessCompilationEvent.class);
+      recording.enable(ProcessExecutionEvent.class);
+      recording.enable(ActionEvent.class);
+      recording.enable(AsyncActionEvent.class);
+      recording.start();
+      await(() -> builder.getListeners().current() != null);
+
+      final EngineSpecUtils.TestProcess process = builder.buildProcess(EngineSpecUtils
+          .buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7), queue);
+      assertEquals("The sum is 42", process.doTheThing("World!", 16));
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    Files.delete(file);
+    final RecordedEvent compilation = single(events, "io.logicforge.ProcessCompilation");
+    assertTrue(compilation.getBoolean("succeeded"));
+    assertTrue(compilation.getInt("sourceSize") > 0);
+    assertTrue(compilation.getLong("classBytes") > 0);
+    final RecordedEvent execution = single(events, "io.logicforge.ProcessExecution");
+    assertNull(execution.getString("failure"));
+    final List<RecordedEvent> actions = named(events, "io.logicforge.Action");
+    assertEquals(3, actions.size());
+    for (final RecordedEvent action : actions) {
+      assertEquals(execution.getString("processId"), action.getString("processId"));
+      assertEquals(execution.getLong("executionNumber"), action.getLong("executionNumber"));
+    }
+    assertEquals(2, actions.stream()
+        .filter(action -> action.getString("actionName").equals("recordPair"))
+        .count());
+    assertEquals("asyncString", single(events, "io.logicforge.AsyncAction").getString(
+        "actionName"));
+  }
+
+  private static RecordedEvent single(final List<RecordedEvent> events, final String name) {
+    final List<RecordedEvent> matching = named(events, name);
+    assertEquals(1, matching.size(), name);
+    return matching.getFirst();
+  }
+
+  private static List<RecordedEvent> named(final List<RecordedEvent> events, final String name) {
+    return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+  }
+
+  /**
+   * Waits for the recording state change to reach the registered listeners
+   */
+  private static void await(final Supplier<Boolean> condition) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.get() && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+}
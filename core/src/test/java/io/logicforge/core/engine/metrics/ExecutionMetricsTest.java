@@ -0,0 +1,134 @@
+package io.logicforge.core.engine.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.annotations.elements.Function;
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.impl.SimpleExecutionQueue;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ExecutionMetricsTest {
+
+  private static final long ADD_MILLIS = 20;
+
+  private final SimpleExecutionQueue queue = new SimpleExecutionQueue(Executors.newFixedThreadPool(
+      4));
+  private final ExecutionMetrics metrics = new ExecutionMetrics();
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    queue.shutdown(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void testSnapshot_countsEveryExecutionActionAndFunction() throws Exception {
+    final EngineSpecUtils.TestProcess process = buildProcess(new EngineSpecUtils.Functions());
+
+    for (int i = 0; i < 100; i++) {
+      assertEquals("The sum is 42", process.doTheThing("World!", 16));
+    }
+
+    final ExecutionMetrics.Snapshot snapshot = metrics.snapshot();
+    assertEquals(100, snapshot.processes().values().iterator().next().calls());
+    assertEquals(200, snapshot.actions().get("recordPair").calls());
+    assertEquals(100, snapshot.actions().get("asyncString").calls());
+    assertEquals(300, snapshot.functions().get("concat").calls());
+    assertEquals(300, snapshot.functions().get("add").calls());
+  }
+
+  @Test
+  void testSnapshot_excludesArgumentsFromFunctionLatency() throws Exception {
+    final EngineSpecUtils.TestProcess process = buildProcess(new SlowAddFunctions());
+
+    assertEquals("The sum is 42", process.doTheThing("World!", 16));
+
+    // the returned concat is called with the result of add, which must not be counted towards it
+    final ExecutionMetrics.Snapshot snapshot = metrics.snapshot();
+    assertTrue(snapshot.functions().get("add").latency().maxNanos() >= TimeUnit.MILLISECONDS
+        .toNanos(ADD_MILLIS));
+    assertTrue(snapshot.functions().get("concat").latency().maxNanos() < TimeUnit.MILLISECONDS
+        .toNanos(ADD_MILLIS));
+  }
+
+  @Test
+  void testSnapshot_excludesArgumentsFromActionLatency() throws Exception {
+    final EngineSpecUtils.TestProcess process = buildProcess(new SlowAddFunctions());
+
+    assertEquals("The sum is 42", process.doTheThing("World!", 16));
+
+    // recordPair is called with the result of add, which must not be counted towards it
+    assertTrue(metrics.snapshot().actions().get("recordPair").latency().maxNanos()
+        < TimeUnit.MILLISECONDS.toNanos(ADD_MILLIS));
+  }
+
+  @Test
+  void testSnapshot_recordsFailureEvaluatingActionArguments() throws Exception {
+    final EngineSpecUtils.TestProcess process = buildProcess(new FailingAddFunctions());
+
+    assertThrows(IllegalStateException.class, () -> process.doTheThing("World!", 16));
+
+    final OperationMetrics.Snapshot processSnapshot = metrics.snapshot()
+        .processes()
+        .values()
+        .iterator()
+        .next();
+    assertEquals(1, processSnapshot.errorsByType().get(IllegalStateException.class.getName()));
+  }
+
+  @Test
+  void testSnapshot_isImmutable() throws Exception {
+    final OperationMetrics operation = new OperationMetrics();
+    operation.record(1_000L, new IllegalStateException());
+    final EngineSpecUtils.TestProcess process = buildProcess(new EngineSpecUtils.Functions());
+    process.doTheThing("World!", 16);
+
+    final ExecutionMetrics.Snapshot snapshot = metrics.snapshot();
+    final OperationMetrics.Snapshot operationSnapshot = operation.snapshot();
+
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.functions().clear());
+    assertThrows(UnsupportedOperationException.class, () -> operationSnapshot.errorsByType()
+        .clear());
+    assertEquals(1, operationSnapshot.errorsByType().get(IllegalStateException.class.getName()));
+  }
+
+  private EngineSpecUtils.TestProcess buildProcess(final EngineSpecUtils.Functions functions)
+      throws Exception {
+    final CompilationProcessBuilder builder = new CompilationProcessBuilder(EngineSpecUtils
+        .buildSpec(functions), new ProcessCompiler());
+    builder.getListeners().add(metrics);
+    return builder.buildProcess(EngineSpecUtils.buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7),
+        queue);
+  }
+
+  public static class FailingAddFunctions extends EngineSpecUtils.Functions {
+
+    @Function
+    @Override
+    public int add(final int a, final int b) {
+      throw new IllegalStateException("add failed");
+    }
+  }
+
+
+  public static class SlowAddFunctions extends EngineSpecUtils.Functions {
+
+    @Function
+    @Override
+    public int add(final int a, final int b) {
+      try {
+        Thread.sleep(ADD_MILLIS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return a + b;
+    }
+  }
+}
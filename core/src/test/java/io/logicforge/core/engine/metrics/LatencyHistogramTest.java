@@ -0,0 +1,64 @@
+package io.logicforge.core.engine.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void testSnapshot_reportsPercentilesWithinBucketPrecision() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1_000L);
+    }
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+    assertEquals(100_000, snapshot.count());
+    assertEquals(100_000_000L, snapshot.maxNanos());
+    assertWithinPrecision(50_000_000L, snapshot.percentileNanos(0.5));
+    assertWithinPrecision(99_000_000L, snapshot.percentileNanos(0.99));
+    assertWithinPrecision(50_000_500L, (long) snapshot.meanNanos());
+  }
+
+  @Test
+  void testRecord_acceptsExtremeLatencies() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(Long.MAX_VALUE);
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+    assertEquals(2, snapshot.count());
+    assertEquals(Long.MAX_VALUE, snapshot.maxNanos());
+    assertTrue(snapshot.percentileNanos(1.0) > 0);
+  }
+
+  @Test
+  void testSnapshot_isUnaffectedByLaterRecordsAndCallers() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1_000L);
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+    histogram.record(2_000L);
+    snapshot.buckets()[0] = 42;
+
+    assertEquals(1, snapshot.count());
+    assertEquals(1, sum(snapshot.buckets()));
+  }
+
+  private static void assertWithinPrecision(final long expected, final long actual) {
+    assertTrue(Math.abs(expected - actual) <= expected / 32, "expected ~" + expected + " but was "
+        + actual);
+  }
+
+  private static long sum(final long[] buckets) {
+    long sum = 0;
+    for (final long bucket : buckets) {
+      sum += bucket;
+    }
+    return sum;
+  }
+}
@@ -58,6 +58,16 @@ public class EngineSpecUtils {
    */
   public static ProcessConfig<TestProcess, UUID> buildBasicProcessConfig(final String concatA,
       final Integer addA, final String concatB, final Integer addB) {
+    return buildBasicProcessConfig(TestProcess.class, concatA, addA, concatB, addB);
+  }
+
+  /**
+   * Builds the same process as {@link #buildBasicProcessConfig(String, Integer, String, Integer)},
+   * implementing the supplied process interface (e.g., {@link TestAsyncProcess})
+   */
+  public static <T extends Process> ProcessConfig<T, UUID> buildBasicProcessConfig(
+      final Class<T> processInterface, final String concatA, final Integer addA,
+      final String concatB, final Integer addB) {
     final BlockConfig blockConfig = BlockConfig.builder()
         .executables(List.of(buildAsyncStringConfig("The sum is "), buildRecordPairConfig(
             buildConcatConfig(concatA), buildAddConfig(addA)), buildRecordPairConfig(
@@ -76,8 +86,8 @@ public class EngineSpecUtils {
                         .build())))
                 .build())))
         .build();
-    return ProcessConfig.<TestProcess, UUID>builder()
-        .functionalInterface(TestProcess.class)
+    return ProcessConfig.<T, UUID>builder()
+        .functionalInterface(processInterface)
         .id(UUID.randomUUID())
         .name("example")
         .rootBlock(blockConfig)
@@ -123,6 +133,7 @@ public class EngineSpecUtils {
       throws EngineConfigurationException {
     return new EngineSpecBuilder().withProviderInstance(functions, true)
         .withProcess(TestProcess.class)
+        .withProcess(TestAsyncProcess.class)
         .build();
   }
 
@@ -133,6 +144,13 @@ public class EngineSpecUtils {
   }
 
 
+  public interface TestAsyncProcess extends Process {
+
+    CompletableFuture<String> doTheThingAsync(final String text, final int number);
+
+  }
+
+
   public static class Functions {
 
     public List<Pair<String, Integer>> recordedPairs = new ArrayList<>();
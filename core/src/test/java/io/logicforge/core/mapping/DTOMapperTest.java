@@ -0,0 +1,75 @@
+package io.logicforge.core.mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.logicforge.core.common.Coordinates;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import io.logicforge.core.model.domain.config.ReferenceConfig;
+import io.logicforge.core.model.dto.config.ReferenceConfigDTO;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class DTOMapperTest {
+
+  @Test
+  void testReferenceExternal_packsCoordinatesWhenCompact() throws Exception {
+    final ReferenceConfig reference = reference(Coordinates.from(1, 9, 100, 2000));
+
+    final ReferenceConfigDTO compact = mapper(true).referenceExternal(reference);
+    final ReferenceConfigDTO expanded = mapper(false).referenceExternal(reference);
+
+    assertNull(compact.getCoordinates());
+    assertEquals(reference.getCoordinates().pack(), compact.getPackedCoordinates());
+    assertNull(expanded.getPackedCoordinates());
+    assertMapped(reference, mapper(false).referenceInternal(compact));
+    assertMapped(reference, mapper(false).referenceInternal(expanded));
+  }
+
+  @Test
+  void testReferenceExternal_fallsBackToArrayForUnpackableCoordinates() throws Exception {
+    final ReferenceConfig reference = reference(Coordinates.from(70_000));
+
+    final ReferenceConfigDTO compact = mapper(true).referenceExternal(reference);
+
+    assertNull(compact.getPackedCoordinates());
+    assertMapped(reference, mapper(true).referenceInternal(compact));
+  }
+
+  @Test
+  void testReferenceInternal_rejectsReferenceWithoutCoordinates() throws Exception {
+    final ReferenceConfigDTO dto = new ReferenceConfigDTO();
+    dto.setPath(new String[0]);
+
+    final IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> mapper(
+        false).referenceInternal(dto));
+    assertEquals("Reference has neither coordinates nor packedCoordinates", e.getMessage());
+  }
+
+  private static void assertMapped(final ReferenceConfig expected, final ReferenceConfig actual) {
+    assertEquals(expected.getCoordinates(), actual.getCoordinates());
+    assertEquals(expected.getPath(), actual.getPath());
+  }
+
+  private static ReferenceConfig reference(final Coordinates coordinates) {
+    return ReferenceConfig.builder().coordinates(coordinates).path(List.of("text")).build();
+  }
+
+  private static DTOMapper<UUID> mapper(final boolean compactCoordinates) throws Exception {
+    return new DTOMapper<>(EngineSpecUtils.buildSpec(new EngineSpecUtils.Functions()),
+        compactCoordinates) {
+
+      @Override
+      protected Object externalId(final UUID internalId) {
+        return internalId;
+      }
+
+      @Override
+      protected UUID internalID(final Object externalId) {
+        return (UUID) externalId;
+      }
+    };
+  }
+}
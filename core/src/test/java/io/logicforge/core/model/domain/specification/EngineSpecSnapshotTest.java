@@ -0,0 +1,195 @@
+package io.logicforge.core.model.domain.specification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.engine.compile.CompilationProcessBuilder;
+import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.impl.SimpleExecutionQueue;
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EngineSpecSnapshotTest {
+
+  private final ClassLoader classLoader = getClass().getClassLoader();
+
+  @TempDir
+  Path directory;
+
+  private EngineSpecUtils.Functions functions;
+  private EngineSpec built;
+  private byte[] snapshot;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    functions = new EngineSpecUtils.Functions();
+    built = EngineSpecUtils.buildSpec(functions);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    EngineSpecSnapshot.write(built, out);
+    snapshot = out.toByteArray();
+  }
+
+  @Test
+  void testRead_restoresWrittenSpec() throws Exception {
+    final Path file = directory.resolve("spec.snapshot");
+    EngineSpecSnapshot.write(built, file);
+
+    final EngineSpec loaded = EngineSpecSnapshot.read(file, classLoader, functions).orElseThrow();
+
+    assertEquals(built.getProcesses(), loaded.getProcesses());
+    assertEquals(built.getTypes(), loaded.getTypes());
+    assertEquals(built.getActions(), loaded.getActions());
+    assertEquals(built.getFunctions(), loaded.getFunctions());
+    assertEquals(built.getConverters(), loaded.getConverters());
+    assertEquals(built.getControls(), loaded.getControls());
+    for (final String from : built.getTypes().keySet()) {
+      for (final String to : built.getTypes().keySet()) {
+        assertEquals(built.getTypeLattice().canCoerce(from, to), loaded.getTypeLattice()
+            .canCoerce(from, to), from + " -> " + to);
+      }
+    }
+  }
+
+  @Test
+  void testRead_restoresSpecThatBuildsWorkingProcesses() throws Exception {
+    final EngineSpec loaded = read(snapshot, classLoader).orElseThrow();
+    final SimpleExecutionQueue queue = new SimpleExecutionQueue(Executors.newFixedThreadPool(4));
+    try {
+      final CompilationProcessBuilder builder = new CompilationProcessBuilder(loaded,
+          new ProcessCompiler());
+      final EngineSpecUtils.TestProcess process = builder.buildProcess(EngineSpecUtils
+          .buildBasicProcessConfig("Hello, ", 3, "Hi, ", 7), queue);
+      final EngineSpecUtils.TestAsyncProcess asyncProcess = builder.buildProcess(EngineSpecUtils
+          .buildBasicProcessConfig(EngineSpecUtils.TestAsyncProcess.class, "Hello, ", 3, "Hi, ", 7),
+          queue);
+
+      assertEquals("The sum is 42", process.doTheThing("World!", 16));
+      assertEquals("The sum is 42", asyncProcess.doTheThingAsync("World!", 16)
+          .get(5, TimeUnit.SECONDS));
+      assertEquals(4, functions.recordedPairs.size());
+    } finally {
+      queue.shutdown(Duration.ofSeconds(1));
+    }
+  }
+
+  @Test
+  void testWrite_rewritesLoadedSpecIdentically() throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    EngineSpecSnapshot.write(read(snapshot, classLoader).orElseThrow(), out);
+
+    assertEquals(snapshot.length, out.size());
+  }
+
+  @Test
+  void testRead_ignoresSnapshotWhenRecordedClassChanges() throws Exception {
+    final ClassLoader changed = new ResourceOverridingClassLoader(classLoader,
+        EngineSpecUtils.Functions.class, new byte[] {(byte) 0xCA, (byte) 0xFE});
+
+    assertTrue(read(snapshot, changed).isEmpty());
+  }
+
+  @Test
+  void testRead_ignoresSnapshotWhenSpecBuilderChanges() throws Exception {
+    final ClassLoader changed = new ResourceOverridingClassLoader(classLoader,
+        EngineSpecBuilder.class, new byte[] {(byte) 0xCA, (byte) 0xFE});
+
+    assertTrue(read(snapshot, changed).isEmpty());
+  }
+
+  @Test
+  void testRead_ignoresSnapshotWhenRecordedClassIsRemoved() throws Exception {
+    final ClassLoader removed = new ResourceOverridingClassLoader(classLoader,
+        EngineSpecUtils.Functions.class, null);
+
+    assertTrue(read(snapshot, removed).isEmpty());
+  }
+
+  @Test
+  void testRead_ignoresSnapshotOfAnotherFormatVersion() throws Exception {
+    final byte[] tampered = snapshot.clone();
+    tampered[7]++;
+
+    assertTrue(read(tampered, classLoader).isEmpty());
+  }
+
+  @Test
+  void testRead_ignoresSnapshotWrittenByAnotherJavaVersion() throws Exception {
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(in.readInt());
+    out.writeInt(in.readInt());
+    out.writeUTF(in.readUTF() + "-other");
+    out.write(in.readAllBytes());
+
+    assertTrue(read(bytes.toByteArray(), classLoader).isEmpty());
+  }
+
+  @Test
+  void testRead_ignoresSnapshotWhenProvidersDiffer() throws Exception {
+    assertTrue(EngineSpecSnapshot.read(new ByteArrayInputStream(snapshot), classLoader).isEmpty());
+    assertTrue(EngineSpecSnapshot.read(new ByteArrayInputStream(snapshot), classLoader, functions,
+        new Object()).isEmpty());
+  }
+
+  @Test
+  void testRead_returnsEmptyForMissingFile() throws Exception {
+    assertTrue(EngineSpecSnapshot.read(directory.resolve("missing"), classLoader, functions)
+        .isEmpty());
+  }
+
+  @Test
+  void testRead_rejectsStreamThatIsNotSnapshot() throws Exception {
+    final Path file = directory.resolve("other");
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+
+    assertThrows(IOException.class, () -> EngineSpecSnapshot.read(file, classLoader, functions));
+  }
+
+  private Optional<EngineSpec> read(final byte[] bytes, final ClassLoader loader)
+      throws IOException {
+    return EngineSpecSnapshot.read(new ByteArrayInputStream(bytes), loader, functions);
+  }
+
+  /**
+   * Serves a replacement for the class file of the supplied class, as though the class had been
+   * recompiled or removed since the snapshot was written, while still loading the classes
+   * themselves from its parent
+   */
+  private static class ResourceOverridingClassLoader extends ClassLoader {
+
+    private final String classFilePath;
+    private final byte[] classFile;
+
+    private ResourceOverridingClassLoader(final ClassLoader parent, final Class<?> overridden,
+        final byte[] classFile) {
+      super(parent);
+      this.classFilePath = overridden.getName().replace('.', '/') + ".class";
+      this.classFile = classFile;
+    }
+
+    @Override
+    public InputStream getResourceAsStream(final String name) {
+      if (!classFilePath.equals(name)) {
+        return super.getResourceAsStream(name);
+      }
+      return classFile == null ? null : new ByteArrayInputStream(classFile);
+    }
+  }
+}
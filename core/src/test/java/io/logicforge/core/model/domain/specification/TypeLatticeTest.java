@@ -0,0 +1,138 @@
+package io.logicforge.core.model.domain.specification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.logicforge.core.engine.util.EngineSpecUtils;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Stack;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TypeLatticeTest {
+
+  private static final List<Class<?>> CLASSES = List.of(int.class, String.class,
+      StringBuilder.class, Integer.class, Long.class, Double.class, Thread.class, DayOfWeek.class,
+      ArrayList.class, LinkedList.class, ArrayDeque.class, TreeSet.class,
+      CopyOnWriteArrayList.class, IllegalArgumentException.class, NumberFormatException.class,
+      ArrayIndexOutOfBoundsException.class, NoSuchElementException.class,
+      ConcurrentModificationException.class, UncheckedIOException.class, IOException.class,
+      TimeoutException.class, HashMap.class, TreeMap.class, ConcurrentHashMap.class,
+      ConcurrentSkipListMap.class, PriorityQueue.class, Stack.class, BigDecimal.class,
+      BigInteger.class, AtomicLong.class, StringBuffer.class, TimeUnit.class, Month.class,
+      StackOverflowError.class);
+
+  @Test
+  void testIsAssignable_matchesClassHierarchy() {
+    final Map<Class<?>, String> typesByClass = withAncestors(CLASSES);
+    // enough types to span several words of each bitset
+    assertTrue(typesByClass.size() > 64, "only " + typesByClass.size() + " types");
+
+    final TypeLattice lattice = TypeLattice.of(typesByClass, List.of());
+
+    for (final Class<?> subtype : typesByClass.keySet()) {
+      for (final Class<?> supertype : typesByClass.keySet()) {
+        final boolean expected = supertype.isAssignableFrom(subtype) || supertype == Object.class
+            && !subtype.isPrimitive();
+        assertEquals(expected, lattice.isAssignable(subtype.getName(), supertype.getName()), subtype
+            + " to " + supertype);
+        assertEquals(expected, lattice.canCoerce(subtype.getName(), supertype.getName()));
+      }
+    }
+  }
+
+  @Test
+  void testCanCoerce_followsConvertersOnly() {
+    final TypeLattice lattice = TypeLattice.of(withAncestors(List.of(int.class, String.class)), List
+        .of(ConverterSpec.builder().inputType(int.class).outputType(String.class).build()));
+
+    assertTrue(lattice.canCoerce("int", String.class.getName()));
+    assertFalse(lattice.isAssignable("int", String.class.getName()));
+    assertFalse(lattice.canCoerce(String.class.getName(), "int"));
+    assertEquals(Set.of(String.class.getName()), lattice.supertypes("int"));
+  }
+
+  @Test
+  void testLookups_treatUnknownTypesAsUnrelated() {
+    final TypeLattice lattice = TypeLattice.of(withAncestors(List.of(String.class)), List.of());
+
+    assertEquals(-1, lattice.indexOf("unknown"));
+    assertFalse(lattice.isAssignable("unknown", Object.class.getName()));
+    assertFalse(lattice.canCoerce(String.class.getName(), "unknown"));
+    assertTrue(lattice.supertypes("unknown").isEmpty());
+  }
+
+  @Test
+  void testSupertypes_matchPairwiseScanOfEngineTypes() throws Exception {
+    final EngineSpec spec = EngineSpecUtils.buildSpec(new EngineSpecUtils.Functions());
+
+    for (final Map.Entry<String, TypeSpec> type : spec.getTypes().entrySet()) {
+      final Class<?> runtimeClass = type.getValue().getRuntimeClass();
+      final Set<String> expected = new HashSet<>();
+      spec.getTypes().forEach((id, other) -> {
+        if (!id.equals(type.getKey()) && other.getRuntimeClass().isAssignableFrom(runtimeClass)) {
+          expected.add(id);
+        }
+      });
+      for (final ConverterSpec converter : spec.getConverters()) {
+        if (converter.getInputType().equals(runtimeClass)) {
+          spec.getTypes().forEach((id, other) -> {
+            if (other.getRuntimeClass().equals(converter.getOutputType())) {
+              expected.add(id);
+            }
+          });
+        }
+      }
+      assertEquals(expected, type.getValue().getSupertypes(), type.getKey());
+    }
+  }
+
+  /**
+   * Maps the supplied classes and all of their superclasses and interfaces to their names
+   */
+  private static Map<Class<?>, String> withAncestors(final List<Class<?>> classes) {
+    final Map<Class<?>, String> typesByClass = new LinkedHashMap<>();
+    final Deque<Class<?>> toVisit = new ArrayDeque<>(classes);
+    toVisit.add(Object.class);
+    toVisit.add(Serializable.class);
+    toVisit.add(Collection.class);
+    while (!toVisit.isEmpty()) {
+      final Class<?> type = toVisit.poll();
+      if (typesByClass.putIfAbsent(type, type.getName()) == null) {
+        if (type.getSuperclass() != null) {
+          toVisit.add(type.getSuperclass());
+        }
+        toVisit.addAll(List.of(type.getInterfaces()));
+      }
+    }
+    return typesByClass;
+  }
+}
@@ -3,11 +3,18 @@ package io.logicforge.demo.config;
 import io.logicforge.core.builtin.BuiltinProviders;
 import io.logicforge.core.constant.ControlStatementType;
 import io.logicforge.core.engine.ExecutionQueue;
+import io.logicforge.core.engine.LogicForgeEngine;
 import io.logicforge.core.engine.LogicForgeOptions;
 import io.logicforge.core.engine.ProcessBuilder;
 import io.logicforge.core.engine.compile.CompilationProcessBuilder;
 import io.logicforge.core.engine.compile.ProcessCompiler;
-import io.logicforge.core.engine.impl.SimpleExecutionQueue;
+import io.logicforge.core.engine.impl.AdmissionControlledExecutionQueue;
+import io.logicforge.core.engine.impl.AdmissionControlledExecutionQueue.Limits;
+import io.logicforge.core.engine.impl.FairExecutionQueue;
+import io.logicforge.core.engine.impl.InlineExecutionQueue;
+import io.logicforge.core.engine.impl.InlineExecutionQueue.Condition;
+import io.logicforge.core.engine.impl.VirtualThreadExecutionQueue;
+import io.logicforge.core.engine.metrics.ExecutionMetrics;
 import io.logicforge.core.exception.EngineConfigurationException;
 import io.logicforge.core.model.domain.specification.EngineSpec;
 import io.logicforge.core.model.domain.specification.EngineSpecBuilder;
@@ -16,6 +23,7 @@ import io.logicforge.demo.operations.HttpOperations;
 import java.net.http.HttpClient;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
@@ -51,7 +59,7 @@ public class LogicForgeConfig {
   @Bean
   public LogicForgeOptions logicForgeOptions() {
     return new LogicForgeOptions(Duration.of(10, ChronoUnit.SECONDS), new HashMap<>(),
-        Duration.ZERO);
+        Duration.of(5, ChronoUnit.SECONDS), Duration.of(30, ChronoUnit.SECONDS));
   }
 
   @Bean
@@ -64,17 +72,39 @@ public class LogicForgeConfig {
     return new ProcessCompiler();
   }
 
+  @Bean
+  public ExecutionMetrics executionMetrics() {
+    return new ExecutionMetrics();
+  }
+
   @Bean
   public ProcessBuilder processBuilder(final EngineSpec engineSpec,
-      final ProcessCompiler processCompiler) {
-    return new CompilationProcessBuilder(engineSpec, processCompiler);
+      final ProcessCompiler processCompiler, final LogicForgeOptions logicForgeOptions,
+      final ExecutionMetrics executionMetrics) {
+    final CompilationProcessBuilder processBuilder = new CompilationProcessBuilder(engineSpec,
+        processCompiler, logicForgeOptions);
+    processBuilder.getListeners().add(executionMetrics);
+    return processBuilder;
+  }
+
+  @Bean
+  public LogicForgeEngine logicForgeEngine(final EngineSpec engineSpec,
+      final ProcessBuilder processBuilder, final ExecutionQueue executionQueue,
+      final LogicForgeOptions logicForgeOptions) {
+    return new LogicForgeEngine(engineSpec, processBuilder, executionQueue, logicForgeOptions);
   }
 
   @Bean
   public ExecutionQueue executionQueue() {
-    final ExecutorService executorService = new ThreadPoolExecutor(4, 8, 10, TimeUnit.SECONDS,
-        new ArrayBlockingQueue<>(100));
-    return new SimpleExecutionQueue(executorService);
+    // actions are I/O-bound, so virtual threads let far more of them be in flight than a pool.
+    // Cheap actions, and the last action a process waits on, run on the calling thread instead.
+    // Capacity is shared fairly between processes, so one process fanning out can't starve the rest
+    final ExecutionQueue actionQueue = new InlineExecutionQueue(new FairExecutionQueue(
+        new VirtualThreadExecutionQueue(256, Duration.of(20, ChronoUnit.MILLIS)), 256)
+        .withDefaultQuota(64), EnumSet.of(Condition.CHEAP, Condition.AWAITED));
+    // under overload, executions wait briefly for admission and are then rejected before starting
+    return new AdmissionControlledExecutionQueue(actionQueue, new Limits(128, 32, 256, Duration.of(
+        250, ChronoUnit.MILLIS)));
   }
 
 }
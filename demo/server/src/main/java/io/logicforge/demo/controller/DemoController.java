@@ -1,5 +1,8 @@
 package io.logicforge.demo.controller;
 
+import io.logicforge.core.engine.metrics.ExecutionMetrics;
+import io.logicforge.core.engine.metrics.OperationMetrics;
+import io.logicforge.core.exception.ExecutionRejectedException;
 import io.logicforge.core.exception.ProcessConstructionException;
 import io.logicforge.core.model.domain.config.ProcessConfig;
 import io.logicforge.core.model.dto.config.ProcessConfigDTO;
@@ -11,8 +14,10 @@ import io.logicforge.demo.model.domain.HttpResponse;
 import io.logicforge.demo.model.domain.WebServerProcess;
 import io.logicforge.demo.service.LogicForgeService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -31,11 +36,28 @@ public class DemoController {
 
   private final CustomDTOMapper mapper;
   private final LogicForgeService service;
+  private final ExecutionMetrics metrics;
+
+  /**
+   * A summary of an operation's metrics, with latencies in milliseconds
+   */
+  public record MetricsSummary(long calls, long errors, Map<String, Long> errorsByType,
+                               double mean, double p50, double p99, double max) {
+
+    private static MetricsSummary of(final OperationMetrics.Snapshot snapshot) {
+      final var latency = snapshot.latency();
+      return new MetricsSummary(snapshot.calls(), snapshot.errors(), snapshot.errorsByType(),
+          latency.meanNanos() / 1e6, latency.percentileNanos(0.5) / 1e6, latency.percentileNanos(
+              0.99) / 1e6, latency.maxNanos() / 1e6);
+    }
+  }
 
   @Autowired
-  public DemoController(final CustomDTOMapper mapper, final LogicForgeService service) {
+  public DemoController(final CustomDTOMapper mapper, final LogicForgeService service,
+      final ExecutionMetrics metrics) {
     this.mapper = mapper;
     this.service = service;
+    this.metrics = metrics;
   }
 
   @GetMapping(value = "/engine/spec", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -43,6 +65,14 @@ public class DemoController {
     return mapper.externalSpec();
   }
 
+  @GetMapping(value = "/engine/metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Map<String, Map<String, MetricsSummary>> getMetrics() {
+    final ExecutionMetrics.Snapshot snapshot = metrics.snapshot();
+    return Map.of("processes", summarize(snapshot.processes()), "actions", summarize(snapshot
+        .actions()), "asyncActions", summarize(snapshot.asyncActions()), "functions", summarize(
+            snapshot.functions()));
+  }
+
   @GetMapping(value = "/process/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public ProcessConfigDTO getProcess(@PathVariable
   final UUID id) {
@@ -78,6 +108,16 @@ public class DemoController {
       return ResponseEntity.status(internalResponse.getStatus()).body(internalResponse.getBody());
     } catch (ProcessConstructionException e) {
       return ResponseEntity.internalServerError().body(e.getMessage());
+    } catch (ExecutionRejectedException e) {
+      // the process was never started, so the client can safely retry
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
     }
   }
+
+  private static Map<String, MetricsSummary> summarize(
+      final Map<String, OperationMetrics.Snapshot> snapshots) {
+    return snapshots.entrySet()
+        .stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> MetricsSummary.of(entry.getValue())));
+  }
 }
@@ -131,8 +131,10 @@ public class DocumentMapper {
   }
 
   private ReferenceConfigDocument referenceInternal(final ReferenceConfig external) {
+    final Coordinates coordinates = external.getCoordinates();
     return ReferenceConfigDocument.builder()
-        .coordinates(external.getCoordinates().asArray())
+        .coordinates(coordinates.isPackable() ? null : coordinates.asArray())
+        .packedCoordinates(coordinates.isPackable() ? coordinates.pack() : null)
         .path(external.getPath().toArray(new String[0]))
         .build();
   }
@@ -244,11 +246,28 @@ public class DocumentMapper {
 
   private ReferenceConfig referenceExternal(final ReferenceConfigDocument internal) {
     return ReferenceConfig.builder()
-        .coordinates(Coordinates.from(internal.getCoordinates()))
+        .coordinates(referenceCoordinates(internal.getCoordinates(), internal
+            .getPackedCoordinates()))
         .path(Arrays.asList(internal.getPath()))
         .build();
   }
 
+  /**
+   * Returns a reference's coordinates, which are stored either as an index array or packed
+   *
+   * @throws IllegalArgumentException if the reference has neither
+   */
+  private static Coordinates referenceCoordinates(final int[] coordinates, final Long packed) {
+    if (coordinates != null) {
+      return Coordinates.from(coordinates);
+    }
+    if (packed == null) {
+      throw new IllegalArgumentException(
+          "Reference has neither coordinates nor packedCoordinates");
+    }
+    return Coordinates.unpack(packed);
+  }
+
   private ValueConfig valueExternal(final ValueConfigDocument internal) {
     final String matchingType = engineSpec.getTypes()
         .keySet()
@@ -11,6 +11,9 @@ import lombok.ToString;
 @ToString
 public class ReferenceConfigDocument extends ExpressionConfigDocument {
 
+  // documents hold their coordinates packed where possible, with the array as a fallback for
+  // coordinates too deep to pack
   private int[] coordinates;
+  private Long packedCoordinates;
   private String[] path;
 }
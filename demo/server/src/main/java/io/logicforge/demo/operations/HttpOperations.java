@@ -2,6 +2,7 @@ package io.logicforge.demo.operations;
 
 import io.logicforge.core.annotations.elements.Action;
 import io.logicforge.core.annotations.elements.Function;
+import io.logicforge.core.engine.Deadline;
 import io.logicforge.demo.model.domain.HttpMethod;
 import io.logicforge.demo.model.domain.HttpRequest;
 import io.logicforge.demo.model.domain.HttpResponse;
@@ -11,6 +12,7 @@ import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
@@ -35,10 +37,15 @@ public class HttpOperations {
   public Future<HttpResponse> sendHttpRequest(final HttpRequest request) throws URISyntaxException,
       IOException, InterruptedException {
 
-    final java.net.http.HttpRequest httpRequest = java.net.http.HttpRequest.newBuilder()
+    final java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder()
         .uri(new URI(request.getUri()))
-        .method(request.getMethod().toString(), BodyPublishers.noBody())
-        .build();
+        .method(request.getMethod().toString(), BodyPublishers.noBody());
+    // bound the request by whatever remains of the executing process's time budget
+    final Duration remaining = Deadline.current().remaining();
+    if (remaining != null) {
+      builder.timeout(remaining.isZero() ? Duration.ofMillis(1) : remaining);
+    }
+    final java.net.http.HttpRequest httpRequest = builder.build();
     final CompletableFuture<java.net.http.HttpResponse<String>> asyncResponse = httpClient
         .sendAsync(httpRequest, BodyHandlers.ofString());
 
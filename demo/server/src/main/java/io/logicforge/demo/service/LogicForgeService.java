@@ -2,8 +2,7 @@ package io.logicforge.demo.service;
 
 import io.logicforge.core.engine.ExecutionQueue;
 import io.logicforge.core.engine.Process;
-import io.logicforge.core.engine.compile.CompilationProcessBuilder;
-import io.logicforge.core.engine.compile.ProcessCompiler;
+import io.logicforge.core.engine.ProcessBuilder;
 import io.logicforge.core.exception.ProcessConstructionException;
 import io.logicforge.core.model.domain.config.ProcessConfig;
 import io.logicforge.core.model.domain.specification.EngineSpec;
@@ -24,16 +23,16 @@ public class LogicForgeService {
 
   @Getter
   private final EngineSpec engineSpec;
-  private final CompilationProcessBuilder builder;
+  private final ProcessBuilder builder;
   private final ProcessConfigDAO processConfigDAO;
   private final ExecutionQueue executionQueue;
 
   @Autowired
-  public LogicForgeService(final EngineSpec engineSpec, final ProcessCompiler compiler,
+  public LogicForgeService(final EngineSpec engineSpec, final ProcessBuilder builder,
       final ProcessConfigDAO processConfigDAO, ExecutionQueue executionQueue) {
     this.engineSpec = engineSpec;
     this.executionQueue = executionQueue;
-    this.builder = new CompilationProcessBuilder(engineSpec, compiler);
+    this.builder = builder;
     this.processConfigDAO = processConfigDAO;
   }
 
@@ -0,0 +1,296 @@
+package io.logicforge.processor;
+
+import io.logicforge.core.annotations.elements.Action;
+import io.logicforge.core.annotations.elements.CompoundType;
+import io.logicforge.core.annotations.elements.Converter;
+import io.logicforge.core.annotations.elements.Function;
+import io.logicforge.core.annotations.elements.Property;
+import io.logicforge.core.annotations.metadata.Name;
+import io.logicforge.core.constant.EngineMethodType;
+import io.logicforge.core.model.domain.specification.ProviderRegistry;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@link ProviderRegistry} for each class declaring {@link Action}, {@link Function}
+ * or {@link Converter} methods, so that the engine can register the class's methods and the
+ * compound types they use without scanning them by reflection at startup.
+ *
+ * <p>
+ * The processor applies the same rules as
+ * {@link io.logicforge.core.model.domain.specification.EngineSpecBuilder} does when scanning, and
+ * reports violations it can detect at compile time, such as methods with several engine method
+ * annotations or compound type properties without getters, as compilation errors.
+ * </p>
+ */
+@SupportedAnnotationTypes({"io.logicforge.core.annotations.elements.Action",
+    "io.logicforge.core.annotations.elements.Function",
+    "io.logicforge.core.annotations.elements.Converter"})
+public class ProviderRegistryProcessor extends AbstractProcessor {
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations,
+      final RoundEnvironment roundEnv) {
+    final Set<TypeElement> providers = new LinkedHashSet<>();
+    for (final TypeElement annotation : annotations) {
+      for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        if (element.getKind() == ElementKind.METHOD && element
+            .getEnclosingElement() instanceof TypeElement provider) {
+          providers.add(provider);
+        }
+      }
+    }
+    for (final TypeElement provider : providers) {
+      if (provider.getKind() != ElementKind.CLASS || provider.getModifiers()
+          .contains(Modifier.PRIVATE) || provider.getNestingKind().isNested() && !provider
+              .getModifiers()
+              .contains(Modifier.STATIC)) {
+        // the engine can't instantiate or reference such providers, so they are left to scanning
+        continue;
+      }
+      try {
+        writeRegistry(provider);
+      } catch (final IOException e) {
+        processingEnv.getMessager()
+            .printMessage(Diagnostic.Kind.ERROR, "Failed to write provider registry: " + e
+                .getMessage(), provider);
+      }
+    }
+    // other processors may also handle these annotations
+    return false;
+  }
+
+  private void writeRegistry(final TypeElement provider) throws IOException {
+    final List<String> methods = new ArrayList<>();
+    final Map<TypeElement, List<String>> compoundTypes = new LinkedHashMap<>();
+    for (final ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils()
+        .getAllMembers(provider))) {
+      final EngineMethodType type = analyzeMethod(method);
+      if (type == null || !method.getModifiers().contains(Modifier.PUBLIC)) {
+        continue;
+      }
+      final String parameterTypes = method.getParameters()
+          .stream()
+          .map(parameter -> classLiteral(parameter.asType()))
+          .collect(Collectors.joining(", "));
+      methods.add("new ProviderMethod(EngineMethodType.%s, %s, new Class<?>[] {%s}, %s)".formatted(
+          type.name(), stringLiteral(method.getSimpleName().toString()), parameterTypes, method
+              .getModifiers()
+              .contains(Modifier.STATIC)));
+      collectCompoundType(method.getReturnType(), true, compoundTypes);
+      for (final VariableElement parameter : method.getParameters()) {
+        collectCompoundType(parameter.asType(), false, compoundTypes);
+      }
+    }
+
+    final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(provider);
+    final String packageName = packageElement.isUnnamed()
+        ? ""
+        : packageElement.getQualifiedName().toString();
+    final String registryName = processingEnv.getElementUtils()
+        .getBinaryName(provider)
+        .toString()
+        .replace('$', '_') + ProviderRegistry.SUFFIX;
+    final String simpleName = packageName.isEmpty()
+        ? registryName
+        : registryName.substring(packageName.length() + 1);
+
+    final StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+    source.append(
+        """
+            import io.logicforge.core.constant.EngineMethodType;
+            import io.logicforge.core.model.domain.specification.ProviderRegistry;
+            import java.util.List;
+            import java.util.Map;
+            import javax.annotation.processing.Generated;
+
+            @Generated("%s")
+            public final class %s implements ProviderRegistry {
+
+              private static final List<ProviderMethod> METHODS = List.of(%s);
+
+              private static final Map<Class<?>, List<CompoundProperty>> COMPOUND_TYPES = Map.ofEntries(%s);
+
+              @Override
+              public Class<?> getProviderClass() {
+                return %s.class;
+              }
+
+              @Override
+              public List<ProviderMethod> getMethods() {
+                return METHODS;
+              }
+
+              @Override
+              public Map<Class<?>, List<CompoundProperty>> getCompoundTypes() {
+                return COMPOUND_TYPES;
+              }
+            }
+            """
+            .formatted(getClass().getName(), simpleName, listContents(methods), listContents(
+                compoundTypes.entrySet()
+                    .stream()
+                    .map(entry -> "Map.entry(%s.class, List.of(%s))".formatted(entry.getKey()
+                        .getQualifiedName(), listContents(entry.getValue())))
+                    .toList()), provider.getQualifiedName()));
+
+    try (final Writer writer = processingEnv.getFiler()
+        .createSourceFile(registryName, provider)
+        .openWriter()) {
+      writer.write(source.toString());
+    }
+  }
+
+  /**
+   * Returns the method's engine method type, or null if it has none
+   */
+  private EngineMethodType analyzeMethod(final ExecutableElement method) {
+    final List<EngineMethodType> annotatedTypes = new ArrayList<>();
+    for (final EngineMethodType type : EngineMethodType.values()) {
+      if (method.getAnnotation(type.getAnnotationType()) != null) {
+        annotatedTypes.add(type);
+      }
+    }
+    if (annotatedTypes.size() > 1) {
+      processingEnv.getMessager()
+          .printMessage(Diagnostic.Kind.ERROR,
+              "Method has multiple annotations where only one is permitted: " + annotatedTypes,
+              method);
+      return null;
+    }
+    return annotatedTypes.isEmpty() ? null : annotatedTypes.getFirst();
+  }
+
+  /**
+   * Records the properties of the type if it is a compound type. Arrays are decomposed into their
+   * component types, and futures returned by async methods into the types they complete with.
+   */
+  private void collectCompoundType(final TypeMirror type, final boolean returnType,
+      final Map<TypeElement, List<String>> compoundTypes) {
+    TypeMirror singularType = type;
+    if (returnType && type instanceof DeclaredType declaredType && !declaredType.getTypeArguments()
+        .isEmpty() && isFuture(declaredType)) {
+      singularType = declaredType.getTypeArguments().getFirst();
+    }
+    if (singularType instanceof ArrayType arrayType) {
+      singularType = arrayType.getComponentType();
+    }
+    if (!(singularType instanceof DeclaredType declaredType) || !(declaredType
+        .asElement() instanceof TypeElement typeElement) || typeElement.getAnnotation(
+            CompoundType.class) == null || compoundTypes.containsKey(typeElement)) {
+      return;
+    }
+    final List<String> properties = new ArrayList<>();
+    for (final VariableElement field : ElementFilter.fieldsIn(typeElement.getEnclosedElements())) {
+      final Property property = field.getAnnotation(Property.class);
+      if (property == null) {
+        continue;
+      }
+      final Name nameAnnotation = field.getAnnotation(Name.class);
+      final String name = nameAnnotation != null
+          ? nameAnnotation.value()
+          : field.getSimpleName().toString();
+      final TypeMirror declaredFieldType = field.asType();
+      final boolean multi = declaredFieldType.getKind() == TypeKind.ARRAY;
+      final TypeMirror fieldType = multi
+          ? ((ArrayType) declaredFieldType).getComponentType()
+          : declaredFieldType;
+      final String getterName = findGetter(typeElement, name, declaredFieldType);
+      if (getterName == null) {
+        processingEnv.getMessager()
+            .printMessage(Diagnostic.Kind.ERROR,
+                "CompoundType property %s has no getter. Valid getters must be public, accept no arguments, and be named with the format \"get%s\" or (for boolean values) \"is%s\"."
+                    .formatted(name, beanName(name), beanName(name)), field);
+        continue;
+      }
+      properties.add("new CompoundProperty(%s, %s, %s, %s, %s)".formatted(stringLiteral(name),
+          classLiteral(fieldType), multi, property.optional(), stringLiteral(getterName)));
+    }
+    compoundTypes.put(typeElement, properties);
+  }
+
+  /**
+   * Finds the property's getter as the engine does: boolean properties use their "is" getter, and
+   * all others their "get" getter
+   */
+  private String findGetter(final TypeElement type, final String name, final TypeMirror fieldType) {
+    final boolean propertyIsBoolean = fieldType.getKind() == TypeKind.BOOLEAN || fieldType
+        .toString()
+        .equals(Boolean.class.getName());
+    final String getterName = (propertyIsBoolean ? "is" : "get") + beanName(name);
+    for (final ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils()
+        .getAllMembers(type))) {
+      if (method.getSimpleName().contentEquals(getterName) && method.getParameters().isEmpty()
+          && method.getModifiers().contains(Modifier.PUBLIC)) {
+        return getterName;
+      }
+    }
+    return null;
+  }
+
+  private boolean isFuture(final DeclaredType type) {
+    final TypeMirror future = processingEnv.getTypeUtils()
+        .erasure(processingEnv.getElementUtils().getTypeElement(Future.class.getName()).asType());
+    return processingEnv.getTypeUtils()
+        .isAssignable(processingEnv.getTypeUtils().erasure(type), future);
+  }
+
+  /**
+   * Returns a class literal for the erasure of the type
+   */
+  private String classLiteral(final TypeMirror type) {
+    final TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+    return switch (erased.getKind()) {
+      case ARRAY -> classLiteral(((ArrayType) erased).getComponentType()).replaceFirst("\\.class$",
+          "[].class");
+      case DECLARED -> ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName()
+          + ".class";
+      default -> erased.getKind().name().toLowerCase() + ".class";
+    };
+  }
+
+  private static String beanName(final String name) {
+    return name.substring(0, 1).toUpperCase() + name.substring(1);
+  }
+
+  private static String listContents(final List<String> entries) {
+    return entries.isEmpty() ? "" : "\n      " + String.join(",\n      ", entries);
+  }
+
+  private static String stringLiteral(final String value) {
+    return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+}
@@ -0,0 +1,234 @@
+package io.logicforge.processor;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.logicforge.core.model.domain.specification.EngineSpec;
+import io.logicforge.core.model.domain.specification.EngineSpecBuilder;
+import io.logicforge.core.model.domain.specification.ProviderRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.jupiter.api.Test;
+
+class ProviderRegistryProcessorTest {
+
+  private static final String PROVIDER = "sample.SampleProvider";
+  private static final String REGISTRY = PROVIDER + "_LogicForgeRegistry";
+
+  private static final JavaFileObject REQUEST_SOURCE = JavaFileObjects.forSourceString(
+      "sample.Request", """
+          package sample;
+
+          import io.logicforge.core.annotations.elements.CompoundType;
+          import io.logicforge.core.annotations.elements.Property;
+
+          @CompoundType
+          public class Request {
+
+            @Property
+            private final String uri;
+
+            @Property(optional = true)
+            private final String[] headers;
+
+            public Request(final String uri, final String[] headers) {
+              this.uri = uri;
+              this.headers = headers;
+            }
+
+            public String getUri() {
+              return uri;
+            }
+
+            public String[] getHeaders() {
+              return headers;
+            }
+          }
+          """);
+
+  private static final JavaFileObject PROVIDER_SOURCE = JavaFileObjects.forSourceString(PROVIDER,
+      """
+          package sample;
+
+          import io.logicforge.core.annotations.elements.Action;
+          import io.logicforge.core.annotations.elements.Converter;
+          import io.logicforge.core.annotations.elements.Function;
+          import io.logicforge.core.annotations.metadata.Cacheable;
+          import io.logicforge.core.annotations.metadata.Name;
+          import java.util.concurrent.CompletableFuture;
+          import java.util.concurrent.Future;
+
+          public class SampleProvider {
+
+            @Action
+            public Future<String> send(@Name("Request") final Request request) {
+              return CompletableFuture.completedFuture(request.getUri());
+            }
+
+            @Function
+            public Request request(final String uri, final String[] headers) {
+              return new Request(uri, headers);
+            }
+
+            @Function
+            @Cacheable(maxSize = 10)
+            public int add(final int a, final int b) {
+              return a + b;
+            }
+
+            @Function
+            public static String upper(final String value) {
+              return value.toUpperCase();
+            }
+
+            @Converter
+            public String integerToString(final int value) {
+              return Integer.toString(value);
+            }
+
+            public int helper(final int value) {
+              return value;
+            }
+
+            @Override
+            public String toString() {
+              return "SampleProvider";
+            }
+          }
+          """);
+
+  @Test
+  void testProcess_generatesRegistryForProvider() {
+    final Compilation compilation = compile();
+
+    assertTrue(compilation.generatedSourceFile(REGISTRY).isPresent());
+    final ProviderRegistry registry = (ProviderRegistry) newInstance(compilation, REGISTRY,
+        name -> true);
+    assertEquals(5, registry.getMethods().size());
+  }
+
+  @Test
+  void testEngineSpecBuilder_buildsSameSpecWithAndWithoutRegistry() throws Exception {
+    final Compilation compilation = compile();
+
+    final EngineSpec registered = buildSpec(newInstance(compilation, PROVIDER, name -> true));
+    final EngineSpec scanned = buildSpec(newInstance(compilation, PROVIDER, name -> !name.equals(
+        REGISTRY)));
+
+    assertEquals(describe(scanned), describe(registered));
+    assertTrue(registered.getTypes().containsKey("sample.Request"));
+    assertTrue(registered.getFunctions().containsKey("add"));
+  }
+
+  @Test
+  void testProcess_reportsMethodsWithSeveralEngineAnnotations() {
+    final JavaFileObject invalid = JavaFileObjects.forSourceString("sample.InvalidProvider", """
+        package sample;
+
+        import io.logicforge.core.annotations.elements.Action;
+        import io.logicforge.core.annotations.elements.Function;
+
+        public class InvalidProvider {
+
+          @Action
+          @Function
+          public int both(final int value) {
+            return value;
+          }
+        }
+        """);
+
+    final Compilation compilation = javac().withProcessors(new ProviderRegistryProcessor())
+        .compile(invalid);
+
+    assertEquals(Compilation.Status.FAILURE, compilation.status());
+    assertFalse(compilation.errors().isEmpty());
+  }
+
+  private static Compilation compile() {
+    final Compilation compilation = javac().withProcessors(new ProviderRegistryProcessor())
+        .compile(REQUEST_SOURCE, PROVIDER_SOURCE);
+    assertEquals(Compilation.Status.SUCCESS, compilation.status(), () -> compilation.diagnostics()
+        .stream()
+        .map(Diagnostic::toString)
+        .collect(Collectors.joining("\n")));
+    return compilation;
+  }
+
+  private static EngineSpec buildSpec(final Object provider) throws Exception {
+    return new EngineSpecBuilder().withProviderInstance(provider, true).build();
+  }
+
+  /**
+   * Describes a spec's callables, types and converters, which refer to the compiled classes by
+   * name, so that specs built from different class loaders can be compared
+   */
+  private static Map<String, String> describe(final EngineSpec spec) {
+    final Map<String, String> description = new TreeMap<>();
+    spec.getActions()
+        .forEach((name, action) -> description.put("action " + name, action.toString()));
+    spec.getFunctions()
+        .forEach((name, function) -> description.put("function " + name, function.toString()));
+    spec.getTypes().forEach((id, type) -> description.put("type " + id, type.toString()));
+    spec.getConverters()
+        .forEach(converter -> description.put("converter " + converter.getMethod().getName(),
+            converter.toString()));
+    return description;
+  }
+
+  /**
+   * Loads the named compiled class in a fresh class loader, which sees only the compiled classes
+   * accepted by the filter, and returns a new instance of it
+   */
+  private static Object newInstance(final Compilation compilation, final String className,
+      final Predicate<String> visible) {
+    try {
+      return new CompiledClassLoader(compilation, visible).loadClass(className)
+          .getConstructor()
+          .newInstance();
+    } catch (final ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static class CompiledClassLoader extends ClassLoader {
+
+    private final Compilation compilation;
+    private final Predicate<String> visible;
+
+    private CompiledClassLoader(final Compilation compilation, final Predicate<String> visible) {
+      super(ProviderRegistryProcessorTest.class.getClassLoader());
+      this.compilation = compilation;
+      this.visible = visible;
+    }
+
+    @Override
+    protected Class<?> findClass(final String name) throws ClassNotFoundException {
+      final Optional<JavaFileObject> file = visible.test(name)
+          ? compilation.generatedFile(StandardLocation.CLASS_OUTPUT, name.replace('.', '/')
+              + ".class")
+          : Optional.empty();
+      if (file.isEmpty()) {
+        throw new ClassNotFoundException(name);
+      }
+      try (InputStream in = file.get().openInputStream()) {
+        final byte[] bytes = in.readAllBytes();
+        return defineClass(name, bytes, 0, bytes.length);
+      } catch (final IOException e) {
+        throw new ClassNotFoundException(name, e);
+      }
+    }
+  }
+}